@@ -0,0 +1,59 @@
+package de.tum.in.www1.artemis.service.compass;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import de.tum.in.www1.artemis.domain.enumeration.DiagramType;
+import de.tum.in.www1.artemis.domain.modeling.ModelingSubmission;
+
+/**
+ * Measures the time to build the calculation engine of a modeling exercise from its submissions, i.e. parsing the models, analyzing their similarity and assessing them
+ * automatically, from scratch and from a snapshot of the engine. Run it with "./gradlew jmh -Pjmh=CompassCalculationEngineBenchmark".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CompassCalculationEngineBenchmark {
+
+    /**
+     * The share of the submissions that have been assessed manually
+     */
+    private static final double ASSESSED_SHARE = 0.1;
+
+    @Param({ "ClassDiagram", "ActivityDiagram" })
+    private DiagramType diagramType;
+
+    @Param({ "100", "500" })
+    private int models;
+
+    @Param({ "10", "30" })
+    private int elements;
+
+    @Param({ "0.5", "0.9" })
+    private double similarity;
+
+    private Set<ModelingSubmission> submissions;
+
+    private CompassSnapshot snapshot;
+
+    @Setup
+    public void createSubmissions() throws IOException {
+        submissions = SyntheticModelGenerator.createSubmissions(new SyntheticModelGenerator(42, elements, similarity).generateModels(diagramType, models), ASSESSED_SHARE);
+        snapshot = new CompassCalculationEngine(submissions).createSnapshot();
+    }
+
+    @Benchmark
+    public CalculationEngine buildEngine() {
+        return new CompassCalculationEngine(submissions);
+    }
+
+    @Benchmark
+    public CalculationEngine buildEngineFromSnapshot() {
+        return new CompassCalculationEngine(submissions, snapshot);
+    }
+}
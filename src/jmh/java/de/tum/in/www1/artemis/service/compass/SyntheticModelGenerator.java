@@ -0,0 +1,272 @@
+package de.tum.in.www1.artemis.service.compass;
+
+import java.io.IOException;
+import java.time.ZonedDateTime;
+import java.util.*;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import de.tum.in.www1.artemis.domain.Feedback;
+import de.tum.in.www1.artemis.domain.Result;
+import de.tum.in.www1.artemis.domain.enumeration.AssessmentType;
+import de.tum.in.www1.artemis.domain.enumeration.DiagramType;
+import de.tum.in.www1.artemis.domain.modeling.ModelingSubmission;
+import de.tum.in.www1.artemis.service.compass.controller.JSONStreamParser;
+import de.tum.in.www1.artemis.service.compass.umlmodel.UMLDiagram;
+import de.tum.in.www1.artemis.service.compass.umlmodel.UMLElement;
+import de.tum.in.www1.artemis.service.compass.umlmodel.activitydiagram.UMLActivity;
+import de.tum.in.www1.artemis.service.compass.umlmodel.activitydiagram.UMLControlFlow;
+import de.tum.in.www1.artemis.service.compass.umlmodel.classdiagram.UMLAttribute;
+import de.tum.in.www1.artemis.service.compass.umlmodel.classdiagram.UMLMethod;
+
+/**
+ * Generates synthetic class and activity diagrams in the JSON format of Apollon for the benchmarks. All models of a generator are variations of the same reference solution:
+ * every class, attribute, method and activity node of a model is taken from the reference solution with the given similarity. Otherwise, it is a variant of the reference
+ * element with a typo or an unrelated element with a random name. The models are reproducible, as the generator is seeded.
+ */
+public class SyntheticModelGenerator {
+
+    private static final String[] WORDS = { "Customer", "Order", "Product", "Invoice", "Address", "Payment", "Account", "Shipment", "Category", "Review", "Supplier", "Warehouse",
+            "Employee", "Department", "Project", "Task", "Course", "Lecture", "Student", "Exam", "Room", "Booking", "Flight", "Passenger", "Ticket", "Vehicle", "Driver", "Route" };
+
+    private static final String[] TYPES = { "String", "int", "double", "boolean", "Date", "List" };
+
+    private static final String[] CLASS_TYPES = { "Class", "Class", "Class", "AbstractClass", "Interface", "Enumeration" };
+
+    private static final String[] RELATIONSHIP_TYPES = { "ClassBidirectional", "ClassUnidirectional", "ClassInheritance", "ClassRealization", "ClassDependency",
+            "ClassAggregation", "ClassComposition" };
+
+    private static final String[] VERBS = { "Check", "Create", "Send", "Receive", "Validate", "Approve", "Reject", "Archive", "Calculate", "Notify" };
+
+    private final Random random;
+
+    private final int size;
+
+    private final double similarity;
+
+    /**
+     * @param seed       the seed of the random generator, the same seed results in the same models
+     * @param size       the number of classes of a class diagram or the number of action nodes of an activity diagram
+     * @param similarity the probability [0-1] that an element of a model is taken from the reference solution without changes
+     */
+    public SyntheticModelGenerator(long seed, int size, double similarity) {
+        this.random = new Random(seed);
+        this.size = size;
+        this.similarity = similarity;
+    }
+
+    /**
+     * Generate the given number of models of the given diagram type
+     *
+     * @param diagramType    the type of the models, either ClassDiagram or ActivityDiagram
+     * @param numberOfModels the number of models
+     * @return the models in the JSON format of Apollon
+     */
+    public List<String> generateModels(DiagramType diagramType, int numberOfModels) {
+        List<String> models = new ArrayList<>();
+        for (int i = 0; i < numberOfModels; i++) {
+            switch (diagramType) {
+                case ClassDiagram:
+                    models.add(generateClassDiagram());
+                    break;
+                case ActivityDiagram:
+                    models.add(generateActivityDiagram());
+                    break;
+                default:
+                    throw new IllegalArgumentException("Synthetic models of the diagram type " + diagramType + " are not supported");
+            }
+        }
+        return models;
+    }
+
+    /**
+     * @return a class diagram with classes (including attributes and methods) and relationships between them
+     */
+    public String generateClassDiagram() {
+        JsonArray elements = new JsonArray();
+        JsonArray relationships = new JsonArray();
+        List<String> classIds = new ArrayList<>();
+
+        for (int i = 0; i < size; i++) {
+            String className = vary(referenceName(i));
+            JsonObject umlClass = element(CLASS_TYPES[i % CLASS_TYPES.length], className, null);
+            JsonArray attributes = new JsonArray();
+            JsonArray methods = new JsonArray();
+            elements.add(umlClass);
+
+            // the reference solution has 1-4 attributes and 1-3 methods per class
+            for (int j = 0; j <= i % 4; j++) {
+                String attributeName = vary(WORDS[(i + j + 1) % WORDS.length].toLowerCase()) + ": " + TYPES[(i + j) % TYPES.length];
+                JsonObject attribute = element(UMLAttribute.UML_ATTRIBUTE_TYPE, attributeName, umlClass);
+                attributes.add(attribute.get("id"));
+                elements.add(attribute);
+            }
+            for (int j = 0; j <= i % 3; j++) {
+                String methodName = vary(VERBS[(i + j) % VERBS.length].toLowerCase() + WORDS[i % WORDS.length]) + "(): " + TYPES[(i + j) % TYPES.length];
+                JsonObject method = element(UMLMethod.UML_METHOD_TYPE, methodName, umlClass);
+                methods.add(method.get("id"));
+                elements.add(method);
+            }
+            umlClass.add("attributes", attributes);
+            umlClass.add("methods", methods);
+            classIds.add(umlClass.get("id").getAsString());
+        }
+
+        // the reference solution connects every class with the previous one
+        for (int i = 1; i < classIds.size(); i++) {
+            String relationshipType = random.nextDouble() < similarity ? RELATIONSHIP_TYPES[i % RELATIONSHIP_TYPES.length] : randomOf(RELATIONSHIP_TYPES);
+            String source = random.nextDouble() < similarity ? classIds.get(i - 1) : classIds.get(random.nextInt(classIds.size()));
+            relationships.add(relationship(relationshipType, source, classIds.get(i)));
+        }
+
+        return diagram(DiagramType.ClassDiagram, elements, relationships);
+    }
+
+    /**
+     * @return an activity diagram with an activity that contains a sequence of action nodes from an initial node to a final node, which is split by decision and merge nodes
+     */
+    public String generateActivityDiagram() {
+        JsonArray elements = new JsonArray();
+        JsonArray relationships = new JsonArray();
+
+        JsonObject activity = element(UMLActivity.UML_ACTIVITY_TYPE, vary("Process" + WORDS[0]), null);
+        elements.add(activity);
+        JsonObject previousNode = element("ActivityInitialNode", "", activity);
+        elements.add(previousNode);
+
+        for (int i = 0; i < size; i++) {
+            JsonObject node;
+            // the reference solution contains a decision after every fifth action and a merge after the next one
+            if (i % 5 == 4) {
+                node = element("ActivityDecisionNode", vary(WORDS[i % WORDS.length] + " valid?"), activity);
+            }
+            else if (i % 5 == 0 && i > 0) {
+                node = element("ActivityMergeNode", "", activity);
+            }
+            else {
+                node = element(random.nextDouble() < 0.9 ? "ActivityActionNode" : "ActivityObjectNode", vary(VERBS[i % VERBS.length] + " " + WORDS[i % WORDS.length]), activity);
+            }
+            elements.add(node);
+            relationships.add(relationship(UMLControlFlow.UML_CONTROL_FLOW_TYPE, previousNode.get("id").getAsString(), node.get("id").getAsString()));
+            previousNode = node;
+        }
+
+        JsonObject finalNode = element("ActivityFinalNode", "", activity);
+        elements.add(finalNode);
+        relationships.add(relationship(UMLControlFlow.UML_CONTROL_FLOW_TYPE, previousNode.get("id").getAsString(), finalNode.get("id").getAsString()));
+
+        return diagram(DiagramType.ActivityDiagram, elements, relationships);
+    }
+
+    /**
+     * Create submissions for the given models, the submission ids start with 1. The given share of the submissions is assessed manually, every model element gets 1 point.
+     *
+     * @param models        the models of the submissions in the JSON format of Apollon
+     * @param assessedShare the share [0-1] of the submissions that have a completed manual assessment
+     * @return the submissions
+     * @throws IOException if a model cannot be parsed
+     */
+    public static Set<ModelingSubmission> createSubmissions(List<String> models, double assessedShare) throws IOException {
+        Set<ModelingSubmission> submissions = new HashSet<>();
+        long feedbackId = 1;
+        int numberOfAssessedSubmissions = (int) Math.round(models.size() * assessedShare);
+        // the assessed submissions are spread evenly over all submissions
+        int distance = Math.max(1, models.size() / Math.max(1, numberOfAssessedSubmissions));
+        for (int i = 0; i < models.size(); i++) {
+            ModelingSubmission submission = new ModelingSubmission();
+            submission.setId((long) i + 1);
+            submission.setModel(models.get(i));
+            if (i % distance == 0 && i / distance < numberOfAssessedSubmissions) {
+                List<Feedback> feedbacks = new ArrayList<>();
+                for (UMLElement element : JSONStreamParser.buildModelFromJSON(models.get(i), submission.getId()).getAllModelElements()) {
+                    Feedback feedback = new Feedback().reference(element.getType() + ":" + element.getJSONElementID()).credits(1.0);
+                    feedback.setId(feedbackId++);
+                    feedbacks.add(feedback);
+                }
+                submission.setResult(new Result().completionDate(ZonedDateTime.now()).assessmentType(AssessmentType.MANUAL).feedbacks(feedbacks));
+            }
+            submissions.add(submission);
+        }
+        return submissions;
+    }
+
+    /**
+     * Parse the given models, the model submission ids start with 1
+     *
+     * @param models the models in the JSON format of Apollon
+     * @return the parsed models in the order of the given models
+     * @throws IOException if a model cannot be parsed
+     */
+    public static List<UMLDiagram> parseModels(List<String> models) throws IOException {
+        List<UMLDiagram> umlDiagrams = new ArrayList<>();
+        for (int i = 0; i < models.size(); i++) {
+            umlDiagrams.add(JSONStreamParser.buildModelFromJSON(models.get(i), i + 1));
+        }
+        return umlDiagrams;
+    }
+
+    private static String referenceName(int index) {
+        return WORDS[index % WORDS.length] + (index >= WORDS.length ? String.valueOf(index / WORDS.length) : "");
+    }
+
+    /**
+     * @return the given name of the reference solution with the probability of the similarity, otherwise the name with a typo or a random name (with equal probability)
+     */
+    private String vary(String name) {
+        if (random.nextDouble() < similarity) {
+            return name;
+        }
+        if (random.nextBoolean()) {
+            char[] characters = name.toCharArray();
+            characters[random.nextInt(characters.length)] = (char) ('a' + random.nextInt(26));
+            return new String(characters);
+        }
+        return randomOf(WORDS) + randomOf(WORDS);
+    }
+
+    private String randomOf(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private String randomId() {
+        return new UUID(random.nextLong(), random.nextLong()).toString();
+    }
+
+    private JsonObject element(String type, String name, JsonObject owner) {
+        JsonObject element = new JsonObject();
+        element.addProperty("id", randomId());
+        element.addProperty("name", name);
+        element.addProperty("type", type);
+        if (owner != null) {
+            element.addProperty("owner", owner.get("id").getAsString());
+        }
+        return element;
+    }
+
+    private JsonObject relationship(String type, String sourceId, String targetId) {
+        JsonObject relationship = new JsonObject();
+        relationship.addProperty("id", randomId());
+        relationship.addProperty("type", type);
+        relationship.add("source", relationshipEnd(sourceId));
+        relationship.add("target", relationshipEnd(targetId));
+        return relationship;
+    }
+
+    private static JsonObject relationshipEnd(String elementId) {
+        JsonObject relationshipEnd = new JsonObject();
+        relationshipEnd.addProperty("element", elementId);
+        relationshipEnd.addProperty("role", "");
+        relationshipEnd.addProperty("multiplicity", "");
+        return relationshipEnd;
+    }
+
+    private static String diagram(DiagramType diagramType, JsonArray elements, JsonArray relationships) {
+        JsonObject diagram = new JsonObject();
+        diagram.addProperty("version", "2.0.0");
+        diagram.addProperty("type", diagramType.name());
+        diagram.add("elements", elements);
+        diagram.add("relationships", relationships);
+        return diagram.toString();
+    }
+}
@@ -0,0 +1,54 @@
+package de.tum.in.www1.artemis.service.compass.controller;
+
+import static com.google.gson.JsonParser.parseString;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.tum.in.www1.artemis.domain.enumeration.DiagramType;
+import de.tum.in.www1.artemis.service.compass.SyntheticModelGenerator;
+
+/**
+ * Compares the time and the allocated memory of parsing class and activity diagrams with {@link JSONParser}, which needs the JSON object of the model, and with
+ * {@link JSONStreamParser}. Run it with "./gradlew jmh -Pjmh='JSONParserBenchmark -prof gc'", the allocated memory per operation is reported as gc.alloc.rate.norm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JSONParserBenchmark {
+
+    private static final int NUMBER_OF_MODELS = 5;
+
+    @Param({ "ClassDiagram", "ActivityDiagram" })
+    private DiagramType diagramType;
+
+    @Param({ "10", "30" })
+    private int elements;
+
+    private List<String> models;
+
+    @Setup
+    public void generateModels() {
+        models = new SyntheticModelGenerator(42, elements, 0.9).generateModels(diagramType, NUMBER_OF_MODELS);
+    }
+
+    @Benchmark
+    public void jsonParser(Blackhole blackhole) throws IOException {
+        for (String model : models) {
+            blackhole.consume(JSONParser.buildModelFromJSON(parseString(model).getAsJsonObject(), 1));
+        }
+    }
+
+    @Benchmark
+    public void jsonStreamParser(Blackhole blackhole) throws IOException {
+        for (String model : models) {
+            blackhole.consume(JSONStreamParser.buildModelFromJSON(model, 1));
+        }
+    }
+}
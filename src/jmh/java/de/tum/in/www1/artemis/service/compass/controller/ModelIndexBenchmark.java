@@ -0,0 +1,54 @@
+package de.tum.in.www1.artemis.service.compass.controller;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import de.tum.in.www1.artemis.domain.enumeration.DiagramType;
+import de.tum.in.www1.artemis.service.compass.SyntheticModelGenerator;
+import de.tum.in.www1.artemis.service.compass.umlmodel.UMLDiagram;
+import de.tum.in.www1.artemis.service.compass.umlmodel.UMLElement;
+
+/**
+ * Measures the time to build the similarity sets of all model elements of a modeling exercise with {@link ModelIndex#retrieveSimilarityId(UMLElement)}, i.e. the similarity
+ * analysis when the calculation engine is built. Run it with "./gradlew jmh -Pjmh=ModelIndexBenchmark".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ModelIndexBenchmark {
+
+    @Param({ "ClassDiagram", "ActivityDiagram" })
+    private DiagramType diagramType;
+
+    @Param({ "100", "500" })
+    private int models;
+
+    @Param({ "10", "30" })
+    private int elements;
+
+    @Param({ "0.5", "0.9" })
+    private double similarity;
+
+    private List<UMLDiagram> umlDiagrams;
+
+    @Setup
+    public void generateModels() throws IOException {
+        umlDiagrams = SyntheticModelGenerator.parseModels(new SyntheticModelGenerator(42, elements, similarity).generateModels(diagramType, models));
+    }
+
+    @Benchmark
+    public ModelIndex retrieveSimilarityIds() {
+        ModelIndex modelIndex = new ModelIndex();
+        for (UMLDiagram umlDiagram : umlDiagrams) {
+            for (UMLElement element : umlDiagram.getAllModelElements()) {
+                element.setSimilarityID(modelIndex.retrieveSimilarityId(element));
+            }
+        }
+        return modelIndex;
+    }
+}
@@ -0,0 +1,66 @@
+package de.tum.in.www1.artemis.service.compass.controller;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import de.tum.in.www1.artemis.domain.enumeration.DiagramType;
+import de.tum.in.www1.artemis.service.compass.SyntheticModelGenerator;
+import de.tum.in.www1.artemis.service.compass.umlmodel.UMLDiagram;
+import de.tum.in.www1.artemis.service.compass.utils.CompassConfiguration;
+
+/**
+ * Measures the time to select the next models for the manual assessment with {@link ModelSelector#selectNextModels(int)}, starting without cached similarity sums. As the
+ * selection marks the selected models as handled, every iteration creates a new model selector and measures {@value #SELECTIONS} consecutive selections in a single shot, i.e.
+ * the first selection and the following ones that only update the cached similarity sums. Run it with "./gradlew jmh -Pjmh=ModelSelectorBenchmark".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, batchSize = ModelSelectorBenchmark.SELECTIONS)
+@Measurement(iterations = 20, batchSize = ModelSelectorBenchmark.SELECTIONS)
+public class ModelSelectorBenchmark {
+
+    /**
+     * the number of selections per iteration, they select at most half of the models, so that every selection has unhandled models to choose from
+     */
+    static final int SELECTIONS = 5;
+
+    @Param({ "ClassDiagram", "ActivityDiagram" })
+    private DiagramType diagramType;
+
+    @Param({ "100", "500" })
+    private int models;
+
+    @Param({ "10", "30" })
+    private int elements;
+
+    @Param({ "0.5", "0.9" })
+    private double similarity;
+
+    private ModelIndex modelIndex;
+
+    private ModelSelector modelSelector;
+
+    @Setup
+    public void buildModelIndex() throws IOException {
+        modelIndex = new ModelIndex();
+        for (UMLDiagram umlDiagram : SyntheticModelGenerator.parseModels(new SyntheticModelGenerator(42, elements, similarity).generateModels(diagramType, models))) {
+            SimilarityDetector.analyzeSimilarity(umlDiagram, modelIndex);
+            modelIndex.addModel(umlDiagram);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void createModelSelector() {
+        modelSelector = new ModelSelector(modelIndex);
+        modelIndex.getModelCollection().forEach(modelSelector::addModel);
+    }
+
+    @Benchmark
+    public List<Long> selectNextModels() {
+        return modelSelector.selectNextModels(CompassConfiguration.NUMBER_OF_NEW_OPTIMAL_MODELS);
+    }
+}
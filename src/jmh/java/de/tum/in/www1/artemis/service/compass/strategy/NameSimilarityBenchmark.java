@@ -0,0 +1,75 @@
+package de.tum.in.www1.artemis.service.compass.strategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import me.xdrop.fuzzywuzzy.FuzzySearch;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.tum.in.www1.artemis.service.compass.utils.CompassConfiguration;
+
+/**
+ * Compares the name similarity of Compass with FuzzySearch.ratio, which was used before, with JMH. The names are compared pairwise, like the names of the elements of a
+ * modeling exercise when the similarity sets are built. Run it with "./gradlew jmh -Pjmh=NameSimilarityBenchmark".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class NameSimilarityBenchmark {
+
+    private static final String[] WORDS = { "account", "address", "book", "customer", "library", "loan", "member", "order", "payment", "product", "shop", "user", "manager",
+            "service", "item", "list", "get", "set", "add", "remove", "name", "id", "date", "total" };
+
+    private List<String> names;
+
+    @Setup
+    public void createNames() {
+        Random random = new Random(42);
+        names = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            StringBuilder name = new StringBuilder();
+            for (int word = 0; word < 1 + random.nextInt(3); word++) {
+                String nextWord = WORDS[random.nextInt(WORDS.length)];
+                name.append(word == 0 ? nextWord : Character.toUpperCase(nextWord.charAt(0)) + nextWord.substring(1));
+            }
+            if (random.nextInt(3) == 0) {
+                // typo
+                name.deleteCharAt(random.nextInt(name.length()));
+            }
+            names.add(name.toString());
+        }
+    }
+
+    @Benchmark
+    public void fuzzySearchRatio(Blackhole blackhole) {
+        for (String name1 : names) {
+            for (String name2 : names) {
+                blackhole.consume(FuzzySearch.ratio(name1, name2) / 100.0);
+            }
+        }
+    }
+
+    @Benchmark
+    public void levenshteinSimilarity(Blackhole blackhole) {
+        for (String name1 : names) {
+            for (String name2 : names) {
+                blackhole.consume(NameSimilarity.levenshteinSimilarity(name1, name2));
+            }
+        }
+    }
+
+    @Benchmark
+    public void levenshteinSimilarityWithThreshold(Blackhole blackhole) {
+        for (String name1 : names) {
+            for (String name2 : names) {
+                blackhole.consume(NameSimilarity.levenshteinSimilarity(name1, name2, CompassConfiguration.EQUALITY_THRESHOLD));
+            }
+        }
+    }
+}
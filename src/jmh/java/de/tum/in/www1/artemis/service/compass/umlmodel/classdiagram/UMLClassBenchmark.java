@@ -0,0 +1,51 @@
+package de.tum.in.www1.artemis.service.compass.umlmodel.classdiagram;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import de.tum.in.www1.artemis.domain.enumeration.DiagramType;
+import de.tum.in.www1.artemis.service.compass.SyntheticModelGenerator;
+import de.tum.in.www1.artemis.service.compass.umlmodel.UMLDiagram;
+
+/**
+ * Measures the time to compare every class of a class diagram with the corresponding class of the other class diagrams of a modeling exercise with
+ * {@link UMLClass#overallSimilarity}, which compares the attributes and methods of the classes in addition to their names. Run it with "./gradlew jmh -Pjmh=UMLClassBenchmark".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class UMLClassBenchmark {
+
+    private static final int NUMBER_OF_MODELS = 100;
+
+    @Param({ "10", "30" })
+    private int elements;
+
+    @Param({ "0.5", "0.9" })
+    private double similarity;
+
+    private List<UMLDiagram> classDiagrams;
+
+    @Setup
+    public void generateModels() throws IOException {
+        classDiagrams = SyntheticModelGenerator.parseModels(new SyntheticModelGenerator(42, elements, similarity).generateModels(DiagramType.ClassDiagram, NUMBER_OF_MODELS));
+    }
+
+    @Benchmark
+    public double overallSimilarity() {
+        List<UMLClass> referenceClasses = ((UMLClassDiagram) classDiagrams.get(0)).getClassList();
+        double similaritySum = 0;
+        for (UMLDiagram classDiagram : classDiagrams.subList(1, classDiagrams.size())) {
+            List<UMLClass> classes = ((UMLClassDiagram) classDiagram).getClassList();
+            for (int i = 0; i < classes.size(); i++) {
+                similaritySum += classes.get(i).overallSimilarity(referenceClasses.get(i));
+            }
+        }
+        return similaritySum;
+    }
+}
@@ -0,0 +1,208 @@
+package de.tum.in.www1.artemis.config;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.JoinConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+
+import de.tum.in.www1.artemis.service.scheduled.quiz.*;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Provides the infrastructure that keeps the live state of running quizzes
+ */
+@Configuration
+public class QuizConfiguration {
+
+    private final Logger log = LoggerFactory.getLogger(QuizConfiguration.class);
+
+    @Value("${artemis.quiz.submission-journal-path:#{null}}")
+    private String submissionJournalPath;
+
+    @Value("${artemis.quiz.processing-pool-size:4}")
+    private int processingPoolSize;
+
+    @Value("${artemis.quiz.result-fan-out-window-seconds:10}")
+    private int resultFanOutWindowSeconds;
+
+    @Value("${artemis.quiz.result-fan-out-min-rate:100}")
+    private int resultFanOutMinRate;
+
+    @Value("${artemis.quiz.result-retention-seconds:300}")
+    private int resultRetentionSeconds;
+
+    @Value("${artemis.quiz.statistic-update-interval-millis:1000}")
+    private long statisticUpdateIntervalMillis;
+
+    @Value("${artemis.quiz.submission-rate-limit.saves-per-second:2}")
+    private double submissionSavesPerSecond;
+
+    @Value("${artemis.quiz.submission-rate-limit.burst:10}")
+    private int submissionSaveBurst;
+
+    @Value("${artemis.quiz.cluster.name:artemis-quiz}")
+    private String clusterName;
+
+    @Value("${artemis.quiz.cluster.port:5701}")
+    private int clusterPort;
+
+    @Value("${artemis.quiz.cluster.members:}")
+    private String[] clusterMembers;
+
+    /**
+     * Creates the store for the buffered quiz submissions. If the quiz cluster is enabled, the submissions are stored in the cluster (and survive the restart of a single node).
+     * Otherwise, if artemis.quiz.submission-journal-path is configured, all submissions are additionally written to a journal in this directory so that they survive a restart of
+     * the server, or they are only kept in memory.
+     *
+     * @param springMvcJacksonConverter provides the object mapper that is used to serialize the submissions into the journal
+     * @param quizHazelcastInstance     the member of the quiz cluster, only available if artemis.quiz.cluster.enabled is true
+     * @return the quiz submission store
+     * @throws IOException if the journal directory cannot be created
+     */
+    @Bean
+    public QuizSubmissionStore quizSubmissionStore(MappingJackson2HttpMessageConverter springMvcJacksonConverter, ObjectProvider<HazelcastInstance> quizHazelcastInstance)
+            throws IOException {
+        HazelcastInstance hazelcastInstance = quizHazelcastInstance.getIfAvailable();
+        if (hazelcastInstance != null) {
+            log.info("Quiz submissions are buffered in the quiz cluster");
+            return new DistributedQuizSubmissionStore(hazelcastInstance);
+        }
+        if (submissionJournalPath == null || submissionJournalPath.isBlank()) {
+            log.info("Quiz submissions are only buffered in memory");
+            return new InMemoryQuizSubmissionStore();
+        }
+        log.info("Quiz submissions are journaled in {}", submissionJournalPath);
+        return new JournaledQuizSubmissionStore(Path.of(submissionJournalPath), springMvcJacksonConverter.getObjectMapper());
+    }
+
+    /**
+     * Creates the executor that processes the cached submissions of different quizzes concurrently. The number of partitions is configured with
+     * artemis.quiz.processing-pool-size.
+     *
+     * @param meterRegistry the registry the lag of each partition is published to
+     * @return the quiz processing executor
+     */
+    @Bean(destroyMethod = "shutdown")
+    public QuizProcessingExecutor quizProcessingExecutor(MeterRegistry meterRegistry) {
+        return new QuizProcessingExecutor(processingPoolSize, meterRegistry);
+    }
+
+    /**
+     * Creates the fan-out that sends the results of a quiz to its participants when the quiz has ended. The results are spread over artemis.quiz.result-fan-out-window-seconds
+     * (but at least artemis.quiz.result-fan-out-min-rate results are sent per second), undelivered results are retained for artemis.quiz.result-retention-seconds.
+     *
+     * @param messagingTemplate the template the results are sent with
+     * @param simpUserRegistry  the registry of the connected websocket users
+     * @param meterRegistry     the registry the fan-out metrics are published to
+     * @return the quiz result fan-out
+     */
+    @Bean(destroyMethod = "shutdown")
+    public QuizResultFanOut quizResultFanOut(SimpMessageSendingOperations messagingTemplate, SimpUserRegistry simpUserRegistry, MeterRegistry meterRegistry) {
+        return new QuizResultFanOut(messagingTemplate, simpUserRegistry, meterRegistry, resultFanOutWindowSeconds * 1000L, resultFanOutMinRate,
+                resultRetentionSeconds * 1000L);
+    }
+
+    /**
+     * Creates the publisher that sends the live statistics of running quizzes to the instructors, the updates of a quiz are coalesced and sent at most every
+     * artemis.quiz.statistic-update-interval-millis ms
+     *
+     * @param messagingTemplate the template the statistics are sent with
+     * @return the quiz statistic publisher
+     */
+    @Bean(destroyMethod = "shutdown")
+    public QuizStatisticPublisher quizStatisticPublisher(SimpMessageSendingOperations messagingTemplate) {
+        return new QuizStatisticPublisher(messagingTemplate, statisticUpdateIntervalMillis);
+    }
+
+    /**
+     * Creates the limiter of the websocket saves of quiz submissions, each user can save the submission of a quiz artemis.quiz.submission-rate-limit.saves-per-second times
+     * per second with bursts of artemis.quiz.submission-rate-limit.burst saves
+     *
+     * @param springMvcJacksonConverter provides the object mapper that is used to recognize the final save of a submission
+     * @param messagingTemplate         provides the template that asks clients for their full submission when a change is dropped, it is looked up lazily because the
+     *                                  limiter is part of the websocket configuration which creates the template
+     * @param meterRegistry             the registry the metrics of the limiter are published to
+     * @return the quiz submission rate limiter
+     */
+    @Bean(destroyMethod = "shutdown")
+    public QuizSubmissionRateLimiter quizSubmissionRateLimiter(MappingJackson2HttpMessageConverter springMvcJacksonConverter,
+            ObjectProvider<SimpMessageSendingOperations> messagingTemplate, MeterRegistry meterRegistry) {
+        return new QuizSubmissionRateLimiter(springMvcJacksonConverter.getObjectMapper(), messagingTemplate::getObject, meterRegistry, submissionSavesPerSecond,
+                submissionSaveBurst);
+    }
+
+    /**
+     * Creates the scheduler of the individual working times of the students in running quizzes, which submits the buffered submission of a student when the working time is over
+     *
+     * @param quizSubmissionStore the store of the buffered submissions
+     * @return the quiz working time scheduler
+     */
+    @Bean(destroyMethod = "shutdown")
+    public QuizWorkingTimeScheduler quizWorkingTimeScheduler(QuizSubmissionStore quizSubmissionStore) {
+        return new QuizWorkingTimeScheduler(quizSubmissionStore);
+    }
+
+    /**
+     * Creates the live state of the running quizzes. If the quiz cluster is enabled, the state is shared with all nodes of the cluster and each quiz is processed by one node.
+     *
+     * @param quizResultFanOut      the fan-out that sends the results of ended quizzes to the students connected to this node
+     * @param quizHazelcastInstance the member of the quiz cluster, only available if artemis.quiz.cluster.enabled is true
+     * @return the quiz state
+     */
+    @Bean
+    public QuizState quizState(QuizResultFanOut quizResultFanOut, ObjectProvider<HazelcastInstance> quizHazelcastInstance) {
+        HazelcastInstance hazelcastInstance = quizHazelcastInstance.getIfAvailable();
+        if (hazelcastInstance != null) {
+            return new DistributedQuizState(hazelcastInstance, quizResultFanOut);
+        }
+        return new LocalQuizState(quizResultFanOut);
+    }
+
+    /**
+     * Creates the member of the quiz cluster, which allows to run several Artemis nodes behind a load balancer. The nodes find each other with the addresses in
+     * artemis.quiz.cluster.members and communicate on artemis.quiz.cluster.port.
+     *
+     * @return the hazelcast instance of this node
+     */
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(name = "artemis.quiz.cluster.enabled", havingValue = "true")
+    public HazelcastInstance quizHazelcastInstance() {
+        log.info("Join the quiz cluster {} on port {} with the members {}", clusterName, clusterPort, List.of(clusterMembers));
+        return Hazelcast.newHazelcastInstance(createClusterConfig(clusterName, clusterPort, List.of(clusterMembers)));
+    }
+
+    /**
+     * Create the configuration of a member of the quiz cluster
+     *
+     * @param clusterName the name of the cluster, only members with the same name join each other
+     * @param port        the port of this member, the next free port is used if it is not available
+     * @param members     the addresses (host or host:port) of the other members
+     * @return the hazelcast configuration
+     */
+    public static Config createClusterConfig(String clusterName, int port, List<String> members) {
+        Config config = new Config();
+        config.getGroupConfig().setName(clusterName);
+        config.setProperty("hazelcast.logging.type", "slf4j");
+        config.setProperty("hazelcast.phone.home.enabled", "false");
+        config.getNetworkConfig().setPort(port).setPortAutoIncrement(true);
+        JoinConfig join = config.getNetworkConfig().getJoin();
+        join.getMulticastConfig().setEnabled(false);
+        join.getTcpIpConfig().setEnabled(true).setMembers(members);
+        return config;
+    }
+}
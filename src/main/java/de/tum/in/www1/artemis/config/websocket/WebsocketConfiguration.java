@@ -44,6 +44,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
 import de.tum.in.www1.artemis.security.AuthoritiesConstants;
 import de.tum.in.www1.artemis.service.ParticipationService;
+import de.tum.in.www1.artemis.service.scheduled.quiz.QuizSubmissionRateLimiter;
 
 @Configuration
 public class WebsocketConfiguration extends WebSocketMessageBrokerConfigurationSupport {
@@ -62,15 +63,18 @@ public class WebsocketConfiguration extends WebSocketMessageBrokerConfigurationS
 
     private final ParticipationService participationService;
 
+    private final QuizSubmissionRateLimiter quizSubmissionRateLimiter;
+
     private static final int LOGGING_DELAY_SECONDS = 10;
 
     public WebsocketConfiguration(Environment env, MappingJackson2HttpMessageConverter springMvcJacksonConverter, TaskScheduler messageBrokerTaskScheduler,
-            TaskScheduler taskScheduler, ParticipationService participationService) {
+            TaskScheduler taskScheduler, ParticipationService participationService, QuizSubmissionRateLimiter quizSubmissionRateLimiter) {
         this.env = env;
         this.objectMapper = springMvcJacksonConverter.getObjectMapper();
         this.messageBrokerTaskScheduler = messageBrokerTaskScheduler;
         this.taskScheduler = taskScheduler;
         this.participationService = participationService;
+        this.quizSubmissionRateLimiter = quizSubmissionRateLimiter;
     }
 
     /**
@@ -113,7 +117,8 @@ public class WebsocketConfiguration extends WebSocketMessageBrokerConfigurationS
 
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
-        registration.interceptors(new TopicSubscriptionInterceptor());
+        // throttled quiz submission saves are removed before they reach the controller
+        registration.interceptors(new TopicSubscriptionInterceptor(), quizSubmissionRateLimiter);
     }
 
     @NotNull
@@ -1,9 +1,7 @@
 package de.tum.in.www1.artemis.domain.quiz;
 
 import java.io.Serializable;
-import java.util.HashSet;
-import java.util.Objects;
-import java.util.Set;
+import java.util.*;
 
 import javax.persistence.*;
 
@@ -134,27 +132,19 @@ public class DragAndDropQuestionStatistic extends QuizQuestionStatistic implemen
      * @param change          the int-value, which will be added to the Counter and participants
      */
     private void changeStatisticBasedOnResult(SubmittedAnswer submittedAnswer, boolean rated, int change) {
-
         if (submittedAnswer == null) {
             return;
         }
 
-        DragAndDropSubmittedAnswer ddSubmittedAnswer = (DragAndDropSubmittedAnswer) submittedAnswer;
-
         if (rated) {
             // change the rated participants
             setParticipantsRated(getParticipantsRated() + change);
-
-            if (ddSubmittedAnswer.getMappings() != null) {
-                // change rated dropLocationCounter if dropLocation is correct
-                for (DropLocationCounter dropLocationCounter : dropLocationCounters) {
-                    if (dropLocationCounter.getDropLocation().isDropLocationCorrect(ddSubmittedAnswer)) {
-                        dropLocationCounter.setRatedCounter(dropLocationCounter.getRatedCounter() + change);
-                    }
-                }
+            // change rated dropLocationCounter if dropLocation is correct
+            for (DropLocationCounter dropLocationCounter : findCountersToChange(submittedAnswer)) {
+                dropLocationCounter.setRatedCounter(dropLocationCounter.getRatedCounter() + change);
             }
             // change rated correctCounter if answer is complete correct
-            if (getQuizQuestion().isAnswerCorrect(ddSubmittedAnswer)) {
+            if (getQuizQuestion().isAnswerCorrect(submittedAnswer)) {
                 setRatedCorrectCounter(getRatedCorrectCounter() + change);
             }
         }
@@ -162,22 +152,37 @@ public class DragAndDropQuestionStatistic extends QuizQuestionStatistic implemen
         else {
             // change the unrated participants
             setParticipantsUnrated(getParticipantsUnrated() + change);
-
-            if (ddSubmittedAnswer.getMappings() != null) {
-                // change unrated dropLocationCounter if dropLocation is correct
-                for (DropLocationCounter dropLocationCounter : dropLocationCounters) {
-                    if (dropLocationCounter.getDropLocation().isDropLocationCorrect(ddSubmittedAnswer)) {
-                        dropLocationCounter.setUnRatedCounter(dropLocationCounter.getUnRatedCounter() + change);
-                    }
-                }
+            // change unrated dropLocationCounter if dropLocation is correct
+            for (DropLocationCounter dropLocationCounter : findCountersToChange(submittedAnswer)) {
+                dropLocationCounter.setUnRatedCounter(dropLocationCounter.getUnRatedCounter() + change);
             }
             // change unrated correctCounter if answer is complete correct
-            if (getQuizQuestion().isAnswerCorrect(ddSubmittedAnswer)) {
+            if (getQuizQuestion().isAnswerCorrect(submittedAnswer)) {
                 setUnRatedCorrectCounter(getUnRatedCorrectCounter() + change);
             }
         }
     }
 
+    /**
+     * Find the counters that change when a result with the given submitted answer is added or removed, i.e. all DropLocationCounter of the correctly assigned drop locations
+     *
+     * @param submittedAnswer the submittedAnswer of a result (not null)
+     * @return the counters that change
+     */
+    @Override
+    public List<DropLocationCounter> findCountersToChange(SubmittedAnswer submittedAnswer) {
+        List<DropLocationCounter> countersToChange = new ArrayList<>();
+        DragAndDropSubmittedAnswer ddSubmittedAnswer = (DragAndDropSubmittedAnswer) submittedAnswer;
+        if (ddSubmittedAnswer.getMappings() != null) {
+            for (DropLocationCounter dropLocationCounter : dropLocationCounters) {
+                if (dropLocationCounter.getDropLocation().isDropLocationCorrect(ddSubmittedAnswer)) {
+                    countersToChange.add(dropLocationCounter);
+                }
+            }
+        }
+        return countersToChange;
+    }
+
     /**
      * reset all counters to 0
      */
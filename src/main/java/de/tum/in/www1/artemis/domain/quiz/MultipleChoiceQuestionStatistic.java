@@ -1,9 +1,7 @@
 package de.tum.in.www1.artemis.domain.quiz;
 
 import java.io.Serializable;
-import java.util.HashSet;
-import java.util.Objects;
-import java.util.Set;
+import java.util.*;
 
 import javax.persistence.*;
 
@@ -134,27 +132,19 @@ public class MultipleChoiceQuestionStatistic extends QuizQuestionStatistic imple
      * @param change          the int-value, which will be added to the Counter and participants
      */
     private void changeStatisticBasedOnResult(SubmittedAnswer submittedAnswer, boolean rated, int change) {
-
         if (submittedAnswer == null) {
             return;
         }
 
-        MultipleChoiceSubmittedAnswer mcSubmittedAnswer = (MultipleChoiceSubmittedAnswer) submittedAnswer;
-
         if (rated) {
             // change the rated participants
             setParticipantsRated(getParticipantsRated() + change);
-
-            if (mcSubmittedAnswer.getSelectedOptions() != null) {
-                // change rated answerCounter if answer is selected
-                for (AnswerCounter answerCounter : answerCounters) {
-                    if (mcSubmittedAnswer.getSelectedOptions().contains(answerCounter.getAnswer())) {
-                        answerCounter.setRatedCounter(answerCounter.getRatedCounter() + change);
-                    }
-                }
+            // change rated answerCounter if answer is selected
+            for (AnswerCounter answerCounter : findCountersToChange(submittedAnswer)) {
+                answerCounter.setRatedCounter(answerCounter.getRatedCounter() + change);
             }
             // change rated correctCounter if answer is complete correct
-            if (getQuizQuestion().isAnswerCorrect(mcSubmittedAnswer)) {
+            if (getQuizQuestion().isAnswerCorrect(submittedAnswer)) {
                 setRatedCorrectCounter(getRatedCorrectCounter() + change);
             }
         }
@@ -162,23 +152,37 @@ public class MultipleChoiceQuestionStatistic extends QuizQuestionStatistic imple
         else {
             // change the unrated participants
             setParticipantsUnrated(getParticipantsUnrated() + change);
-
-            if (mcSubmittedAnswer.getSelectedOptions() != null) {
-                for (AnswerCounter answerCounter : answerCounters) {
-                    // change unrated answerCounter if answer is selected
-                    if (mcSubmittedAnswer.getSelectedOptions().contains(answerCounter.getAnswer())) {
-                        answerCounter.setUnRatedCounter(answerCounter.getUnRatedCounter() + change);
-                    }
-                }
+            // change unrated answerCounter if answer is selected
+            for (AnswerCounter answerCounter : findCountersToChange(submittedAnswer)) {
+                answerCounter.setUnRatedCounter(answerCounter.getUnRatedCounter() + change);
             }
-
             // change unrated correctCounter if answer is complete correct
-            if (getQuizQuestion().isAnswerCorrect(mcSubmittedAnswer)) {
+            if (getQuizQuestion().isAnswerCorrect(submittedAnswer)) {
                 setUnRatedCorrectCounter(getUnRatedCorrectCounter() + change);
             }
         }
     }
 
+    /**
+     * Find the counters that change when a result with the given submitted answer is added or removed, i.e. all AnswerCounter of the selected answer options
+     *
+     * @param submittedAnswer the submittedAnswer of a result (not null)
+     * @return the counters that change
+     */
+    @Override
+    public List<AnswerCounter> findCountersToChange(SubmittedAnswer submittedAnswer) {
+        List<AnswerCounter> countersToChange = new ArrayList<>();
+        MultipleChoiceSubmittedAnswer mcSubmittedAnswer = (MultipleChoiceSubmittedAnswer) submittedAnswer;
+        if (mcSubmittedAnswer.getSelectedOptions() != null) {
+            for (AnswerCounter answerCounter : answerCounters) {
+                if (mcSubmittedAnswer.getSelectedOptions().contains(answerCounter.getAnswer())) {
+                    countersToChange.add(answerCounter);
+                }
+            }
+        }
+        return countersToChange;
+    }
+
     /**
      * reset all counters to 0
      */
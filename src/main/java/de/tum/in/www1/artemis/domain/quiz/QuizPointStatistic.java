@@ -1,9 +1,7 @@
 package de.tum.in.www1.artemis.domain.quiz;
 
 import java.io.Serializable;
-import java.util.HashSet;
-import java.util.Objects;
-import java.util.Set;
+import java.util.*;
 
 import javax.persistence.*;
 
@@ -152,17 +150,13 @@ public class QuizPointStatistic extends QuizStatistic implements Serializable {
             return;
         }
 
-        Double points = (double) Math.round(((double) quiz.getMaxTotalScore()) * ((double) score / 100));
-
         if (rated == Boolean.TRUE) {
             // change rated participants
             setParticipantsRated(getParticipantsRated() + change);
 
             // find associated rated pointCounter and change it
-            for (PointCounter pointCounter : pointCounters) {
-                if (points.equals(pointCounter.getPoints())) {
-                    pointCounter.setRatedCounter(pointCounter.getRatedCounter() + change);
-                }
+            for (PointCounter pointCounter : findCountersToChange(score)) {
+                pointCounter.setRatedCounter(pointCounter.getRatedCounter() + change);
             }
         }
         else {
@@ -170,12 +164,27 @@ public class QuizPointStatistic extends QuizStatistic implements Serializable {
             setParticipantsUnrated(getParticipantsUnrated() + change);
 
             // find associated unrated pointCounter and change it
-            for (PointCounter pointCounter : pointCounters) {
-                if (points.equals(pointCounter.getPoints())) {
-                    pointCounter.setUnRatedCounter(pointCounter.getUnRatedCounter() + change);
-                }
+            for (PointCounter pointCounter : findCountersToChange(score)) {
+                pointCounter.setUnRatedCounter(pointCounter.getUnRatedCounter() + change);
+            }
+        }
+    }
+
+    /**
+     * Find the PointCounter that changes when a result with the given score is added or removed
+     *
+     * @param score the score of the result (not null)
+     * @return the PointCounter, which is associated to the points of the score
+     */
+    public List<PointCounter> findCountersToChange(Long score) {
+        Double points = (double) Math.round(((double) quiz.getMaxTotalScore()) * ((double) score / 100));
+        List<PointCounter> countersToChange = new ArrayList<>();
+        for (PointCounter pointCounter : pointCounters) {
+            if (points.equals(pointCounter.getPoints())) {
+                countersToChange.add(pointCounter);
             }
         }
+        return countersToChange;
     }
 
     /**
@@ -1,6 +1,7 @@
 package de.tum.in.www1.artemis.domain.quiz;
 
 import java.io.Serializable;
+import java.util.List;
 import java.util.Objects;
 
 import javax.persistence.Column;
@@ -110,4 +111,13 @@ public abstract class QuizQuestionStatistic extends QuizStatistic implements Ser
 
     public abstract void resetStatistic();
 
+    /**
+     * Find the counters (e.g. answer counters) of this statistic that change when a result with the given submitted answer is added or removed. A counter is contained once for
+     * every change by 1.
+     *
+     * @param submittedAnswer the submittedAnswer of a result (not null)
+     * @return the counters that change
+     */
+    public abstract List<? extends QuizStatisticCounter> findCountersToChange(SubmittedAnswer submittedAnswer);
+
 }
@@ -10,10 +10,12 @@ import javax.persistence.*;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonView;
 
 import de.tum.in.www1.artemis.domain.Submission;
 import de.tum.in.www1.artemis.domain.SubmittedAnswer;
+import de.tum.in.www1.artemis.domain.quiz.scoring.CompiledQuizAnswerKey;
 import de.tum.in.www1.artemis.domain.view.QuizView;
 
 /**
@@ -35,6 +37,14 @@ public class QuizSubmission extends Submission implements Serializable {
     @JsonView(QuizView.Before.class)
     private Set<SubmittedAnswer> submittedAnswers = new HashSet<>();
 
+    /**
+     * The sequence number of the last change the client synchronized over websocket (see QuizSubmissionWebsocketService), null if the client has to send its full state. Only
+     * used while the submission is buffered during the quiz.
+     */
+    @Transient
+    @JsonIgnore
+    private Long syncSequenceNumber;
+
     public Double getScoreInPoints() {
         return scoreInPoints;
     }
@@ -73,6 +83,14 @@ public class QuizSubmission extends Submission implements Serializable {
         this.submittedAnswers = submittedAnswers;
     }
 
+    public Long getSyncSequenceNumber() {
+        return syncSequenceNumber;
+    }
+
+    public void setSyncSequenceNumber(Long syncSequenceNumber) {
+        this.syncSequenceNumber = syncSequenceNumber;
+    }
+
     /**
      * Get the submitted answer to the given quizQuestion
      *
@@ -94,17 +112,29 @@ public class QuizSubmission extends Submission implements Serializable {
      * @param quizExercise the quiz this submission belongs to (is needed to have values for isCorrect in answer options)
      */
     public void calculateAndUpdateScores(QuizExercise quizExercise) {
+        calculateAndUpdateScores(CompiledQuizAnswerKey.compile(quizExercise));
+    }
+
+    /**
+     * calculates the scores for this submission and all its submitted answers and saves them in scoreInPoints. Use this method (and compile the answer key only once) if many
+     * submissions of the same quiz are scored.
+     *
+     * @param answerKey the compiled answer key of the quiz this submission belongs to
+     */
+    public void calculateAndUpdateScores(CompiledQuizAnswerKey answerKey) {
+        double score = 0.0;
         // set scores for all questions
-        for (QuizQuestion quizQuestion : quizExercise.getQuizQuestions()) {
+        for (int i = 0; i < answerKey.getNumberOfQuestions(); i++) {
             // search for submitted answer for this quizQuestion
-            SubmittedAnswer submittedAnswer = getSubmittedAnswerForQuestion(quizQuestion);
+            SubmittedAnswer submittedAnswer = getSubmittedAnswerForQuestion(answerKey.getQuizQuestion(i));
             if (submittedAnswer != null) {
-                submittedAnswer.setScoreInPoints(quizQuestion.scoreForAnswer(submittedAnswer));
+                double scoreForAnswer = answerKey.calculateScore(i, submittedAnswer);
+                submittedAnswer.setScoreInPoints(scoreForAnswer);
+                score += scoreForAnswer;
             }
         }
         // set total score
-
-        setScoreInPoints(quizExercise.getScoreInPointsForSubmission(this));
+        setScoreInPoints(score);
     }
 
     /**
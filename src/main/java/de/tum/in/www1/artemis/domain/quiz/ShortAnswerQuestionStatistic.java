@@ -1,9 +1,7 @@
 package de.tum.in.www1.artemis.domain.quiz;
 
 import java.io.Serializable;
-import java.util.HashSet;
-import java.util.Objects;
-import java.util.Set;
+import java.util.*;
 
 import javax.persistence.*;
 
@@ -135,35 +133,15 @@ public class ShortAnswerQuestionStatistic extends QuizQuestionStatistic implemen
             return;
         }
 
-        ShortAnswerSubmittedAnswer shortAnswerSubmittedAnswer = (ShortAnswerSubmittedAnswer) submittedAnswer;
-
         if (rated) {
             // change the rated participants
             setParticipantsRated(getParticipantsRated() + change);
-
-            if (shortAnswerSubmittedAnswer.getSubmittedTexts() != null) {
-                ShortAnswerSubmittedText shortAnswerSubmittedText;
-                Set<ShortAnswerSolution> shortAnswerSolutions;
-
-                // change rated spotCounter if spot is correct
-                for (ShortAnswerSpotCounter spotCounter : shortAnswerSpotCounters) {
-                    shortAnswerSubmittedText = shortAnswerSubmittedAnswer.getSubmittedTextForSpot(spotCounter.getSpot());
-                    shortAnswerSolutions = spotCounter.getSpot().getQuestion().getCorrectSolutionForSpot(spotCounter.getSpot());
-
-                    // TODO Francisco: please double check if this makes sense: it definitely avoids a null pointer exception because the method getSubmittedTextForSpot(...) above
-                    // can return null
-                    if (shortAnswerSubmittedText == null) {
-                        continue;
-                    }
-                    for (ShortAnswerSolution solution : shortAnswerSolutions) {
-                        if (shortAnswerSubmittedText.isSubmittedTextCorrect(shortAnswerSubmittedText.getText(), solution.getText()) && shortAnswerSubmittedText.isIsCorrect()) {
-                            spotCounter.setRatedCounter(spotCounter.getRatedCounter() + change);
-                        }
-                    }
-                }
+            // change rated spotCounter if spot is correct
+            for (ShortAnswerSpotCounter spotCounter : findCountersToChange(submittedAnswer)) {
+                spotCounter.setRatedCounter(spotCounter.getRatedCounter() + change);
             }
             // change rated correctCounter if answer is complete correct
-            if (getQuizQuestion().isAnswerCorrect(shortAnswerSubmittedAnswer)) {
+            if (getQuizQuestion().isAnswerCorrect(submittedAnswer)) {
                 setRatedCorrectCounter(getRatedCorrectCounter() + change);
             }
         }
@@ -171,32 +149,43 @@ public class ShortAnswerQuestionStatistic extends QuizQuestionStatistic implemen
         else {
             // change the unrated participants
             setParticipantsUnrated(getParticipantsUnrated() + change);
-
-            if (shortAnswerSubmittedAnswer.getSubmittedTexts() != null) {
-                ShortAnswerSubmittedText shortAnswerSubmittedText;
-                Set<ShortAnswerSolution> shortAnswerSolutions;
-                // change unrated spotCounter if spot is correct
-                for (ShortAnswerSpotCounter spotCounter : shortAnswerSpotCounters) {
-                    shortAnswerSubmittedText = shortAnswerSubmittedAnswer.getSubmittedTextForSpot(spotCounter.getSpot());
-                    shortAnswerSolutions = spotCounter.getSpot().getQuestion().getCorrectSolutionForSpot(spotCounter.getSpot());
-
-                    // TODO Francisco: please double check if this makes sense: it definitely avoids a null pointer exception because the method getSubmittedTextForSpot(...) above
-                    // can return null
-                    if (shortAnswerSubmittedText == null) {
-                        continue;
-                    }
-                    for (ShortAnswerSolution solution : shortAnswerSolutions) {
-                        if (shortAnswerSubmittedText.isSubmittedTextCorrect(shortAnswerSubmittedText.getText(), solution.getText())
-                                && Boolean.TRUE == shortAnswerSubmittedText.isIsCorrect()) {
-                            spotCounter.setUnRatedCounter(spotCounter.getUnRatedCounter() + change);
-                        }
-                    }
-                }
+            // change unrated spotCounter if spot is correct
+            for (ShortAnswerSpotCounter spotCounter : findCountersToChange(submittedAnswer)) {
+                spotCounter.setUnRatedCounter(spotCounter.getUnRatedCounter() + change);
             }
             // change unrated correctCounter if answer is complete correct
-            if (getQuizQuestion().isAnswerCorrect(shortAnswerSubmittedAnswer)) {
+            if (getQuizQuestion().isAnswerCorrect(submittedAnswer)) {
                 setUnRatedCorrectCounter(getUnRatedCorrectCounter() + change);
             }
         }
     }
+
+    /**
+     * Find the counters that change when a result with the given submitted answer is added or removed, i.e. the ShortAnswerSpotCounter of the correctly filled spots (once for each solution the submitted text matches)
+     *
+     * @param submittedAnswer the submittedAnswer of a result (not null)
+     * @return the counters that change
+     */
+    @Override
+    public List<ShortAnswerSpotCounter> findCountersToChange(SubmittedAnswer submittedAnswer) {
+        List<ShortAnswerSpotCounter> countersToChange = new ArrayList<>();
+        ShortAnswerSubmittedAnswer shortAnswerSubmittedAnswer = (ShortAnswerSubmittedAnswer) submittedAnswer;
+        if (shortAnswerSubmittedAnswer.getSubmittedTexts() != null) {
+            for (ShortAnswerSpotCounter spotCounter : shortAnswerSpotCounters) {
+                ShortAnswerSubmittedText shortAnswerSubmittedText = shortAnswerSubmittedAnswer.getSubmittedTextForSpot(spotCounter.getSpot());
+                // getSubmittedTextForSpot(...) returns null if the spot was left empty
+                if (shortAnswerSubmittedText == null) {
+                    continue;
+                }
+                Set<ShortAnswerSolution> shortAnswerSolutions = spotCounter.getSpot().getQuestion().getCorrectSolutionForSpot(spotCounter.getSpot());
+                for (ShortAnswerSolution solution : shortAnswerSolutions) {
+                    if (shortAnswerSubmittedText.isSubmittedTextCorrect(shortAnswerSubmittedText.getText(), solution.getText())
+                            && Boolean.TRUE == shortAnswerSubmittedText.isIsCorrect()) {
+                        countersToChange.add(spotCounter);
+                    }
+                }
+            }
+        }
+        return countersToChange;
+    }
 }
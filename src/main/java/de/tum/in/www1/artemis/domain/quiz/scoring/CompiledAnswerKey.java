@@ -0,0 +1,24 @@
+package de.tum.in.www1.artemis.domain.quiz.scoring;
+
+import de.tum.in.www1.artemis.domain.SubmittedAnswer;
+
+/**
+ * The answer key of one quiz question, compiled into arrays and bitsets so that submitted answers can be scored without walking the entity graph of the question. It must
+ * calculate exactly the same scores as the ScoringStrategy of the question.
+ */
+interface CompiledAnswerKey {
+
+    /**
+     * Returned by {@link #calculateScore(SubmittedAnswer)} if the submitted answer cannot be scored with the compiled answer key (e.g. because it references elements without
+     * ids). The caller has to fall back to the ScoringStrategy of the question in this case.
+     */
+    double NOT_SCORED = Double.NaN;
+
+    /**
+     * Calculate the score for the given answer to the question this answer key was compiled for
+     *
+     * @param submittedAnswer the answer to score
+     * @return the resulting score (usually between 0.0 and quizQuestion.getScore()) or {@link #NOT_SCORED}
+     */
+    double calculateScore(SubmittedAnswer submittedAnswer);
+}
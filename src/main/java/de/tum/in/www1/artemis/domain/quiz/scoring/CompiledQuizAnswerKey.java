@@ -0,0 +1,94 @@
+package de.tum.in.www1.artemis.domain.quiz.scoring;
+
+import java.util.List;
+
+import de.tum.in.www1.artemis.domain.SubmittedAnswer;
+import de.tum.in.www1.artemis.domain.quiz.*;
+
+/**
+ * The answer key of a quiz exercise, compiled once so that many submissions can be scored without walking the entity graph of the quiz and without creating intermediate
+ * collections for every submission. The scores are exactly the same as the ones of the ScoringStrategy of each question. Questions (or submitted answers) which cannot be
+ * represented by the compiled answer key, e.g. because they contain elements without ids, are scored with the ScoringStrategy.
+ *
+ * The compiled answer key is immutable. It has to be compiled again if the quiz exercise (e.g. the correctness of an answer option) changes.
+ */
+public final class CompiledQuizAnswerKey {
+
+    private final QuizQuestion[] quizQuestions;
+
+    /**
+     * the compiled answer key of each question (same index as in quizQuestions), null if the question has to be scored with its ScoringStrategy
+     */
+    private final CompiledAnswerKey[] answerKeys;
+
+    private CompiledQuizAnswerKey(QuizQuestion[] quizQuestions, CompiledAnswerKey[] answerKeys) {
+        this.quizQuestions = quizQuestions;
+        this.answerKeys = answerKeys;
+    }
+
+    /**
+     * Compile the answer key of the given quiz exercise
+     *
+     * @param quizExercise the quiz exercise (including its questions and their correct answers)
+     * @return the compiled answer key
+     */
+    public static CompiledQuizAnswerKey compile(QuizExercise quizExercise) {
+        List<QuizQuestion> questions = quizExercise.getQuizQuestions();
+        QuizQuestion[] quizQuestions = questions.toArray(new QuizQuestion[0]);
+        CompiledAnswerKey[] answerKeys = new CompiledAnswerKey[quizQuestions.length];
+        for (int i = 0; i < quizQuestions.length; i++) {
+            answerKeys[i] = compile(quizQuestions[i]);
+        }
+        return new CompiledQuizAnswerKey(quizQuestions, answerKeys);
+    }
+
+    private static CompiledAnswerKey compile(QuizQuestion quizQuestion) {
+        // without a scoring type, ScoringStrategyFactory fails when an answer is scored, which has to be preserved
+        if (quizQuestion.getScoringType() == null) {
+            return null;
+        }
+        if (quizQuestion instanceof MultipleChoiceQuestion) {
+            return MultipleChoiceAnswerKey.compile((MultipleChoiceQuestion) quizQuestion);
+        }
+        else if (quizQuestion instanceof DragAndDropQuestion) {
+            return DragAndDropAnswerKey.compile((DragAndDropQuestion) quizQuestion);
+        }
+        else if (quizQuestion instanceof ShortAnswerQuestion) {
+            return ShortAnswerAnswerKey.compile((ShortAnswerQuestion) quizQuestion);
+        }
+        return null;
+    }
+
+    /**
+     * @return the number of questions of the quiz exercise
+     */
+    public int getNumberOfQuestions() {
+        return quizQuestions.length;
+    }
+
+    /**
+     * @param questionIndex the index of the question in the quiz exercise
+     * @return the question with the given index
+     */
+    public QuizQuestion getQuizQuestion(int questionIndex) {
+        return quizQuestions[questionIndex];
+    }
+
+    /**
+     * Calculate the score for the given answer to the question with the given index, the result is the same as quizQuestion.scoreForAnswer(submittedAnswer)
+     *
+     * @param questionIndex   the index of the question in the quiz exercise
+     * @param submittedAnswer the answer to score
+     * @return the resulting score (usually between 0.0 and quizQuestion.getScore())
+     */
+    public double calculateScore(int questionIndex, SubmittedAnswer submittedAnswer) {
+        CompiledAnswerKey answerKey = answerKeys[questionIndex];
+        if (answerKey != null) {
+            double score = answerKey.calculateScore(submittedAnswer);
+            if (!Double.isNaN(score)) {
+                return score;
+            }
+        }
+        return quizQuestions[questionIndex].scoreForAnswer(submittedAnswer);
+    }
+}
@@ -0,0 +1,165 @@
+package de.tum.in.www1.artemis.domain.quiz.scoring;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import de.tum.in.www1.artemis.domain.SubmittedAnswer;
+import de.tum.in.www1.artemis.domain.enumeration.ScoringType;
+import de.tum.in.www1.artemis.domain.quiz.*;
+
+/**
+ * The compiled answer key of a drag and drop question: for each drop location (in the order of the question) the ids of its correct drag items. Calculates the same scores as
+ * {@link ScoringStrategyDragAndDropAllOrNothing} and {@link ScoringStrategyDragAndDropProportionalWithPenalty}.
+ */
+class DragAndDropAnswerKey implements CompiledAnswerKey {
+
+    private final boolean questionInvalid;
+
+    private final boolean allOrNothing;
+
+    private final int score;
+
+    private final long[] dropLocationIds;
+
+    private final boolean[] dropLocationInvalid;
+
+    /**
+     * the ids of the correct drag items of each drop location in ascending order, empty if the drop location is meant to stay empty
+     */
+    private final long[][] correctDragItemIds;
+
+    /**
+     * the number of drop locations that are meant to not stay empty
+     */
+    private final int mappedDropLocations;
+
+    private DragAndDropAnswerKey(DragAndDropQuestion question, long[] dropLocationIds, boolean[] dropLocationInvalid, long[][] correctDragItemIds) {
+        this.questionInvalid = question.isInvalid();
+        this.allOrNothing = question.getScoringType() == ScoringType.ALL_OR_NOTHING;
+        this.score = question.getScore();
+        this.dropLocationIds = dropLocationIds;
+        this.dropLocationInvalid = dropLocationInvalid;
+        this.correctDragItemIds = correctDragItemIds;
+        this.mappedDropLocations = (int) Arrays.stream(correctDragItemIds).filter(dragItemIds -> dragItemIds.length > 0).count();
+    }
+
+    /**
+     * Compile the answer key of the given question
+     *
+     * @param question the question (including its drop locations and correct mappings)
+     * @return the answer key or null if the question cannot be compiled (then the ScoringStrategy has to be used)
+     */
+    static DragAndDropAnswerKey compile(DragAndDropQuestion question) {
+        List<DropLocation> dropLocations = question.getDropLocations();
+        if (question.getScore() == null || dropLocations == null || question.getCorrectMappings() == null) {
+            return null;
+        }
+        for (DragAndDropMapping mapping : question.getCorrectMappings()) {
+            if (mapping.getDropLocation() == null) {
+                return null;
+            }
+        }
+        long[] dropLocationIds = new long[dropLocations.size()];
+        boolean[] dropLocationInvalid = new boolean[dropLocations.size()];
+        long[][] correctDragItemIds = new long[dropLocations.size()][];
+        for (int i = 0; i < dropLocations.size(); i++) {
+            DropLocation dropLocation = dropLocations.get(i);
+            // the answers are matched by id, temporary ids would match differently and the correct mappings of other questions are not known
+            if (dropLocation.getClass() != DropLocation.class || dropLocation.getId() == null || dropLocation.getTempID() != null || dropLocation.getQuestion() != question) {
+                return null;
+            }
+            dropLocationIds[i] = dropLocation.getId();
+            dropLocationInvalid[i] = dropLocation.isInvalid();
+
+            Set<DragItem> correctDragItems = question.getCorrectDragItemsForDropLocation(dropLocation);
+            long[] dragItemIds = new long[correctDragItems.size()];
+            int j = 0;
+            for (DragItem dragItem : correctDragItems) {
+                if (dragItem == null || dragItem.getClass() != DragItem.class || dragItem.getId() == null || dragItem.getTempID() != null) {
+                    return null;
+                }
+                dragItemIds[j++] = dragItem.getId();
+            }
+            Arrays.sort(dragItemIds);
+            correctDragItemIds[i] = dragItemIds;
+        }
+        return new DragAndDropAnswerKey(question, dropLocationIds, dropLocationInvalid, correctDragItemIds);
+    }
+
+    @Override
+    public double calculateScore(SubmittedAnswer submittedAnswer) {
+        // check if the quizQuestion is invalid: if true: -> return with full points
+        if (questionInvalid) {
+            return score;
+        }
+        if (!(submittedAnswer instanceof DragAndDropSubmittedAnswer)) {
+            // the submitted answer's type doesn't fit the quizQuestion's type => it cannot be correct
+            return 0.0;
+        }
+        Set<DragAndDropMapping> mappings = ((DragAndDropSubmittedAnswer) submittedAnswer).getMappings();
+        if (mappings == null) {
+            return NOT_SCORED;
+        }
+
+        double correctMappings = 0;
+        double incorrectMappings = 0;
+
+        // iterate through each drop location and compare its correct drag items with the answer's mapping
+        for (int i = 0; i < dropLocationIds.length; i++) {
+            // like DragAndDropSubmittedAnswer.getSelectedDragItemForDropLocation(...), the first mapping onto the drop location counts
+            DragItem selectedDragItem = null;
+            for (DragAndDropMapping mapping : mappings) {
+                DropLocation dropLocation = mapping.getDropLocation();
+                if (dropLocation == null) {
+                    return NOT_SCORED;
+                }
+                if (dropLocation.getClass() == DropLocation.class && dropLocation.getId() != null && dropLocation.getId() == dropLocationIds[i]) {
+                    selectedDragItem = mapping.getDragItem();
+                    break;
+                }
+            }
+            long[] correctDragItems = correctDragItemIds[i];
+
+            // invalid drop location or invalid drag item => always correct
+            if (dropLocationInvalid[i] || (selectedDragItem != null && selectedDragItem.isInvalid())) {
+                // but points are only given for drop locations that were meant to not stay empty
+                if (correctDragItems.length > 0) {
+                    correctMappings++;
+                }
+            }
+            else if (isDropLocationCorrect(correctDragItems, selectedDragItem)) {
+                // points are only given for drop locations that were meant to not stay empty
+                if (correctDragItems.length > 0) {
+                    correctMappings++;
+                }
+            }
+            else if (allOrNothing) {
+                return 0.0;
+            }
+            else {
+                // wrong mappings always deduct points
+                incorrectMappings++;
+            }
+        }
+
+        if (allOrNothing) {
+            // the user wasn't wrong about a single drop location => the answer is 100% correct
+            return score;
+        }
+        // every correct mapping increases fraction by 1/mappedDropLocations, every incorrect mapping decreases fraction by 1/mappedDropLocations
+        double fraction = ((correctMappings / mappedDropLocations) - (incorrectMappings / mappedDropLocations));
+        return Math.max(0, score * fraction);
+    }
+
+    /**
+     * Same as DropLocation.isDropLocationCorrect(...): the drop location was meant to stay empty and nothing was dragged onto it or one of its correct drag items was dragged onto
+     * it
+     */
+    private static boolean isDropLocationCorrect(long[] correctDragItemIds, DragItem selectedDragItem) {
+        if (selectedDragItem == null) {
+            return correctDragItemIds.length == 0;
+        }
+        return selectedDragItem.getClass() == DragItem.class && selectedDragItem.getId() != null && Arrays.binarySearch(correctDragItemIds, selectedDragItem.getId()) >= 0;
+    }
+}
@@ -0,0 +1,124 @@
+package de.tum.in.www1.artemis.domain.quiz.scoring;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import de.tum.in.www1.artemis.domain.SubmittedAnswer;
+import de.tum.in.www1.artemis.domain.enumeration.ScoringType;
+import de.tum.in.www1.artemis.domain.quiz.AnswerOption;
+import de.tum.in.www1.artemis.domain.quiz.MultipleChoiceQuestion;
+import de.tum.in.www1.artemis.domain.quiz.MultipleChoiceSubmittedAnswer;
+
+/**
+ * The compiled answer key of a multiple choice question: the answer options are numbered by their (sorted) ids, so that the correct, invalid and selected answer options are
+ * bitsets. Calculates the same scores as {@link ScoringStrategyMultipleChoiceAllOrNothing} and {@link ScoringStrategyMultipleChoiceProportionalWithPenalty}.
+ */
+class MultipleChoiceAnswerKey implements CompiledAnswerKey {
+
+    private final boolean questionInvalid;
+
+    private final boolean allOrNothing;
+
+    private final int score;
+
+    /**
+     * the ids of all answer options in ascending order, the index of an id is the bit of the answer option in all bitsets
+     */
+    private final long[] answerOptionIds;
+
+    private final long allOptions;
+
+    private final long correctOptions;
+
+    private final long invalidOptions;
+
+    private MultipleChoiceAnswerKey(MultipleChoiceQuestion question, long[] answerOptionIds, long correctOptions, long invalidOptions) {
+        this.questionInvalid = question.isInvalid();
+        this.allOrNothing = question.getScoringType() == ScoringType.ALL_OR_NOTHING;
+        this.score = question.getScore();
+        this.answerOptionIds = answerOptionIds;
+        this.allOptions = answerOptionIds.length == Long.SIZE ? -1L : (1L << answerOptionIds.length) - 1;
+        this.correctOptions = correctOptions;
+        this.invalidOptions = invalidOptions;
+    }
+
+    /**
+     * Compile the answer key of the given question
+     *
+     * @param question the question (including its answer options)
+     * @return the answer key or null if the question cannot be compiled (then the ScoringStrategy has to be used)
+     */
+    static MultipleChoiceAnswerKey compile(MultipleChoiceQuestion question) {
+        List<AnswerOption> answerOptions = question.getAnswerOptions();
+        if (question.getScore() == null || answerOptions == null || answerOptions.size() > Long.SIZE) {
+            return null;
+        }
+        long[] answerOptionIds = new long[answerOptions.size()];
+        for (int i = 0; i < answerOptions.size(); i++) {
+            AnswerOption answerOption = answerOptions.get(i);
+            // the strategies fail for answer options without id or correctness, which has to be preserved
+            if (answerOption.getId() == null || (answerOption.isIsCorrect() == null && !answerOption.isInvalid())) {
+                return null;
+            }
+            answerOptionIds[i] = answerOption.getId();
+        }
+        Arrays.sort(answerOptionIds);
+        for (int i = 1; i < answerOptionIds.length; i++) {
+            if (answerOptionIds[i - 1] == answerOptionIds[i]) {
+                // the same answer option is contained twice
+                return null;
+            }
+        }
+        long correctOptions = 0;
+        long invalidOptions = 0;
+        for (AnswerOption answerOption : answerOptions) {
+            int index = Arrays.binarySearch(answerOptionIds, answerOption.getId());
+            if (answerOption.isInvalid()) {
+                invalidOptions |= 1L << index;
+            }
+            else if (answerOption.isIsCorrect()) {
+                correctOptions |= 1L << index;
+            }
+        }
+        return new MultipleChoiceAnswerKey(question, answerOptionIds, correctOptions, invalidOptions);
+    }
+
+    @Override
+    public double calculateScore(SubmittedAnswer submittedAnswer) {
+        // check if the quizQuestion is invalid: if true: -> return with full points
+        if (questionInvalid) {
+            return score;
+        }
+        if (!(submittedAnswer instanceof MultipleChoiceSubmittedAnswer)) {
+            // the submitted answer's type doesn't fit the quizQuestion's type => it cannot be correct
+            return 0.0;
+        }
+        Set<AnswerOption> selectedOptions = ((MultipleChoiceSubmittedAnswer) submittedAnswer).getSelectedOptions();
+        if (selectedOptions == null) {
+            return NOT_SCORED;
+        }
+        long selected = 0;
+        for (AnswerOption selectedOption : selectedOptions) {
+            if (selectedOption.getId() == null) {
+                return NOT_SCORED;
+            }
+            int index = Arrays.binarySearch(answerOptionIds, selectedOption.getId());
+            // selected answer options that do not belong to the question are ignored
+            if (index >= 0) {
+                selected |= 1L << index;
+            }
+        }
+        // invalid answer options are treated as if they were answered correctly
+        long answeredCorrectly = (invalidOptions | ~(selected ^ correctOptions)) & allOptions;
+
+        if (allOrNothing) {
+            return answeredCorrectly == allOptions ? score : 0.0;
+        }
+        double totalOptions = answerOptionIds.length;
+        double correctSelections = Long.bitCount(answeredCorrectly);
+        double incorrectSelections = totalOptions - correctSelections;
+        double fraction = ((correctSelections / totalOptions) - (incorrectSelections / totalOptions));
+        return Math.max(0, score * fraction);
+    }
+}
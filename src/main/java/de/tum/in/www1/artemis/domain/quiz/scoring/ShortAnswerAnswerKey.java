@@ -0,0 +1,187 @@
+package de.tum.in.www1.artemis.domain.quiz.scoring;
+
+import java.util.List;
+import java.util.Set;
+
+import de.tum.in.www1.artemis.domain.SubmittedAnswer;
+import de.tum.in.www1.artemis.domain.enumeration.ScoringType;
+import de.tum.in.www1.artemis.domain.quiz.*;
+import me.xdrop.fuzzywuzzy.FuzzySearch;
+
+/**
+ * The compiled answer key of a short answer question: for each spot (in the order of the question) its correct solutions, already converted to lower case. Calculates the same
+ * scores as {@link ScoringStrategyShortAnswerAllOrNothing} and {@link ScoringStrategyShortAnswerProportionalWithPenalty} and marks the submitted texts as correct or incorrect
+ * like {@link ScoringStrategyShortAnswerUtil}.
+ */
+class ShortAnswerAnswerKey implements CompiledAnswerKey {
+
+    /**
+     * the minimal similarity (see FuzzySearch.ratio) of a submitted text and a solution, see ShortAnswerSubmittedText.isSubmittedTextCorrect(...)
+     */
+    private static final int MIN_SIMILARITY = 85;
+
+    private final boolean questionInvalid;
+
+    private final boolean allOrNothing;
+
+    private final int score;
+
+    private final long[] spotIds;
+
+    private final boolean[] spotInvalid;
+
+    /**
+     * the correct solutions of each spot, in the same order in which the ScoringStrategy checks them. A solution is identified by its index in the solutions of the question, so
+     * that each solution is only used once per answer.
+     */
+    private final int[][] solutionIndices;
+
+    private final String[][] solutionTexts;
+
+    private ShortAnswerAnswerKey(ShortAnswerQuestion question, long[] spotIds, boolean[] spotInvalid, int[][] solutionIndices, String[][] solutionTexts) {
+        this.questionInvalid = question.isInvalid();
+        this.allOrNothing = question.getScoringType() == ScoringType.ALL_OR_NOTHING;
+        this.score = question.getScore();
+        this.spotIds = spotIds;
+        this.spotInvalid = spotInvalid;
+        this.solutionIndices = solutionIndices;
+        this.solutionTexts = solutionTexts;
+    }
+
+    /**
+     * Compile the answer key of the given question
+     *
+     * @param question the question (including its spots, solutions and correct mappings)
+     * @return the answer key or null if the question cannot be compiled (then the ScoringStrategy has to be used)
+     */
+    static ShortAnswerAnswerKey compile(ShortAnswerQuestion question) {
+        List<ShortAnswerSpot> spots = question.getSpots();
+        List<ShortAnswerSolution> solutions = question.getSolutions();
+        if (question.getScore() == null || spots == null || solutions == null || question.getCorrectMappings() == null || solutions.size() > Long.SIZE) {
+            return null;
+        }
+        for (int i = 0; i < solutions.size(); i++) {
+            // solutions are identified by id, temporary ids would match differently
+            if (solutions.get(i) == null || solutions.get(i).getTempID() != null || solutions.indexOf(solutions.get(i)) != i) {
+                return null;
+            }
+        }
+        for (ShortAnswerMapping mapping : question.getCorrectMappings()) {
+            if (mapping.getSpot() == null || mapping.getSolution() == null || mapping.getSolution().getTempID() != null) {
+                return null;
+            }
+        }
+        long[] spotIds = new long[spots.size()];
+        boolean[] spotInvalid = new boolean[spots.size()];
+        int[][] solutionIndices = new int[spots.size()][];
+        String[][] solutionTexts = new String[spots.size()][];
+        for (int i = 0; i < spots.size(); i++) {
+            ShortAnswerSpot spot = spots.get(i);
+            // the answers are matched by id, temporary ids would match differently
+            if (spot.getClass() != ShortAnswerSpot.class || spot.getId() == null || spot.getTempID() != null) {
+                return null;
+            }
+            spotIds[i] = spot.getId();
+            spotInvalid[i] = spot.isInvalid() == Boolean.TRUE;
+
+            // the iteration order of this set decides which solution is used if several are similar to the submitted text
+            Set<ShortAnswerSolution> solutionsForSpot = question.getCorrectSolutionForSpot(spot);
+            solutionIndices[i] = new int[solutionsForSpot.size()];
+            solutionTexts[i] = new String[solutionsForSpot.size()];
+            int j = 0;
+            for (ShortAnswerSolution solution : solutionsForSpot) {
+                if (solution.getText() == null) {
+                    return null;
+                }
+                // solutions that are not contained in the question can never be used
+                solutionIndices[i][j] = solutions.indexOf(solution);
+                solutionTexts[i][j] = solution.getText().toLowerCase();
+                j++;
+            }
+        }
+        return new ShortAnswerAnswerKey(question, spotIds, spotInvalid, solutionIndices, solutionTexts);
+    }
+
+    @Override
+    public double calculateScore(SubmittedAnswer submittedAnswer) {
+        // check if the quizQuestion is invalid: if true: -> return with full points
+        if (questionInvalid) {
+            return score;
+        }
+        if (!(submittedAnswer instanceof ShortAnswerSubmittedAnswer)) {
+            // the submitted answer's type doesn't fit the quizQuestion's type => it cannot be correct
+            return 0.0;
+        }
+        Set<ShortAnswerSubmittedText> submittedTexts = ((ShortAnswerSubmittedAnswer) submittedAnswer).getSubmittedTexts();
+        if (submittedTexts == null) {
+            return NOT_SCORED;
+        }
+
+        int correctSolutionsCount = 0;
+        int incorrectSolutionsCount = 0;
+        long usedSolutions = 0;
+
+        // iterate through each spot and compare its correct solutions with the submitted texts
+        for (int i = 0; i < spotIds.length; i++) {
+            if (spotInvalid[i]) {
+                correctSolutionsCount++;
+                continue;
+            }
+            // like ShortAnswerSubmittedAnswer.getSubmittedTextForSpot(...), the first submitted text for the spot counts
+            ShortAnswerSubmittedText submittedTextForSpot = null;
+            for (ShortAnswerSubmittedText submittedText : submittedTexts) {
+                ShortAnswerSpot spot = submittedText.getSpot();
+                if (spot == null) {
+                    return NOT_SCORED;
+                }
+                if (spot.getClass() == ShortAnswerSpot.class && spot.getId() != null && spot.getId() == spotIds[i]) {
+                    submittedTextForSpot = submittedText;
+                    break;
+                }
+            }
+            if (submittedTextForSpot == null) {
+                continue;
+            }
+
+            submittedTextForSpot.setIsCorrect(false);
+            int[] solutionIndicesForSpot = solutionIndices[i];
+            String text = null;
+            if (solutionIndicesForSpot.length > 0) {
+                if (submittedTextForSpot.getText() == null) {
+                    return NOT_SCORED;
+                }
+                text = submittedTextForSpot.getText().toLowerCase();
+            }
+            boolean foundCorrectSolution = false;
+            for (int j = 0; j < solutionIndicesForSpot.length; j++) {
+                int solutionIndex = solutionIndicesForSpot[j];
+                if (solutionIndex >= 0 && (usedSolutions & (1L << solutionIndex)) == 0 && isSimilar(text, solutionTexts[i][j])) {
+                    usedSolutions |= 1L << solutionIndex;
+                    submittedTextForSpot.setIsCorrect(true);
+                    correctSolutionsCount++;
+                    foundCorrectSolution = true;
+                    break;
+                }
+            }
+            if (!foundCorrectSolution) {
+                incorrectSolutionsCount++;
+            }
+        }
+
+        if (allOrNothing) {
+            return correctSolutionsCount == spotIds.length ? score : 0.0;
+        }
+        double totalSolutionsCount = spotIds.length;
+        // every correct mapping increases fraction by 1/mapped spots, every incorrect mapping decreases fraction by 1/mapped spots
+        double fraction = ((correctSolutionsCount / totalSolutionsCount) - (incorrectSolutionsCount / totalSolutionsCount));
+        return Math.max(0, score * fraction);
+    }
+
+    private static boolean isSimilar(String text, String solutionText) {
+        // equal texts are always similar enough, only the fuzzy comparison is expensive
+        if (!text.isEmpty() && text.equals(solutionText)) {
+            return true;
+        }
+        return FuzzySearch.ratio(text, solutionText) > MIN_SIMILARITY;
+    }
+}
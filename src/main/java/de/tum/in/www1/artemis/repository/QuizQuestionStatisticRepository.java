@@ -1,6 +1,9 @@
 package de.tum.in.www1.artemis.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import de.tum.in.www1.artemis.domain.quiz.QuizQuestionStatistic;
@@ -8,8 +11,19 @@ import de.tum.in.www1.artemis.domain.quiz.QuizQuestionStatistic;
 /**
  * Spring Data JPA repository for the QuizQuestionStatistic entity.
  */
-@SuppressWarnings("unused")
 @Repository
 public interface QuizQuestionStatisticRepository extends JpaRepository<QuizQuestionStatistic, Long> {
 
+    /**
+     * Add the given values to the correct counters of the statistic without loading it
+     *
+     * @param statisticId                the id of the question statistic
+     * @param ratedCorrectCounterDelta   the value that is added to the rated correct counter
+     * @param unRatedCorrectCounterDelta the value that is added to the unrated correct counter
+     */
+    @Modifying
+    @Query("update QuizQuestionStatistic statistic set statistic.ratedCorrectCounter = statistic.ratedCorrectCounter + :#{#ratedCorrectCounterDelta}, "
+            + "statistic.unRatedCorrectCounter = statistic.unRatedCorrectCounter + :#{#unRatedCorrectCounterDelta} where statistic.id = :#{#statisticId}")
+    void incrementCorrectCounters(@Param("statisticId") Long statisticId, @Param("ratedCorrectCounterDelta") int ratedCorrectCounterDelta,
+            @Param("unRatedCorrectCounterDelta") int unRatedCorrectCounterDelta);
 }
@@ -2,6 +2,7 @@ package de.tum.in.www1.artemis.repository;
 
 import static org.springframework.data.jpa.repository.EntityGraph.EntityGraphType.LOAD;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,6 +31,11 @@ public interface ResultRepository extends JpaRepository<Result, Long> {
 
     List<Result> findByParticipationExerciseIdOrderByCompletionDateAsc(Long exerciseId);
 
+    @EntityGraph(type = LOAD, attributePaths = { "submission", "participation" })
+    List<Result> findAllWithEagerSubmissionAndParticipationByParticipationIdIn(Collection<Long> participationIds);
+
+    long countByParticipationExerciseId(Long exerciseId);
+
     // TODO: cleanup unused queries
 
     @Query("select r from Result r where r.completionDate = (select max(rr.completionDate) from Result rr where rr.participation.exercise.id = :exerciseId and rr.participation.student.id = r.participation.student.id) and r.participation.exercise.id = :exerciseId order by r.completionDate asc")
@@ -1,6 +1,9 @@
 package de.tum.in.www1.artemis.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import de.tum.in.www1.artemis.domain.quiz.QuizStatisticCounter;
@@ -8,8 +11,18 @@ import de.tum.in.www1.artemis.domain.quiz.QuizStatisticCounter;
 /**
  * Spring Data JPA repository for the QuizStatisticCounter entity.
  */
-@SuppressWarnings("unused")
 @Repository
 public interface StatisticCounterRepository extends JpaRepository<QuizStatisticCounter, Long> {
 
+    /**
+     * Add the given values to the counter without loading it
+     *
+     * @param counterId           the id of the counter
+     * @param ratedCounterDelta   the value that is added to the rated counter
+     * @param unRatedCounterDelta the value that is added to the unrated counter
+     */
+    @Modifying
+    @Query("update QuizStatisticCounter counter set counter.ratedCounter = counter.ratedCounter + :#{#ratedCounterDelta}, "
+            + "counter.unRatedCounter = counter.unRatedCounter + :#{#unRatedCounterDelta} where counter.id = :#{#counterId}")
+    void incrementCounters(@Param("counterId") Long counterId, @Param("ratedCounterDelta") int ratedCounterDelta, @Param("unRatedCounterDelta") int unRatedCounterDelta);
 }
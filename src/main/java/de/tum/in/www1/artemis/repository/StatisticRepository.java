@@ -1,6 +1,9 @@
 package de.tum.in.www1.artemis.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import de.tum.in.www1.artemis.domain.quiz.QuizStatistic;
@@ -8,8 +11,19 @@ import de.tum.in.www1.artemis.domain.quiz.QuizStatistic;
 /**
  * Spring Data JPA repository for the QuizStatistic entity.
  */
-@SuppressWarnings("unused")
 @Repository
 public interface StatisticRepository extends JpaRepository<QuizStatistic, Long> {
 
+    /**
+     * Add the given values to the participants of the statistic without loading it
+     *
+     * @param statisticId              the id of the statistic
+     * @param participantsRatedDelta   the value that is added to the rated participants
+     * @param participantsUnratedDelta the value that is added to the unrated participants
+     */
+    @Modifying
+    @Query("update QuizStatistic statistic set statistic.participantsRated = statistic.participantsRated + :#{#participantsRatedDelta}, "
+            + "statistic.participantsUnrated = statistic.participantsUnrated + :#{#participantsUnratedDelta} where statistic.id = :#{#statisticId}")
+    void incrementParticipants(@Param("statisticId") Long statisticId, @Param("participantsRatedDelta") int participantsRatedDelta,
+            @Param("participantsUnratedDelta") int participantsUnratedDelta);
 }
@@ -4,7 +4,9 @@ import static org.springframework.data.jpa.repository.EntityGraph.EntityGraphTyp
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -49,6 +51,27 @@ public interface StudentParticipationRepository extends JpaRepository<StudentPar
     @EntityGraph(type = LOAD, attributePaths = "submissions")
     Optional<StudentParticipation> findWithEagerSubmissionsByExerciseIdAndTeamId(Long exerciseId, Long teamId);
 
+    /**
+     * Get the logins of all students who have a submitted submission in the given exercise, e.g. the students who have already submitted a quiz
+     *
+     * @param exerciseId the id of the exercise
+     * @return the logins of the students
+     */
+    @Query("select distinct participation.student.login from StudentParticipation participation join participation.submissions submission where participation.exercise.id = :#{#exerciseId} and submission.submitted = true")
+    Set<String> findStudentLoginsWithSubmittedSubmissionByExerciseId(@Param("exerciseId") Long exerciseId);
+
+    /**
+     * Get the ids of the participations of the given exercise which follow the given id (keyset pagination), so that the participations of large exercises can be processed in
+     * chunks without keeping a database cursor (and its transaction) open
+     *
+     * @param exerciseId the id of the exercise
+     * @param lastId     the id of the last participation of the previous chunk, 0 for the first chunk
+     * @param pageable   the maximal number of ids, has to request the first page
+     * @return the ids of the participations, in ascending order
+     */
+    @Query("select participation.id from StudentParticipation participation where participation.exercise.id = :#{#exerciseId} and participation.id > :#{#lastId} order by participation.id asc")
+    List<Long> findIdsByExerciseIdAndIdGreaterThan(@Param("exerciseId") Long exerciseId, @Param("lastId") Long lastId, Pageable pageable);
+
     @Query("select distinct participation from StudentParticipation participation left join fetch participation.submissions s left join fetch s.result where participation.exercise.id = :#{#exerciseId}")
     List<StudentParticipation> findByExerciseIdWithEagerSubmissionsResult(@Param("exerciseId") Long exerciseId);
 
@@ -7,19 +7,19 @@ import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.messaging.simp.SimpMessageSendingOperations;
 import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 import de.tum.in.www1.artemis.domain.*;
-import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
 import de.tum.in.www1.artemis.domain.quiz.*;
 import de.tum.in.www1.artemis.domain.view.QuizView;
 import de.tum.in.www1.artemis.repository.*;
+import de.tum.in.www1.artemis.service.scheduled.quiz.QuizPayloadCache;
+import de.tum.in.www1.artemis.service.scheduled.quiz.QuizSessionRegistry;
+import de.tum.in.www1.artemis.service.scheduled.quiz.QuizWorkingTimeScheduler;
 
 @Service
 public class QuizExerciseService {
@@ -34,29 +34,28 @@ public class QuizExerciseService {
 
     private final AuthorizationCheckService authCheckService;
 
-    private final ResultRepository resultRepository;
-
-    private final QuizSubmissionRepository quizSubmissionRepository;
-
     private final SimpMessageSendingOperations messagingTemplate;
 
     private final UserService userService;
 
-    private final ObjectMapper objectMapper;
+    private final QuizPayloadCache quizPayloadCache;
+
+    private final QuizSessionRegistry quizSessionRegistry;
+
+    private final QuizWorkingTimeScheduler quizWorkingTimeScheduler;
 
     public QuizExerciseService(UserService userService, QuizExerciseRepository quizExerciseRepository, DragAndDropMappingRepository dragAndDropMappingRepository,
-            ShortAnswerMappingRepository shortAnswerMappingRepository, AuthorizationCheckService authCheckService, ResultRepository resultRepository,
-            QuizSubmissionRepository quizSubmissionRepository, SimpMessageSendingOperations messagingTemplate,
-            MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter) {
+            ShortAnswerMappingRepository shortAnswerMappingRepository, AuthorizationCheckService authCheckService, SimpMessageSendingOperations messagingTemplate,
+            QuizPayloadCache quizPayloadCache, QuizSessionRegistry quizSessionRegistry, QuizWorkingTimeScheduler quizWorkingTimeScheduler) {
         this.userService = userService;
         this.quizExerciseRepository = quizExerciseRepository;
         this.dragAndDropMappingRepository = dragAndDropMappingRepository;
         this.shortAnswerMappingRepository = shortAnswerMappingRepository;
         this.authCheckService = authCheckService;
-        this.resultRepository = resultRepository;
-        this.quizSubmissionRepository = quizSubmissionRepository;
         this.messagingTemplate = messagingTemplate;
-        this.objectMapper = mappingJackson2HttpMessageConverter.getObjectMapper();
+        this.quizPayloadCache = quizPayloadCache;
+        this.quizSessionRegistry = quizSessionRegistry;
+        this.quizWorkingTimeScheduler = quizWorkingTimeScheduler;
     }
 
     /**
@@ -153,6 +152,10 @@ public class QuizExerciseService {
         // Note: save will automatically remove deleted questions from the exercise and deleted answer options from the questions
         // and delete the now orphaned entries from the database
         quizExercise = quizExerciseRepository.save(quizExercise);
+        // the cached payloads, the session of the quiz and the working times of the students (which depend on the duration) are outdated now
+        quizPayloadCache.invalidate(quizExercise.getId());
+        quizSessionRegistry.evict(quizExercise.getId());
+        quizWorkingTimeScheduler.evict(quizExercise.getId());
 
         // fix references in all drag and drop questions and short answer questions (step 2/2)
         for (QuizQuestion quizQuestion : quizExercise.getQuizQuestions()) {
@@ -261,50 +264,22 @@ public class QuizExerciseService {
         return quizExerciseRepository.findByIsPlannedToStartAndReleaseDateIsAfter(true, ZonedDateTime.now());
     }
 
-    /**
-     * adjust existing results if an answer or and question was deleted and recalculate the scores
-     *
-     * @param quizExercise the changed quizExercise.
-     */
-    public void adjustResultsOnQuizChanges(QuizExercise quizExercise) {
-        // change existing results if an answer or and question was deleted
-        for (Result result : resultRepository.findByParticipationExerciseIdOrderByCompletionDateAsc(quizExercise.getId())) {
-
-            Set<SubmittedAnswer> submittedAnswersToDelete = new HashSet<>();
-            QuizSubmission quizSubmission = quizSubmissionRepository.findById(result.getSubmission().getId()).get();
-
-            for (SubmittedAnswer submittedAnswer : quizSubmission.getSubmittedAnswers()) {
-                // Delete all references to question and question-elements if the question was changed
-                submittedAnswer.checkAndDeleteReferences(quizExercise);
-                if (!quizExercise.getQuizQuestions().contains(submittedAnswer.getQuizQuestion())) {
-                    submittedAnswersToDelete.add(submittedAnswer);
-                }
-            }
-            quizSubmission.getSubmittedAnswers().removeAll(submittedAnswersToDelete);
-
-            // recalculate existing score
-            quizSubmission.calculateAndUpdateScores(quizExercise);
-            // update Successful-Flag in Result
-            StudentParticipation studentParticipation = (StudentParticipation) result.getParticipation();
-            studentParticipation.setExercise(quizExercise);
-            result.setSubmission(quizSubmission);
-            result.evaluateSubmission();
-
-            // save the updated Result and its Submission
-            quizSubmissionRepository.save(quizSubmission);
-            resultRepository.save(result);
-        }
-    }
-
     /**
      * Sends a QuizExercise to all subscribed clients
      * @param quizExercise the QuizExercise which will be sent
      */
     public void sendQuizExerciseToSubscribedClients(QuizExercise quizExercise) {
+        // the quiz is sent when it starts or when it has been changed, so the session in which the students save their submissions is (re-)registered
+        if (Boolean.TRUE.equals(quizExercise.isIsPlannedToStart())) {
+            quizSessionRegistry.register(quizExercise);
+        }
+        else {
+            quizSessionRegistry.evict(quizExercise.getId());
+        }
         try {
             long start = System.currentTimeMillis();
             Class view = viewForStudentsInQuizExercise(quizExercise);
-            byte[] payload = objectMapper.writerWithView(view).writeValueAsBytes(quizExercise);
+            byte[] payload = quizPayloadCache.getQuizExercisePayload(quizExercise, view);
             messagingTemplate.send("/topic/quizExercise/" + quizExercise.getId(), MessageBuilder.withPayload(payload).build());
             log.info("    sent out quizExercise to all listening clients in {} ms", System.currentTimeMillis() - start);
         }
@@ -0,0 +1,208 @@
+package de.tum.in.www1.artemis.service;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.tum.in.www1.artemis.domain.quiz.QuizExercise;
+import de.tum.in.www1.artemis.domain.quiz.scoring.CompiledQuizAnswerKey;
+import de.tum.in.www1.artemis.repository.ResultRepository;
+import de.tum.in.www1.artemis.service.scheduled.quiz.QuizResultBatchService;
+import de.tum.in.www1.artemis.web.websocket.dto.QuizReEvaluationProgressDTO;
+import de.tum.in.www1.artemis.web.websocket.dto.QuizReEvaluationProgressDTO.Status;
+
+/**
+ * Re-evaluates the results of a changed quiz exercise in the background. The ids of the participations are read from the database with keyset pagination and their results are
+ * adjusted in chunks, which are processed in parallel and each saved in its own (short) transaction. No results are kept after a chunk has been saved, the statistics are
+ * recalculated afterwards in chunks as well. The progress is sent to /topic/quizExercise/{quizExerciseId}/re-evaluation.
+ */
+@Service
+public class QuizReEvaluationService {
+
+    private static final Logger log = LoggerFactory.getLogger(QuizReEvaluationService.class);
+
+    /**
+     * the number of participations whose results are adjusted and saved in one transaction
+     */
+    private static final int CHUNK_SIZE = 200;
+
+    /**
+     * the number of chunks which are processed in parallel, each of them needs a database connection
+     */
+    private static final int PARALLEL_CHUNKS = 4;
+
+    /**
+     * the maximal time the shutdown of the server waits for a running re-evaluation
+     */
+    private static final long SHUTDOWN_TIMEOUT_MINUTES = 10;
+
+    private final QuizExerciseService quizExerciseService;
+
+    private final QuizStatisticService quizStatisticService;
+
+    private final QuizResultBatchService quizResultBatchService;
+
+    private final ResultRepository resultRepository;
+
+    private final SimpMessageSendingOperations messagingTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * one re-evaluation after the other, so that re-evaluations of different quizzes do not compete for the chunk executor
+     */
+    private final ExecutorService reEvaluationExecutor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("QuizReEvaluation-"));
+
+    private final ExecutorService chunkExecutor = Executors.newFixedThreadPool(PARALLEL_CHUNKS, new CustomizableThreadFactory("QuizReEvaluationChunk-"));
+
+    /**
+     * quizExerciseId -> the running (or waiting) re-evaluation
+     */
+    private final Map<Long, CompletableFuture<Void>> reEvaluations = new ConcurrentHashMap<>();
+
+    private volatile boolean shuttingDown = false;
+
+    public QuizReEvaluationService(QuizExerciseService quizExerciseService, QuizStatisticService quizStatisticService, QuizResultBatchService quizResultBatchService,
+            ResultRepository resultRepository, SimpMessageSendingOperations messagingTemplate, MappingJackson2HttpMessageConverter springMvcJacksonConverter) {
+        this.quizExerciseService = quizExerciseService;
+        this.quizStatisticService = quizStatisticService;
+        this.quizResultBatchService = quizResultBatchService;
+        this.resultRepository = resultRepository;
+        this.messagingTemplate = messagingTemplate;
+        this.objectMapper = springMvcJacksonConverter.getObjectMapper();
+    }
+
+    /**
+     * Start the re-evaluation of the given quiz exercise: the existing results are adjusted to the changes (deleted questions and answers are removed and the scores are
+     * calculated again), then the quiz exercise is saved and, if necessary, the statistics are recalculated. The quiz exercise can only be saved after the results have been
+     * adjusted, because the submitted answers reference the questions and answers which are deleted.
+     *
+     * The re-evaluation works on a copy of the quiz exercise, so that the given object can be sent to the client in the meantime.
+     *
+     * @param quizExercise                the changed quiz exercise (with the unallowed changes undone)
+     * @param updateOfStatisticsNecessary whether the statistics have to be recalculated
+     * @return the re-evaluation, which completes when the quiz exercise has been saved, or an empty optional if the quiz exercise is already being re-evaluated
+     */
+    public Optional<CompletableFuture<Void>> reEvaluate(QuizExercise quizExercise, boolean updateOfStatisticsNecessary) {
+        Long quizExerciseId = quizExercise.getId();
+        CompletableFuture<Void> reEvaluation = new CompletableFuture<>();
+        if (reEvaluations.putIfAbsent(quizExerciseId, reEvaluation) != null) {
+            return Optional.empty();
+        }
+        try {
+            QuizExercise changedQuizExercise = copy(quizExercise);
+            reEvaluationExecutor.execute(() -> {
+                try {
+                    if (shuttingDown) {
+                        // nothing has been changed yet, the instructor can start the re-evaluation again after the restart
+                        sendProgress(quizExerciseId, Status.FAILED, 0, 0);
+                        throw new IllegalStateException("The re-evaluation of quiz " + quizExerciseId + " was not started before the shutdown of the server");
+                    }
+                    adjustResultsAndSave(changedQuizExercise, updateOfStatisticsNecessary);
+                    reEvaluations.remove(quizExerciseId, reEvaluation);
+                    reEvaluation.complete(null);
+                }
+                catch (Exception e) {
+                    reEvaluations.remove(quizExerciseId, reEvaluation);
+                    reEvaluation.completeExceptionally(e);
+                }
+            });
+        }
+        catch (IOException | RejectedExecutionException e) {
+            reEvaluations.remove(quizExerciseId, reEvaluation);
+            throw new IllegalStateException("The re-evaluation of quiz " + quizExerciseId + " could not be started", e);
+        }
+        return Optional.of(reEvaluation);
+    }
+
+    /**
+     * Get the re-evaluation of the given quiz exercise
+     *
+     * @param quizExerciseId the id of the quiz exercise
+     * @return the running (or waiting) re-evaluation or an empty optional if the quiz exercise is not being re-evaluated
+     */
+    public Optional<CompletableFuture<Void>> getReEvaluation(Long quizExerciseId) {
+        return Optional.ofNullable(reEvaluations.get(quizExerciseId));
+    }
+
+    /**
+     * Let a running re-evaluation finish before the server shuts down. Its results are adjusted in chunks which are saved immediately, but the changed quiz exercise is only
+     * saved afterwards, so an interrupted re-evaluation would leave results that do not match the saved quiz exercise. Re-evaluations that have not been started yet are
+     * cancelled.
+     */
+    @PreDestroy
+    public void shutdown() {
+        shuttingDown = true;
+        reEvaluationExecutor.shutdown();
+        try {
+            if (!reEvaluationExecutor.awaitTermination(SHUTDOWN_TIMEOUT_MINUTES, TimeUnit.MINUTES)) {
+                log.error("The running quiz re-evaluation did not finish within {} minutes before the shutdown", SHUTDOWN_TIMEOUT_MINUTES);
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        chunkExecutor.shutdown();
+    }
+
+    private void adjustResultsAndSave(QuizExercise quizExercise, boolean updateOfStatisticsNecessary) {
+        Long quizExerciseId = quizExercise.getId();
+        long start = System.currentTimeMillis();
+        long totalResults = 0;
+        AtomicLong processedResults = new AtomicLong();
+        try {
+            totalResults = resultRepository.countByParticipationExerciseId(quizExerciseId);
+            sendProgress(quizExerciseId, Status.RUNNING, 0, totalResults);
+            // the changed quiz is only compiled once for all results
+            CompiledQuizAnswerKey answerKey = CompiledQuizAnswerKey.compile(quizExercise);
+            // limits the chunks which have been read but not saved yet, no database connection is kept while waiting, as every chunk is read in its own query
+            Semaphore pendingChunks = new Semaphore(2 * PARALLEL_CHUNKS);
+            List<CompletableFuture<Void>> chunks = new ArrayList<>();
+            long total = totalResults;
+            quizResultBatchService.forEachChunkOfParticipationIds(quizExerciseId, CHUNK_SIZE, participationIds -> {
+                pendingChunks.acquireUninterruptibly();
+                chunks.add(CompletableFuture.runAsync(() -> {
+                    int reEvaluatedResults = quizResultBatchService.reEvaluateResults(quizExercise, answerKey, participationIds);
+                    sendProgress(quizExerciseId, Status.RUNNING, processedResults.addAndGet(reEvaluatedResults), total);
+                }, chunkExecutor).whenComplete((ignored, error) -> pendingChunks.release()));
+            });
+            CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).join();
+
+            QuizExercise savedQuizExercise = quizExerciseService.save(quizExercise);
+            if (updateOfStatisticsNecessary) {
+                // the statistics can only be recalculated after the quiz exercise has been saved, as saving it updates the counters of the changed answers
+                quizStatisticService.recalculateStatistics(savedQuizExercise);
+            }
+            log.info("Re-evaluated {} results of quiz {} in {} ms", processedResults.get(), quizExerciseId, System.currentTimeMillis() - start);
+            sendProgress(quizExerciseId, Status.FINISHED, processedResults.get(), totalResults);
+        }
+        catch (RuntimeException e) {
+            log.error("The re-evaluation of quiz {} failed after {} of {} results", quizExerciseId, processedResults.get(), totalResults, e);
+            sendProgress(quizExerciseId, Status.FAILED, processedResults.get(), totalResults);
+            throw e;
+        }
+    }
+
+    private void sendProgress(Long quizExerciseId, Status status, long processedResults, long totalResults) {
+        messagingTemplate.convertAndSend("/topic/quizExercise/" + quizExerciseId + "/re-evaluation", new QuizReEvaluationProgressDTO(status, processedResults, totalResults));
+    }
+
+    private QuizExercise copy(QuizExercise quizExercise) throws IOException {
+        // the quiz exercise has been deserialized from the request, so it is copied in the same way
+        QuizExercise copy = objectMapper.readValue(objectMapper.writeValueAsBytes(quizExercise), QuizExercise.class);
+        copy.reconnectJSONIgnoreAttributes();
+        return copy;
+    }
+}
@@ -1,30 +1,32 @@
 package de.tum.in.www1.artemis.service;
 
-import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.messaging.simp.SimpMessageSendingOperations;
 import org.springframework.stereotype.Service;
 
 import de.tum.in.www1.artemis.domain.*;
-import de.tum.in.www1.artemis.domain.participation.Participation;
 import de.tum.in.www1.artemis.domain.quiz.QuizExercise;
 import de.tum.in.www1.artemis.domain.quiz.QuizQuestion;
-import de.tum.in.www1.artemis.domain.quiz.QuizQuestionStatistic;
 import de.tum.in.www1.artemis.domain.quiz.QuizSubmission;
 import de.tum.in.www1.artemis.repository.*;
+import de.tum.in.www1.artemis.service.scheduled.quiz.QuizResultBatchService;
+import de.tum.in.www1.artemis.service.scheduled.quiz.QuizStatisticAggregator;
+import de.tum.in.www1.artemis.service.scheduled.quiz.QuizStatisticPublisher;
 
 @Service
 public class QuizStatisticService {
 
     private final Logger log = LoggerFactory.getLogger(QuizStatisticService.class);
 
-    private final SimpMessageSendingOperations messagingTemplate;
-
-    private final StudentParticipationRepository studentParticipationRepository;
+    /**
+     * the number of participations whose results are loaded at once when the statistics are recalculated
+     */
+    private static final int CHUNK_SIZE = 200;
 
     private final ResultRepository resultRepository;
 
@@ -32,18 +34,28 @@ public class QuizStatisticService {
 
     private final QuizQuestionStatisticRepository quizQuestionStatisticRepository;
 
-    public QuizStatisticService(SimpMessageSendingOperations messagingTemplate, StudentParticipationRepository studentParticipationRepository, ResultRepository resultRepository,
-            QuizPointStatisticRepository quizPointStatisticRepository, QuizQuestionStatisticRepository quizQuestionStatisticRepository) {
-        this.messagingTemplate = messagingTemplate;
-        this.studentParticipationRepository = studentParticipationRepository;
+    private final QuizStatisticAggregator quizStatisticAggregator;
+
+    private final QuizStatisticPublisher quizStatisticPublisher;
+
+    private final QuizResultBatchService quizResultBatchService;
+
+    public QuizStatisticService(ResultRepository resultRepository, QuizPointStatisticRepository quizPointStatisticRepository,
+            QuizQuestionStatisticRepository quizQuestionStatisticRepository, QuizStatisticAggregator quizStatisticAggregator, QuizStatisticPublisher quizStatisticPublisher,
+            QuizResultBatchService quizResultBatchService) {
         this.resultRepository = resultRepository;
         this.quizPointStatisticRepository = quizPointStatisticRepository;
         this.quizQuestionStatisticRepository = quizQuestionStatisticRepository;
+        this.quizStatisticAggregator = quizStatisticAggregator;
+        this.quizStatisticPublisher = quizStatisticPublisher;
+        this.quizResultBatchService = quizResultBatchService;
     }
 
     /**
      * 1. Go through all Results in the Participation and recalculate the score 2. recalculate the statistics of the given quizExercise
      *
+     * The results are loaded in chunks of participations and added to the statistic counters chunk by chunk, so that only the results of one chunk are kept in memory.
+     *
      * @param quizExercise the changed QuizExercise object which will be used to recalculate the existing Results and Statistics
      */
     public void recalculateStatistics(QuizExercise quizExercise) {
@@ -56,29 +68,10 @@ public class QuizStatisticService {
             }
         }
 
-        // add the Results in every participation of the given quizExercise to the statistics
-        for (Participation participation : studentParticipationRepository.findByExerciseId(quizExercise.getId())) {
-
-            Result latestRatedResult = null;
-            Result latestUnratedResult = null;
-
-            // update all Results of a participation
-            for (Result result : resultRepository.findAllByParticipationIdOrderByCompletionDateDesc(participation.getId())) {
-
-                // find latest rated Result
-                if (result.isRated() == Boolean.TRUE && (latestRatedResult == null || latestRatedResult.getCompletionDate().isBefore(result.getCompletionDate()))) {
-                    latestRatedResult = result;
-                }
-                // find latest unrated Result
-                if (result.isRated() == Boolean.FALSE && (latestUnratedResult == null || latestUnratedResult.getCompletionDate().isBefore(result.getCompletionDate()))) {
-                    latestUnratedResult = result;
-                }
-            }
-            // update statistics with latest rated und unrated Result
-            this.addResultToAllStatistics(quizExercise, latestRatedResult);
-            this.addResultToAllStatistics(quizExercise, latestUnratedResult);
+        // update statistics with latest rated und unrated Result of every participation, all results of a participation are in the same chunk
+        quizResultBatchService.forEachChunkOfParticipationIds(quizExercise.getId(), CHUNK_SIZE, participationIds -> addLatestResultsToAllStatistics(quizExercise,
+                resultRepository.findAllWithEagerSubmissionAndParticipationByParticipationIdIn(participationIds)));
 
-        }
         // save changed Statistics
         quizPointStatisticRepository.save(quizExercise.getQuizPointStatistic());
         for (QuizQuestion quizQuestion : quizExercise.getQuizQuestions()) {
@@ -86,17 +79,44 @@ public class QuizStatisticService {
                 quizQuestionStatisticRepository.save(quizQuestion.getQuizQuestionStatistic());
             }
         }
+        // the aggregated statistics are outdated now
+        quizStatisticAggregator.evict(quizExercise.getId());
+    }
+
+    /**
+     * add the latest rated and unrated Result of every participation to all Statistics of the given QuizExercise
+     *
+     * @param quizExercise contains the object of the quiz, where the Results will be added
+     * @param results      all results of the participations (including their submissions)
+     */
+    private void addLatestResultsToAllStatistics(QuizExercise quizExercise, List<Result> results) {
+        // participationId -> the latest rated / unrated Result
+        Map<Long, Result> latestRatedResults = new HashMap<>();
+        Map<Long, Result> latestUnratedResults = new HashMap<>();
+        for (Result result : results) {
+            if (result.isRated() == null || result.getParticipation() == null) {
+                continue;
+            }
+            Map<Long, Result> latestResults = result.isRated() ? latestRatedResults : latestUnratedResults;
+            latestResults.merge(result.getParticipation().getId(), result,
+                    (latestResult, otherResult) -> latestResult.getCompletionDate().isBefore(otherResult.getCompletionDate()) ? otherResult : latestResult);
+        }
+        latestRatedResults.values().forEach(result -> addResultToAllStatistics(quizExercise, result));
+        latestUnratedResults.values().forEach(result -> addResultToAllStatistics(quizExercise, result));
     }
 
     /**
      * 1. check for each result if it's rated -> true: check if there is an old Result -> true: remove the old Result from the statistics 2. add new Result to the
-     * quiz-point-statistic and all question-statistics
+     * quiz-point-statistic and all question-statistics 3. write the changes to the database and send the current statistics to the subscribed clients
+     *
+     * The statistics are aggregated in memory by the {@link QuizStatisticAggregator}, so only the changed counters are written to the database.
      *
-     * @param results the results, which will be added to the statistics
-     * @param quiz    the quizExercise with Questions where the results should contain to
+     * @param results        the results, which will be added to the statistics
+     * @param quizExerciseId the id of the quizExercise the results belong to
      */
-    public void updateStatistics(Set<Result> results, QuizExercise quiz) {
+    public void updateStatistics(Set<Result> results, Long quizExerciseId) {
 
+        QuizExercise quiz = quizStatisticAggregator.getQuizExercise(quizExerciseId);
         if (results != null && quiz != null && quiz.getQuizQuestions() != null) {
             log.debug("update statistics with " + results.size() + " new results");
 
@@ -104,23 +124,15 @@ public class QuizStatisticService {
                 // check if the result is rated
                 // NOTE: there is never an old Result if the new result is rated
                 if (result.isRated() == Boolean.FALSE) {
-                    removeResultFromAllStatistics(quiz, getPreviousResult(result));
-                }
-                addResultToAllStatistics(quiz, result);
-            }
-            // save statistics
-            quizPointStatisticRepository.save(quiz.getQuizPointStatistic());
-            List<QuizQuestionStatistic> quizQuestionStatistics = new ArrayList<>();
-            for (QuizQuestion quizQuestion : quiz.getQuizQuestions()) {
-                if (quizQuestion.getQuizQuestionStatistic() != null) {
-                    quizQuestionStatistics.add(quizQuestion.getQuizQuestionStatistic());
+                    quizStatisticAggregator.removeResult(quizExerciseId, getPreviousResult(result));
                 }
+                quizStatisticAggregator.addResult(quizExerciseId, result);
             }
-            quizQuestionStatisticRepository.saveAll(quizQuestionStatistics);
-            // notify users via websocket about new results for the statistics.
+            // save the changed counters
+            quizStatisticAggregator.flush(quizExerciseId);
+            // notify users via websocket about new results for the statistics, the updates are coalesced and only the changed values are sent.
             // filters out solution information
-            quiz.filterForStatisticWebsocket();
-            messagingTemplate.convertAndSend("/topic/statistic/" + quiz.getId(), quiz);
+            quizStatisticPublisher.publish(quizExerciseId, quizStatisticAggregator.getStatisticsForWebsocket(quizExerciseId));
         }
     }
 
@@ -165,27 +177,4 @@ public class QuizStatisticService {
             }
         }
     }
-
-    /**
-     * remove Result from all Statistics of the given QuizExercise
-     *
-     * @param quizExercise contains the object of the quiz, where the Results will be removed
-     * @param result       the result which will be removed (NOTE: add the submission to the result previously (this would improve the performance)
-     */
-    private void removeResultFromAllStatistics(QuizExercise quizExercise, Result result) {
-        // update QuizPointStatistic with the result
-        if (result != null) {
-            log.debug("remove result from all statistics " + result);
-            // check if result contains a quizSubmission if true -> a it's not necessary to fetch it from the database
-            QuizSubmission quizSubmission = (QuizSubmission) result.getSubmission();
-            quizExercise.getQuizPointStatistic().removeOldResult(result.getScore(), result.isRated());
-            for (QuizQuestion quizQuestion : quizExercise.getQuizQuestions()) {
-                // update QuestionStatistics with the result
-                if (quizQuestion.getQuizQuestionStatistic() != null) {
-                    quizQuestion.getQuizQuestionStatistic().removeOldResult(quizSubmission.getSubmittedAnswerForQuestion(quizQuestion), result.isRated());
-                }
-            }
-        }
-    }
-
 }
@@ -52,6 +52,11 @@ public interface CalculationEngine {
      */
     LocalDateTime getLastUsedAt();
 
+    /**
+     * @return the estimated number of bytes the engine occupies in memory, based on the number of models and model elements
+     */
+    long getEstimatedMemoryUsage();
+
     /**
      * Get the list of model IDs which have been selected for the next manual assessments. Typically these models are the ones where Compass learns the most, when they are
      * assessed. All returned models do not have a complete assessment.
@@ -0,0 +1,209 @@
+package de.tum.in.www1.artemis.service.compass;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.BiConsumer;
+import java.util.stream.LongStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Computes the automatic results of the modeling exercises in the background. Each exercise is owned by exactly one partition (determined by its id), and every partition is
+ * backed by a single thread, so the updates of the calculation engine of an exercise and the computation of its automatic results are executed one after another in the order
+ * they were submitted, while different exercises are processed concurrently.
+ *
+ * Repeated triggers of the automatic assessment of an exercise are coalesced: as long as the assessment of an exercise has not been started, further triggers are added to the
+ * pending assessment instead of queueing another one.
+ */
+public class CompassAssessmentQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(CompassAssessmentQueue.class);
+
+    /**
+     * Assesses the given submissions (or all submissions if the set is null) of the exercise with the given id automatically
+     */
+    private final BiConsumer<Long, Set<Long>> automaticAssessment;
+
+    private final ExecutorService[] partitions;
+
+    /**
+     * exerciseId -> automatic assessment that has been triggered, but not started yet
+     */
+    private final Map<Long, PendingAssessment> pendingAssessments = new HashMap<>();
+
+    /**
+     * exerciseId -> time (in ms) the running automatic assessment of the exercise has been triggered
+     */
+    private final Map<Long, Long> runningAssessments = new HashMap<>();
+
+    private final Timer assessmentDuration;
+
+    private final Counter coalescedAssessments;
+
+    /**
+     * Create the queue and register its metrics "artemis.compass.assessment.queue", "artemis.compass.assessment.staleness", "artemis.compass.assessment.duration" and
+     * "artemis.compass.assessment.coalesced"
+     *
+     * @param poolSize            the number of partitions (i.e. threads)
+     * @param automaticAssessment assesses the given submissions (or all submissions if the set is null) of the exercise with the given id automatically
+     * @param meterRegistry       the registry the metrics are published to
+     */
+    public CompassAssessmentQueue(int poolSize, BiConsumer<Long, Set<Long>> automaticAssessment, MeterRegistry meterRegistry) {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("The Compass assessment pool size must be at least 1, but was " + poolSize);
+        }
+        this.automaticAssessment = automaticAssessment;
+        partitions = new ExecutorService[poolSize];
+        for (int partition = 0; partition < poolSize; partition++) {
+            partitions[partition] = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("CompassAssessment-" + partition + "-"));
+        }
+
+        Gauge.builder("artemis.compass.assessment.queue", this, CompassAssessmentQueue::getQueueSize).description("Number of exercises waiting for their automatic assessment")
+                .register(meterRegistry);
+        Gauge.builder("artemis.compass.assessment.staleness", this, CompassAssessmentQueue::getStalenessMillis)
+                .description("Time in ms the oldest trigger of an automatic assessment that is not reflected in the automatic results yet has been waiting")
+                .baseUnit("milliseconds").register(meterRegistry);
+        assessmentDuration = Timer.builder("artemis.compass.assessment.duration").description("Time it takes to compute the automatic results of an exercise")
+                .register(meterRegistry);
+        coalescedAssessments = Counter.builder("artemis.compass.assessment.coalesced").description("Number of automatic assessments that were added to a pending assessment")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Execute the given update of the calculation engine on the partition that owns the given exercise and assess the given submissions automatically afterwards
+     *
+     * @param exerciseId    the id of the modeling exercise
+     * @param update        the update of the calculation engine of the exercise
+     * @param submissionIds the ids of the submissions that should be assessed after the update, null if all submissions should be assessed
+     * @return a future that completes when the submissions have been assessed
+     */
+    public CompletableFuture<Void> submit(long exerciseId, Runnable update, Set<Long> submissionIds) {
+        try {
+            return CompletableFuture.runAsync(update, partitions[partitionOf(exerciseId)]).thenCompose(ignored -> assess(exerciseId, submissionIds));
+        }
+        catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Assess the given submissions of the exercise automatically. If the assessment of the exercise is pending already, the submissions are added to it.
+     *
+     * @param exerciseId    the id of the modeling exercise
+     * @param submissionIds the ids of the submissions that should be assessed, null if all submissions should be assessed
+     * @return a future that completes when the submissions have been assessed
+     */
+    public CompletableFuture<Void> assess(long exerciseId, Set<Long> submissionIds) {
+        PendingAssessment pendingAssessment;
+        synchronized (this) {
+            pendingAssessment = pendingAssessments.get(exerciseId);
+            if (pendingAssessment != null) {
+                pendingAssessment.add(submissionIds);
+                coalescedAssessments.increment();
+                return pendingAssessment.assessed;
+            }
+            pendingAssessment = new PendingAssessment(submissionIds);
+            pendingAssessments.put(exerciseId, pendingAssessment);
+        }
+        try {
+            partitions[partitionOf(exerciseId)].execute(() -> runAssessment(exerciseId));
+        }
+        catch (RejectedExecutionException e) {
+            synchronized (this) {
+                pendingAssessments.remove(exerciseId);
+            }
+            pendingAssessment.assessed.completeExceptionally(e);
+        }
+        return pendingAssessment.assessed;
+    }
+
+    private void runAssessment(long exerciseId) {
+        PendingAssessment pendingAssessment;
+        synchronized (this) {
+            // further triggers from now on are not reflected by this assessment, so they start a new one
+            pendingAssessment = pendingAssessments.remove(exerciseId);
+            runningAssessments.put(exerciseId, pendingAssessment.triggeredAt);
+        }
+        try {
+            assessmentDuration.record(() -> automaticAssessment.accept(exerciseId, pendingAssessment.submissionIds));
+            pendingAssessment.assessed.complete(null);
+        }
+        catch (RuntimeException e) {
+            log.error("Could not assess the submissions of exercise " + exerciseId + " automatically", e);
+            pendingAssessment.assessed.completeExceptionally(e);
+        }
+        finally {
+            synchronized (this) {
+                runningAssessments.remove(exerciseId);
+            }
+        }
+    }
+
+    /**
+     * @param exerciseId the id of the modeling exercise
+     * @return the partition that owns the given exercise
+     */
+    int partitionOf(long exerciseId) {
+        return Math.floorMod(Long.hashCode(exerciseId), partitions.length);
+    }
+
+    /**
+     * @return the number of exercises whose automatic assessment has been triggered, but not started yet
+     */
+    public synchronized int getQueueSize() {
+        return pendingAssessments.size();
+    }
+
+    /**
+     * @return the time in ms the oldest trigger of an automatic assessment that is pending or running has been waiting, 0 if no assessment is pending or running
+     */
+    public synchronized long getStalenessMillis() {
+        OptionalLong oldestTrigger = LongStream.concat(pendingAssessments.values().stream().mapToLong(pendingAssessment -> pendingAssessment.triggeredAt),
+                runningAssessments.values().stream().mapToLong(Long::longValue)).min();
+        return oldestTrigger.isPresent() ? Math.max(0, System.currentTimeMillis() - oldestTrigger.getAsLong()) : 0;
+    }
+
+    /**
+     * Stop all partitions, e.g. when the server shuts down
+     */
+    public void shutdown() {
+        for (ExecutorService partition : partitions) {
+            partition.shutdownNow();
+        }
+    }
+
+    /**
+     * An automatic assessment of an exercise that has been triggered, but not started yet
+     */
+    private static class PendingAssessment {
+
+        private final long triggeredAt = System.currentTimeMillis();
+
+        private final CompletableFuture<Void> assessed = new CompletableFuture<>();
+
+        /**
+         * the ids of the submissions to assess, null if all submissions of the exercise are assessed
+         */
+        private Set<Long> submissionIds;
+
+        private PendingAssessment(Set<Long> submissionIds) {
+            this.submissionIds = submissionIds != null ? new HashSet<>(submissionIds) : null;
+        }
+
+        private void add(Set<Long> submissionIds) {
+            if (submissionIds == null) {
+                this.submissionIds = null;
+            }
+            else if (this.submissionIds != null) {
+                this.submissionIds.addAll(submissionIds);
+            }
+        }
+    }
+}
@@ -1,16 +1,21 @@
 package de.tum.in.www1.artemis.service.compass;
 
-import static com.google.gson.JsonParser.parseString;
 import static de.tum.in.www1.artemis.service.compass.utils.CompassConfiguration.ELEMENT_CONFIDENCE_THRESHOLD;
+import static de.tum.in.www1.artemis.service.compass.utils.CompassConfiguration.ESTIMATED_MEMORY_PER_ELEMENT;
+import static de.tum.in.www1.artemis.service.compass.utils.CompassConfiguration.ESTIMATED_MEMORY_PER_MODEL;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.util.Pair;
 
 import com.google.gson.JsonObject;
 
@@ -26,6 +31,7 @@ import de.tum.in.www1.artemis.service.compass.assessment.Score;
 import de.tum.in.www1.artemis.service.compass.assessment.SimilaritySetAssessment;
 import de.tum.in.www1.artemis.service.compass.controller.*;
 import de.tum.in.www1.artemis.service.compass.grade.Grade;
+import de.tum.in.www1.artemis.service.compass.umlmodel.SimilarityCache;
 import de.tum.in.www1.artemis.service.compass.umlmodel.UMLDiagram;
 import de.tum.in.www1.artemis.service.compass.umlmodel.UMLElement;
 import de.tum.in.www1.artemis.service.compass.umlmodel.classdiagram.UMLAttribute;
@@ -48,28 +54,210 @@ public class CompassCalculationEngine implements CalculationEngine {
 
     private LocalDateTime lastUsed;
 
+    /**
+     * Note: The key is the model submission id, the value the fingerprint of the model, see {@link CompassSnapshot#fingerprint(String)}
+     */
+    private Map<Long, Long> modelFingerprints;
+
+    private boolean restoredFromSnapshot;
+
+    /**
+     * The number of elements of all models in the model index, used to estimate the memory usage of the engine
+     */
+    private final AtomicLong modelElementCount = new AtomicLong();
+
     CompassCalculationEngine(Set<ModelingSubmission> modelingSubmissions) {
+        this(modelingSubmissions, null);
+    }
+
+    /**
+     * Creates the calculation engine for the given submissions in stages: first, the models of all submissions are parsed in parallel. Afterwards, the similarity sets are
+     * built by analyzing the model elements in the order of the submission ids, so that the similarity ids do not depend on the order of the given submissions or the scheduling
+     * of the threads. Finally, all models are assessed automatically in parallel.
+     *
+     * If a snapshot of the engine is given and all of its models are still unchanged, the similarity sets and the models handled by the model selector are restored from the
+     * snapshot instead of analyzing the similarity of all model elements again. Only the models submitted after the snapshot was created are analyzed, in the order of the
+     * submission ids. Otherwise, the snapshot is ignored. The manual assessments are always added from the submissions.
+     *
+     * @param modelingSubmissions the submissions of the modeling exercise
+     * @param snapshot            the snapshot of the engine, or null if the engine should be built from scratch
+     */
+    CompassCalculationEngine(Set<ModelingSubmission> modelingSubmissions, CompassSnapshot snapshot) {
         lastUsed = LocalDateTime.now();
-        modelIndex = new ModelIndex();
         assessmentIndex = new AssessmentIndex();
         automaticAssessmentController = new AutomaticAssessmentController();
-        modelSelector = new ModelSelector();
+        modelFingerprints = new ConcurrentHashMap<>();
+        long start = System.nanoTime();
 
+        List<ModelingSubmission> submissionsWithModel = new ArrayList<>();
         for (Submission submission : modelingSubmissions) {
             // We have to unproxy here as sometimes the Submission is a Hibernate proxy resulting in a cast exception
             // when iterating over the ModelingSubmissions directly (i.e. for (ModelingSubmission submission : submissions)).
             ModelingSubmission modelingSubmission = (ModelingSubmission) Hibernate.unproxy(submission);
+            if (modelingSubmission.getModel() != null) {
+                submissionsWithModel.add(modelingSubmission);
+            }
+        }
+        submissionsWithModel.sort(Comparator.comparing(ModelingSubmission::getId));
+        List<UMLDiagram> models = parseModels(submissionsWithModel);
+        long parsed = System.nanoTime();
+
+        resetModels();
+        restoredFromSnapshot = snapshot != null && restoreFromSnapshot(models, snapshot);
+        if (!restoredFromSnapshot) {
+            if (snapshot != null) {
+                log.info("Snapshot does not match the submissions, the calculation engine is built from scratch");
+                resetModels();
+            }
+            for (UMLDiagram model : models) {
+                SimilarityDetector.analyzeSimilarity(model, modelIndex);
+                addModel(model);
+            }
+        }
+        long analyzed = System.nanoTime();
 
-            String model = modelingSubmission.getModel();
-            if (model != null) {
-                buildModel(modelingSubmission);
+        for (ModelingSubmission modelingSubmission : submissionsWithModel) {
+            if (hasCompletedManualAssessment(modelingSubmission)) {
+                addManualAssessmentForSubmission(modelingSubmission);
+            }
+        }
+        assessModelsAutomatically();
+        long assessed = System.nanoTime();
+
+        log.debug("Built calculation engine with {} models: parsing {} ms, similarity analysis {} ms, automatic assessment {} ms", models.size(),
+                TimeUnit.NANOSECONDS.toMillis(parsed - start), TimeUnit.NANOSECONDS.toMillis(analyzed - parsed), TimeUnit.NANOSECONDS.toMillis(assessed - analyzed));
+    }
+
+    private void resetModels() {
+        modelIndex = new ModelIndex();
+        modelSelector = new ModelSelector(modelIndex);
+        modelElementCount.set(0);
+    }
 
-                if (hasCompletedManualAssessment(modelingSubmission)) {
-                    addManualAssessmentForSubmission(modelingSubmission);
+    /**
+     * Adds the model to the model index and to the model selector, so that it can be selected for assessment
+     */
+    private void addModel(UMLDiagram model) {
+        modelIndex.addModel(model);
+        modelSelector.addModel(model);
+        modelElementCount.addAndGet(model.getAllModelElements().size());
+    }
+
+    /**
+     * Parses the models of the given submissions in parallel on the common fork-join pool and calculates their fingerprints for the snapshot of the engine.
+     *
+     * @param submissionsWithModel the submissions which contain a model
+     * @return the parsed models in the order of the given submissions, models that cannot be parsed are skipped
+     */
+    private List<UMLDiagram> parseModels(List<ModelingSubmission> submissionsWithModel) {
+        return submissionsWithModel.parallelStream().map(modelingSubmission -> {
+            try {
+                UMLDiagram model = JSONStreamParser.buildModelFromJSON(modelingSubmission.getModel(), modelingSubmission.getId());
+                modelFingerprints.put(modelingSubmission.getId(), CompassSnapshot.fingerprint(modelingSubmission.getModel()));
+                return model;
+            }
+            catch (IOException e) {
+                log.error("Error while building and adding model!", e);
+                return null;
+            }
+        }).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    /**
+     * Restores the similarity sets of the given models and the models handled by the model selector from the given snapshot. The snapshot is only used if every model of the
+     * snapshot is still contained unchanged in the given models. Models that were added since the snapshot was created are analyzed afterwards, just like new models of a running
+     * engine. A removed or changed model cannot be taken out of the similarity sets, as its elements can be the unique elements other elements were compared to, so the
+     * snapshot is ignored in this case.
+     *
+     * @param models   the parsed models of the modeling exercise
+     * @param snapshot the snapshot of the engine
+     * @return true if the engine was restored from the snapshot, false if the snapshot does not match the models
+     */
+    private boolean restoreFromSnapshot(List<UMLDiagram> models, CompassSnapshot snapshot) {
+        List<UMLDiagram> restoredModels = new ArrayList<>();
+        List<UMLDiagram> newModels = new ArrayList<>();
+        for (UMLDiagram model : models) {
+            CompassSnapshot.ModelSnapshot modelSnapshot = snapshot.getModels().get(model.getModelSubmissionId());
+            if (modelSnapshot == null) {
+                newModels.add(model);
+            }
+            else if (modelSnapshot.getFingerprint() == modelFingerprints.get(model.getModelSubmissionId())) {
+                restoredModels.add(model);
+            }
+            else {
+                return false;
+            }
+        }
+        if (restoredModels.size() != snapshot.getModels().size()) {
+            return false;
+        }
+
+        for (UMLDiagram model : restoredModels) {
+            if (!SimilarityDetector.restoreSimilarity(model, modelIndex, snapshot.getModels().get(model.getModelSubmissionId()).getSimilarityIds())) {
+                return false;
+            }
+            addModel(model);
+        }
+
+        for (Pair<Long, String> uniqueElementReference : snapshot.getUniqueElements()) {
+            UMLDiagram model = modelIndex.getModel(uniqueElementReference.getFirst());
+            UMLElement uniqueElement = model != null ? model.getElementByJSONID(uniqueElementReference.getSecond()) : null;
+            if (uniqueElement == null || !modelIndex.restoreUniqueElement(uniqueElement)) {
+                return false;
+            }
+        }
+        // every similarity set needs its unique element, otherwise new elements could get the similarity id of an existing set
+        for (UMLDiagram model : modelIndex.getModelCollection()) {
+            for (UMLElement element : model.getAllModelElements()) {
+                if (element.getSimilarityID() < 0 || element.getSimilarityID() >= modelIndex.getNumberOfUniqueElements()) {
+                    return false;
                 }
             }
         }
-        assessModelsAutomatically();
+
+        snapshot.getAlreadyHandledModels().forEach(modelSelector::addAlreadyHandledModel);
+        snapshot.getModelsWaitingForAssessment().forEach(modelSelector::addModelWaitingForAssessment);
+
+        for (UMLDiagram model : newModels) {
+            SimilarityDetector.analyzeSimilarity(model, modelIndex);
+            addModel(model);
+        }
+        log.debug("Restored {} models of the calculation engine from the snapshot, analyzed {} new models", restoredModels.size(), newModels.size());
+        return true;
+    }
+
+    /**
+     * Creates a snapshot of the similarity sets and the models handled by the model selector, which can be used to restore the engine without analyzing the similarity of all
+     * model elements again.
+     *
+     * @return the snapshot of the engine
+     */
+    CompassSnapshot createSnapshot() {
+        Map<Long, CompassSnapshot.ModelSnapshot> models = new HashMap<>();
+        Map<UMLElement, Long> submissionIdsOfElements = new IdentityHashMap<>();
+        for (UMLDiagram model : modelIndex.getModelCollection()) {
+            Map<String, Integer> similarityIds = new HashMap<>();
+            for (UMLElement element : model.getAllModelElements()) {
+                similarityIds.put(element.getJSONElementID(), element.getSimilarityID());
+                submissionIdsOfElements.put(element, model.getModelSubmissionId());
+            }
+            models.put(model.getModelSubmissionId(), new CompassSnapshot.ModelSnapshot(modelFingerprints.getOrDefault(model.getModelSubmissionId(), 0L), similarityIds));
+        }
+
+        List<Pair<Long, String>> uniqueElements = new ArrayList<>();
+        for (UMLElement uniqueElement : modelIndex.getUniqueElements()) {
+            // a unique element that does not belong to a model of the index cannot be restored, the snapshot is ignored in this case
+            uniqueElements.add(Pair.of(submissionIdsOfElements.getOrDefault(uniqueElement, -1L), uniqueElement.getJSONElementID()));
+        }
+
+        return new CompassSnapshot(models, uniqueElements, new HashSet<>(modelSelector.getModelsWaitingForAssessment()), modelSelector.getAlreadyHandledModels());
+    }
+
+    /**
+     * @return true if the similarity sets of the engine were restored from a snapshot, false if they were built from scratch
+     */
+    boolean isRestoredFromSnapshot() {
+        return restoredFromSnapshot;
     }
 
     /**
@@ -125,30 +313,30 @@ public class CompassCalculationEngine implements CalculationEngine {
     }
 
     /**
-     * Creates a JSONObject from the model contained in the given modeling submission. Afterwards, it builds an UMLClassDiagramm from the JSONObject, analyzes the similarity and
-     * sets the similarity ID of each model element and adds the model to the model index of the calculation engine. The model index contains all models of the corresponding
-     * exercise.
+     * Builds an UMLClassDiagramm from the model contained in the given modeling submission, analyzes the similarity and sets the similarity ID of each model element and adds the
+     * model to the model index of the calculation engine. The model index contains all models of the corresponding exercise.
      *
      * @param modelingSubmission the modeling submission containing the model as JSON string
      */
     private void buildModel(ModelingSubmission modelingSubmission) {
         if (modelingSubmission.getModel() != null) {
-            buildModel(modelingSubmission.getId(), parseString(modelingSubmission.getModel()).getAsJsonObject());
+            buildModel(modelingSubmission.getId(), modelingSubmission.getModel());
         }
     }
 
     /**
-     * Build an UMLClassDiagramm from a JSON representation of the model, analyzes the similarity and sets the similarity ID of each model element. Afterwards, the model is added
-     * to the model index of the calculation engine which contains all models of the corresponding exercise.
+     * Build an UMLClassDiagramm from the JSON string of the model, analyzes the similarity and sets the similarity ID of each model element. Afterwards, the model is added to the
+     * model index of the calculation engine which contains all models of the corresponding exercise. The fingerprint of the model is kept for the snapshot of the engine.
      *
      * @param modelSubmissionId the id of the modeling submission the model belongs to
-     * @param jsonModel         JSON representation of the UML model
+     * @param model             the model as JSON string
      */
-    private void buildModel(long modelSubmissionId, JsonObject jsonModel) {
+    private void buildModel(long modelSubmissionId, String model) {
         try {
-            UMLDiagram model = JSONParser.buildModelFromJSON(jsonModel, modelSubmissionId);
-            SimilarityDetector.analyzeSimilarity(model, modelIndex);
-            modelIndex.addModel(model);
+            UMLDiagram umlModel = JSONStreamParser.buildModelFromJSON(model, modelSubmissionId);
+            SimilarityDetector.analyzeSimilarity(umlModel, modelIndex);
+            addModel(umlModel);
+            modelFingerprints.put(modelSubmissionId, CompassSnapshot.fingerprint(model));
         }
         catch (IOException e) {
             log.error("Error while building and adding model!", e);
@@ -195,12 +383,13 @@ public class CompassCalculationEngine implements CalculationEngine {
 
     private void assessModelsAutomatically() {
         automaticAssessmentController.assessModelsAutomatically(modelIndex, assessmentIndex);
+        modelSelector.updateCoverages();
     }
 
     @Override
     public List<Long> getNextOptimalModels(int numberOfModels) {
         lastUsed = LocalDateTime.now();
-        return modelSelector.selectNextModels(modelIndex, numberOfModels);
+        return modelSelector.selectNextModels(numberOfModels);
     }
 
     @Override
@@ -214,7 +403,8 @@ public class CompassCalculationEngine implements CalculationEngine {
         CompassResult compassResult = model.getLastAssessmentCompassResult();
 
         if (compassResult == null) {
-            return automaticAssessmentController.assessModelAutomatically(model, assessmentIndex);
+            compassResult = automaticAssessmentController.assessModelAutomatically(model, assessmentIndex);
+            modelSelector.updateCoverage(model);
         }
         return compassResult;
     }
@@ -245,7 +435,7 @@ public class CompassCalculationEngine implements CalculationEngine {
         if (modelIndex.getModelMap().containsKey(modelId)) {
             return;
         }
-        buildModel(modelId, parseString(model).getAsJsonObject());
+        buildModel(modelId, model);
     }
 
     @Override
@@ -253,6 +443,12 @@ public class CompassCalculationEngine implements CalculationEngine {
         return lastUsed;
     }
 
+    @Override
+    public long getEstimatedMemoryUsage() {
+        return modelIndex.getModelCollection().size() * ESTIMATED_MEMORY_PER_MODEL + modelElementCount.get() * ESTIMATED_MEMORY_PER_ELEMENT
+                + modelSelector.getSimilarityCache().getMemoryUsage();
+    }
+
     @Override
     public List<Long> getModelsWaitingForAssessment() {
         return modelSelector.getModelsWaitingForAssessment();
@@ -337,6 +533,7 @@ public class CompassCalculationEngine implements CalculationEngine {
 
     /**
      * format: uniqueElements [{id} name apollonId conflicts] numberModels numberConflicts totalConfidence totalCoverage models [{id} confidence coverage conflicts]
+     * similarityCache [entries hits misses hitRate memoryUsage]
      *
      * @return statistics about the UML model
      */
@@ -388,6 +585,15 @@ public class CompassCalculationEngine implements CalculationEngine {
         }
         jsonObject.add("models", models);
 
+        SimilarityCache similarityCache = modelSelector.getSimilarityCache();
+        JsonObject similarityCacheStatistics = new JsonObject();
+        similarityCacheStatistics.addProperty("entries", similarityCache.size());
+        similarityCacheStatistics.addProperty("hits", similarityCache.getHits());
+        similarityCacheStatistics.addProperty("misses", similarityCache.getMisses());
+        similarityCacheStatistics.addProperty("hitRate", similarityCache.getHitRate());
+        similarityCacheStatistics.addProperty("memoryUsage", similarityCache.getMemoryUsage());
+        jsonObject.add("similarityCache", similarityCacheStatistics);
+
         return jsonObject;
     }
 
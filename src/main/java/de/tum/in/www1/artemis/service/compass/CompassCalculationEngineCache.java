@@ -0,0 +1,223 @@
+package de.tum.in.www1.artemis.service.compass;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.LongFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Keeps the calculation engines of the modeling exercises in memory within a memory budget. The memory of an engine is estimated from the number of its models and model
+ * elements (see {@link CalculationEngine#getEstimatedMemoryUsage()}). If the estimated memory of all engines exceeds the budget, the least recently used engines are evicted. The
+ * engine used last is never evicted, even if it exceeds the budget on its own.
+ *
+ * The engines are loaded on a small pool of loader threads, so the request that needs an engine does not have to wait until all submissions of the exercise are loaded and
+ * analyzed. The engine of an exercise is only loaded once at a time, all requests that need the engine while it is loaded get the same future.
+ */
+public class CompassCalculationEngineCache {
+
+    private static final Logger log = LoggerFactory.getLogger(CompassCalculationEngineCache.class);
+
+    private final long memoryBudget;
+
+    private final LongFunction<CalculationEngine> engineLoader;
+
+    private final BiConsumer<Long, CalculationEngine> evictionListener;
+
+    private final ExecutorService loaderExecutor;
+
+    /**
+     * exerciseId -> calculation engine, ordered by the last access (least recently used first)
+     */
+    private final LinkedHashMap<Long, CalculationEngine> engines = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * exerciseId -> calculation engine that is being loaded
+     */
+    private final Map<Long, CompletableFuture<CalculationEngine>> loadingEngines = new HashMap<>();
+
+    private final Timer loadDuration;
+
+    private final Counter memoryEvictions;
+
+    private final Counter unusedEvictions;
+
+    /**
+     * Create the cache and register its metrics "artemis.compass.engines", "artemis.compass.engines.memory", "artemis.compass.engine.load.duration" and
+     * "artemis.compass.engine.evictions" (tagged with the reason)
+     *
+     * @param memoryBudget     the number of bytes all engines in memory are estimated to use at most
+     * @param loaderThreads    the number of engines that can be loaded concurrently
+     * @param engineLoader     loads the engine of the exercise with the given id
+     * @param evictionListener called with every evicted engine, e.g. to store a snapshot of the engine
+     * @param meterRegistry    the registry the metrics are published to
+     */
+    public CompassCalculationEngineCache(long memoryBudget, int loaderThreads, LongFunction<CalculationEngine> engineLoader, BiConsumer<Long, CalculationEngine> evictionListener,
+            MeterRegistry meterRegistry) {
+        this(memoryBudget, Executors.newFixedThreadPool(loaderThreads, new CustomizableThreadFactory("CompassEngineLoader-")), engineLoader, evictionListener, meterRegistry);
+    }
+
+    CompassCalculationEngineCache(long memoryBudget, ExecutorService loaderExecutor, LongFunction<CalculationEngine> engineLoader,
+            BiConsumer<Long, CalculationEngine> evictionListener, MeterRegistry meterRegistry) {
+        if (memoryBudget <= 0) {
+            throw new IllegalArgumentException("The memory budget of the Compass calculation engines must be positive, but was " + memoryBudget);
+        }
+        this.memoryBudget = memoryBudget;
+        this.loaderExecutor = loaderExecutor;
+        this.engineLoader = engineLoader;
+        this.evictionListener = evictionListener;
+
+        Gauge.builder("artemis.compass.engines", this, CompassCalculationEngineCache::size).description("Number of Compass calculation engines in memory").register(meterRegistry);
+        Gauge.builder("artemis.compass.engines.memory", this, CompassCalculationEngineCache::getEstimatedMemoryUsage)
+                .description("Estimated memory of the Compass calculation engines in memory").baseUnit("bytes").register(meterRegistry);
+        loadDuration = Timer.builder("artemis.compass.engine.load.duration").description("Time it takes to load the Compass calculation engine of an exercise")
+                .register(meterRegistry);
+        memoryEvictions = evictionCounter(meterRegistry, "memory");
+        unusedEvictions = evictionCounter(meterRegistry, "unused");
+    }
+
+    private static Counter evictionCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("artemis.compass.engine.evictions").tag("reason", reason).description("Number of evicted Compass calculation engines by the reason of the eviction")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Get the engine of the given exercise if it is in memory and mark it as used most recently
+     *
+     * @param exerciseId the id of the modeling exercise
+     * @return the engine, or null if it is not in memory
+     */
+    public synchronized CalculationEngine get(long exerciseId) {
+        return engines.get(exerciseId);
+    }
+
+    /**
+     * Get the engine of the given exercise. If it is not in memory, it is loaded on a loader thread unless it is being loaded already.
+     *
+     * @param exerciseId the id of the modeling exercise
+     * @return the engine, the future is completed already if the engine is in memory
+     */
+    public synchronized CompletableFuture<CalculationEngine> getOrLoad(long exerciseId) {
+        CalculationEngine engine = engines.get(exerciseId);
+        if (engine != null) {
+            return CompletableFuture.completedFuture(engine);
+        }
+        // the loader thread can only remove the future after it has been added, as it needs the lock of the cache
+        return loadingEngines.computeIfAbsent(exerciseId, id -> CompletableFuture.supplyAsync(() -> load(exerciseId), loaderExecutor));
+    }
+
+    private CalculationEngine load(long exerciseId) {
+        long start = System.nanoTime();
+        try {
+            CalculationEngine engine = engineLoader.apply(exerciseId);
+            synchronized (this) {
+                engines.put(exerciseId, engine);
+            }
+            loadDuration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            evictIfNecessary();
+            return engine;
+        }
+        catch (RuntimeException e) {
+            log.error("Could not load Compass calculation engine for exercise " + exerciseId, e);
+            throw e;
+        }
+        finally {
+            synchronized (this) {
+                loadingEngines.remove(exerciseId);
+            }
+        }
+    }
+
+    /**
+     * Evict the least recently used engines until the estimated memory of all engines is within the memory budget again, has to be called whenever an engine has grown
+     */
+    public void evictIfNecessary() {
+        Map<Long, CalculationEngine> evictedEngines = new LinkedHashMap<>();
+        synchronized (this) {
+            long memoryUsage = getEstimatedMemoryUsage();
+            Iterator<Map.Entry<Long, CalculationEngine>> iterator = engines.entrySet().iterator();
+            while (memoryUsage > memoryBudget && engines.size() > 1) {
+                Map.Entry<Long, CalculationEngine> leastRecentlyUsedEngine = iterator.next();
+                memoryUsage -= leastRecentlyUsedEngine.getValue().getEstimatedMemoryUsage();
+                evictedEngines.put(leastRecentlyUsedEngine.getKey(), leastRecentlyUsedEngine.getValue());
+                iterator.remove();
+            }
+        }
+        evictedEngines.forEach((exerciseId, engine) -> {
+            log.info("Evict Compass calculation engine for exercise {} with an estimated memory of {} bytes to stay within the memory budget of {} bytes", exerciseId,
+                    engine.getEstimatedMemoryUsage(), memoryBudget);
+            memoryEvictions.increment();
+            evictionListener.accept(exerciseId, engine);
+        });
+    }
+
+    /**
+     * Evict all engines that have not been used for the given number of days
+     *
+     * @param daysToKeepUnusedEngine the number of days an unused engine is kept in memory
+     */
+    public void evictUnusedEngines(int daysToKeepUnusedEngine) {
+        Map<Long, CalculationEngine> evictedEngines = new LinkedHashMap<>();
+        synchronized (this) {
+            Iterator<Map.Entry<Long, CalculationEngine>> iterator = engines.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Long, CalculationEngine> engine = iterator.next();
+                if (Duration.between(engine.getValue().getLastUsedAt(), LocalDateTime.now()).toDays() >= daysToKeepUnusedEngine) {
+                    evictedEngines.put(engine.getKey(), engine.getValue());
+                    iterator.remove();
+                }
+            }
+        }
+        evictedEngines.forEach((exerciseId, engine) -> {
+            unusedEvictions.increment();
+            evictionListener.accept(exerciseId, engine);
+        });
+    }
+
+    /**
+     * Call the given action with all engines in memory, without marking them as used
+     *
+     * @param action the action that is called with the exercise id and the engine
+     */
+    public void forEach(BiConsumer<Long, CalculationEngine> action) {
+        Map<Long, CalculationEngine> currentEngines;
+        synchronized (this) {
+            currentEngines = new LinkedHashMap<>(engines);
+        }
+        currentEngines.forEach(action);
+    }
+
+    /**
+     * @return the number of engines in memory
+     */
+    public synchronized int size() {
+        return engines.size();
+    }
+
+    /**
+     * @return the estimated number of bytes of all engines in memory
+     */
+    public synchronized long getEstimatedMemoryUsage() {
+        return engines.values().stream().mapToLong(CalculationEngine::getEstimatedMemoryUsage).sum();
+    }
+
+    /**
+     * Stop loading engines, e.g. when the server shuts down
+     */
+    public void shutdown() {
+        loaderExecutor.shutdownNow();
+    }
+}
@@ -1,21 +1,31 @@
 package de.tum.in.www1.artemis.service.compass;
 
+import static de.tum.in.www1.artemis.service.compass.utils.CompassConfiguration.ASSESSMENT_THREADS;
 import static de.tum.in.www1.artemis.service.compass.utils.CompassConfiguration.DAYS_TO_KEEP_UNUSED_ENGINE;
+import static de.tum.in.www1.artemis.service.compass.utils.CompassConfiguration.ENGINE_LOADER_THREADS;
 import static de.tum.in.www1.artemis.service.compass.utils.CompassConfiguration.NUMBER_OF_NEW_OPTIMAL_MODELS;
 import static de.tum.in.www1.artemis.service.compass.utils.CompassConfiguration.OPTIMAL_MODEL_THRESHOLD;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.time.Duration;
-import java.time.LocalDateTime;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.google.gson.JsonObject;
 
@@ -35,6 +45,7 @@ import de.tum.in.www1.artemis.repository.StudentParticipationRepository;
 import de.tum.in.www1.artemis.service.ModelAssessmentConflictService;
 import de.tum.in.www1.artemis.service.compass.grade.CompassGrade;
 import de.tum.in.www1.artemis.service.compass.grade.Grade;
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Service
 public class CompassService {
@@ -51,25 +62,89 @@ public class CompassService {
 
     private final ModelAssessmentConflictService conflictService;
 
+    private final MeterRegistry meterRegistry;
+
     /**
      * Map that contains a Map for different modeling exercises, i.e. the outer map maps exerciseId -> Map. The inner maps map submissionIds to automatic results.
      * Automatic results generated by Compass are not stored in the database, instead they are stored in these maps. As soon as a submission is locked for assessment, its automatic
-     * result will be retrieved from the corresponding map and stored to the database.
+     * result will be retrieved from the corresponding map and stored to the database. The inner maps are computed in the background and replaced as a whole, so that tutors always
+     * get the automatic results of the latest completed automatic assessment.
      */
     private static Map<Long, Map<Long, Result>> automaticResultMaps = new ConcurrentHashMap<>();
 
     /**
-     * Map exerciseId to compass CalculationEngines
+     * Keeps the calculation engines of the exercises in memory (exerciseId -> CalculationEngine) and evicts the least recently used ones if they exceed the memory budget
      */
-    private static Map<Long, CalculationEngine> compassCalculationEngines = new ConcurrentHashMap<>();
+    private CompassCalculationEngineCache calculationEngines;
+
+    /**
+     * Updates the calculation engines and computes the automatic results of the exercises in the background
+     */
+    private CompassAssessmentQueue assessmentQueue;
+
+    @Value("${artemis.compass.snapshot-path:#{null}}")
+    private String snapshotPath;
+
+    @Value("${artemis.compass.engine-memory-budget-mb:1024}")
+    private long engineMemoryBudgetMb;
+
+    @Value("${artemis.compass.load-engines-asynchronously:true}")
+    private boolean loadEnginesAsynchronously;
+
+    @Value("${artemis.compass.assess-asynchronously:true}")
+    private boolean assessAsynchronously;
+
+    /**
+     * Stores the snapshots of the calculation engines, so that they do not need to be built from scratch after a restart. Null if no snapshot path is configured.
+     */
+    private CompassSnapshotStore snapshotStore;
 
     public CompassService(ResultRepository resultRepository, ModelingExerciseRepository modelingExerciseRepository, ModelingSubmissionRepository modelingSubmissionRepository,
-            StudentParticipationRepository studentParticipationRepository, ModelAssessmentConflictService conflictService) {
+            StudentParticipationRepository studentParticipationRepository, ModelAssessmentConflictService conflictService, MeterRegistry meterRegistry) {
         this.resultRepository = resultRepository;
         this.modelingExerciseRepository = modelingExerciseRepository;
         this.modelingSubmissionRepository = modelingSubmissionRepository;
         this.studentParticipationRepository = studentParticipationRepository;
         this.conflictService = conflictService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Creates the cache of the calculation engines with the memory budget artemis.compass.engine-memory-budget-mb, the queue for the automatic assessments and the store for the
+     * snapshots of the calculation engines if artemis.compass.snapshot-path is configured. Evicted engines are stored as snapshots, so that they can be restored quickly.
+     */
+    @PostConstruct
+    public void initCalculationEngines() {
+        calculationEngines = new CompassCalculationEngineCache(engineMemoryBudgetMb * 1024 * 1024, ENGINE_LOADER_THREADS, this::loadCalculationEngineForExercise,
+                this::saveSnapshot, meterRegistry);
+        assessmentQueue = new CompassAssessmentQueue(ASSESSMENT_THREADS, this::assessAutomatically, meterRegistry);
+        if (snapshotPath == null || snapshotPath.isBlank()) {
+            log.info("Compass calculation engines are only kept in memory");
+            return;
+        }
+        try {
+            snapshotStore = new CompassSnapshotStore(Path.of(snapshotPath));
+            log.info("Snapshots of the Compass calculation engines are stored in {}", snapshotPath);
+        }
+        catch (IOException e) {
+            log.error("Could not create the Compass snapshot directory {}, calculation engines are only kept in memory: {}", snapshotPath, e.getMessage());
+        }
+    }
+
+    /**
+     * Store the snapshots of all calculation engines in memory before the server shuts down, so that they contain the latest models handled by the model selector
+     */
+    @PreDestroy
+    public void saveSnapshots() {
+        assessmentQueue.shutdown();
+        calculationEngines.shutdown();
+        calculationEngines.forEach(this::saveSnapshot);
+    }
+
+    private void saveSnapshot(long exerciseId, CalculationEngine calculationEngine) {
+        if (snapshotStore != null && calculationEngine instanceof CompassCalculationEngine) {
+            snapshotStore.save(exerciseId, ((CompassCalculationEngine) calculationEngine).createSnapshot());
+        }
     }
 
     /**
@@ -97,11 +172,11 @@ public class CompassService {
      * Get a configured number of ids of the next optimal modeling submissions for the given exercise. Optimal means that an assessment for these models result in the biggest
      * knowledge gain for Compass which can be used for automatic assessments. The number of new optimal models that should be load is defined by NUMBER_OF_NEW_OPTIMAL_MODELS.
      *
-     * @param exerciseId the id of the exercise the modeling submissions should belong to
+     * @param engine the calculation engine of the exercise the modeling submissions should belong to
      * @return Ids of the next optimal models, an empty list if all models have been assessed for the given exercise
      */
-    private List<Long> getNextOptimalModels(long exerciseId) {
-        return compassCalculationEngines.get(exerciseId).getNextOptimalModels(NUMBER_OF_NEW_OPTIMAL_MODELS);
+    private List<Long> getNextOptimalModels(CalculationEngine engine) {
+        return engine.getNextOptimalModels(NUMBER_OF_NEW_OPTIMAL_MODELS);
     }
 
     /**
@@ -111,29 +186,33 @@ public class CompassService {
      * @param modelSubmissionId the id of the model submission which can be removed
      */
     public void removeModelWaitingForAssessment(long exerciseId, long modelSubmissionId) {
-        if (!isSupported(exerciseId) || !loadExerciseIfSuspended(exerciseId)) {
+        if (!isSupported(exerciseId)) {
             return;
         }
-        compassCalculationEngines.get(exerciseId).removeModelWaitingForAssessment(modelSubmissionId, true);
+        updateCalculationEngine(exerciseId, engine -> engine.removeModelWaitingForAssessment(modelSubmissionId, true));
     }
 
     /**
      * Get the (cached) list of optimal models that need to be assessed next. The models in the list are optimal in the sense of knowledge gain for Compass, helping to
      * automatically assess as many other models as possible. If the number of models in the list is smaller than the configured OPTIMAL_MODEL_THRESHOLD, new "optimal" models will
-     * be added to the list.
+     * be added to the list. The list is empty while the calculation engine of the exercise is loaded.
      *
      * @param exerciseId the id of the exercise the models should belong to
      * @return a list of optimal model Ids waiting for an assessment by an assessor
      */
     public List<Long> getModelsWaitingForAssessment(long exerciseId) {
-        if (!isSupported(exerciseId) || !loadExerciseIfSuspended(exerciseId)) {
+        if (!isSupported(exerciseId)) {
+            return new ArrayList<>();
+        }
+        CalculationEngine engine = getCalculationEngineIfLoaded(exerciseId);
+        if (engine == null) {
             return new ArrayList<>();
         }
 
-        List<Long> optimalModelIds = getCalculationEngineModelsWaitingForAssessment(exerciseId);
+        List<Long> optimalModelIds = engine.getModelsWaitingForAssessment();
 
         if (optimalModelIds.size() < OPTIMAL_MODEL_THRESHOLD) {
-            List<Long> nextOptimalModelIds = getNextOptimalModels(exerciseId);
+            List<Long> nextOptimalModelIds = getNextOptimalModels(engine);
             if (nextOptimalModelIds != null) {
                 optimalModelIds.addAll(nextOptimalModelIds);
             }
@@ -173,17 +252,13 @@ public class CompassService {
      * @param modelSubmissionId the id of the model submission which should be marked as unassessed
      */
     public void cancelAssessmentForSubmission(ModelingExercise modelingExercise, long modelSubmissionId) {
-        if (!isSupported(modelingExercise.getDiagramType()) || !loadExerciseIfSuspended(modelingExercise.getId())) {
+        if (!isSupported(modelingExercise.getDiagramType())) {
             return;
         }
 
-        compassCalculationEngines.get(modelingExercise.getId()).markModelAsUnassessed(modelSubmissionId);
-
-        if (automaticResultMaps.containsKey(modelingExercise.getId())) {
-            automaticResultMaps.get(modelingExercise.getId()).remove(modelSubmissionId);
-        }
+        removeAutomaticResultForSubmission(modelSubmissionId, modelingExercise.getId());
 
-        assessAutomatically(modelSubmissionId, modelingExercise.getId());
+        updateAndAssess(modelingExercise.getId(), engine -> engine.markModelAsUnassessed(modelSubmissionId), Set.of(modelSubmissionId));
     }
 
     /**
@@ -192,13 +267,14 @@ public class CompassService {
      * @param exerciseId the exerciseId
      */
     public void resetModelsWaitingForAssessment(long exerciseId) {
-        if (!isSupported(exerciseId) || !loadExerciseIfSuspended(exerciseId)) {
+        if (!isSupported(exerciseId)) {
             return;
         }
-        List<Long> optimalModelIds = getCalculationEngineModelsWaitingForAssessment(exerciseId);
-        for (long modelSubmissionId : optimalModelIds) {
-            compassCalculationEngines.get(exerciseId).removeModelWaitingForAssessment(modelSubmissionId, false);
-        }
+        updateCalculationEngine(exerciseId, engine -> {
+            for (long modelSubmissionId : engine.getModelsWaitingForAssessment()) {
+                engine.removeModelWaitingForAssessment(modelSubmissionId, false);
+            }
+        });
     }
 
     /**
@@ -210,15 +286,12 @@ public class CompassService {
      */
     public void addAssessment(long exerciseId, long submissionId, List<Feedback> modelingAssessment) {
         log.info("Add assessment for exercise " + exerciseId + " and model " + submissionId);
-        if (!isSupported(exerciseId) || !loadExerciseIfSuspended(exerciseId)) { // TODO rework after distinguishing between saved and submitted assessments
+        if (!isSupported(exerciseId)) { // TODO rework after distinguishing between saved and submitted assessments
             return;
         }
 
-        CalculationEngine engine = compassCalculationEngines.get(exerciseId);
-        engine.notifyNewAssessment(modelingAssessment, submissionId);
-
         // Check all models for new automatic assessments
-        assessAllAutomatically(engine.getModelIds(), exerciseId);
+        updateAndAssess(exerciseId, engine -> engine.notifyNewAssessment(modelingAssessment, submissionId), null);
     }
 
     /**
@@ -236,7 +309,7 @@ public class CompassService {
             return new ArrayList<>();
         }
 
-        CompassCalculationEngine engine = getCalculationEngine(exerciseId);
+        CompassCalculationEngine engine = (CompassCalculationEngine) getCalculationEngine(exerciseId);
         List<Feedback> assessmentWithoutGeneralFeedback = filterOutGeneralFeedback(modelingAssessment);
         Map<String, List<Feedback>> conflictingFeedbacks = engine.getConflictingFeedbacks(modelingSubmission, assessmentWithoutGeneralFeedback);
         List<ModelAssessmentConflict> existingUnresolvedConflicts = conflictService.getUnresolvedConflictsForResult(result);
@@ -278,63 +351,59 @@ public class CompassService {
     }
 
     /**
-     * Update the (existing) automatic result for the given submission with automatic feedback generated by Compass. If there is no existing result, a new one is created first. The
-     * updated result gets added to the hash map containing all automatic results. Note, that Compass tries to automatically assess every model as much as possible, but does not
-     * submit any automatic assessment to the student. A user has to review every(!) automatic assessment before completing and submitting the assessment manually, even if Compass
-     * could assess 100% of the model automatically.
+     * Assess the given submissions of the exercise automatically, called by the assessment queue after the calculation engine of the exercise has been updated. If the engine has
+     * been evicted in the meantime, the submissions are assessed when it is loaded again.
      *
-     * @param submissionId the id of the modeling submission for which an automatic result should be generated/updated
-     * @param exerciseId   the id of the corresponding exercise
+     * @param exerciseId    the id of the corresponding exercise
+     * @param submissionIds the ids of the modeling submissions that should be assessed, null if all submissions of the exercise should be assessed
      */
-    private void assessAutomatically(long submissionId, long exerciseId) {
-        CalculationEngine engine = compassCalculationEngines.get(exerciseId);
-        ModelingSubmission modelingSubmission = findModelingSubmissionById(submissionId);
-
-        if (engine == null || modelingSubmission == null) {
-            log.error("No calculation engine or submission - submission with ID {} could not be assessed automatically", submissionId);
+    private void assessAutomatically(long exerciseId, Set<Long> submissionIds) {
+        CalculationEngine engine = calculationEngines.get(exerciseId);
+        if (engine == null) {
+            log.info("No calculation engine - submissions of exercise with ID {} are assessed automatically when the engine is loaded again", exerciseId);
             return;
         }
-
-        Result result = provideResultForSubmission(modelingSubmission);
-        generateAutomaticResult(submissionId, result, engine, exerciseId);
+        updateAutomaticResults(engine, exerciseId, submissionIds);
     }
 
     /**
      * Update the (existing) automatic result for each of the given submissions with automatic feedback generated by Compass. If there is no existing result for a submission, a new
-     * one is created first. The updated results get added to the hash map containing all automatic results. Note, that Compass tries to automatically assess every model as much as
-     * possible, but does not submit any automatic assessment to the student. A user has to review every(!) automatic assessment before completing and submitting the assessment
-     * manually, even if Compass could assess 100% of the model automatically.
+     * one is created first. The updated results replace the automatic results of the exercise as a whole, so that a tutor never gets the result of a submission that is updated
+     * concurrently. Note, that Compass tries to automatically assess every model as much as possible, but does not submit any automatic assessment to the student. A user has to
+     * review every(!) automatic assessment before completing and submitting the assessment manually, even if Compass could assess 100% of the model automatically.
      *
-     * @param submissionIds a collection of modeling submission ids for which the automatic results should be generated/updated
+     * @param engine        the calculation engine of the corresponding exercise
      * @param exerciseId    the id of the corresponding exercise
+     * @param submissionIds the ids of the modeling submissions for which the automatic results should be generated/updated, null if the automatic results of all submissions of
+     *                          the exercise should be generated
      */
-    private void assessAllAutomatically(Collection<Long> submissionIds, long exerciseId) {
-        CalculationEngine engine = compassCalculationEngines.get(exerciseId);
-        List<ModelingSubmission> modelingSubmissions = modelingSubmissionRepository.findWithEagerResultAndFeedbackAndAssessorAndParticipationResultsByIdIn(submissionIds);
-
-        if (engine == null) {
-            log.error("No calculation engine - submissions of exercise with ID {} could not be assessed automatically", exerciseId);
-            return;
+    private void updateAutomaticResults(CalculationEngine engine, long exerciseId, Set<Long> submissionIds) {
+        Map<Long, Result> automaticResults = new ConcurrentHashMap<>();
+        if (submissionIds != null && automaticResultMaps.containsKey(exerciseId)) {
+            automaticResults.putAll(automaticResultMaps.get(exerciseId));
         }
+        Collection<Long> submissionIdsToAssess = submissionIds != null ? submissionIds : engine.getModelIds();
+        List<ModelingSubmission> modelingSubmissions = modelingSubmissionRepository.findWithEagerResultAndFeedbackAndAssessorAndParticipationResultsByIdIn(submissionIdsToAssess);
 
         for (ModelingSubmission modelingSubmission : modelingSubmissions) {
+            automaticResults.remove(modelingSubmission.getId());
             Result result = provideResultForSubmission(modelingSubmission);
-            generateAutomaticResult(modelingSubmission.getId(), result, engine, exerciseId);
+            generateAutomaticResult(modelingSubmission.getId(), result, engine, automaticResults);
         }
+        automaticResultMaps.put(exerciseId, automaticResults);
     }
 
     /**
      * Generate an automatic result of the given submission with automatic feedback. It gets the automatic assessment for the given submission from the calculation engine,
-     * generates automatic feedback items from it and updates the given result with the feedback. Afterwards, the automatic result is added to the hash map containing all automatic
-     * results. All of this is done only if the corresponding submission is not manually assessed already, i.e. the assessment type of the result is not MANUAL and the assessor is
-     * not set.
+     * generates automatic feedback items from it and updates the given result with the feedback. Afterwards, the automatic result is added to the given automatic results. All of
+     * this is done only if the corresponding submission is not manually assessed already, i.e. the assessment type of the result is not MANUAL and the assessor is not set.
      *
      * @param submissionId the id of the submission for which the automatic result should be generated
      * @param result the result of the submission that is updated with the automatic feedback generated by Compass
      * @param engine the calculation engine for the corresponding exercise
-     * @param exerciseId the exercise the given submission belongs to
+     * @param automaticResults the automatic results of the exercise the given submission belongs to
      */
-    private void generateAutomaticResult(long submissionId, Result result, CalculationEngine engine, long exerciseId) {
+    private void generateAutomaticResult(long submissionId, Result result, CalculationEngine engine, Map<Long, Result> automaticResults) {
         if (result.getAssessmentType() != AssessmentType.MANUAL && result.getAssessor() == null) {
             // Round compass grades to avoid machine precision errors, make the grades more readable and give a slight advantage.
             Grade grade = roundGrades(engine.getGradeForModel(submissionId));
@@ -345,10 +414,7 @@ public class CompassService {
             result.setHasFeedback(false);
             result.setAssessmentType(AssessmentType.AUTOMATIC);
 
-            if (!automaticResultMaps.containsKey(exerciseId)) {
-                automaticResultMaps.put(exerciseId, new ConcurrentHashMap<>());
-            }
-            automaticResultMaps.get(exerciseId).put(submissionId, result);
+            automaticResults.put(submissionId, result);
         }
         else {
             // Make sure next optimal model is in a valid state
@@ -372,41 +438,18 @@ public class CompassService {
     }
 
     /**
-     * Get the modeling submission with the given id from the database.
-     *
-     * @param submissionId the id of the modeling submission that should be loaded
-     * @return the modeling submission with the given id, or null if no submission could be found
-     */
-    private ModelingSubmission findModelingSubmissionById(long submissionId) {
-        Optional<ModelingSubmission> optionalModelingSubmission = modelingSubmissionRepository.findWithEagerResultAndFeedbackAndAssessorAndParticipationResultsById(submissionId);
-        if (!optionalModelingSubmission.isPresent()) {
-            log.error("Modeling submission with ID {} could not be found.", submissionId);
-            return null;
-        }
-        return optionalModelingSubmission.get();
-    }
-
-    /**
-     * Get the result of the given modeling submission. If the given submission already contains a manual result, this result is returned. Otherwise, it tries to load and return
-     * the result for the submission from the hash map containing all automatic results. If no result could be found in the hash map, a new result is created for the given
-     * submission.
+     * Get the result of the given modeling submission. If the given submission already contains a result, this result is returned. Otherwise, a new result is created for the
+     * given submission. The results in the current automatic results of the exercise are not reused, as tutors might read them while the new automatic results are generated.
      *
      * @param modelingSubmission the submission for which the result should be obtained
-     * @return the result of the given submission either obtained from the submission or the automatic result map, or a newly created one if it does not exist already
+     * @return the result of the given submission, or a newly created one if it does not exist already
      */
     private Result provideResultForSubmission(ModelingSubmission modelingSubmission) {
         Result result = modelingSubmission.getResult();
 
-        if (result == null || !AssessmentType.MANUAL.equals(result.getAssessmentType())) {
+        if (result == null) {
             StudentParticipation studentParticipation = (StudentParticipation) modelingSubmission.getParticipation();
-            long exerciseId = studentParticipation.getExercise().getId();
-            if (automaticResultMaps.containsKey(exerciseId)) {
-                result = automaticResultMaps.get(exerciseId).get(modelingSubmission.getId());
-            }
-
-            if (result == null) {
-                result = new Result().submission(modelingSubmission).participation(studentParticipation);
-            }
+            result = new Result().submission(modelingSubmission).participation(studentParticipation);
         }
 
         return result;
@@ -465,52 +508,145 @@ public class CompassService {
      * @param model      the new model as raw string
      */
     public void addModel(long exerciseId, long modelId, String model) {
-        if (!isSupported(exerciseId) || !loadExerciseIfSuspended(exerciseId)) {
+        if (!isSupported(exerciseId)) {
             return;
         }
-        compassCalculationEngines.get(exerciseId).notifyNewModel(model, modelId);
-        assessAutomatically(modelId, exerciseId);
+        updateAndAssess(exerciseId, engine -> {
+            engine.notifyNewModel(model, modelId);
+            // the engine has grown by the new model
+            calculationEngines.evictIfNecessary();
+        }, Set.of(modelId));
     }
 
-    private CompassCalculationEngine getCalculationEngine(long exerciseId) { // TODO throw exception if exerciseId not existing
-        loadExerciseIfSuspended(exerciseId);
-        return (CompassCalculationEngine) compassCalculationEngines.get(exerciseId);
+    /**
+     * Get the calculation engine of the given exercise and wait until it is loaded if it is not in memory
+     *
+     * @param exerciseId the id of the exercise
+     * @return the calculation engine, or null if the exercise has no participations
+     */
+    private CalculationEngine getCalculationEngine(long exerciseId) { // TODO throw exception if exerciseId not existing
+        CompletableFuture<CalculationEngine> engine = loadExerciseIfSuspended(exerciseId);
+        return engine != null ? engine.join() : null;
     }
 
     /**
-     * Checks if a calculation engine for the given exerciseId already exists. If not, it tries to load a new engine.
+     * Get the calculation engine of the given exercise if it is in memory. Otherwise, the engine is loaded in the background and null is returned, so that the request does not
+     * wait until all submissions of the exercise are analyzed. If artemis.compass.load-engines-asynchronously is false, it waits until the engine is loaded.
+     *
+     * @param exerciseId the id of the exercise
+     * @return the calculation engine, or null if it is being loaded or the exercise has no participations
+     */
+    private CalculationEngine getCalculationEngineIfLoaded(long exerciseId) {
+        CompletableFuture<CalculationEngine> engine = loadExerciseIfSuspended(exerciseId);
+        if (engine == null) {
+            return null;
+        }
+        return loadEnginesAsynchronously ? engine.getNow(null) : engine.join();
+    }
+
+    /**
+     * Update the calculation engine of the given exercise. If the engine is being loaded, the update is applied as soon as the engine is loaded, as the engine might have been
+     * built from the submissions before the update happened.
+     *
+     * @param exerciseId the id of the exercise
+     * @param update     the update of the calculation engine
+     */
+    private void updateCalculationEngine(long exerciseId, Consumer<CalculationEngine> update) {
+        CompletableFuture<CalculationEngine> engine = loadExerciseIfSuspended(exerciseId);
+        if (engine == null) {
+            return;
+        }
+        if (engine.isDone() || !loadEnginesAsynchronously) {
+            update.accept(engine.join());
+            return;
+        }
+        engine.thenAccept(update).exceptionally(error -> {
+            log.error("Could not update Compass calculation engine for exercise " + exerciseId, error);
+            return null;
+        });
+    }
+
+    /**
+     * Update the calculation engine of the given exercise in the background and assess the given submissions automatically afterwards, so that the request does not wait until
+     * Compass has assessed the submissions. The update is queued after the current transaction (if any) is committed, so that the automatic assessment sees its changes. If
+     * artemis.compass.assess-asynchronously is false, it waits until the submissions are assessed.
+     *
+     * @param exerciseId    the id of the exercise
+     * @param update        the update of the calculation engine
+     * @param submissionIds the ids of the submissions that should be assessed after the update, null if all submissions of the exercise should be assessed
+     */
+    private void updateAndAssess(long exerciseId, Consumer<CalculationEngine> update, Set<Long> submissionIds) {
+        runAfterCommit(() -> {
+            CompletableFuture<CalculationEngine> engine = loadExerciseIfSuspended(exerciseId);
+            if (engine == null) {
+                return;
+            }
+            CompletableFuture<Void> assessed = engine.thenCompose(loadedEngine -> assessmentQueue.submit(exerciseId, () -> update.accept(loadedEngine), submissionIds));
+            if (!assessAsynchronously) {
+                assessed.join();
+                return;
+            }
+            assessed.exceptionally(error -> {
+                log.error("Could not update Compass calculation engine for exercise " + exerciseId, error);
+                return null;
+            });
+        });
+    }
+
+    private static void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Checks if a calculation engine for the given exerciseId already exists. If not, it starts loading a new engine in the background.
      *
      * @param exerciseId the id of the exercise for which the calculation engine is checked/loaded
-     * @return true if a calculation engine for the exercise exists or could be loaded successfully, false otherwise
+     * @return the calculation engine (completed if it is in memory already), or null if the exercise has no participations
      */
-    private boolean loadExerciseIfSuspended(long exerciseId) {
-        if (compassCalculationEngines.containsKey(exerciseId)) {
-            return true;
+    private CompletableFuture<CalculationEngine> loadExerciseIfSuspended(long exerciseId) {
+        CalculationEngine engine = calculationEngines.get(exerciseId);
+        if (engine != null) {
+            return CompletableFuture.completedFuture(engine);
         }
         if (studentParticipationRepository.existsByExerciseId(exerciseId)) {
-            this.loadCalculationEngineForExercise(exerciseId);
-            return true;
+            return calculationEngines.getOrLoad(exerciseId);
         }
-        return false;
+        return null;
     }
 
     /**
-     * Loads all the submissions of the given exercise from the database, creates a new calculation engine from the submissions and adds it to the list of calculation engines.
-     * Afterwards, trigger the automatic assessment attempt for every submission.
+     * Loads all the submissions of the given exercise from the database and creates a new calculation engine from the submissions. If a snapshot of the engine exists that
+     * matches the submissions, the similarity sets are restored from the snapshot. Otherwise, a snapshot of the new engine is stored. Afterwards, trigger the automatic assessment
+     * attempt for every submission. Called by the cache of the calculation engines on one of its loader threads.
      *
      * @param exerciseId the exerciseId of the exercise for which the calculation engine should be loaded
+     * @return the new calculation engine
      */
-    private void loadCalculationEngineForExercise(long exerciseId) {
-        if (compassCalculationEngines.containsKey(exerciseId)) {
-            return;
-        }
+    private CalculationEngine loadCalculationEngineForExercise(long exerciseId) {
         log.info("Loading Compass calculation engine for exercise " + exerciseId);
 
+        long start = System.currentTimeMillis();
         Set<ModelingSubmission> modelingSubmissions = getSubmissionsForExercise(exerciseId);
-        CalculationEngine calculationEngine = new CompassCalculationEngine(modelingSubmissions);
-        compassCalculationEngines.put(exerciseId, calculationEngine);
+        CompassSnapshot snapshot = snapshotStore != null ? snapshotStore.load(exerciseId).orElse(null) : null;
+        CompassCalculationEngine calculationEngine = new CompassCalculationEngine(modelingSubmissions, snapshot);
+        log.info("{} Compass calculation engine for exercise {} with {} models in {} ms", calculationEngine.isRestoredFromSnapshot() ? "Restored" : "Built", exerciseId,
+                calculationEngine.getModelIds().size(), System.currentTimeMillis() - start);
+        if (!calculationEngine.isRestoredFromSnapshot()) {
+            saveSnapshot(exerciseId, calculationEngine);
+        }
 
-        assessAllAutomatically(calculationEngine.getModelIds(), exerciseId);
+        updateAutomaticResults(calculationEngine, exerciseId, null);
+        return calculationEngine;
     }
 
     /**
@@ -528,13 +664,14 @@ public class CompassService {
      * format: uniqueElements [{id} name apollonId conflicts] numberModels numberConflicts totalConfidence totalCoverage models [{id} confidence coverage conflicts]
      *
      * @param exerciseId The ID of the exercise for which to collect statistics
-     * @return statistics about the UML model
+     * @return statistics about the UML model, empty while the calculation engine of the exercise is loaded
      */
     public JsonObject getStatistics(long exerciseId) {
-        if (!isSupported(exerciseId) || !loadExerciseIfSuspended(exerciseId)) {
+        if (!isSupported(exerciseId)) {
             return new JsonObject();
         }
-        return compassCalculationEngines.get(exerciseId).getStatistics();
+        CalculationEngine engine = getCalculationEngineIfLoaded(exerciseId);
+        return engine != null ? engine.getStatistics() : new JsonObject();
     }
 
     /**
@@ -545,14 +682,12 @@ public class CompassService {
         return modelingAssessment.stream().filter(Feedback::hasReference).collect(Collectors.toList());
     }
 
-    // Call every night at 2:00 am to free memory for unused calculation engines (older than 1 day)
+    // Call every night at 2:00 am to free memory for unused calculation engines (older than 1 day), their snapshots are stored so that they can be restored quickly
     @Scheduled(cron = "0 0 2 * * *") // execute this every night at 2:00:00 am
-    private static void cleanUpCalculationEngines() {
-        LoggerFactory.getLogger(CompassService.class).info("Compass evaluates the need of keeping " + compassCalculationEngines.size() + " calculation engines in memory");
-        compassCalculationEngines = compassCalculationEngines.entrySet().stream()
-                .filter(map -> Duration.between(map.getValue().getLastUsedAt(), LocalDateTime.now()).toDays() < DAYS_TO_KEEP_UNUSED_ENGINE)
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-        LoggerFactory.getLogger(CompassService.class).info("After evaluation, there are still " + compassCalculationEngines.size() + " calculation engines in memory");
+    private void cleanUpCalculationEngines() {
+        log.info("Compass evaluates the need of keeping " + calculationEngines.size() + " calculation engines in memory");
+        calculationEngines.evictUnusedEngines(DAYS_TO_KEEP_UNUSED_ENGINE);
+        log.info("After evaluation, there are still " + calculationEngines.size() + " calculation engines in memory");
     }
 
     /**
@@ -561,19 +696,20 @@ public class CompassService {
      * @param exerciseId the id of the modeling exercise for which the statistic should be printed
      */
     public void printStatistic(Long exerciseId) {
-        if (!loadExerciseIfSuspended(exerciseId)) {
+        CalculationEngine engine = getCalculationEngine(exerciseId);
+        if (engine == null) {
             return;
         }
-        compassCalculationEngines.get(exerciseId).printStatistic(exerciseId,
-                resultRepository.findAllWithEagerFeedbackByAssessorIsNotNullAndParticipation_ExerciseIdAndCompletionDateIsNotNull(exerciseId));
+        engine.printStatistic(exerciseId, resultRepository.findAllWithEagerFeedbackByAssessorIsNotNullAndParticipation_ExerciseIdAndCompletionDateIsNotNull(exerciseId));
     }
 
     /**
      * Method to access to the compass calculation engine getModelsWaitingForAssessment() method
      * @param exerciseId the id of the exercise the models should belong to
-     * @return a list of modelIds that should be assessed next
+     * @return a list of modelIds that should be assessed next, empty while the calculation engine of the exercise is loaded
      */
     public List<Long> getCalculationEngineModelsWaitingForAssessment(Long exerciseId) {
-        return compassCalculationEngines.get(exerciseId).getModelsWaitingForAssessment();
+        CalculationEngine engine = getCalculationEngineIfLoaded(exerciseId);
+        return engine != null ? engine.getModelsWaitingForAssessment() : new ArrayList<>();
     }
 }
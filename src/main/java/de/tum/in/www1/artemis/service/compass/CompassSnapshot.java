@@ -0,0 +1,195 @@
+package de.tum.in.www1.artemis.service.compass;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.data.util.Pair;
+
+import com.google.common.hash.Hashing;
+
+/**
+ * The state of a calculation engine that is expensive to rebuild, i.e. the similarity sets of the model elements and the models handled by the model selector. The snapshot
+ * is stored in a compact binary format (gzip compressed) with the layout
+ *
+ * <pre>
+ * int magic | int formatVersion
+ * int modelCount | modelCount * (long submissionId | long modelFingerprint | int elementCount | elementCount * (UTF jsonElementId | int similarityId))
+ * int uniqueElementCount | uniqueElementCount * (long submissionId | UTF jsonElementId)
+ * int waitingCount | waitingCount * long submissionId
+ * int handledCount | handledCount * long submissionId
+ * </pre>
+ *
+ * The unique elements are stored in the order of their similarity ids. The model fingerprint is a hash of the model JSON, so that a snapshot of a model that has changed in the
+ * meantime is detected. The assessments are not part of the snapshot, they are loaded together with the submissions anyway.
+ */
+public class CompassSnapshot {
+
+    private static final int MAGIC = 0x43505353;
+
+    /**
+     * must be increased whenever the layout or the meaning of the similarity ids changes (e.g. a changed similarity calculation), snapshots of other versions are ignored
+     */
+    static final int FORMAT_VERSION = 1;
+
+    /**
+     * submissionId -> the model of the submission
+     */
+    private final Map<Long, ModelSnapshot> models;
+
+    /**
+     * the (submissionId, jsonElementId) of the unique element of every similarity set, ordered by similarity id
+     */
+    private final List<Pair<Long, String>> uniqueElements;
+
+    private final Set<Long> modelsWaitingForAssessment;
+
+    private final Set<Long> alreadyHandledModels;
+
+    CompassSnapshot(Map<Long, ModelSnapshot> models, List<Pair<Long, String>> uniqueElements, Set<Long> modelsWaitingForAssessment, Set<Long> alreadyHandledModels) {
+        this.models = models;
+        this.uniqueElements = uniqueElements;
+        this.modelsWaitingForAssessment = modelsWaitingForAssessment;
+        this.alreadyHandledModels = alreadyHandledModels;
+    }
+
+    Map<Long, ModelSnapshot> getModels() {
+        return models;
+    }
+
+    List<Pair<Long, String>> getUniqueElements() {
+        return uniqueElements;
+    }
+
+    Set<Long> getModelsWaitingForAssessment() {
+        return modelsWaitingForAssessment;
+    }
+
+    Set<Long> getAlreadyHandledModels() {
+        return alreadyHandledModels;
+    }
+
+    /**
+     * Calculates the fingerprint of a model, which is used to check if the snapshot of a model is still up to date
+     *
+     * @param model the model as JSON string
+     * @return the 64 bit hash of the model
+     */
+    static long fingerprint(String model) {
+        return Hashing.murmur3_128().hashString(model, StandardCharsets.UTF_8).asLong();
+    }
+
+    /**
+     * Write the snapshot to the given stream, the stream is closed afterwards
+     *
+     * @param outputStream the stream the snapshot is written to
+     * @throws IOException if the snapshot cannot be written
+     */
+    void writeTo(OutputStream outputStream) throws IOException {
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(outputStream)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(FORMAT_VERSION);
+            output.writeInt(models.size());
+            for (Map.Entry<Long, ModelSnapshot> model : models.entrySet()) {
+                output.writeLong(model.getKey());
+                output.writeLong(model.getValue().fingerprint);
+                output.writeInt(model.getValue().similarityIds.size());
+                for (Map.Entry<String, Integer> element : model.getValue().similarityIds.entrySet()) {
+                    output.writeUTF(element.getKey());
+                    output.writeInt(element.getValue());
+                }
+            }
+            output.writeInt(uniqueElements.size());
+            for (Pair<Long, String> uniqueElement : uniqueElements) {
+                output.writeLong(uniqueElement.getFirst());
+                output.writeUTF(uniqueElement.getSecond());
+            }
+            writeIds(output, modelsWaitingForAssessment);
+            writeIds(output, alreadyHandledModels);
+        }
+    }
+
+    /**
+     * Read a snapshot from the given stream, the stream is closed afterwards
+     *
+     * @param inputStream the stream containing a snapshot written by {@link #writeTo(OutputStream)}
+     * @return the snapshot
+     * @throws IOException if the stream cannot be read, or does not contain a snapshot of the current format version
+     */
+    static CompassSnapshot readFrom(InputStream inputStream) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new GZIPInputStream(inputStream)))) {
+            if (input.readInt() != MAGIC) {
+                throw new IOException("Not a Compass snapshot");
+            }
+            int formatVersion = input.readInt();
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IOException("Unsupported Compass snapshot version " + formatVersion);
+            }
+            int modelCount = input.readInt();
+            Map<Long, ModelSnapshot> models = new HashMap<>();
+            for (int i = 0; i < modelCount; i++) {
+                long submissionId = input.readLong();
+                long fingerprint = input.readLong();
+                int elementCount = input.readInt();
+                Map<String, Integer> similarityIds = new HashMap<>();
+                for (int j = 0; j < elementCount; j++) {
+                    similarityIds.put(input.readUTF(), input.readInt());
+                }
+                models.put(submissionId, new ModelSnapshot(fingerprint, similarityIds));
+            }
+            int uniqueElementCount = input.readInt();
+            List<Pair<Long, String>> uniqueElements = new ArrayList<>(uniqueElementCount);
+            for (int i = 0; i < uniqueElementCount; i++) {
+                long submissionId = input.readLong();
+                uniqueElements.add(Pair.of(submissionId, input.readUTF()));
+            }
+            Set<Long> modelsWaitingForAssessment = readIds(input);
+            Set<Long> alreadyHandledModels = readIds(input);
+            return new CompassSnapshot(models, uniqueElements, modelsWaitingForAssessment, alreadyHandledModels);
+        }
+    }
+
+    private static void writeIds(DataOutputStream output, Collection<Long> ids) throws IOException {
+        output.writeInt(ids.size());
+        for (long id : ids) {
+            output.writeLong(id);
+        }
+    }
+
+    private static Set<Long> readIds(DataInputStream input) throws IOException {
+        int count = input.readInt();
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(input.readLong());
+        }
+        return ids;
+    }
+
+    /**
+     * The similarity ids of the elements of one model
+     */
+    static class ModelSnapshot {
+
+        private final long fingerprint;
+
+        /**
+         * jsonElementId -> similarityId
+         */
+        private final Map<String, Integer> similarityIds;
+
+        ModelSnapshot(long fingerprint, Map<String, Integer> similarityIds) {
+            this.fingerprint = fingerprint;
+            this.similarityIds = similarityIds;
+        }
+
+        long getFingerprint() {
+            return fingerprint;
+        }
+
+        Map<String, Integer> getSimilarityIds() {
+            return similarityIds;
+        }
+    }
+}
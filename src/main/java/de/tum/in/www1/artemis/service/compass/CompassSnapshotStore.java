@@ -0,0 +1,92 @@
+package de.tum.in.www1.artemis.service.compass;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stores the snapshots of the calculation engines in a local directory, one file per exercise, so that the engines do not need to calculate all similarity sets again after a
+ * restart of the server. A snapshot is written to a temporary file first and moved to its final location afterwards, so a snapshot is never read partially written. Snapshots
+ * that cannot be read (e.g. of an older format version) are ignored, the engine is built from scratch in this case.
+ */
+public class CompassSnapshotStore {
+
+    private static final Logger log = LoggerFactory.getLogger(CompassSnapshotStore.class);
+
+    private static final String SNAPSHOT_PREFIX = "exercise-";
+
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+
+    private final Path snapshotDirectory;
+
+    public CompassSnapshotStore(Path snapshotDirectory) throws IOException {
+        this.snapshotDirectory = snapshotDirectory;
+        Files.createDirectories(snapshotDirectory);
+    }
+
+    /**
+     * Load the snapshot of the calculation engine of the given exercise
+     *
+     * @param exerciseId the id of the modeling exercise
+     * @return the snapshot, or an empty optional if there is no readable snapshot
+     */
+    public Optional<CompassSnapshot> load(long exerciseId) {
+        try (InputStream input = Files.newInputStream(getPath(exerciseId))) {
+            return Optional.of(CompassSnapshot.readFrom(input));
+        }
+        catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+        catch (IOException e) {
+            log.warn("Could not read Compass snapshot of exercise {}, the calculation engine is built from scratch: {}", exerciseId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Save the snapshot of the calculation engine of the given exercise, an existing snapshot is replaced
+     *
+     * @param exerciseId the id of the modeling exercise
+     * @param snapshot   the snapshot of the calculation engine
+     */
+    public void save(long exerciseId, CompassSnapshot snapshot) {
+        Path path = getPath(exerciseId);
+        Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            try (OutputStream output = Files.newOutputStream(temporaryPath)) {
+                snapshot.writeTo(output);
+            }
+            Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException e) {
+            log.error("Could not write Compass snapshot of exercise {}: {}", exerciseId, e.getMessage());
+            delete(exerciseId);
+        }
+    }
+
+    /**
+     * Delete the snapshot of the calculation engine of the given exercise, e.g. because it is outdated
+     *
+     * @param exerciseId the id of the modeling exercise
+     */
+    public void delete(long exerciseId) {
+        try {
+            Files.deleteIfExists(getPath(exerciseId));
+        }
+        catch (IOException e) {
+            log.error("Could not delete Compass snapshot of exercise {}: {}", exerciseId, e.getMessage());
+        }
+    }
+
+    private Path getPath(long exerciseId) {
+        return snapshotDirectory.resolve(SNAPSHOT_PREFIX + exerciseId + SNAPSHOT_SUFFIX);
+    }
+}
@@ -2,6 +2,7 @@ package de.tum.in.www1.artemis.service.compass.controller;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -51,28 +52,27 @@ public class AutomaticAssessmentController {
     }
 
     /**
-     * Loop over all models and triggers their automatic assessment.
+     * Triggers the automatic assessment of all models. The models are assessed in parallel on the common fork-join pool, as the assessment of a model only reads the assessment
+     * index.
      *
      * @param modelIndex      manages all models
      * @param assessmentIndex manages all assessments
      */
     // TODO CZ: only assess models automatically that do not already have a complete manual assessment?
     public void assessModelsAutomatically(ModelIndex modelIndex, AssessmentIndex assessmentIndex) {
+        List<CompassResult> compassResults = modelIndex.getModelCollection().parallelStream().map(model -> assessModelAutomatically(model, assessmentIndex))
+                .collect(Collectors.toList());
 
-        totalCoverage = 0;
-        totalConfidence = 0;
-
-        for (UMLDiagram model : modelIndex.getModelCollection()) {
-
-            CompassResult compassResult = assessModelAutomatically(model, assessmentIndex);
-
-            totalCoverage += compassResult.getCoverage();
-            totalConfidence += compassResult.getConfidence();
+        double coverage = 0;
+        double confidence = 0;
 
+        for (CompassResult compassResult : compassResults) {
+            coverage += compassResult.getCoverage();
+            confidence += compassResult.getConfidence();
         }
 
-        totalConfidence /= modelIndex.getModelCollectionSize();
-        totalCoverage /= modelIndex.getModelCollectionSize();
+        totalConfidence = confidence / modelIndex.getModelCollectionSize();
+        totalCoverage = coverage / modelIndex.getModelCollectionSize();
     }
 
     /**
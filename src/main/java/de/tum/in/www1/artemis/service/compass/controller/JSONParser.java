@@ -173,7 +173,18 @@ public class JSONParser {
      * @return the UMLAttribute object parsed from the JSON object
      */
     private static UMLAttribute parseAttribute(JsonObject attributeJson) {
-        String[] attributeNameArray = attributeJson.get(JSONMapping.elementName).getAsString().replaceAll("\\s+", "").split(":");
+        return parseAttribute(attributeJson.get(JSONMapping.elementName).getAsString(), attributeJson.get(JSONMapping.elementID).getAsString());
+    }
+
+    /**
+     * Parses the name of a UML attribute in the form "name: type" to a UMLAttribute Java object.
+     *
+     * @param completeAttributeName the name of the attribute including its type
+     * @param jsonElementId         the id of the attribute in the JSON representation of the model
+     * @return the UMLAttribute object parsed from the name
+     */
+    static UMLAttribute parseAttribute(String completeAttributeName, String jsonElementId) {
+        String[] attributeNameArray = completeAttributeName.replaceAll("\\s+", "").split(":");
         String attributeName = attributeNameArray[0];
         String attributeType = "";
 
@@ -181,7 +192,7 @@ public class JSONParser {
             attributeType = attributeNameArray[1];
         }
 
-        return new UMLAttribute(attributeName, attributeType, attributeJson.get(JSONMapping.elementID).getAsString());
+        return new UMLAttribute(attributeName, attributeType, jsonElementId);
     }
 
     /**
@@ -191,7 +202,17 @@ public class JSONParser {
      * @return the UMLMethod object parsed from the JSON object
      */
     private static UMLMethod parseMethod(JsonObject methodJson) {
-        String completeMethodName = methodJson.get(JSONMapping.elementName).getAsString();
+        return parseMethod(methodJson.get(JSONMapping.elementName).getAsString(), methodJson.get(JSONMapping.elementID).getAsString());
+    }
+
+    /**
+     * Parses the name of a UML method in the form "name(parameters): return type" to a UMLMethod Java object.
+     *
+     * @param completeMethodName the name of the method including its parameters and return type
+     * @param jsonElementId      the id of the method in the JSON representation of the model
+     * @return the UMLMethod object parsed from the name
+     */
+    static UMLMethod parseMethod(String completeMethodName, String jsonElementId) {
         String[] methodEntryArray = completeMethodName.replaceAll("\\s+", "").split(":");
         String[] methodParts = methodEntryArray[0].split("[()]");
 
@@ -210,7 +231,7 @@ public class JSONParser {
             methodReturnType = methodEntryArray[1];
         }
 
-        return new UMLMethod(completeMethodName, methodName, methodReturnType, Arrays.asList(methodParams), methodJson.get(JSONMapping.elementID).getAsString());
+        return new UMLMethod(completeMethodName, methodName, methodReturnType, Arrays.asList(methodParams), jsonElementId);
     }
 
     /**
@@ -0,0 +1,429 @@
+package de.tum.in.www1.artemis.service.compass.controller;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.apache.commons.lang3.EnumUtils;
+
+import com.google.common.base.CaseFormat;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import de.tum.in.www1.artemis.domain.enumeration.DiagramType;
+import de.tum.in.www1.artemis.service.compass.umlmodel.UMLDiagram;
+import de.tum.in.www1.artemis.service.compass.umlmodel.activitydiagram.UMLActivity;
+import de.tum.in.www1.artemis.service.compass.umlmodel.activitydiagram.UMLActivityDiagram;
+import de.tum.in.www1.artemis.service.compass.umlmodel.activitydiagram.UMLActivityElement;
+import de.tum.in.www1.artemis.service.compass.umlmodel.activitydiagram.UMLActivityNode;
+import de.tum.in.www1.artemis.service.compass.umlmodel.activitydiagram.UMLActivityNode.UMLActivityNodeType;
+import de.tum.in.www1.artemis.service.compass.umlmodel.activitydiagram.UMLControlFlow;
+import de.tum.in.www1.artemis.service.compass.umlmodel.classdiagram.UMLAttribute;
+import de.tum.in.www1.artemis.service.compass.umlmodel.classdiagram.UMLClass;
+import de.tum.in.www1.artemis.service.compass.umlmodel.classdiagram.UMLClass.UMLClassType;
+import de.tum.in.www1.artemis.service.compass.umlmodel.classdiagram.UMLClassDiagram;
+import de.tum.in.www1.artemis.service.compass.umlmodel.classdiagram.UMLMethod;
+import de.tum.in.www1.artemis.service.compass.umlmodel.classdiagram.UMLPackage;
+import de.tum.in.www1.artemis.service.compass.umlmodel.classdiagram.UMLRelationship;
+import de.tum.in.www1.artemis.service.compass.umlmodel.classdiagram.UMLRelationship.UMLRelationshipType;
+import de.tum.in.www1.artemis.service.compass.utils.JSONMapping;
+
+/**
+ * Creates UML diagrams directly from the JSON string of a model, like {@link JSONParser} does from a JSON object. The model is read token by token and only the properties that
+ * Compass needs are kept (e.g. the bounds of the elements are skipped), so large models are not materialized as a tree of JSON objects before the UML elements are created. The
+ * UML diagrams are the same as the ones created by {@link JSONParser}.
+ */
+public class JSONStreamParser {
+
+    /**
+     * Create a UML diagram from the given JSON string.
+     *
+     * @param model             the JSON representation of a UML diagram
+     * @param modelSubmissionId the ID of the modeling submission containing the given UML diagram
+     * @return the UML diagram as Java object
+     * @throws IOException on unexpected JSON formats
+     */
+    public static UMLDiagram buildModelFromJSON(String model, long modelSubmissionId) throws IOException {
+        try (JsonReader reader = new JsonReader(new StringReader(model))) {
+            // the same leniency as Gson's JsonParser, which is used to parse the models into JSON objects
+            reader.setLenient(true);
+            return buildModelFromJSON(reader, modelSubmissionId);
+        }
+    }
+
+    /**
+     * Create a UML diagram from the JSON object that is read next by the given reader.
+     *
+     * @param reader            the reader of the JSON representation of a UML diagram
+     * @param modelSubmissionId the ID of the modeling submission containing the given UML diagram
+     * @return the UML diagram as Java object
+     * @throws IOException on unexpected JSON formats
+     */
+    public static UMLDiagram buildModelFromJSON(JsonReader reader, long modelSubmissionId) throws IOException {
+        String diagramType = null;
+        List<JsonModelElement> modelElements = null;
+        List<JsonRelationship> relationships = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case JSONMapping.diagramType:
+                    diagramType = nextString(reader);
+                    break;
+                case JSONMapping.elements:
+                    modelElements = readModelElements(reader);
+                    break;
+                case JSONMapping.relationships:
+                    relationships = readRelationships(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (DiagramType.ClassDiagram.name().equals(diagramType)) {
+            return buildClassDiagram(required(modelElements, JSONMapping.elements), required(relationships, JSONMapping.relationships), modelSubmissionId);
+        }
+        else if (DiagramType.ActivityDiagram.name().equals(diagramType)) {
+            return buildActivityDiagram(required(modelElements, JSONMapping.elements), required(relationships, JSONMapping.relationships), modelSubmissionId);
+        }
+
+        throw new IllegalArgumentException("Diagram type of passed JSON not supported or not recognized by Compass.");
+    }
+
+    /**
+     * Create a UML class diagram from the given model and relationship elements in the same way as {@link JSONParser} does.
+     *
+     * @param modelElements     the model elements (UML classes and packages)
+     * @param relationships     the relationship elements
+     * @param modelSubmissionId the ID of the corresponding modeling submission
+     * @return a UML class diagram containing the parsed model elements and relationships
+     * @throws IOException when no corresponding model elements could be found for the IDs of attributes, methods or relationship ends
+     */
+    private static UMLClassDiagram buildClassDiagram(List<JsonModelElement> modelElements, List<JsonRelationship> relationships, long modelSubmissionId) throws IOException {
+        Map<String, UMLClass> umlClassMap = new HashMap<>();
+        List<UMLRelationship> umlRelationshipList = new ArrayList<>();
+        Map<String, UMLPackage> umlPackageMap = new HashMap<>();
+
+        Map<String, JsonModelElement> modelElementMap = new HashMap<>();
+        for (JsonModelElement element : modelElements) {
+            modelElementMap.put(element.id, element);
+            if (element.type.equals(UMLPackage.UML_PACKAGE_TYPE)) {
+                UMLPackage umlPackage = new UMLPackage(required(element.name, JSONMapping.elementName), new ArrayList<>(), element.id);
+                umlPackageMap.put(umlPackage.getJSONElementID(), umlPackage);
+            }
+        }
+
+        for (JsonModelElement element : modelElements) {
+            String elementType = CaseFormat.UPPER_CAMEL.to(CaseFormat.UPPER_UNDERSCORE, element.type);
+            if (EnumUtils.isValidEnum(UMLClassType.class, elementType)) {
+                UMLClass umlClass = parseClass(UMLClassType.valueOf(elementType), element, modelElementMap, umlPackageMap);
+                umlClassMap.put(umlClass.getJSONElementID(), umlClass);
+            }
+        }
+
+        for (JsonRelationship relationship : relationships) {
+            parseRelationship(relationship, umlClassMap, umlPackageMap).ifPresent(umlRelationshipList::add);
+        }
+
+        return new UMLClassDiagram(modelSubmissionId, new ArrayList<>(umlClassMap.values()), umlRelationshipList, new ArrayList<>(umlPackageMap.values()));
+    }
+
+    private static UMLClass parseClass(UMLClassType classType, JsonModelElement classElement, Map<String, JsonModelElement> modelElementMap, Map<String, UMLPackage> umlPackageMap)
+            throws IOException {
+        List<UMLAttribute> umlAttributesList = new ArrayList<>();
+        for (String attributeId : required(classElement.attributes, JSONMapping.elementAttributes)) {
+            JsonModelElement attribute = getModelElement(modelElementMap, attributeId);
+            umlAttributesList.add(JSONParser.parseAttribute(required(attribute.name, JSONMapping.elementName), attribute.id));
+        }
+
+        List<UMLMethod> umlMethodList = new ArrayList<>();
+        for (String methodId : required(classElement.methods, JSONMapping.elementMethods)) {
+            JsonModelElement method = getModelElement(modelElementMap, methodId);
+            umlMethodList.add(JSONParser.parseMethod(required(method.name, JSONMapping.elementName), method.id));
+        }
+
+        UMLClass newClass = new UMLClass(required(classElement.name, JSONMapping.elementName), umlAttributesList, umlMethodList, classElement.id, classType);
+
+        if (classElement.owner != null) {
+            UMLPackage umlPackage = umlPackageMap.get(classElement.owner);
+            if (umlPackage != null) {
+                umlPackage.addClass(newClass);
+                newClass.setUmlPackage(umlPackage);
+            }
+        }
+
+        return newClass;
+    }
+
+    private static Optional<UMLRelationship> parseRelationship(JsonRelationship relationship, Map<String, UMLClass> classMap, Map<String, UMLPackage> packageMap)
+            throws IOException {
+        String relationshipType = CaseFormat.UPPER_CAMEL.to(CaseFormat.UPPER_UNDERSCORE, required(relationship.type, JSONMapping.relationshipType));
+
+        if (!EnumUtils.isValidEnum(UMLRelationshipType.class, relationshipType)) {
+            return Optional.empty();
+        }
+
+        JsonRelationshipEnd relationshipSource = required(relationship.source, JSONMapping.relationshipSource);
+        JsonRelationshipEnd relationshipTarget = required(relationship.target, JSONMapping.relationshipTarget);
+
+        UMLClass source = classMap.get(relationshipSource.element);
+        UMLClass target = classMap.get(relationshipTarget.element);
+
+        if (source != null && target != null) {
+            return Optional.of(new UMLRelationship(source, target, UMLRelationshipType.valueOf(relationshipType), relationship.id, valueOrEmpty(relationshipSource.role),
+                    valueOrEmpty(relationshipTarget.role), valueOrEmpty(relationshipSource.multiplicity), valueOrEmpty(relationshipTarget.multiplicity)));
+        }
+        else {
+            if (source == null && packageMap.containsKey(relationshipSource.element) || target == null && packageMap.containsKey(relationshipTarget.element)) {
+                // workaround: prevent exception when a package is source or target of a relationship
+                return Optional.empty();
+            }
+
+            throw new IOException("Relationship source or target not part of model!");
+        }
+    }
+
+    /**
+     * Create a UML activity diagram from the given model and control flow elements in the same way as {@link JSONParser} does.
+     *
+     * @param modelElements     the model elements (UML activities and activity nodes)
+     * @param controlFlows      the control flow elements
+     * @param modelSubmissionId the ID of the corresponding modeling submission
+     * @return a UML activity diagram containing the parsed model elements and control flows
+     * @throws IOException when no corresponding model elements could be found for the source and target IDs of the control flows
+     */
+    private static UMLActivityDiagram buildActivityDiagram(List<JsonModelElement> modelElements, List<JsonRelationship> controlFlows, long modelSubmissionId)
+            throws IOException {
+        Map<String, UMLActivityElement> umlActivityElementMap = new HashMap<>();
+        Map<String, UMLActivity> umlActivityMap = new HashMap<>();
+        List<UMLActivityNode> umlActivityNodeList = new ArrayList<>();
+        List<UMLControlFlow> umlControlFlowList = new ArrayList<>();
+
+        for (JsonModelElement element : modelElements) {
+            String elementTypeUpperUnderscore = CaseFormat.UPPER_CAMEL.to(CaseFormat.UPPER_UNDERSCORE, element.type);
+
+            if (EnumUtils.isValidEnum(UMLActivityNodeType.class, elementTypeUpperUnderscore)) {
+                UMLActivityNode activityNode = new UMLActivityNode(required(element.name, JSONMapping.elementName), element.id,
+                        UMLActivityNodeType.valueOf(elementTypeUpperUnderscore));
+                umlActivityNodeList.add(activityNode);
+                umlActivityElementMap.put(activityNode.getJSONElementID(), activityNode);
+            }
+            else if (UMLActivity.UML_ACTIVITY_TYPE.equals(element.type)) {
+                UMLActivity activity = new UMLActivity(required(element.name, JSONMapping.elementName), new ArrayList<>(), element.id);
+                umlActivityMap.put(activity.getJSONElementID(), activity);
+                umlActivityElementMap.put(activity.getJSONElementID(), activity);
+            }
+        }
+
+        // connect parent activity elements with their child elements
+        for (JsonModelElement element : modelElements) {
+            if (element.owner != null) {
+                UMLActivity parentActivity = umlActivityMap.get(element.owner);
+                UMLActivityElement childElement = umlActivityElementMap.get(element.id);
+
+                if (parentActivity != null && childElement != null) {
+                    parentActivity.addChildElement(childElement);
+                    childElement.setParentActivity(parentActivity);
+                }
+            }
+        }
+
+        for (JsonRelationship controlFlow : controlFlows) {
+            UMLActivityElement sourceElement = umlActivityElementMap.get(required(controlFlow.source, JSONMapping.relationshipSource).element);
+            UMLActivityElement targetElement = umlActivityElementMap.get(required(controlFlow.target, JSONMapping.relationshipTarget).element);
+
+            if (sourceElement == null || targetElement == null) {
+                throw new IOException("Control flow source or target not part of model!");
+            }
+            umlControlFlowList.add(new UMLControlFlow(sourceElement, targetElement, controlFlow.id));
+        }
+
+        return new UMLActivityDiagram(modelSubmissionId, umlActivityNodeList, new ArrayList<>(umlActivityMap.values()), umlControlFlowList);
+    }
+
+    private static List<JsonModelElement> readModelElements(JsonReader reader) throws IOException {
+        List<JsonModelElement> modelElements = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            JsonModelElement element = new JsonModelElement();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case JSONMapping.elementID:
+                        element.id = nextString(reader);
+                        break;
+                    case JSONMapping.elementType:
+                        element.type = nextString(reader);
+                        break;
+                    case JSONMapping.elementName:
+                        element.name = nextString(reader);
+                        break;
+                    case JSONMapping.elementOwner:
+                        element.owner = nextString(reader);
+                        break;
+                    case JSONMapping.elementAttributes:
+                        element.attributes = readStrings(reader);
+                        break;
+                    case JSONMapping.elementMethods:
+                        element.methods = readStrings(reader);
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+            required(element.id, JSONMapping.elementID);
+            required(element.type, JSONMapping.elementType);
+            modelElements.add(element);
+        }
+        reader.endArray();
+        return modelElements;
+    }
+
+    private static List<JsonRelationship> readRelationships(JsonReader reader) throws IOException {
+        List<JsonRelationship> relationships = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            JsonRelationship relationship = new JsonRelationship();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case JSONMapping.elementID:
+                        relationship.id = nextString(reader);
+                        break;
+                    case JSONMapping.relationshipType:
+                        relationship.type = nextString(reader);
+                        break;
+                    case JSONMapping.relationshipSource:
+                        relationship.source = readRelationshipEnd(reader);
+                        break;
+                    case JSONMapping.relationshipTarget:
+                        relationship.target = readRelationshipEnd(reader);
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+            required(relationship.id, JSONMapping.elementID);
+            relationships.add(relationship);
+        }
+        reader.endArray();
+        return relationships;
+    }
+
+    private static JsonRelationshipEnd readRelationshipEnd(JsonReader reader) throws IOException {
+        JsonRelationshipEnd relationshipEnd = new JsonRelationshipEnd();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case JSONMapping.relationshipEndpointID:
+                    relationshipEnd.element = nextString(reader);
+                    break;
+                case JSONMapping.relationshipRole:
+                    relationshipEnd.role = nextString(reader);
+                    break;
+                case JSONMapping.relationshipMultiplicity:
+                    relationshipEnd.multiplicity = nextString(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        required(relationshipEnd.element, JSONMapping.relationshipEndpointID);
+        return relationshipEnd;
+    }
+
+    private static List<String> readStrings(JsonReader reader) throws IOException {
+        List<String> strings = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            strings.add(required(nextString(reader), JSONMapping.elementID));
+        }
+        reader.endArray();
+        return strings;
+    }
+
+    /**
+     * Reads the next value as string like JsonElement#getAsString does for JSON primitives, i.e. numbers and booleans are returned as string as well. JSON null is returned as
+     * null.
+     */
+    private static String nextString(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        else if (token == JsonToken.BOOLEAN) {
+            return Boolean.toString(reader.nextBoolean());
+        }
+        return reader.nextString();
+    }
+
+    private static JsonModelElement getModelElement(Map<String, JsonModelElement> modelElementMap, String elementId) throws IOException {
+        JsonModelElement element = modelElementMap.get(elementId);
+        if (element == null) {
+            throw new IOException("Element " + elementId + " not part of model!");
+        }
+        return element;
+    }
+
+    private static <T> T required(T value, String property) throws IOException {
+        if (value == null) {
+            throw new IOException("Property " + property + " missing in model!");
+        }
+        return value;
+    }
+
+    private static String valueOrEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    /**
+     * The properties of a model element (e.g. a class, an attribute or an activity) that are needed to create the UML elements
+     */
+    private static class JsonModelElement {
+
+        private String id;
+
+        private String type;
+
+        private String name;
+
+        private String owner;
+
+        private List<String> attributes;
+
+        private List<String> methods;
+    }
+
+    /**
+     * The properties of a relationship or control flow that are needed to create the UML elements
+     */
+    private static class JsonRelationship {
+
+        private String id;
+
+        private String type;
+
+        private JsonRelationshipEnd source;
+
+        private JsonRelationshipEnd target;
+    }
+
+    private static class JsonRelationshipEnd {
+
+        private String element;
+
+        private String role;
+
+        private String multiplicity;
+    }
+}
@@ -1,19 +1,30 @@
 package de.tum.in.www1.artemis.service.compass.controller;
 
-import java.util.Collection;
-import java.util.Map;
-import java.util.Queue;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.IntStream;
 
 import org.springframework.data.util.Pair;
 
+import de.tum.in.www1.artemis.service.compass.strategy.NameSimilarity;
 import de.tum.in.www1.artemis.service.compass.umlmodel.UMLDiagram;
 import de.tum.in.www1.artemis.service.compass.umlmodel.UMLElement;
+import de.tum.in.www1.artemis.service.compass.umlmodel.activitydiagram.UMLActivity;
+import de.tum.in.www1.artemis.service.compass.umlmodel.activitydiagram.UMLActivityNode;
+import de.tum.in.www1.artemis.service.compass.umlmodel.classdiagram.UMLAttribute;
+import de.tum.in.www1.artemis.service.compass.umlmodel.classdiagram.UMLClass;
+import de.tum.in.www1.artemis.service.compass.umlmodel.classdiagram.UMLPackage;
 import de.tum.in.www1.artemis.service.compass.utils.CompassConfiguration;
 
 public class ModelIndex {
 
+    /**
+     * The minimal number of candidates for the similarity set of an element that are scored in parallel. Scoring fewer candidates is faster than distributing them to threads.
+     */
+    private static final int PARALLEL_SCORING_THRESHOLD = 256;
+
     private Queue<UMLElement> uniqueModelElementList;
 
     /**
@@ -23,16 +34,27 @@ public class ModelIndex {
 
     private Map<UMLElement, Integer> modelElementMapping;
 
+    /**
+     * The unique elements grouped into blocks of elements that can be similar to each other, see {@link #getBlockKey(UMLElement)}. Note: The key is the pair of element class
+     * and element type
+     */
+    private Map<Pair<Class<?>, String>, Block> blocks;
+
     public ModelIndex() {
         modelElementMapping = new ConcurrentHashMap<>();
         uniqueModelElementList = new ConcurrentLinkedQueue<>();
         modelMap = new ConcurrentHashMap<>();
+        blocks = new ConcurrentHashMap<>();
     }
 
     /**
      * Get the internal similarity ID for the given model element. If the element is similar to an existing one, they share the same similarity id, i.e. they are in the same
      * similarity set. Otherwise, the given element does not belong to an existing similarity set and a new similarity ID is created for the element.
      *
+     * The element is only compared to the unique elements that can have a similarity greater than the equality threshold, i.e. to the unique elements of the same block whose
+     * name length does not rule out a similar name (see {@link Block#getCandidates(UMLElement)}). If the element is similar to multiple unique elements, the most similar one
+     * that was added first is chosen, exactly as if the element was compared to all unique elements.
+     *
      * @param element a model element for which the corresponding similarity ID should be retrieved
      * @return the similarity ID for the given model element, i.e. the ID of the similarity set the element belongs to
      */
@@ -41,26 +63,153 @@ public class ModelIndex {
             return modelElementMapping.get(element);
         }
 
-        // Pair of similarity value and similarity ID
-        var bestSimilarityFit = Pair.of(-1.0, -1);
+        Block block = blocks.computeIfAbsent(getBlockKey(element), key -> new Block());
+        List<UniqueElement> candidates = block.getCandidates(element);
+        double[] similarities = calculateSimilarities(candidates, element);
+        UniqueElement bestSimilarityFit = null;
+        double bestSimilarity = -1.0;
 
-        for (final var knownElement : uniqueModelElementList) {
-            final var similarity = knownElement.similarity(element);
-            if (similarity > CompassConfiguration.EQUALITY_THRESHOLD && similarity > bestSimilarityFit.getFirst()) {
-                // element is similar to existing element and has a higher similarity than another element
-                bestSimilarityFit = Pair.of(similarity, knownElement.getSimilarityID());
+        for (int i = 0; i < candidates.size(); i++) {
+            final var candidate = candidates.get(i);
+            final var similarity = similarities[i];
+            if (similarity > CompassConfiguration.EQUALITY_THRESHOLD
+                    && (similarity > bestSimilarity || similarity == bestSimilarity && candidate.position < bestSimilarityFit.position)) {
+                // element is similar to existing element and has a higher similarity than another element (or the same similarity as a later added element)
+                bestSimilarityFit = candidate;
+                bestSimilarity = similarity;
             }
         }
 
-        if (bestSimilarityFit.getFirst() != -1.0) {
-            modelElementMapping.put(element, bestSimilarityFit.getSecond());
-            return bestSimilarityFit.getSecond();
+        if (bestSimilarityFit != null) {
+            int similarityId = bestSimilarityFit.element.getSimilarityID();
+            modelElementMapping.put(element, similarityId);
+            return similarityId;
         }
 
         // element does not fit already known element / similarity set
         uniqueModelElementList.add(element);
-        modelElementMapping.put(element, uniqueModelElementList.size() - 1);
-        return uniqueModelElementList.size() - 1;
+        int similarityId = uniqueModelElementList.size() - 1;
+        block.add(new UniqueElement(element, similarityId));
+        modelElementMapping.put(element, similarityId);
+        return similarityId;
+    }
+
+    /**
+     * Calculates the similarity of the given element to every candidate. Many candidates are scored in parallel on the common fork-join pool, the best fit is chosen afterwards
+     * in the order of the candidates, so the result does not depend on the scheduling of the threads.
+     *
+     * @param candidates the unique elements the element is compared to
+     * @param element    the model element
+     * @return the similarity to the candidate at the same position
+     */
+    private static double[] calculateSimilarities(List<UniqueElement> candidates, UMLElement element) {
+        double[] similarities = new double[candidates.size()];
+        IntStream positions = IntStream.range(0, candidates.size());
+        if (candidates.size() >= PARALLEL_SCORING_THRESHOLD) {
+            positions = positions.parallel();
+        }
+        positions.forEach(position -> similarities[position] = calculateSimilarity(candidates.get(position).element, element));
+        return similarities;
+    }
+
+    /**
+     * Calculates the similarity of the given unique element of the same block to the given element. The similarity of element types that only compare their names is only
+     * calculated if it is greater than the equality threshold, otherwise it is 0, as the element can only be added to similarity sets above the threshold anyway.
+     *
+     * @param uniqueElement the unique element of the same block
+     * @param element       the model element
+     * @return the similarity of the unique element to the element, 0 if it is not greater than the equality threshold and only the names are compared
+     */
+    private static double calculateSimilarity(UMLElement uniqueElement, UMLElement element) {
+        if (hasNameSimilarityOnly(element)) {
+            // elements of the same block have the same class and type, so their similarity is the similarity of their names
+            return NameSimilarity.levenshteinSimilarity(uniqueElement.getName(), element.getName(), CompassConfiguration.EQUALITY_THRESHOLD);
+        }
+        return uniqueElement.similarity(element);
+    }
+
+    /**
+     * @param element the model element
+     * @return true if the similarity of elements of the same block as the given element is the similarity of their names
+     */
+    private static boolean hasNameSimilarityOnly(UMLElement element) {
+        return element instanceof UMLPackage || element instanceof UMLActivity || element instanceof UMLActivityNode;
+    }
+
+    /**
+     * Add a model element whose similarity ID is already known, e.g. from a snapshot of the calculation engine. The similarity ID has to be set on the element already.
+     *
+     * @param element a model element with its similarity ID
+     */
+    void restoreSimilarityId(UMLElement element) {
+        modelElementMapping.put(element, element.getSimilarityID());
+    }
+
+    /**
+     * Add the unique element of a similarity set whose similarity ID is already known, e.g. from a snapshot of the calculation engine. The unique elements have to be added in
+     * the order of their similarity IDs, so that new elements get the same similarity IDs as if the index had been built from scratch.
+     *
+     * @param element the unique element with its similarity ID
+     * @return true if the element was added, false if its similarity ID is not the next one
+     */
+    public boolean restoreUniqueElement(UMLElement element) {
+        if (element.getSimilarityID() != uniqueModelElementList.size()) {
+            return false;
+        }
+        uniqueModelElementList.add(element);
+        blocks.computeIfAbsent(getBlockKey(element), key -> new Block()).add(new UniqueElement(element, element.getSimilarityID()));
+        return true;
+    }
+
+    /**
+     * Get the key of the block the given element belongs to. Elements of different classes always have a similarity of 0. Elements of the same class but of a different type
+     * (e.g. a class and an interface, or an association and an inheritance) cannot have a similarity greater than the equality threshold, because the weight of the type is
+     * greater than 1 - EQUALITY_THRESHOLD. So the element can only be similar to unique elements of the same block.
+     *
+     * @param element the model element
+     * @return the pair of element class and element type
+     */
+    private static Pair<Class<?>, String> getBlockKey(UMLElement element) {
+        return Pair.of(element.getClass(), String.valueOf(element.getType()));
+    }
+
+    /**
+     * Calculates an upper bound of the similarity between the given element and an element of the same block whose name has at most the given name similarity to the name of
+     * the given element. The bound is calculated with the same formula as the similarity of the element type, so that it is never smaller than the actual similarity. For
+     * element types whose similarity does not (only) depend on the name, it returns 1, i.e. no unique element can be ruled out.
+     *
+     * @param element           the model element
+     * @param maxNameSimilarity the maximal name similarity between the element and the other element
+     * @return the maximal similarity between the element and the other element
+     */
+    private static double getMaxSimilarity(UMLElement element, double maxNameSimilarity) {
+        if (element instanceof UMLClass) {
+            return maxNameSimilarity * CompassConfiguration.CLASS_NAME_WEIGHT + CompassConfiguration.CLASS_TYPE_WEIGHT;
+        }
+        if (element instanceof UMLAttribute) {
+            return maxNameSimilarity * CompassConfiguration.ATTRIBUTE_NAME_WEIGHT + CompassConfiguration.ATTRIBUTE_TYPE_WEIGHT;
+        }
+        if (hasNameSimilarityOnly(element)) {
+            return maxNameSimilarity;
+        }
+        return 1;
+    }
+
+    /**
+     * Calculates an upper bound of the Levenshtein similarity (see {@link de.tum.in.www1.artemis.service.compass.strategy.NameSimilarity#levenshteinSimilarity(String, String)})
+     * of two names with the given lengths. The Levenshtein ratio is (lengthSum - distance) / lengthSum and the distance is at least the difference of the lengths.
+     *
+     * @param nameLength1 the length of the first name
+     * @param nameLength2 the length of the second name
+     * @return the maximal Levenshtein similarity of the two names
+     */
+    private static double getMaxNameSimilarity(int nameLength1, int nameLength2) {
+        int lengthSum = nameLength1 + nameLength2;
+        if (lengthSum == 0) {
+            return 1;
+        }
+        double maxRatio = (double) (lengthSum - Math.abs(nameLength1 - nameLength2)) / lengthSum;
+        return Math.round(100 * maxRatio) / 100.0;
     }
 
     /**
@@ -135,4 +284,72 @@ public class ModelIndex {
     public Collection<UMLElement> getUniqueElements() {
         return uniqueModelElementList;
     }
+
+    /**
+     * The unique elements of one block, indexed by the length of their names
+     */
+    private static class Block {
+
+        /**
+         * Note: The key is the length of the element name
+         */
+        private final NavigableMap<Integer, Queue<UniqueElement>> elementsByNameLength = new ConcurrentSkipListMap<>();
+
+        private final Queue<UniqueElement> elementsWithoutName = new ConcurrentLinkedQueue<>();
+
+        private void add(UniqueElement uniqueElement) {
+            String name = uniqueElement.element.getName();
+            if (name == null) {
+                elementsWithoutName.add(uniqueElement);
+            }
+            else {
+                elementsByNameLength.computeIfAbsent(name.length(), length -> new ConcurrentLinkedQueue<>()).add(uniqueElement);
+            }
+        }
+
+        /**
+         * Get the unique elements of this block that can have a similarity greater than the equality threshold to the given element. Starting from the name length of the
+         * given element, the name lengths are checked in both directions until the maximal similarity for a name length is not greater than the threshold anymore (the
+         * maximal name similarity decreases with the difference of the lengths).
+         *
+         * @param element the model element
+         * @return the candidates for the similarity set of the element
+         */
+        private List<UniqueElement> getCandidates(UMLElement element) {
+            List<UniqueElement> candidates = new ArrayList<>(elementsWithoutName);
+            String name = element.getName();
+            if (name == null) {
+                elementsByNameLength.values().forEach(candidates::addAll);
+                return candidates;
+            }
+            addCandidates(candidates, element, elementsByNameLength.tailMap(name.length(), true));
+            addCandidates(candidates, element, elementsByNameLength.headMap(name.length(), false).descendingMap());
+            return candidates;
+        }
+
+        private static void addCandidates(List<UniqueElement> candidates, UMLElement element, NavigableMap<Integer, Queue<UniqueElement>> elementsByNameLength) {
+            int nameLength = element.getName().length();
+            for (var entry : elementsByNameLength.entrySet()) {
+                if (getMaxSimilarity(element, getMaxNameSimilarity(nameLength, entry.getKey())) <= CompassConfiguration.EQUALITY_THRESHOLD) {
+                    return;
+                }
+                candidates.addAll(entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * A unique element together with its position in the list of unique elements
+     */
+    private static class UniqueElement {
+
+        private final UMLElement element;
+
+        private final int position;
+
+        private UniqueElement(UMLElement element, int position) {
+            this.element = element;
+            this.position = position;
+        }
+    }
 }
@@ -4,7 +4,9 @@ import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
+import de.tum.in.www1.artemis.service.compass.umlmodel.SimilarityCache;
 import de.tum.in.www1.artemis.service.compass.umlmodel.UMLDiagram;
+import de.tum.in.www1.artemis.service.compass.utils.CompassConfiguration;
 
 public class ModelSelector {
 
@@ -37,35 +39,73 @@ public class ModelSelector {
      */
     private Set<Long> alreadyHandledModels = ConcurrentHashMap.newKeySet();
 
+    private final ModelIndex modelIndex;
+
+    /**
+     * The models of the model index that are not in alreadyHandledModels, ordered by their coverage (lowest first) and their submission id. The coverage of an entry is the
+     * coverage of the model when the entry was created, so the entry has to be replaced when the coverage changes, see {@link #updateCoverage(UMLDiagram)}.
+     */
+    private final NavigableSet<UnhandledModel> unhandledModelsByCoverage = new TreeSet<>(
+            Comparator.comparingDouble((UnhandledModel unhandledModel) -> unhandledModel.coverage).thenComparingLong(unhandledModel -> unhandledModel.model.getModelSubmissionId()));
+
+    /**
+     * Note: The key is the ModelSubmission id
+     */
+    private final Map<Long, UnhandledModel> unhandledModels = new HashMap<>();
+
+    /**
+     * The sum of the similarities to all unhandled models for the models that have been candidates before. The sums are updated incrementally when a model becomes handled or
+     * unhandled, so they do not need to be calculated again for every selection. Note: The key is the ModelSubmission id
+     */
+    private final Map<Long, Double> similaritySums = new HashMap<>();
+
+    /**
+     * The similarities of pairs of UML classes that have been compared before. The similarity of two models is calculated when the first of them becomes a candidate and again
+     * when one of them becomes handled or unhandled, so the classes of the models do not need to compare all their attributes and methods again.
+     */
+    private final SimilarityCache similarityCache;
+
+    public ModelSelector(ModelIndex modelIndex) {
+        this(modelIndex, new SimilarityCache(CompassConfiguration.SIMILARITY_CACHE_CAPACITY));
+    }
+
+    public ModelSelector(ModelIndex modelIndex, SimilarityCache similarityCache) {
+        this.modelIndex = modelIndex;
+        this.similarityCache = similarityCache;
+    }
+
     /**
      * Calculate the given number of models which would mean the biggest knowledge gain to support the automatic assessment process. The selected models are currently unassessed
      * and not queued for assessment (i.e. in alreadyHandledModels). Which models mean the biggest knowledge gain is decided based on the coverage and the mean similarity of the
      * models, i.e. models that have a low coverage but a high mean similarity with reference to all other models are considered "optimal" and will be returned.
      *
-     * @param modelIndex     contains and manages all the models
+     * The unhandled models are kept ordered by their coverage and the similarity sums of the candidates are cached, so that only the candidates with the lowest coverage are
+     * considered and no similarity has to be calculated again for candidates that have been considered before. The selection itself is therefore not logarithmic in the number
+     * of models n: reading the candidates takes O(log n) plus the number of candidates, but a candidate that has not been considered before is compared to all n unhandled
+     * models once. In addition, every model that becomes handled or unhandled (including the selected ones) is compared to the k models with a cached similarity sum.
+     *
      * @param numberOfModels the number of models that should be loaded
      * @return the ids of the models which should be assessed next by an assessor, or an empty list if there are no unhandled models
      */
-    public List<Long> selectNextModels(ModelIndex modelIndex, int numberOfModels) {
+    public synchronized List<Long> selectNextModels(int numberOfModels) {
         double threshold = 0.15;
         int maxCandidateListSize = 10;
 
-        // Get all models that have not already been handled by the model selector
-        List<UMLDiagram> unhandledModels = new ArrayList<>();
-        for (UMLDiagram umlModel : modelIndex.getModelCollection()) {
-            if (!alreadyHandledModels.contains(umlModel.getModelSubmissionId())) {
-                unhandledModels.add(umlModel);
+        // Get the unhandled models with the lowest coverage, at most one more than the maximal candidate list size is needed to determine the size of the candidate list
+        List<UnhandledModel> candidates = new ArrayList<>();
+        for (UnhandledModel unhandledModel : unhandledModelsByCoverage) {
+            if (candidates.size() > MAX_CANDIDATE_LIST_SIZE) {
+                break;
             }
+            candidates.add(unhandledModel);
         }
 
-        List<UMLDiagram> candidates = unhandledModels;
-        candidates.sort(Comparator.comparingDouble(UMLDiagram::getLastAssessmentCoverage));
         // Make sure that the candidate list is not too big
         if (!candidates.isEmpty()) {
-            double smallestCoverage = candidates.get(0).getLastAssessmentCoverage();
+            double smallestCoverage = candidates.get(0).coverage;
 
             if (smallestCoverage < 1) {
-                while (maxCandidateListSize + 5 < candidates.size() && smallestCoverage > (candidates.get(maxCandidateListSize).getLastAssessmentCoverage() - threshold)
+                while (maxCandidateListSize + 5 < unhandledModelsByCoverage.size() && smallestCoverage > (candidates.get(maxCandidateListSize).coverage - threshold)
                         && maxCandidateListSize < MAX_CANDIDATE_LIST_SIZE) {
                     maxCandidateListSize += 5;
                 }
@@ -74,11 +114,10 @@ public class ModelSelector {
             candidates = candidates.subList(0, Math.min(candidates.size(), maxCandidateListSize));
         }
 
-        List<Long> nextOptimalModels = computeModelsWithHighestSimilarity(numberOfModels, candidates, unhandledModels);
+        List<Long> nextOptimalModels = computeModelsWithHighestSimilarity(numberOfModels, candidates);
 
         if (!nextOptimalModels.isEmpty()) {
-            alreadyHandledModels.addAll(nextOptimalModels);
-            modelsWaitingForAssessment.addAll(nextOptimalModels);
+            nextOptimalModels.forEach(this::addModelWaitingForAssessment);
 
             return nextOptimalModels;
         }
@@ -86,8 +125,7 @@ public class ModelSelector {
         // Fallback: if no optimal models could be determined by similarity, select any unassessed models
         for (UMLDiagram model : modelIndex.getModelCollection()) {
             if (model.isUnassessed() && !alreadyHandledModels.contains(model.getModelSubmissionId())) {
-                alreadyHandledModels.add(model.getModelSubmissionId());
-                modelsWaitingForAssessment.add(model.getModelSubmissionId());
+                addModelWaitingForAssessment(model.getModelSubmissionId());
 
                 return Collections.singletonList(model.getModelSubmissionId());
             }
@@ -98,16 +136,15 @@ public class ModelSelector {
 
     /**
      * Computes and returns the given number of candidate models with the highest mean similarity, i.e. for every model in the given list of candidate models, it calculates the
-     * mean similarity compared to all models in the given list of unhandled models and sorts the candidate models according to the calculated mean similarity. I then returns the
-     * given number of candidate models with the highest mean similarity.
+     * mean similarity compared to all unhandled models and sorts the candidate models according to the calculated mean similarity. I then returns the given number of candidate
+     * models with the highest mean similarity.
      *
-     * @param numberOfModels  the number of models that should be returned
-     * @param candidates      the candidate models for which to calculate the mean similarity
-     * @param unhandledModels the unhandled models used to calculate the mean similarity of the candidate models
+     * @param numberOfModels the number of models that should be returned
+     * @param candidates     the candidate models for which to calculate the mean similarity
      * @return the given number of candidate models with the highest mean similarity
      */
-    private List<Long> computeModelsWithHighestSimilarity(int numberOfModels, List<UMLDiagram> candidates, List<UMLDiagram> unhandledModels) {
-        if (numberOfModels == 0 || candidates == null || candidates.isEmpty() || unhandledModels == null || unhandledModels.isEmpty()) {
+    private List<Long> computeModelsWithHighestSimilarity(int numberOfModels, List<UnhandledModel> candidates) {
+        if (numberOfModels == 0 || candidates.isEmpty()) {
             return new ArrayList<>();
         }
 
@@ -115,18 +152,12 @@ public class ModelSelector {
         SortedMap<Double, Long> sortedSimilarityMap = new TreeMap<>(Collections.reverseOrder());
         double epsilon = EPSILON;
 
-        for (UMLDiagram candidate : candidates) {
-            double similarity = 0;
-
-            for (UMLDiagram model : unhandledModels) {
-                similarity += model.similarity(candidate);
-            }
-
-            similarity /= unhandledModels.size();
+        for (UnhandledModel candidate : candidates) {
+            double similarity = getSimilaritySum(candidate.model) / unhandledModels.size();
             // We add a small amount to every similarity to prevent duplicates. E.g if all models are exactly the same, their similarity is exactly the same as well. This would
             // result in only one element in the sorted map as duplicate keys are not permitted. So we add a small amount that does not impact the order of the similarities.
             similarity += epsilon;
-            sortedSimilarityMap.put(similarity, candidate.getModelSubmissionId());
+            sortedSimilarityMap.put(similarity, candidate.model.getModelSubmissionId());
 
             epsilon += EPSILON;
         }
@@ -134,19 +165,143 @@ public class ModelSelector {
         return sortedSimilarityMap.values().stream().limit(numberOfModels).collect(Collectors.toList());
     }
 
+    /**
+     * Get the sum of the similarities of the given unhandled model to all unhandled models (including itself). The sum is calculated once and cached afterwards.
+     */
+    private double getSimilaritySum(UMLDiagram candidate) {
+        return similaritySums.computeIfAbsent(candidate.getModelSubmissionId(), modelId -> {
+            double similarity = 0;
+            for (UnhandledModel unhandledModel : unhandledModels.values()) {
+                similarity += unhandledModel.model.similarity(candidate, similarityCache);
+            }
+            return similarity;
+        });
+    }
+
+    /**
+     * Adds the similarity of the given model to the cached similarity sums of all other models, or subtracts it if the model is not unhandled anymore.
+     */
+    private void updateSimilaritySums(UMLDiagram model, double sign) {
+        for (Map.Entry<Long, Double> similaritySum : similaritySums.entrySet()) {
+            UnhandledModel unhandledModel = unhandledModels.get(similaritySum.getKey());
+            similaritySum.setValue(similaritySum.getValue() + sign * model.similarity(unhandledModel.model, similarityCache));
+        }
+    }
+
+    /**
+     * Add a new model of the model index, so that it can be selected for assessment if it has not been handled already. If the model replaces a model with the same submission
+     * id, the cached similarities of the replaced model are discarded.
+     *
+     * @param model the new model
+     */
+    public synchronized void addModel(UMLDiagram model) {
+        UnhandledModel replacedModel = unhandledModels.get(model.getModelSubmissionId());
+        if (replacedModel != null && replacedModel.model != model) {
+            removeUnhandledModel(model.getModelSubmissionId());
+            similarityCache.invalidate(model.getModelSubmissionId());
+        }
+        else if (replacedModel == null && alreadyHandledModels.contains(model.getModelSubmissionId())) {
+            similarityCache.invalidate(model.getModelSubmissionId());
+        }
+        if (!alreadyHandledModels.contains(model.getModelSubmissionId())) {
+            addUnhandledModel(model);
+        }
+    }
+
+    /**
+     * Update the position of the given model in the coverage order, has to be called whenever the model gets a new automatic assessment
+     *
+     * @param model the model with the new automatic assessment
+     */
+    public synchronized void updateCoverage(UMLDiagram model) {
+        UnhandledModel unhandledModel = unhandledModels.get(model.getModelSubmissionId());
+        if (unhandledModel != null && unhandledModel.coverage != model.getLastAssessmentCoverage()) {
+            unhandledModelsByCoverage.remove(unhandledModel);
+            UnhandledModel updatedModel = new UnhandledModel(model);
+            unhandledModels.put(model.getModelSubmissionId(), updatedModel);
+            unhandledModelsByCoverage.add(updatedModel);
+        }
+    }
+
+    /**
+     * Update the position of all models in the coverage order, has to be called after all models have been assessed automatically
+     */
+    public synchronized void updateCoverages() {
+        modelIndex.getModelCollection().forEach(this::updateCoverage);
+    }
+
+    private void addUnhandledModel(UMLDiagram model) {
+        if (unhandledModels.containsKey(model.getModelSubmissionId())) {
+            return;
+        }
+        UnhandledModel unhandledModel = new UnhandledModel(model);
+        unhandledModels.put(model.getModelSubmissionId(), unhandledModel);
+        unhandledModelsByCoverage.add(unhandledModel);
+        // the similarity sum of the new model itself is calculated when it becomes a candidate for the first time
+        updateSimilaritySums(model, 1);
+    }
+
+    private void removeUnhandledModel(long modelId) {
+        UnhandledModel unhandledModel = unhandledModels.remove(modelId);
+        if (unhandledModel == null) {
+            return;
+        }
+        unhandledModelsByCoverage.remove(unhandledModel);
+        similaritySums.remove(modelId);
+        updateSimilaritySums(unhandledModel.model, -1);
+    }
+
+    public SimilarityCache getSimilarityCache() {
+        return similarityCache;
+    }
+
     public List<Long> getModelsWaitingForAssessment() {
         return new ArrayList<>(modelsWaitingForAssessment);
     }
 
-    public void addAlreadyHandledModel(long modelId) {
+    public Set<Long> getAlreadyHandledModels() {
+        return new HashSet<>(alreadyHandledModels);
+    }
+
+    /**
+     * Add a model that has been selected for assessment before, e.g. when the model selector is restored from a snapshot. The model is marked as already handled as well.
+     *
+     * @param modelId the id of the model submission
+     */
+    public synchronized void addModelWaitingForAssessment(long modelId) {
+        addAlreadyHandledModel(modelId);
+        modelsWaitingForAssessment.add(modelId);
+    }
+
+    public synchronized void addAlreadyHandledModel(long modelId) {
         alreadyHandledModels.add(modelId);
+        removeUnhandledModel(modelId);
     }
 
     public void removeModelWaitingForAssessment(long modelId) {
         modelsWaitingForAssessment.remove(modelId);
     }
 
-    public void removeAlreadyHandledModel(long modelId) {
+    public synchronized void removeAlreadyHandledModel(long modelId) {
         alreadyHandledModels.remove(modelId);
+        UMLDiagram model = modelIndex.getModel(modelId);
+        if (model != null) {
+            addUnhandledModel(model);
+        }
+    }
+
+    /**
+     * An unhandled model together with its coverage when it was added to the coverage order
+     */
+    private static class UnhandledModel {
+
+        private final UMLDiagram model;
+
+        private final double coverage;
+
+        private UnhandledModel(UMLDiagram model) {
+            this.model = model;
+            this.coverage = model.getLastAssessmentCoverage();
+        }
     }
 }
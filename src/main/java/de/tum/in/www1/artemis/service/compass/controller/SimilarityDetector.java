@@ -1,5 +1,7 @@
 package de.tum.in.www1.artemis.service.compass.controller;
 
+import java.util.Map;
+
 import de.tum.in.www1.artemis.service.compass.assessment.Context;
 import de.tum.in.www1.artemis.service.compass.umlmodel.UMLDiagram;
 import de.tum.in.www1.artemis.service.compass.umlmodel.UMLElement;
@@ -24,6 +26,31 @@ public class SimilarityDetector {
         setContextOfModelElements(model);
     }
 
+    /**
+     * Assign the given similarityIds to the model elements of the given UML diagram instead of analyzing their similarity, e.g. when the calculation engine is restored from a
+     * snapshot. Additionally, it sets the context of the model elements.
+     *
+     * @param model         the model which contains the model elements for which the similarityId and the context should be set
+     * @param index         the modelIndex which keeps track of all similarityIds of all the model elements in one modeling exercise
+     * @param similarityIds the similarityIds of the model elements, the key is the jsonElementId
+     * @return true if a similarityId was given for every model element, false otherwise (the model is not added to the index in this case)
+     */
+    public static boolean restoreSimilarity(UMLDiagram model, ModelIndex index, Map<String, Integer> similarityIds) {
+        for (UMLElement element : model.getAllModelElements()) {
+            if (!similarityIds.containsKey(element.getJSONElementID())) {
+                return false;
+            }
+        }
+
+        for (UMLElement element : model.getAllModelElements()) {
+            element.setSimilarityID(similarityIds.get(element.getJSONElementID()));
+            index.restoreSimilarityId(element);
+        }
+
+        setContextOfModelElements(model);
+        return true;
+    }
+
     /**
      * Set the context of all model elements of the given UML diagram. For UML attributes and methods, the context contains the similarityId of their parent class. For all other
      * elements no context is considered and the default NO_CONTEXT is assigned.
@@ -0,0 +1,273 @@
+package de.tum.in.www1.artemis.service.compass.strategy;
+
+import java.util.Arrays;
+
+/**
+ * Calculates the Levenshtein ratio of two strings exactly like FuzzySearch.ratio, but with a bit-parallel algorithm. FuzzySearch.ratio weights a substitution as one deletion
+ * and one insertion, so the edit distance of two strings is lengthSum - 2 * lcs, where lcs is the length of their longest common subsequence, and the ratio is
+ * 2 * lcs / lengthSum. The length of the longest common subsequence is calculated with the bit-vector algorithm of Hyyrö, which processes 64 characters of the shorter string
+ * with one word operation, instead of filling the whole dynamic programming matrix.
+ *
+ * The character masks of the names (the patterns) and the ratios of recently compared names are kept in bounded memo tables, as the same names are compared many times when
+ * the similarity sets of a modeling exercise are built.
+ */
+final class BitParallelLevenshtein {
+
+    /**
+     * the number of patterns that are kept, must be a power of 2
+     */
+    static final int PATTERN_TABLE_SIZE = 1 << 12;
+
+    /**
+     * the number of ratios that are kept, must be a power of 2
+     */
+    static final int RATIO_TABLE_SIZE = 1 << 14;
+
+    /**
+     * Direct-mapped memo tables: an entry is replaced by a newer entry with the same index. The entries are immutable, so the tables can be used by multiple threads without
+     * locking, a thread that does not see the entry of another thread only calculates it again.
+     */
+    private static final Pattern[] patternTable = new Pattern[PATTERN_TABLE_SIZE];
+
+    private static final RatioEntry[] ratioTable = new RatioEntry[RATIO_TABLE_SIZE];
+
+    private BitParallelLevenshtein() {
+    }
+
+    /**
+     * Calculates the Levenshtein ratio of the two strings as number between 0 and 100, like FuzzySearch.ratio.
+     *
+     * @param string1 the first string, not null
+     * @param string2 the second string, not null
+     * @return the ratio between the two strings
+     */
+    static int ratio(String string1, String string2) {
+        return ratio(string1, string2, -1);
+    }
+
+    /**
+     * Calculates the Levenshtein ratio of the two strings as number between 0 and 100, like FuzzySearch.ratio, if it is greater than the given minimal ratio. The calculation
+     * stops as soon as the minimal ratio cannot be exceeded anymore.
+     *
+     * @param string1  the first string, not null
+     * @param string2  the second string, not null
+     * @param minRatio the ratio which has to be exceeded, -1 to always calculate the ratio
+     * @return the ratio between the two strings, or -1 if it is not greater than the minimal ratio
+     */
+    static int ratio(String string1, String string2, int minRatio) {
+        int lengthSum = string1.length() + string2.length();
+        if (lengthSum == 0) {
+            return 100;
+        }
+        int ratioIndex = spread(string1.hashCode() + string2.hashCode()) & (RATIO_TABLE_SIZE - 1);
+        RatioEntry ratioEntry = ratioTable[ratioIndex];
+        if (ratioEntry != null && ratioEntry.matches(string1, string2)) {
+            return ratioEntry.ratio > minRatio ? ratioEntry.ratio : -1;
+        }
+
+        // the shorter string is the pattern, so that it needs as few words as possible
+        Pattern pattern = string1.length() <= string2.length() ? getPattern(string1) : getPattern(string2);
+        String text = string1.length() <= string2.length() ? string2 : string1;
+        int lcs = lcsLength(pattern, text, getMinLcs(minRatio, lengthSum, pattern.length));
+        if (lcs < 0) {
+            return -1;
+        }
+        int ratio = toRatio(lcs, lengthSum);
+        ratioTable[ratioIndex] = new RatioEntry(string1, string2, ratio);
+        return ratio > minRatio ? ratio : -1;
+    }
+
+    /**
+     * Rounds the ratio like FuzzySearch.ratio, i.e. Math.round(100 * (lengthSum - distance) / lengthSum) with distance = lengthSum - 2 * lcs.
+     */
+    private static int toRatio(int lcs, int lengthSum) {
+        return (int) Math.round(100 * ((double) (2 * lcs) / lengthSum));
+    }
+
+    /**
+     * @return the minimal length of the longest common subsequence so that the ratio is greater than the minimal ratio, or 0 if the ratio should always be calculated
+     */
+    private static int getMinLcs(int minRatio, int lengthSum, int maxLcs) {
+        if (minRatio < 0) {
+            return 0;
+        }
+        // the rounded ratio differs by at most 0.5 from the exact ratio 200 * lcs / lengthSum, so no smaller lcs can exceed the minimal ratio
+        int minLcs = Math.max(0, (int) ((minRatio - 1) * (long) lengthSum / 200));
+        while (minLcs <= maxLcs && toRatio(minLcs, lengthSum) <= minRatio) {
+            minLcs++;
+        }
+        return minLcs;
+    }
+
+    /**
+     * Calculates the length of the longest common subsequence of the pattern and the text. The bit vector v has a 0 bit for every character of the pattern that is part of the
+     * longest common subsequence of the pattern and the processed prefix of the text. For every character of the text, v is updated with (v + (v & match)) | (v & ~match),
+     * where match has a 1 bit for every occurrence of the character in the pattern.
+     *
+     * @param pattern the character masks of the shorter string
+     * @param text    the longer string
+     * @param minLcs  the minimal length of the longest common subsequence, the calculation stops if it cannot be reached anymore
+     * @return the length of the longest common subsequence, or -1 if it is smaller than minLcs
+     */
+    private static int lcsLength(Pattern pattern, String text, int minLcs) {
+        if (minLcs > pattern.length) {
+            return -1;
+        }
+        if (pattern.words == 1) {
+            return lcsLengthOfShortPattern(pattern, text, minLcs);
+        }
+        int words = pattern.words;
+        long[] v = new long[words];
+        Arrays.fill(v, -1L);
+        for (int i = 0; i < text.length(); i++) {
+            int matchOffset = pattern.getMatchOffset(text.charAt(i));
+            if (matchOffset >= 0) {
+                long carry = 0;
+                for (int word = 0; word < words; word++) {
+                    long match = pattern.masks[matchOffset + word];
+                    long vWord = v[word];
+                    long u = vWord & match;
+                    long sum = vWord + u;
+                    long nextCarry = Long.compareUnsigned(sum, vWord) < 0 ? 1 : 0;
+                    sum += carry;
+                    if (carry == 1 && sum == 0) {
+                        nextCarry = 1;
+                    }
+                    v[word] = sum | (vWord & ~match);
+                    carry = nextCarry;
+                }
+            }
+            // every remaining character of the text can extend the longest common subsequence by at most 1
+            if (minLcs > 0 && countLcs(pattern, v) + text.length() - i - 1 < minLcs) {
+                return -1;
+            }
+        }
+        int lcs = countLcs(pattern, v);
+        return lcs >= minLcs ? lcs : -1;
+    }
+
+    /**
+     * Same as {@link #lcsLength(Pattern, String, int)} for patterns with at most 64 characters, which fit into one word
+     */
+    private static int lcsLengthOfShortPattern(Pattern pattern, String text, int minLcs) {
+        long lengthMask = pattern.length == 64 ? -1L : (1L << pattern.length) - 1;
+        long v = -1L;
+        for (int i = 0; i < text.length(); i++) {
+            int matchOffset = pattern.getMatchOffset(text.charAt(i));
+            if (matchOffset >= 0) {
+                long match = pattern.masks[matchOffset];
+                v = (v + (v & match)) | (v & ~match);
+            }
+            if (minLcs > 0 && pattern.length - Long.bitCount(v & lengthMask) + text.length() - i - 1 < minLcs) {
+                return -1;
+            }
+        }
+        int lcs = pattern.length - Long.bitCount(v & lengthMask);
+        return lcs >= minLcs ? lcs : -1;
+    }
+
+    /**
+     * @return the number of 0 bits of v that belong to a character of the pattern
+     */
+    private static int countLcs(Pattern pattern, long[] v) {
+        int ones = 0;
+        for (int word = 0; word < pattern.words - 1; word++) {
+            ones += Long.bitCount(v[word]);
+        }
+        int remainingBits = pattern.length - 64 * (pattern.words - 1);
+        long lastWordMask = remainingBits == 64 ? -1L : (1L << remainingBits) - 1;
+        ones += Long.bitCount(v[pattern.words - 1] & lastWordMask);
+        return pattern.length - ones;
+    }
+
+    private static Pattern getPattern(String string) {
+        int index = spread(string.hashCode()) & (PATTERN_TABLE_SIZE - 1);
+        Pattern pattern = patternTable[index];
+        if (pattern == null || !pattern.string.equals(string)) {
+            pattern = new Pattern(string);
+            patternTable[index] = pattern;
+        }
+        return pattern;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * The character masks of a string: for every distinct character of the string, a bit vector with a 1 bit at every position of the character in the string
+     */
+    private static final class Pattern {
+
+        private final String string;
+
+        private final int length;
+
+        private final int words;
+
+        /**
+         * the distinct characters of the string in ascending order
+         */
+        private final char[] characters;
+
+        /**
+         * the masks of the characters, the mask of characters[i] starts at index i * words
+         */
+        private final long[] masks;
+
+        /**
+         * the index + 1 of the ASCII characters in characters, 0 if the character does not occur in the string
+         */
+        private final short[] asciiIndexes = new short[128];
+
+        private Pattern(String string) {
+            this.string = string;
+            this.length = string.length();
+            this.words = Math.max(1, (length + 63) / 64);
+            char[] sortedCharacters = string.toCharArray();
+            Arrays.sort(sortedCharacters);
+            int distinctCharacters = 0;
+            for (int i = 0; i < sortedCharacters.length; i++) {
+                if (i == 0 || sortedCharacters[i] != sortedCharacters[i - 1]) {
+                    sortedCharacters[distinctCharacters++] = sortedCharacters[i];
+                }
+            }
+            this.characters = Arrays.copyOf(sortedCharacters, distinctCharacters);
+            for (int i = 0; i < distinctCharacters && characters[i] < 128; i++) {
+                asciiIndexes[characters[i]] = (short) (i + 1);
+            }
+            this.masks = new long[distinctCharacters * words];
+            for (int position = 0; position < length; position++) {
+                int offset = getMatchOffset(string.charAt(position));
+                masks[offset + position / 64] |= 1L << (position % 64);
+            }
+        }
+
+        /**
+         * @return the index of the mask of the given character, or -1 if the character does not occur in the string
+         */
+        private int getMatchOffset(char character) {
+            int index = character < 128 ? asciiIndexes[character] - 1 : Arrays.binarySearch(characters, character);
+            return index >= 0 ? index * words : -1;
+        }
+    }
+
+    private static final class RatioEntry {
+
+        private final String string1;
+
+        private final String string2;
+
+        private final int ratio;
+
+        private RatioEntry(String string1, String string2, int ratio) {
+            this.string1 = string1;
+            this.string2 = string2;
+            this.ratio = ratio;
+        }
+
+        private boolean matches(String string1, String string2) {
+            return this.string1.equals(string1) && this.string2.equals(string2) || this.string1.equals(string2) && this.string2.equals(string1);
+        }
+    }
+}
@@ -2,12 +2,11 @@ package de.tum.in.www1.artemis.service.compass.strategy;
 
 import java.util.Objects;
 
-import me.xdrop.fuzzywuzzy.FuzzySearch;
-
 public class NameSimilarity {
 
     /**
-     * Analyzes the similarity between two given strings by calculating a Levenshtein simple ratio.
+     * Analyzes the similarity between two given strings by calculating a Levenshtein simple ratio. The ratio is the same as FuzzySearch.ratio, but it is calculated with a
+     * bit-parallel algorithm and recently compared strings are memoized (see {@link BitParallelLevenshtein}).
      *
      * @param string1 the first of the two strings that should be compared
      * @param string2 the second of the two strings that should be compared
@@ -22,7 +21,25 @@ public class NameSimilarity {
         }
 
         // TODO longterm: think about an even more sophisticated approach that takes e.g. thesaurus and specific uml conventions into account
-        return FuzzySearch.ratio(string1, string2) / 100.0;
+        return BitParallelLevenshtein.ratio(string1, string2) / 100.0;
+    }
+
+    /**
+     * Analyzes the similarity between two given strings like {@link #levenshteinSimilarity(String, String)}, if the similarity is greater than the given minimal similarity.
+     * The calculation stops as soon as the minimal similarity cannot be exceeded anymore, so it is faster for callers that only need to know whether two strings are similar.
+     *
+     * @param string1       the first of the two strings that should be compared
+     * @param string2       the second of the two strings that should be compared
+     * @param minSimilarity the similarity which has to be exceeded
+     * @return the Levenshtein simple ratio between the two input strings if it is greater than the minimal similarity, 0 otherwise
+     */
+    public static double levenshteinSimilarity(String string1, String string2, double minSimilarity) {
+        double similarity = Objects.equals(string1, string2) ? 1 : 0;
+        if (string1 != null && string2 != null && !string1.equals(string2)) {
+            int minRatio = Math.max(-1, Math.min(100, (int) Math.floor(minSimilarity * 100)));
+            similarity = Math.max(0, BitParallelLevenshtein.ratio(string1, string2, minRatio)) / 100.0;
+        }
+        return similarity > minSimilarity ? similarity : 0;
     }
 
     /**
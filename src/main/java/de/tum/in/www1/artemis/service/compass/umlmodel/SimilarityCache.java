@@ -0,0 +1,156 @@
+package de.tum.in.www1.artemis.service.compass.umlmodel;
+
+import java.util.Arrays;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Memory-bounded cache for the similarity of pairs of model elements, which are identified by the submission id of their model and their position in the model. The similarity of
+ * elements is not necessarily symmetric, so the pair (a, b) and the pair (b, a) have separate entries.
+ *
+ * The entries are stored in primitive arrays with open addressing: the key of an element is the long (submissionId << 16 | position), a pair is stored in two slots of the key
+ * arrays and its similarity as double, as a float would change the order of almost equal similarity sums. An entry is searched in a window of PROBES slots after the slot of its
+ * hash. If the window is full, one of its entries is replaced, so the cache never grows beyond its capacity. As a lookup always checks the whole window, an entry can be removed
+ * by simply clearing its slot.
+ */
+public class SimilarityCache {
+
+    private static final long EMPTY = -1L;
+
+    private static final int PROBES = 8;
+
+    private static final int POSITION_BITS = 16;
+
+    private static final long MAX_SUBMISSION_ID = (1L << (Long.SIZE - 1 - POSITION_BITS)) - 1;
+
+    private final int capacity;
+
+    private long[] firstKeys;
+
+    private long[] secondKeys;
+
+    private double[] similarities;
+
+    private int size;
+
+    private int evictions;
+
+    private long hits;
+
+    private long misses;
+
+    /**
+     * @param capacity the maximal number of cached pairs, rounded up to a power of 2
+     */
+    public SimilarityCache(int capacity) {
+        this.capacity = Integer.highestOneBit(Math.max(PROBES, capacity - 1) << 1);
+    }
+
+    /**
+     * Get the similarity of the first to the second element from the cache, or calculate and cache it if it is not cached yet. Elements of models with a negative submission id
+     * or with more than 2^16 elements are not cached.
+     *
+     * @param submissionId1 the submission id of the model of the first element
+     * @param position1     the position of the first element in its model
+     * @param submissionId2 the submission id of the model of the second element
+     * @param position2     the position of the second element in its model
+     * @param similarity    calculates the similarity of the first to the second element
+     * @return the similarity of the first to the second element
+     */
+    public synchronized double getSimilarity(long submissionId1, int position1, long submissionId2, int position2, DoubleSupplier similarity) {
+        if (!isCacheable(submissionId1, position1) || !isCacheable(submissionId2, position2)) {
+            misses++;
+            return similarity.getAsDouble();
+        }
+        if (firstKeys == null) {
+            firstKeys = new long[capacity];
+            secondKeys = new long[capacity];
+            Arrays.fill(firstKeys, EMPTY);
+            similarities = new double[capacity];
+        }
+
+        long firstKey = submissionId1 << POSITION_BITS | position1;
+        long secondKey = submissionId2 << POSITION_BITS | position2;
+        int home = index(firstKey, secondKey);
+        int freeSlot = -1;
+        for (int probe = 0; probe < PROBES; probe++) {
+            int slot = (home + probe) & (capacity - 1);
+            if (firstKeys[slot] == firstKey && secondKeys[slot] == secondKey) {
+                hits++;
+                return similarities[slot];
+            }
+            if (freeSlot < 0 && firstKeys[slot] == EMPTY) {
+                freeSlot = slot;
+            }
+        }
+
+        misses++;
+        double value = similarity.getAsDouble();
+        if (freeSlot < 0) {
+            // replace the entries of the window in turn
+            freeSlot = (home + (evictions++ & (PROBES - 1))) & (capacity - 1);
+        }
+        else {
+            size++;
+        }
+        firstKeys[freeSlot] = firstKey;
+        secondKeys[freeSlot] = secondKey;
+        similarities[freeSlot] = value;
+        return value;
+    }
+
+    /**
+     * Remove all pairs that contain an element of the model with the given submission id, e.g. because the model has been replaced
+     *
+     * @param submissionId the submission id of the model
+     */
+    public synchronized void invalidate(long submissionId) {
+        if (firstKeys == null || !isCacheable(submissionId, 0)) {
+            return;
+        }
+        for (int slot = 0; slot < capacity; slot++) {
+            if (firstKeys[slot] != EMPTY && (firstKeys[slot] >>> POSITION_BITS == submissionId || secondKeys[slot] >>> POSITION_BITS == submissionId)) {
+                firstKeys[slot] = EMPTY;
+                size--;
+            }
+        }
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return the share of the lookups that were answered from the cache, 0 if there was no lookup yet
+     */
+    public synchronized double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * @return the number of cached pairs
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of bytes allocated for the cached pairs
+     */
+    public synchronized long getMemoryUsage() {
+        return firstKeys == null ? 0 : (long) capacity * (Long.BYTES + Long.BYTES + Double.BYTES);
+    }
+
+    private static boolean isCacheable(long submissionId, int position) {
+        return submissionId >= 0 && submissionId <= MAX_SUBMISSION_ID && position >= 0 && position < 1 << POSITION_BITS;
+    }
+
+    private int index(long firstKey, long secondKey) {
+        long hash = (firstKey * 31 + secondKey) * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & (capacity - 1);
+    }
+}
@@ -2,7 +2,10 @@ package de.tum.in.www1.artemis.service.compass.umlmodel;
 
 import java.util.List;
 
+import javax.annotation.Nullable;
+
 import de.tum.in.www1.artemis.service.compass.assessment.CompassResult;
+import de.tum.in.www1.artemis.service.compass.umlmodel.classdiagram.UMLClass;
 
 public abstract class UMLDiagram implements Similarity<UMLDiagram> {
 
@@ -49,6 +52,18 @@ public abstract class UMLDiagram implements Similarity<UMLDiagram> {
      */
     @Override
     public double similarity(Similarity<UMLDiagram> reference) {
+        return similarity(reference, null);
+    }
+
+    /**
+     * Compares this with another diagram to calculate the similarity like {@link #similarity(Similarity)}. The similarities of the UML classes of the diagrams, which compare all
+     * attributes and methods of the classes, are taken from the given cache if the classes have been compared before.
+     *
+     * @param reference       the reference UML diagram to compare this diagram with
+     * @param similarityCache the cache for the similarities of the UML classes, or null if the similarities should not be cached
+     * @return the similarity of the diagrams as number [0-1]
+     */
+    public double similarity(Similarity<UMLDiagram> reference, @Nullable SimilarityCache similarityCache) {
         if (reference == null || !reference.getClass().isInstance(this)) {
             return 0;
         }
@@ -57,7 +72,7 @@ public abstract class UMLDiagram implements Similarity<UMLDiagram> {
 
         // To ensure symmetry (i.e. A.similarity(B) = B.similarity(A)) we make sure that this diagram always has less or equally many elements than the reference diagram.
         if (getModelElements().size() > diagramReference.getModelElements().size()) {
-            return diagramReference.similarity(this);
+            return diagramReference.similarity(this, similarityCache);
         }
 
         double similarity = 0;
@@ -68,8 +83,9 @@ public abstract class UMLDiagram implements Similarity<UMLDiagram> {
         int maxElementCount = diagramReference.getModelElements().size();
         double weight = 1.0 / maxElementCount;
 
-        for (Similarity<UMLElement> element : getModelElements()) {
-            double similarityValue = diagramReference.similarElementScore(element);
+        List<UMLElement> modelElements = getModelElements();
+        for (int position = 0; position < modelElements.size(); position++) {
+            double similarityValue = diagramReference.similarElementScore(modelElements.get(position), modelSubmissionId, position, similarityCache);
             similarity += weight * similarityValue;
         }
 
@@ -81,11 +97,27 @@ public abstract class UMLDiagram implements Similarity<UMLDiagram> {
      * Compares a reference element to the list of model elements of this diagram and returns the maximum similarity score, i.e. the similarity between the reference element and
      * the most similar element of this diagram.
      *
-     * @param referenceElement the reference element that should be compared to the model elements of this diagram
+     * @param referenceElement      the reference element that should be compared to the model elements of this diagram
+     * @param referenceSubmissionId the submission id of the model of the reference element
+     * @param referencePosition     the position of the reference element in its model
+     * @param similarityCache       the cache for the similarities of the UML classes, or null if the similarities should not be cached
      * @return the maximum similarity score of the reference element and the list of model elements of this diagram
      */
-    private double similarElementScore(Similarity<UMLElement> referenceElement) {
-        return getModelElements().stream().mapToDouble(element -> element.overallSimilarity(referenceElement)).max().orElse(0);
+    private double similarElementScore(UMLElement referenceElement, long referenceSubmissionId, int referencePosition, @Nullable SimilarityCache similarityCache) {
+        List<UMLElement> modelElements = getModelElements();
+        double maxSimilarity = 0;
+        for (int position = 0; position < modelElements.size(); position++) {
+            UMLElement element = modelElements.get(position);
+            double similarity;
+            if (similarityCache != null && element instanceof UMLClass && referenceElement instanceof UMLClass) {
+                similarity = similarityCache.getSimilarity(modelSubmissionId, position, referenceSubmissionId, referencePosition, () -> element.overallSimilarity(referenceElement));
+            }
+            else {
+                similarity = element.overallSimilarity(referenceElement);
+            }
+            maxSimilarity = Math.max(maxSimilarity, similarity);
+        }
+        return maxSimilarity;
     }
 
     /**
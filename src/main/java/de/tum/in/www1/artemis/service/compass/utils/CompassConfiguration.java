@@ -47,6 +47,10 @@ public class CompassConfiguration {
     /* CURRENTLY DISABLED */
     public final static double POORLY_ASSESSED_MODEL_THRESHOLD = 0.8;
 
+    // Maximal number of pairs of UML classes whose similarity is cached per calculation engine. Every entry needs 24 bytes (two element keys and the similarity), the cache memory
+    // is allocated when the first similarity is cached.
+    public static final int SIMILARITY_CACHE_CAPACITY = 1 << 16;
+
     /*
      * Confidence and coverage parameters
      */
@@ -68,6 +72,18 @@ public class CompassConfiguration {
     // Number of days to keep unused calculation engines in memory. If an engine is unused for a longer time, it will be removed in the cleanup job running every night.
     public static final int DAYS_TO_KEEP_UNUSED_ENGINE = 1;
 
+    // Estimated number of bytes a calculation engine needs per model (e.g. its entries in the model index and model selector) and per model element (the UML element, its
+    // similarity set and assessment). The estimated memory of the engines is compared with the memory budget of all calculation engines to decide when engines are evicted.
+    public static final long ESTIMATED_MEMORY_PER_MODEL = 2048;
+
+    public static final long ESTIMATED_MEMORY_PER_ELEMENT = 768;
+
+    // Number of calculation engines of different exercises that can be loaded concurrently in the background
+    public static final int ENGINE_LOADER_THREADS = 2;
+
+    // Number of threads that update the calculation engines and compute the automatic results of different exercises concurrently in the background
+    public static final int ASSESSMENT_THREADS = 2;
+
     /*
      * Optimal model parameters
      */
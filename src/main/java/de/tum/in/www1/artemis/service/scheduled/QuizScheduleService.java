@@ -2,6 +2,7 @@ package de.tum.in.www1.artemis.service.scheduled;
 
 import java.time.ZonedDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
 
@@ -9,23 +10,33 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
-import org.springframework.messaging.simp.SimpMessageSendingOperations;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.stereotype.Service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+
 import de.tum.in.www1.artemis.domain.*;
-import de.tum.in.www1.artemis.domain.enumeration.AssessmentType;
-import de.tum.in.www1.artemis.domain.enumeration.InitializationState;
 import de.tum.in.www1.artemis.domain.enumeration.SubmissionType;
 import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
+import de.tum.in.www1.artemis.domain.quiz.DragAndDropSubmittedAnswer;
 import de.tum.in.www1.artemis.domain.quiz.QuizExercise;
 import de.tum.in.www1.artemis.domain.quiz.QuizSubmission;
-import de.tum.in.www1.artemis.repository.QuizSubmissionRepository;
-import de.tum.in.www1.artemis.repository.ResultRepository;
-import de.tum.in.www1.artemis.repository.StudentParticipationRepository;
+import de.tum.in.www1.artemis.domain.quiz.ShortAnswerSubmittedAnswer;
 import de.tum.in.www1.artemis.service.QuizExerciseService;
 import de.tum.in.www1.artemis.service.QuizStatisticService;
-import de.tum.in.www1.artemis.service.UserService;
+import de.tum.in.www1.artemis.service.scheduled.quiz.InMemoryQuizSubmissionStore;
+import de.tum.in.www1.artemis.service.scheduled.quiz.QuizPayloadCache;
+import de.tum.in.www1.artemis.service.scheduled.quiz.QuizProcessingExecutor;
+import de.tum.in.www1.artemis.service.scheduled.quiz.QuizResultBatchService;
+import de.tum.in.www1.artemis.service.scheduled.quiz.QuizResultFanOut;
+import de.tum.in.www1.artemis.service.scheduled.quiz.QuizSessionRegistry;
+import de.tum.in.www1.artemis.service.scheduled.quiz.QuizSessionRegistry.QuizSession;
+import de.tum.in.www1.artemis.service.scheduled.quiz.QuizState;
+import de.tum.in.www1.artemis.service.scheduled.quiz.QuizStatisticAggregator;
+import de.tum.in.www1.artemis.service.scheduled.quiz.QuizStatisticPublisher;
+import de.tum.in.www1.artemis.service.scheduled.quiz.QuizSubmissionRateLimiter;
+import de.tum.in.www1.artemis.service.scheduled.quiz.QuizSubmissionStore;
+import de.tum.in.www1.artemis.service.scheduled.quiz.QuizWorkingTimeScheduler;
 
 @Service
 public class QuizScheduleService {
@@ -33,22 +44,22 @@ public class QuizScheduleService {
     private static final Logger log = LoggerFactory.getLogger(QuizScheduleService.class);
 
     /**
-     * quizExerciseId -> Map<username -> QuizSubmission>
+     * the maximum number of processed submissions that are saved to the database in one transaction
      */
-    private static Map<Long, Map<String, QuizSubmission>> submissionHashMap = new ConcurrentHashMap<>();
+    private static final int PERSISTENCE_BATCH_SIZE = 500;
 
     /**
-     * quizExerciseId -> Map<username -> StudentParticipation>
+     * buffers quizExerciseId -> Map<username -> QuizSubmission> until the submissions are persisted
      */
-    private static Map<Long, Map<String, StudentParticipation>> participationHashMap = new ConcurrentHashMap<>();
+    private static QuizSubmissionStore submissionStore = new InMemoryQuizSubmissionStore();
 
     /**
-     * quizExerciseId -> [Result]
+     * the participations that are sent out at the end of the quiz and the results for the statistic update, only the owner of a quiz processes them
      */
-    private static Map<Long, Set<Result>> resultHashMap = new ConcurrentHashMap<>();
+    private static QuizState quizState;
 
     /**
-     * quizExerciseId -> ScheduledFuture
+     * quizExerciseId -> ScheduledFuture, every node schedules the start of all quizzes, because it sends the quiz to the students connected to it
      */
     private static Map<Long, ScheduledFuture<?>> quizStartSchedules = new ConcurrentHashMap<>();
 
@@ -56,39 +67,91 @@ public class QuizScheduleService {
 
     private ScheduledFuture<?> scheduledProcessQuizSubmissions;
 
-    private final SimpMessageSendingOperations messagingTemplate;
+    private final QuizExerciseService quizExerciseService;
+
+    private final QuizStatisticService quizStatisticService;
 
-    private final StudentParticipationRepository studentParticipationRepository;
+    private final QuizProcessingExecutor quizProcessingExecutor;
 
-    private final ResultRepository resultRepository;
+    private final QuizResultBatchService quizResultBatchService;
 
-    private final QuizSubmissionRepository quizSubmissionRepository;
+    private final QuizStatisticAggregator quizStatisticAggregator;
 
-    private final UserService userService;
+    private final QuizPayloadCache quizPayloadCache;
 
-    private final QuizExerciseService quizExerciseService;
+    private final QuizResultFanOut quizResultFanOut;
 
-    private final QuizStatisticService quizStatisticService;
+    private final QuizSessionRegistry quizSessionRegistry;
 
-    public QuizScheduleService(SimpMessageSendingOperations messagingTemplate, StudentParticipationRepository studentParticipationRepository, ResultRepository resultRepository,
-            QuizSubmissionRepository quizSubmissionRepository, UserService userService, QuizExerciseService quizExerciseService, QuizStatisticService quizStatisticService) {
-        this.messagingTemplate = messagingTemplate;
-        this.studentParticipationRepository = studentParticipationRepository;
-        this.resultRepository = resultRepository;
-        this.quizSubmissionRepository = quizSubmissionRepository;
-        this.userService = userService;
+    private final QuizWorkingTimeScheduler quizWorkingTimeScheduler;
+
+    private final QuizStatisticPublisher quizStatisticPublisher;
+
+    private final QuizSubmissionRateLimiter quizSubmissionRateLimiter;
+
+    public QuizScheduleService(QuizExerciseService quizExerciseService, QuizStatisticService quizStatisticService, QuizSubmissionStore quizSubmissionStore,
+            QuizProcessingExecutor quizProcessingExecutor, QuizResultBatchService quizResultBatchService, QuizStatisticAggregator quizStatisticAggregator,
+            QuizPayloadCache quizPayloadCache, QuizResultFanOut quizResultFanOut, QuizSessionRegistry quizSessionRegistry, QuizState quizState,
+            QuizWorkingTimeScheduler quizWorkingTimeScheduler, QuizStatisticPublisher quizStatisticPublisher, QuizSubmissionRateLimiter quizSubmissionRateLimiter) {
+        QuizScheduleService.submissionStore = quizSubmissionStore;
+        QuizScheduleService.quizState = quizState;
         this.quizExerciseService = quizExerciseService;
         this.quizStatisticService = quizStatisticService;
+        this.quizProcessingExecutor = quizProcessingExecutor;
+        this.quizResultBatchService = quizResultBatchService;
+        this.quizStatisticAggregator = quizStatisticAggregator;
+        this.quizPayloadCache = quizPayloadCache;
+        this.quizResultFanOut = quizResultFanOut;
+        this.quizSessionRegistry = quizSessionRegistry;
+        this.quizWorkingTimeScheduler = quizWorkingTimeScheduler;
+        this.quizStatisticPublisher = quizStatisticPublisher;
+        this.quizSubmissionRateLimiter = quizSubmissionRateLimiter;
     }
 
     @EventListener(ApplicationReadyEvent.class)
     public void applicationReady() {
+        // restore the submissions that were buffered before the restart, they are processed in the first run of the schedule
+        int recoveredSubmissions = submissionStore.recover();
+        if (recoveredSubmissions > 0) {
+            recoveredSubmissions -= removeRecoveredSubmissionsOfSubmittedUsers();
+            log.info("Recovered {} buffered quiz submissions", recoveredSubmissions);
+        }
+        // submissions of students whose working time is over are processed right away
+        quizWorkingTimeScheduler.setTimeoutListener(this::processTimedOutSubmissions);
         // activate Quiz Schedule Service
         startSchedule(3 * 1000);                          // every 3 seconds
     }
 
     /**
-     * add a quizSubmission to the submissionHashMap
+     * Remove the recovered submissions of users who have already submitted the quiz (DB Read). A submission is only removed from the store after it has been saved, so if the
+     * server stopped in between, the saved submission has been recovered as well and would be saved again with a second participation and result.
+     *
+     * @return the number of removed submissions
+     */
+    private int removeRecoveredSubmissionsOfSubmittedUsers() {
+        int removedSubmissions = 0;
+        for (Long quizExerciseId : new HashSet<>(submissionStore.getQuizExerciseIds())) {
+            // the session contains the users with a submitted submission in the database
+            Optional<QuizSession> quizSession = quizSessionRegistry.getSession(quizExerciseId);
+            if (quizSession.isEmpty()) {
+                // the quiz has been deleted, its submissions are removed in the first run of the schedule
+                continue;
+            }
+            for (String username : new ArrayList<>(submissionStore.getSubmissions(quizExerciseId).keySet())) {
+                if (quizSession.get().hasSubmitted(username)) {
+                    submissionStore.remove(quizExerciseId, username);
+                    removedSubmissions++;
+                }
+            }
+        }
+        if (removedSubmissions > 0) {
+            log.info("Removed {} recovered quiz submissions that had already been saved", removedSubmissions);
+        }
+        return removedSubmissions;
+    }
+
+    /**
+     * add a quizSubmission to the submission store
      *
      * @param quizExerciseId         the quizExerciseId of the quiz the submission belongs to (first Key)
      * @param username       the username of the user, who submitted the submission (second Key)
@@ -97,16 +160,12 @@ public class QuizScheduleService {
     public static void updateSubmission(Long quizExerciseId, String username, QuizSubmission quizSubmission) {
 
         if (quizSubmission != null && quizExerciseId != null && username != null) {
-            // check if there is already a quizSubmission with the same quiz
-            if (!submissionHashMap.containsKey(quizExerciseId)) {
-                submissionHashMap.put(quizExerciseId, new ConcurrentHashMap<>());
-            }
-            submissionHashMap.get(quizExerciseId).put(username, quizSubmission);
+            submissionStore.put(quizExerciseId, username, quizSubmission);
         }
     }
 
     /**
-     * add a result to resultHashMap for a statistic-update
+     * add a result to the quiz state for a statistic-update
      * this should only be invoked once, when the quiz was submitted
      *
      * @param quizExerciseId the quizExerciseId of the quiz the result belongs to (first Key)
@@ -115,16 +174,12 @@ public class QuizScheduleService {
     public static void addResultForStatisticUpdate(Long quizExerciseId, Result result) {
         log.debug("add result for statistic update for quiz " + quizExerciseId + ": " + result);
         if (quizExerciseId != null && result != null) {
-            // check if there is already a result with the same quiz
-            if (!resultHashMap.containsKey(quizExerciseId)) {
-                resultHashMap.put(quizExerciseId, new HashSet<>());
-            }
-            resultHashMap.get(quizExerciseId).add(result);
+            quizState.addResult(quizExerciseId, result);
         }
     }
 
     /**
-     * add a participation to participationHashMap to send them back to the user when the quiz ends
+     * add a participation to the quiz state to send them back to the user when the quiz ends
      *
      * @param quizExerciseId        the quizExerciseId of the quiz the result belongs to (first Key)
      * @param participation the result, which should be added
@@ -132,17 +187,13 @@ public class QuizScheduleService {
     private static void addParticipation(Long quizExerciseId, StudentParticipation participation) {
 
         if (quizExerciseId != null && participation != null) {
-            // check if there is already a result with the same quiz
-            if (!participationHashMap.containsKey(quizExerciseId)) {
-                participationHashMap.put(quizExerciseId, new ConcurrentHashMap<>());
-            }
-            participationHashMap.get(quizExerciseId).put(participation.getParticipantIdentifier(), participation);
+            quizState.addParticipation(quizExerciseId, participation);
         }
 
     }
 
     /**
-     * get a quizSubmission from the submissionHashMap by quizExerciseId and username
+     * get a quizSubmission from the submission store by quizExerciseId and username
      *
      * @param quizExerciseId   the quizExerciseId of the quiz the submission belongs to (first Key)
      * @param username the username of the user, who submitted the submission (second Key)
@@ -154,21 +205,16 @@ public class QuizScheduleService {
         if (quizExerciseId == null || username == null) {
             return null;
         }
-        QuizSubmission quizSubmission;
-        // check if the the map contains submissions with the quizExerciseId
-        if (submissionHashMap.containsKey(quizExerciseId)) {
-            // return the quizSubmission with the username-Key
-            quizSubmission = submissionHashMap.get(quizExerciseId).get(username);
-            if (quizSubmission != null) {
-                return quizSubmission;
-            }
+        QuizSubmission quizSubmission = submissionStore.get(quizExerciseId, username);
+        if (quizSubmission != null) {
+            return quizSubmission;
         }
-        // return an empty quizSubmission if the maps contain no mapping for the keys
+        // return an empty quizSubmission if the store contains no submission for the keys
         return new QuizSubmission().submittedAnswers(new HashSet<>());
     }
 
     /**
-     * get a participation from the participationHashMap by quizExerciseId and username
+     * get a participation from the quiz state by quizExerciseId and username
      *
      * @param quizExerciseId   the quizExerciseId of the quiz, the participation belongs to (first Key)
      * @param username the username of the user, the participation belongs to (second Key)
@@ -178,13 +224,7 @@ public class QuizScheduleService {
         if (quizExerciseId == null || username == null) {
             return null;
         }
-        // check if the the map contains participations with the quizExerciseId
-        if (participationHashMap.containsKey(quizExerciseId)) {
-            // return the participation with the username-Key
-            return participationHashMap.get(quizExerciseId).get(username);
-        }
-        // return null if the maps contain no mapping for the keys
-        return null;
+        return quizState.getParticipation(quizExerciseId, username);
     }
 
     /**
@@ -268,22 +308,32 @@ public class QuizScheduleService {
     }
 
     public void clearAllQuizData() {
-        participationHashMap.clear();
-        submissionHashMap.clear();
-        resultHashMap.clear();
+        quizState.clear();
+        submissionStore.clear();
+        quizStatisticAggregator.clear();
+        quizStatisticPublisher.clear();
+        quizSessionRegistry.clear();
+        quizWorkingTimeScheduler.clear();
+        quizSubmissionRateLimiter.clear();
     }
 
     public void clearQuizData(Long quizExerciseId) {
         // delete all participation, submission, and result hashmap entries that correspond to this quiz
-        participationHashMap.remove(quizExerciseId);
-        submissionHashMap.remove(quizExerciseId);
-        resultHashMap.remove(quizExerciseId);
+        quizState.removeQuiz(quizExerciseId);
+        submissionStore.removeQuiz(quizExerciseId);
+        quizStatisticAggregator.evict(quizExerciseId);
+        quizStatisticPublisher.evict(quizExerciseId);
+        quizPayloadCache.evict(quizExerciseId);
+        quizResultFanOut.cancel(quizExerciseId);
+        quizSessionRegistry.evict(quizExerciseId);
+        quizWorkingTimeScheduler.evict(quizExerciseId);
+        quizSubmissionRateLimiter.evict(quizExerciseId);
     }
 
     /**
-     * 1. Check SubmissionHashMap for new submissions with “isSubmitted() == true” a. Process each Submission (set submissionType to “SubmissionType.MANUAL”) and create
-     * Participation and Result and save them to Database (DB Write) b. Remove processed Submissions from SubmissionHashMap and write Participation with Result into
-     * ParticipationHashMap and write Result into ResultHashMap 2. If Quiz has ended: a. Process all Submissions in SubmissionHashMap that belong to this quiz i. set “isSubmitted”
+     * 1. Check the submission store for new submissions with “isSubmitted() == true” a. Process each Submission (set submissionType to “SubmissionType.MANUAL”) and create
+     * Participation and Result and save them to Database (DB Write) b. Remove processed Submissions from the submission store and write Participation with Result into
+     * ParticipationHashMap and write Result into ResultHashMap 2. If Quiz has ended: a. Process all Submissions in the submission store that belong to this quiz i. set “isSubmitted”
      * to “true” and submissionType to “SubmissionType.TIMEOUT” ii. Create Participation and Result and save to Database (DB Write) iii. Remove processed Submissions from
      * SubmissionHashMap and write Participations with Result into ParticipationHashMap and Results into ResultHashMap b. Send out Participations (including QuizExercise and
      * Result) from ParticipationHashMap via WebSocket to each user and remove them from ParticipationHashMap (WebSocket Send) 3. Update Statistics with Results from ResultHashMap
@@ -291,101 +341,159 @@ public class QuizScheduleService {
      */
     public void processCachedQuizSubmissions() {
         log.debug("Process cached quiz submissions");
+        // global try-catch for error logging
+        try {
+            Set<Long> quizzesWithSubmissions = new HashSet<>(submissionStore.getQuizExerciseIds());
+            Set<Long> quizzesWithParticipations = new HashSet<>(quizState.getQuizExerciseIdsWithParticipations());
+            Set<Long> quizzesWithResults = new HashSet<>(quizState.getQuizExerciseIdsWithResults());
+            Set<Long> quizExerciseIds = new HashSet<>(quizzesWithSubmissions);
+            quizExerciseIds.addAll(quizzesWithParticipations);
+            quizExerciseIds.addAll(quizzesWithResults);
+            // if Artemis runs on several nodes, each quiz is only processed by the node that owns it
+            quizExerciseIds.removeIf(quizExerciseId -> !quizState.isOwner(quizExerciseId));
+
+            // different quizzes are processed concurrently, each quiz is always processed by the same partition so that its steps are executed in order
+            CompletableFuture<?>[] processedQuizzes = quizExerciseIds.stream()
+                    .map(quizExerciseId -> quizProcessingExecutor.submit(quizExerciseId, () -> processCachedQuizSubmissions(quizExerciseId,
+                            quizzesWithSubmissions.contains(quizExerciseId), quizzesWithParticipations.contains(quizExerciseId), quizzesWithResults.contains(quizExerciseId))))
+                    .toArray(CompletableFuture[]::new);
+            // wait until all quizzes are processed, so that the next run does not start before this one has finished
+            CompletableFuture.allOf(processedQuizzes).join();
+        }
+        catch (Exception e) {
+            log.error("Exception in Quiz Schedule:\n{}", e.getMessage());
+        }
+    }
+
+    /**
+     * Process the cached submissions, participations and results of one quiz as described in {@link #processCachedQuizSubmissions()}
+     *
+     * @param quizExerciseId    the id of the quiz that should be processed
+     * @param hasSubmissions    true if there are buffered submissions of the quiz
+     * @param hasParticipations true if there are participations of the quiz which have not been sent out
+     * @param hasResults        true if there are results of the quiz which have not been added to the statistics
+     */
+    private void processCachedQuizSubmissions(long quizExerciseId, boolean hasSubmissions, boolean hasParticipations, boolean hasResults) {
         // global try-catch for error logging
         try {
             long start = System.currentTimeMillis();
 
             // create Participations and Results if the submission was submitted or if the quiz has ended and save them to Database (DB Write)
-            for (long quizExerciseId : submissionHashMap.keySet()) {
-
+            if (hasSubmissions) {
                 QuizExercise quizExercise = quizExerciseService.findOneWithQuestions(quizExerciseId);
                 // check if quiz has been deleted
                 if (quizExercise == null) {
-                    submissionHashMap.remove(quizExerciseId);
-                    continue;
-                }
-
-                // if quiz has ended, all submissions will be processed => we can remove the inner HashMap for this quiz
-                // if quiz hasn't ended, some submissions (those that are not submitted) will stay in HashMap => keep inner HashMap
-                Map<String, QuizSubmission> submissions;
-                if (quizExercise.isEnded()) {
-                    submissions = submissionHashMap.remove(quizExerciseId);
+                    submissionStore.removeQuiz(quizExerciseId);
                 }
                 else {
-                    submissions = submissionHashMap.get(quizExerciseId);
-                }
-
-                int num = createParticipations(quizExercise, submissions);
+                    // processed submissions are removed from the store, submissions that are not submitted yet stay in the store until the quiz has ended
+                    int num = createParticipations(quizExercise, submissionStore.getSubmissions(quizExerciseId));
+
+                    // if quiz has ended, all submissions have been processed => release the resources the store keeps for this quiz
+                    if (quizExercise.isEnded()) {
+                        submissionStore.compact(quizExerciseId);
+                        quizSessionRegistry.evict(quizExerciseId);
+                        quizWorkingTimeScheduler.evict(quizExerciseId);
+                    }
 
-                if (num > 0) {
-                    log.info("Processed {} submissions after {} ms in quiz {}", num, System.currentTimeMillis() - start, quizExercise.getTitle());
+                    if (num > 0) {
+                        log.info("Processed {} submissions after {} ms in quiz {}", num, System.currentTimeMillis() - start, quizExercise.getTitle());
+                    }
                 }
             }
 
             // Send out Participations from ParticipationHashMap to each user if the quiz has ended
-            for (long quizExerciseId : participationHashMap.keySet()) {
-
+            if (hasParticipations) {
                 // get the Quiz without the statistics and questions from the database
                 Optional<QuizExercise> quizExercise = quizExerciseService.findById(quizExerciseId);
                 // check if quiz has been deleted
                 if (quizExercise.isEmpty()) {
-                    participationHashMap.remove(quizExerciseId);
-                    continue;
+                    quizState.removeParticipations(quizExerciseId);
                 }
-
                 // check if the quiz has ended
-                if (quizExercise.get().isEnded()) {
+                else if (quizExercise.get().isEnded()) {
                     // send the participation with containing result and quiz back to the users via websocket
                     // and remove the participation from the ParticipationHashMap
-                    int counter = 0;
-                    for (StudentParticipation participation : participationHashMap.remove(quizExerciseId).values()) {
+                    Map<String, byte[]> payloadsByUsername = new HashMap<>();
+                    for (StudentParticipation participation : quizState.removeParticipations(quizExerciseId)) {
                         if (participation.getParticipant() == null || participation.getParticipantIdentifier() == null) {
                             log.error("Participation is missing student (or student is missing username): {}", participation);
                             continue;
                         }
-                        sendQuizResultToUser(quizExerciseId, participation);
-                        counter++;
+                        createQuizResultPayload(quizExerciseId, participation).ifPresent(payload -> payloadsByUsername.put(participation.getParticipantIdentifier(), payload));
                     }
-                    if (counter > 0) {
-                        log.info("Sent out {} participations after {} ms for quiz {}", counter, System.currentTimeMillis() - start, quizExercise.get().getTitle());
+                    if (!payloadsByUsername.isEmpty()) {
+                        // the results are not sent at once, but paced by the fan-out (of each node)
+                        quizState.sendResults(quizExerciseId, payloadsByUsername);
+                        log.info("Prepared {} participations after {} ms for quiz {}", payloadsByUsername.size(), System.currentTimeMillis() - start,
+                                quizExercise.get().getTitle());
                     }
                 }
             }
 
-            // Update Statistics with Results from ResultHashMap (DB Read and DB Write) and remove from ResultHashMap
-            for (long quizExerciseId : resultHashMap.keySet()) {
-
-                // get the Quiz with the statistic from the database
-                QuizExercise quizExercise = quizExerciseService.findOneWithQuestionsAndStatistics(quizExerciseId);
+            // Update Statistics with Results from ResultHashMap (DB Write of the changed counters) and remove from ResultHashMap
+            if (hasResults) {
+                // get the Quiz with the statistic, it is only loaded from the database when its statistics are updated for the first time
+                QuizExercise quizExercise = quizStatisticAggregator.getQuizExercise(quizExerciseId);
                 // check if quiz has been deleted (edge case), then do nothing!
                 if (quizExercise == null) {
-                    log.debug("Remove quiz " + quizExerciseId + " from resultHashMap");
-                    resultHashMap.remove(quizExerciseId);
-                    continue;
+                    log.debug("Remove results of quiz " + quizExerciseId + " from the quiz state");
+                    quizState.removeResults(quizExerciseId);
                 }
-
-                // update statistic with all results of the quizExercise
-                try {
-                    Set<Result> newResultsForQuiz = resultHashMap.remove(quizExerciseId);
-                    quizStatisticService.updateStatistics(newResultsForQuiz, quizExercise);
-                    log.debug("Updated statistics with {} new results after {} ms for quiz {}", newResultsForQuiz.size(), System.currentTimeMillis() - start,
-                            quizExercise.getTitle());
-                }
-                catch (Exception e) {
-                    log.error("Exception in StatisticService.updateStatistics():\n{}", e.getMessage());
+                else {
+                    // update statistic with all results of the quizExercise
+                    try {
+                        Set<Result> newResultsForQuiz = quizState.removeResults(quizExerciseId);
+                        quizStatisticService.updateStatistics(newResultsForQuiz, quizExerciseId);
+                        log.debug("Updated statistics with {} new results after {} ms for quiz {}", newResultsForQuiz.size(), System.currentTimeMillis() - start,
+                                quizExercise.getTitle());
+                        // all changes have been flushed, so the aggregated statistics of an ended quiz are not needed anymore (they are loaded again for practice results)
+                        if (quizExercise.isEnded()) {
+                            quizStatisticAggregator.evict(quizExerciseId);
+                        }
+                    }
+                    catch (Exception e) {
+                        log.error("Exception in StatisticService.updateStatistics():\n{}", e.getMessage());
+                    }
                 }
             }
         }
         catch (Exception e) {
-            log.error("Exception in Quiz Schedule:\n{}", e.getMessage());
+            log.error("Exception in Quiz Schedule for quiz {}:\n{}", quizExerciseId, e.getMessage());
         }
     }
 
-    private void sendQuizResultToUser(long quizExerciseId, StudentParticipation participation) {
+    /**
+     * Process the submissions which have been submitted because the working time of the students was over, without waiting for the next run of the schedule. Afterwards, the
+     * results are sent out (if the quiz has ended) and added to the statistics.
+     *
+     * @param quizExerciseIds the ids of the quizzes with timed out submissions
+     */
+    private void processTimedOutSubmissions(Set<Long> quizExerciseIds) {
+        for (Long quizExerciseId : quizExerciseIds) {
+            // if Artemis runs on several nodes, the submissions are processed by the owner of the quiz in its next run
+            if (quizState.isOwner(quizExerciseId)) {
+                quizProcessingExecutor.submit(quizExerciseId, () -> {
+                    processCachedQuizSubmissions(quizExerciseId, true, false, false);
+                    processCachedQuizSubmissions(quizExerciseId, false, quizState.getQuizExerciseIdsWithParticipations().contains(quizExerciseId),
+                            quizState.getQuizExerciseIdsWithResults().contains(quizExerciseId));
+                });
+            }
+        }
+    }
+
+    private Optional<byte[]> createQuizResultPayload(long quizExerciseId, StudentParticipation participation) {
         var user = participation.getParticipantIdentifier();
         removeUnnecessaryObjectsBeforeSendingToClient(participation);
-        // TODO: use a proper result here
-        messagingTemplate.convertAndSendToUser(user, "/topic/exercise/" + quizExerciseId + "/participation", participation);
+        try {
+            // the quiz exercise is the same for all participations, so it is only serialized once and not for every user
+            // TODO: use a proper result here
+            return Optional.of(quizPayloadCache.getParticipationPayload(participation));
+        }
+        catch (JsonProcessingException e) {
+            log.error("Exception occurred while serializing the participation of user {} in quiz {}", user, quizExerciseId, e);
+            return Optional.empty();
+        }
     }
 
     private void removeUnnecessaryObjectsBeforeSendingToClient(StudentParticipation participation) {
@@ -412,99 +520,113 @@ public class QuizScheduleService {
 
     /**
      * check if the user submitted the submission or if the quiz has ended: if true: -> Create Participation and Result and save to Database (DB Write) Remove processed Submissions
-     * from SubmissionHashMap and write Participations with Result into ParticipationHashMap and Results into ResultHashMap
+     * from the submission store and write Participations with Result into ParticipationHashMap and Results into ResultHashMap
      *
      * @param quizExercise      the quiz which should be checked
-     * @param userSubmissionMap a Map with all submissions for the given quizExercise mapped by the username
+     * @param userSubmissionMap a read-only Map with all buffered submissions for the given quizExercise mapped by the username
      * @return the number of created participations
      */
     private int createParticipations(QuizExercise quizExercise, Map<String, QuizSubmission> userSubmissionMap) {
-        int counter = 0;
+        Map<String, QuizSubmission> processedSubmissions = new HashMap<>();
 
         for (String username : userSubmissionMap.keySet()) {
-            try {
-                // first case: the user submitted the quizSubmission
-                QuizSubmission quizSubmission = userSubmissionMap.get(username);
-                if (quizSubmission.isSubmitted()) {
-                    userSubmissionMap.remove(username);
-                    if (quizSubmission.getType() == null) {
-                        quizSubmission.setType(SubmissionType.MANUAL);
-                    }
-
-                    // Create Participation and Result and save to Database (DB Write)
-                    // Remove processed Submissions from SubmissionHashMap and write Participations with Result into ParticipationHashMap and Results into ResultHashMap
-                    createParticipationWithResultAndWriteItInHashMaps(quizExercise, username, quizSubmission);
-                    counter++;
-                    // second case: the quiz has ended
-                }
-                else if (quizExercise.isEnded()) {
-                    userSubmissionMap.remove(username);
-                    quizSubmission.setSubmitted(true);
-                    quizSubmission.setType(SubmissionType.TIMEOUT);
-                    quizSubmission.setSubmissionDate(ZonedDateTime.now());
-
-                    // Create Participation and Result and save to Database (DB Write)
-                    // Remove processed Submissions from SubmissionHashMap and write Participations with Result into ParticipationHashMap and Results into ResultHashMap
-                    createParticipationWithResultAndWriteItInHashMaps(quizExercise, username, quizSubmission);
-                    counter++;
+            QuizSubmission quizSubmission = userSubmissionMap.get(username);
+            // first case: the user submitted the quizSubmission
+            if (quizSubmission.isSubmitted()) {
+                if (quizSubmission.getType() == null) {
+                    quizSubmission.setType(SubmissionType.MANUAL);
                 }
+                processedSubmissions.put(username, quizSubmission);
             }
-            catch (Exception e) {
-                log.error("Exception in createParticipations() for {} in quiz {}: \n{}", username, quizExercise.getId(), e.getMessage());
+            // second case: the quiz has ended (the submissions of students whose working time has been started are usually submitted by the working time scheduler)
+            else if (quizExercise.isEnded()) {
+                quizSubmission.setSubmitted(true);
+                quizSubmission.setType(SubmissionType.TIMEOUT);
+                quizSubmission.setSubmissionDate(ZonedDateTime.now());
+                processedSubmissions.put(username, quizSubmission);
             }
         }
 
+        int counter = 0;
+        // Create Participations and Results and save them to Database in batches (DB Write)
+        // Remove processed Submissions from the submission store and write Participations with Result into ParticipationHashMap and Results into ResultHashMap
+        List<String> usernames = new ArrayList<>(processedSubmissions.keySet());
+        for (int from = 0; from < usernames.size(); from += PERSISTENCE_BATCH_SIZE) {
+            Map<String, QuizSubmission> batch = new HashMap<>();
+            for (String username : usernames.subList(from, Math.min(from + PERSISTENCE_BATCH_SIZE, usernames.size()))) {
+                batch.put(username, processedSubmissions.get(username));
+            }
+            counter += createParticipationsWithResultsAndWriteThemInHashMaps(quizExercise, batch);
+        }
+
         return counter;
     }
 
     /**
-     * create Participation and Result if the submission was submitted or if the quiz has ended and save them to Database (DB Write)
+     * create Participations and Results for the given submissions and save them to the Database (DB Write) in one transaction. If this fails (e.g. because one participation
+     * violates a constraint), the submissions are saved one by one, so that a single faulty submission does not prevent the others from being saved. Submissions that could not
+     * be saved at all remain in the submission store and are saved with the next run.
      *
-     * @param quizExercise   the quizExercise the quizSubmission belongs to
-     * @param username       the user, who submitted the quizSubmission
-     * @param quizSubmission the quizSubmission, which is used to calculate the Result
+     * @param quizExercise          the quizExercise the submissions belong to
+     * @param submissionsByUsername username -> QuizSubmission, the processed submissions
+     * @return the number of created participations
      */
-    private void createParticipationWithResultAndWriteItInHashMaps(QuizExercise quizExercise, String username, QuizSubmission quizSubmission) {
-
-        if (quizExercise != null && username != null && quizSubmission != null) {
-
-            // create and save new participation
-            StudentParticipation participation = new StudentParticipation();
-            // TODO: when this is set earlier for the individual quiz start of a student, we don't need to set this here anymore
-            participation.setInitializationDate(quizSubmission.getSubmissionDate());
-            Optional<User> user = userService.getUserByLogin(username);
-            user.ifPresent(participation::setParticipant);
-            // add the quizExercise to the participation
-            participation.setExercise(quizExercise);
-
-            // create new result
-            Result result = new Result().participation(participation).submission(quizSubmission);
-            result.setRated(true);
-            result.setAssessmentType(AssessmentType.AUTOMATIC);
-            result.setCompletionDate(quizSubmission.getSubmissionDate());
-            result.setSubmission(quizSubmission);
-
-            // calculate scores and update result and submission accordingly
-            quizSubmission.calculateAndUpdateScores(quizExercise);
-            result.evaluateSubmission();
-
-            // add result to participation
-            participation.addResult(result);
-
-            // add submission to participation
-            participation.addSubmissions(quizSubmission);
-            participation.setInitializationState(InitializationState.FINISHED);
-            participation.setExercise(quizExercise);
-
-            // save participation, result and quizSubmission
-            participation = studentParticipationRepository.save(participation);
-            quizSubmissionRepository.save(quizSubmission);
-            result = resultRepository.save(result);
+    private int createParticipationsWithResultsAndWriteThemInHashMaps(QuizExercise quizExercise, Map<String, QuizSubmission> submissionsByUsername) {
+        List<StudentParticipation> participations = new ArrayList<>();
+        Set<String> savedUsernames = new HashSet<>();
+        try {
+            participations.addAll(quizResultBatchService.createParticipationsWithResults(quizExercise, submissionsByUsername));
+            savedUsernames.addAll(submissionsByUsername.keySet());
+        }
+        catch (Exception batchException) {
+            log.warn("Could not save {} submissions at once in quiz {}, save them one by one: \n{}", submissionsByUsername.size(), quizExercise.getId(),
+                    batchException.getMessage());
+            submissionsByUsername.values().forEach(QuizScheduleService::resetIdsOfUnsavedSubmission);
+            for (var entry : submissionsByUsername.entrySet()) {
+                try {
+                    participations.addAll(quizResultBatchService.createParticipationsWithResults(quizExercise, Map.of(entry.getKey(), entry.getValue())));
+                    savedUsernames.add(entry.getKey());
+                }
+                catch (Exception e) {
+                    log.error("Exception in createParticipations() for {} in quiz {}: \n{}", entry.getKey(), quizExercise.getId(), e.getMessage());
+                    resetIdsOfUnsavedSubmission(entry.getValue());
+                }
+            }
+        }
+
+        // processed submissions are only removed from the store after they have been saved, so that they can still be recovered if the server crashes in between
+        for (String username : savedUsernames) {
+            submissionStore.remove(quizExercise.getId(), username);
+        }
 
+        for (StudentParticipation participation : participations) {
+            // the user must not change the submission anymore, which is checked in memory when a submission is saved
+            quizSessionRegistry.markSubmitted(quizExercise.getId(), participation.getParticipantIdentifier());
+            quizWorkingTimeScheduler.cancel(quizExercise.getId(), participation.getParticipantIdentifier());
             // add the participation to the participationHashMap for the send out at the end of the quiz
             addParticipation(quizExercise.getId(), participation);
             // add the result of the participation resultHashMap for the statistic-Update
-            addResultForStatisticUpdate(quizExercise.getId(), result);
+            addResultForStatisticUpdate(quizExercise.getId(), participation.getResults().iterator().next());
+        }
+        return participations.size();
+    }
+
+    /**
+     * Hibernate assigns ids to the submission and its submitted answers when they are inserted, which remain in the objects when the transaction is rolled back. They are reset,
+     * so that the submission is inserted again when it is saved the next time instead of being merged with rows that do not exist.
+     *
+     * @param quizSubmission the submission whose transaction has been rolled back
+     */
+    private static void resetIdsOfUnsavedSubmission(QuizSubmission quizSubmission) {
+        quizSubmission.setId(null);
+        for (SubmittedAnswer submittedAnswer : quizSubmission.getSubmittedAnswers()) {
+            submittedAnswer.setId(null);
+            if (submittedAnswer instanceof DragAndDropSubmittedAnswer) {
+                ((DragAndDropSubmittedAnswer) submittedAnswer).getMappings().forEach(mapping -> mapping.setId(null));
+            }
+            else if (submittedAnswer instanceof ShortAnswerSubmittedAnswer) {
+                ((ShortAnswerSubmittedAnswer) submittedAnswer).getSubmittedTexts().forEach(submittedText -> submittedText.setId(null));
+            }
         }
     }
 }
@@ -0,0 +1,165 @@
+package de.tum.in.www1.artemis.service.scheduled.quiz;
+
+import java.io.Serializable;
+import java.util.*;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.hazelcast.core.*;
+import com.hazelcast.map.impl.MapService;
+
+import de.tum.in.www1.artemis.domain.Result;
+import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
+
+/**
+ * Keeps the live quiz state in the cluster of all Artemis nodes. Quizzes are partitioned by their id: the owner of the Hazelcast partition of the quiz id processes the quiz, and
+ * all submissions, participations and results of the quiz are stored in this partition. If a node leaves the cluster, its partitions (including their backups) are migrated to
+ * the remaining nodes, which take over the processing of the quizzes.
+ *
+ * Every node can only send websocket messages to the students connected to it, therefore the results of an ended quiz are published to all nodes, which send them to their
+ * students.
+ */
+public class DistributedQuizState implements QuizState {
+
+    private static final Logger log = LoggerFactory.getLogger(DistributedQuizState.class);
+
+    static final String PARTICIPATIONS_MAP_PREFIX = "quiz-participations-";
+
+    static final String RESULTS_MAP_PREFIX = "quiz-results-";
+
+    static final String RESULTS_TOPIC = "quiz-results";
+
+    private final HazelcastInstance hazelcastInstance;
+
+    private final ITopic<QuizResults> resultsTopic;
+
+    public DistributedQuizState(HazelcastInstance hazelcastInstance, QuizResultFanOut quizResultFanOut) {
+        this.hazelcastInstance = hazelcastInstance;
+        this.resultsTopic = hazelcastInstance.getTopic(RESULTS_TOPIC);
+        resultsTopic.addMessageListener(message -> {
+            QuizResults quizResults = message.getMessageObject();
+            log.debug("Received {} results of quiz {} from {}", quizResults.payloadsByUsername.size(), quizResults.quizExerciseId, message.getPublishingMember());
+            quizResultFanOut.sendResults(quizResults.quizExerciseId, quizResults.payloadsByUsername);
+        });
+    }
+
+    @Override
+    public boolean isOwner(Long quizExerciseId) {
+        // the owner is unknown while the partition is migrated, then the quiz is processed in one of the next runs
+        Member owner = hazelcastInstance.getPartitionService().getPartition(quizExerciseId).getOwner();
+        return owner != null && owner.localMember();
+    }
+
+    @Override
+    public void addParticipation(Long quizExerciseId, StudentParticipation participation) {
+        getParticipationsMap(quizExerciseId).set(new PartitionAwareKey<>(participation.getParticipantIdentifier(), quizExerciseId), participation);
+    }
+
+    @Override
+    public StudentParticipation getParticipation(Long quizExerciseId, String username) {
+        return getParticipationsMap(quizExerciseId).get(new PartitionAwareKey<>(username, quizExerciseId));
+    }
+
+    @Override
+    public Collection<StudentParticipation> removeParticipations(Long quizExerciseId) {
+        IMap<PartitionAwareKey<String, Long>, StudentParticipation> participationsMap = getParticipationsMap(quizExerciseId);
+        List<StudentParticipation> participations = new ArrayList<>();
+        for (PartitionAwareKey<String, Long> key : participationsMap.keySet()) {
+            StudentParticipation participation = participationsMap.remove(key);
+            if (participation != null) {
+                participations.add(participation);
+            }
+        }
+        return participations;
+    }
+
+    @Override
+    public void addResult(Long quizExerciseId, Result result) {
+        // results are collected until the statistics are updated, so every result gets its own key
+        getResultsMap(quizExerciseId).set(new PartitionAwareKey<>(UUID.randomUUID().toString(), quizExerciseId), result);
+    }
+
+    @Override
+    public Set<Result> removeResults(Long quizExerciseId) {
+        IMap<PartitionAwareKey<String, Long>, Result> resultsMap = getResultsMap(quizExerciseId);
+        Set<Result> results = new HashSet<>();
+        // results that are added in the meantime are kept for the next update
+        for (PartitionAwareKey<String, Long> key : resultsMap.keySet()) {
+            Result result = resultsMap.remove(key);
+            if (result != null) {
+                results.add(result);
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public Set<Long> getQuizExerciseIdsWithParticipations() {
+        return getQuizExerciseIds(hazelcastInstance, PARTICIPATIONS_MAP_PREFIX);
+    }
+
+    @Override
+    public Set<Long> getQuizExerciseIdsWithResults() {
+        return getQuizExerciseIds(hazelcastInstance, RESULTS_MAP_PREFIX);
+    }
+
+    @Override
+    public void sendResults(Long quizExerciseId, Map<String, byte[]> payloadsByUsername) {
+        resultsTopic.publish(new QuizResults(quizExerciseId, payloadsByUsername));
+    }
+
+    @Override
+    public void removeQuiz(Long quizExerciseId) {
+        getParticipationsMap(quizExerciseId).destroy();
+        getResultsMap(quizExerciseId).destroy();
+    }
+
+    @Override
+    public void clear() {
+        getQuizExerciseIdsWithParticipations().forEach(quizExerciseId -> getParticipationsMap(quizExerciseId).destroy());
+        getQuizExerciseIdsWithResults().forEach(quizExerciseId -> getResultsMap(quizExerciseId).destroy());
+    }
+
+    private IMap<PartitionAwareKey<String, Long>, StudentParticipation> getParticipationsMap(Long quizExerciseId) {
+        return hazelcastInstance.getMap(PARTICIPATIONS_MAP_PREFIX + quizExerciseId);
+    }
+
+    private IMap<PartitionAwareKey<String, Long>, Result> getResultsMap(Long quizExerciseId) {
+        return hazelcastInstance.getMap(RESULTS_MAP_PREFIX + quizExerciseId);
+    }
+
+    /**
+     * Find the ids of all quizzes with entries in a map of the given prefix, there is one map per quiz for each kind of state
+     *
+     * @param hazelcastInstance the instance of this node
+     * @param mapPrefix         the prefix of the map name which is followed by the quiz id
+     * @return the ids of the quizzes
+     */
+    static Set<Long> getQuizExerciseIds(HazelcastInstance hazelcastInstance, String mapPrefix) {
+        Set<Long> quizExerciseIds = new HashSet<>();
+        for (DistributedObject distributedObject : hazelcastInstance.getDistributedObjects()) {
+            // maps of processed quizzes are empty, but they are not destroyed while other nodes might still add entries
+            if (MapService.SERVICE_NAME.equals(distributedObject.getServiceName()) && distributedObject.getName().startsWith(mapPrefix)
+                    && !((IMap<?, ?>) distributedObject).isEmpty()) {
+                quizExerciseIds.add(Long.valueOf(distributedObject.getName().substring(mapPrefix.length())));
+            }
+        }
+        return quizExerciseIds;
+    }
+
+    /**
+     * The results of an ended quiz, which are published to all nodes
+     */
+    private static final class QuizResults implements Serializable {
+
+        private final long quizExerciseId;
+
+        private final HashMap<String, byte[]> payloadsByUsername;
+
+        private QuizResults(long quizExerciseId, Map<String, byte[]> payloadsByUsername) {
+            this.quizExerciseId = quizExerciseId;
+            this.payloadsByUsername = new HashMap<>(payloadsByUsername);
+        }
+    }
+}
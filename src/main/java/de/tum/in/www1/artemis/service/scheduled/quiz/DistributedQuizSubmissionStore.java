@@ -0,0 +1,86 @@
+package de.tum.in.www1.artemis.service.scheduled.quiz;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.core.PartitionAwareKey;
+
+import de.tum.in.www1.artemis.domain.quiz.QuizSubmission;
+
+/**
+ * Buffers the quiz submissions in the cluster of all Artemis nodes, so that the submissions that students save on any node are processed by the owner of the quiz (see
+ * {@link DistributedQuizState#isOwner(Long)}). The submissions of a quiz are stored in the partition of the quiz id, i.e. on its owner, and backed up on another node, so they
+ * survive the restart of a single node.
+ */
+public class DistributedQuizSubmissionStore implements QuizSubmissionStore {
+
+    static final String SUBMISSIONS_MAP_PREFIX = "quiz-submissions-";
+
+    private final HazelcastInstance hazelcastInstance;
+
+    public DistributedQuizSubmissionStore(HazelcastInstance hazelcastInstance) {
+        this.hazelcastInstance = hazelcastInstance;
+    }
+
+    @Override
+    public void put(Long quizExerciseId, String username, QuizSubmission quizSubmission) {
+        getSubmissionsMap(quizExerciseId).set(new PartitionAwareKey<>(username, quizExerciseId), quizSubmission);
+    }
+
+    @Override
+    public QuizSubmission get(Long quizExerciseId, String username) {
+        return getSubmissionsMap(quizExerciseId).get(new PartitionAwareKey<>(username, quizExerciseId));
+    }
+
+    @Override
+    public Map<String, QuizSubmission> getSubmissions(Long quizExerciseId) {
+        // the entries are a snapshot of the buffered submissions
+        Map<String, QuizSubmission> submissions = new HashMap<>();
+        for (Map.Entry<PartitionAwareKey<String, Long>, QuizSubmission> entry : getSubmissionsMap(quizExerciseId).entrySet()) {
+            submissions.put(entry.getKey().getKey(), entry.getValue());
+        }
+        return submissions;
+    }
+
+    @Override
+    public Set<Long> getQuizExerciseIds() {
+        return DistributedQuizState.getQuizExerciseIds(hazelcastInstance, SUBMISSIONS_MAP_PREFIX);
+    }
+
+    @Override
+    public void remove(Long quizExerciseId, String username) {
+        getSubmissionsMap(quizExerciseId).delete(new PartitionAwareKey<>(username, quizExerciseId));
+    }
+
+    @Override
+    public void removeQuiz(Long quizExerciseId) {
+        getSubmissionsMap(quizExerciseId).destroy();
+    }
+
+    @Override
+    public void compact(Long quizExerciseId) {
+        // compact is only invoked for ended quizzes, so no submissions are added anymore
+        IMap<PartitionAwareKey<String, Long>, QuizSubmission> submissions = getSubmissionsMap(quizExerciseId);
+        if (submissions.isEmpty()) {
+            submissions.destroy();
+        }
+    }
+
+    @Override
+    public int recover() {
+        // the submissions are kept by the other nodes (and their backups) while this node is restarted
+        return 0;
+    }
+
+    @Override
+    public void clear() {
+        getQuizExerciseIds().forEach(this::removeQuiz);
+    }
+
+    private IMap<PartitionAwareKey<String, Long>, QuizSubmission> getSubmissionsMap(Long quizExerciseId) {
+        return hazelcastInstance.getMap(SUBMISSIONS_MAP_PREFIX + quizExerciseId);
+    }
+}
@@ -0,0 +1,71 @@
+package de.tum.in.www1.artemis.service.scheduled.quiz;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import de.tum.in.www1.artemis.domain.quiz.QuizSubmission;
+
+/**
+ * Keeps the buffered quiz submissions on the heap only. All submissions that have not been persisted are lost when the server is restarted.
+ */
+public class InMemoryQuizSubmissionStore implements QuizSubmissionStore {
+
+    /**
+     * quizExerciseId -> Map<username -> QuizSubmission>
+     */
+    private final Map<Long, Map<String, QuizSubmission>> submissions = new ConcurrentHashMap<>();
+
+    @Override
+    public void put(Long quizExerciseId, String username, QuizSubmission quizSubmission) {
+        submissions.computeIfAbsent(quizExerciseId, id -> new ConcurrentHashMap<>()).put(username, quizSubmission);
+    }
+
+    @Override
+    public QuizSubmission get(Long quizExerciseId, String username) {
+        Map<String, QuizSubmission> submissionsOfQuiz = submissions.get(quizExerciseId);
+        return submissionsOfQuiz != null ? submissionsOfQuiz.get(username) : null;
+    }
+
+    @Override
+    public Map<String, QuizSubmission> getSubmissions(Long quizExerciseId) {
+        Map<String, QuizSubmission> submissionsOfQuiz = submissions.get(quizExerciseId);
+        return submissionsOfQuiz != null ? Collections.unmodifiableMap(submissionsOfQuiz) : Collections.emptyMap();
+    }
+
+    @Override
+    public Set<Long> getQuizExerciseIds() {
+        return Collections.unmodifiableSet(submissions.keySet());
+    }
+
+    @Override
+    public void remove(Long quizExerciseId, String username) {
+        Map<String, QuizSubmission> submissionsOfQuiz = submissions.get(quizExerciseId);
+        if (submissionsOfQuiz != null) {
+            submissionsOfQuiz.remove(username);
+        }
+    }
+
+    @Override
+    public void removeQuiz(Long quizExerciseId) {
+        submissions.remove(quizExerciseId);
+    }
+
+    @Override
+    public void compact(Long quizExerciseId) {
+        // only drop the inner map if no new submission has arrived in the meantime
+        submissions.computeIfPresent(quizExerciseId, (id, submissionsOfQuiz) -> submissionsOfQuiz.isEmpty() ? null : submissionsOfQuiz);
+    }
+
+    @Override
+    public int recover() {
+        // nothing to recover, the submissions only live on the heap
+        return 0;
+    }
+
+    @Override
+    public void clear() {
+        submissions.clear();
+    }
+}
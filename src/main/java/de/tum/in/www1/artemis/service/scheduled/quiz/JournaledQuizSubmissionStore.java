@@ -0,0 +1,295 @@
+package de.tum.in.www1.artemis.service.scheduled.quiz;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import de.tum.in.www1.artemis.domain.SubmittedAnswer;
+import de.tum.in.www1.artemis.domain.quiz.QuizSubmission;
+import de.tum.in.www1.artemis.domain.view.QuizView;
+
+/**
+ * Keeps the buffered quiz submissions on the heap and additionally appends every change to a memory-mapped journal per quiz in a local directory. After a restart of the server,
+ * the journals are replayed so that no unsubmitted answer is lost. Appending only copies the serialized submission into the mapped file, the operating system writes it to disk
+ * asynchronously, so saving a submission never waits for the disk or the database.
+ */
+public class JournaledQuizSubmissionStore extends InMemoryQuizSubmissionStore implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(JournaledQuizSubmissionStore.class);
+
+    private static final String JOURNAL_PREFIX = "quiz-";
+
+    private static final String JOURNAL_SUFFIX = ".journal";
+
+    /**
+     * Reused per thread to serialize submissions without allocating a new buffer for every save
+     */
+    private static final ThreadLocal<ReusableByteArrayOutputStream> serializationBuffer = ThreadLocal.withInitial(() -> new ReusableByteArrayOutputStream(4096));
+
+    private final Path journalDirectory;
+
+    private final ObjectWriter submissionWriter;
+
+    private final ObjectReader submissionReader;
+
+    /**
+     * quizExerciseId -> QuizSubmissionJournal
+     */
+    private final Map<Long, QuizSubmissionJournal> journals = new ConcurrentHashMap<>();
+
+    public JournaledQuizSubmissionStore(Path journalDirectory, ObjectMapper objectMapper) throws IOException {
+        this.journalDirectory = journalDirectory;
+        // the journal contains exactly the information the client sends while the quiz is running
+        this.submissionWriter = objectMapper.writerWithView(QuizView.Before.class).forType(QuizSubmission.class);
+        this.submissionReader = objectMapper.readerFor(QuizSubmission.class);
+        Files.createDirectories(journalDirectory);
+    }
+
+    @Override
+    public void put(Long quizExerciseId, String username, QuizSubmission quizSubmission) {
+        ReusableByteArrayOutputStream buffer = serializationBuffer.get();
+        buffer.reset();
+        try {
+            submissionWriter.writeValue(buffer, quizSubmission);
+        }
+        catch (IOException e) {
+            log.error("Could not serialize quiz submission of {} in quiz {}, it is only kept in memory: {}", username, quizExerciseId, e.getMessage());
+            super.put(quizExerciseId, username, quizSubmission);
+            return;
+        }
+        boolean journaled = withJournal(quizExerciseId, journal -> {
+            super.put(quizExerciseId, username, quizSubmission);
+            journal.appendPut(username, buffer.getBuffer(), buffer.size());
+        });
+        if (!journaled) {
+            super.put(quizExerciseId, username, quizSubmission);
+        }
+    }
+
+    @Override
+    public void remove(Long quizExerciseId, String username) {
+        QuizSubmissionJournal journal = journals.get(quizExerciseId);
+        if (journal == null) {
+            super.remove(quizExerciseId, username);
+            return;
+        }
+        synchronized (journal) {
+            super.remove(quizExerciseId, username);
+            if (!journal.isClosed()) {
+                appendRemove(quizExerciseId, username, journal);
+            }
+        }
+    }
+
+    @Override
+    public void removeQuiz(Long quizExerciseId) {
+        QuizSubmissionJournal journal = journals.remove(quizExerciseId);
+        if (journal == null) {
+            super.removeQuiz(quizExerciseId);
+            return;
+        }
+        synchronized (journal) {
+            super.removeQuiz(quizExerciseId);
+            deleteJournal(journal);
+        }
+    }
+
+    @Override
+    public void compact(Long quizExerciseId) {
+        QuizSubmissionJournal journal = journals.get(quizExerciseId);
+        if (journal == null) {
+            super.compact(quizExerciseId);
+            return;
+        }
+        synchronized (journal) {
+            super.compact(quizExerciseId);
+            Map<String, QuizSubmission> remainingSubmissions = getSubmissions(quizExerciseId);
+            if (remainingSubmissions.isEmpty()) {
+                journals.remove(quizExerciseId, journal);
+                deleteJournal(journal);
+                return;
+            }
+            try {
+                journal.rewrite(compacted -> {
+                    ReusableByteArrayOutputStream buffer = serializationBuffer.get();
+                    for (var entry : remainingSubmissions.entrySet()) {
+                        buffer.reset();
+                        submissionWriter.writeValue(buffer, entry.getValue());
+                        compacted.appendPut(entry.getKey(), buffer.getBuffer(), buffer.size());
+                    }
+                });
+                log.debug("Compacted journal of quiz {} to {} remaining submissions", quizExerciseId, remainingSubmissions.size());
+            }
+            catch (IOException e) {
+                log.error("Could not compact journal {}: {}", journal.getPath(), e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public int recover() {
+        int recovered = 0;
+        try (DirectoryStream<Path> journalFiles = Files.newDirectoryStream(journalDirectory, JOURNAL_PREFIX + "*" + JOURNAL_SUFFIX)) {
+            for (Path journalFile : journalFiles) {
+                String fileName = journalFile.getFileName().toString();
+                Long quizExerciseId;
+                try {
+                    quizExerciseId = Long.valueOf(fileName.substring(JOURNAL_PREFIX.length(), fileName.length() - JOURNAL_SUFFIX.length()));
+                }
+                catch (NumberFormatException e) {
+                    log.warn("Ignore unexpected file {} in quiz submission journal directory", journalFile);
+                    continue;
+                }
+                recovered += recover(quizExerciseId);
+            }
+        }
+        catch (IOException e) {
+            log.error("Could not read quiz submission journals in {}: {}", journalDirectory, e.getMessage());
+        }
+        return recovered;
+    }
+
+    private int recover(Long quizExerciseId) {
+        QuizSubmissionJournal journal = journals.computeIfAbsent(quizExerciseId, this::openJournal);
+        if (journal == null) {
+            return 0;
+        }
+        synchronized (journal) {
+            try {
+                journal.replay((username, payload) -> {
+                    try {
+                        QuizSubmission quizSubmission = submissionReader.readValue(payload);
+                        // recreate pointers back to submission in each submitted answer
+                        for (SubmittedAnswer submittedAnswer : quizSubmission.getSubmittedAnswers()) {
+                            submittedAnswer.setSubmission(quizSubmission);
+                        }
+                        super.put(quizExerciseId, username, quizSubmission);
+                    }
+                    catch (IOException e) {
+                        log.error("Could not restore quiz submission of {} in quiz {}: {}", username, quizExerciseId, e.getMessage());
+                    }
+                }, username -> super.remove(quizExerciseId, username));
+            }
+            catch (IOException e) {
+                log.error("Could not replay journal {}: {}", journal.getPath(), e.getMessage());
+            }
+        }
+        int recovered = getSubmissions(quizExerciseId).size();
+        log.info("Restored {} buffered submissions of quiz {} from {}", recovered, quizExerciseId, journal.getPath());
+        return recovered;
+    }
+
+    @Override
+    public void clear() {
+        for (Long quizExerciseId : journals.keySet()) {
+            removeQuiz(quizExerciseId);
+        }
+        super.clear();
+    }
+
+    /**
+     * Force all journals to disk and close them. The journal files are kept, so that they can be replayed after the restart.
+     */
+    @Override
+    public void close() {
+        for (QuizSubmissionJournal journal : journals.values()) {
+            synchronized (journal) {
+                try {
+                    journal.close();
+                }
+                catch (IOException e) {
+                    log.error("Could not close journal {}: {}", journal.getPath(), e.getMessage());
+                }
+            }
+        }
+        journals.clear();
+    }
+
+    /**
+     * Run the given action while holding the lock of the (open) journal of the quiz. If the journal was closed concurrently by a compaction, a new journal is opened.
+     *
+     * @return false if the journal of the quiz could not be opened and the action was not executed
+     */
+    private boolean withJournal(Long quizExerciseId, JournalAction action) {
+        while (true) {
+            QuizSubmissionJournal journal = journals.computeIfAbsent(quizExerciseId, this::openJournal);
+            if (journal == null) {
+                log.error("Quiz submission journal for quiz {} is not available, the submission is only kept in memory", quizExerciseId);
+                return false;
+            }
+            synchronized (journal) {
+                if (journal.isClosed()) {
+                    journals.remove(quizExerciseId, journal);
+                    continue;
+                }
+                try {
+                    action.run(journal);
+                }
+                catch (IOException e) {
+                    log.error("Could not append to journal {}: {}", journal.getPath(), e.getMessage());
+                }
+                return true;
+            }
+        }
+    }
+
+    private QuizSubmissionJournal openJournal(Long quizExerciseId) {
+        Path path = journalDirectory.resolve(JOURNAL_PREFIX + quizExerciseId + JOURNAL_SUFFIX);
+        try {
+            return QuizSubmissionJournal.open(path);
+        }
+        catch (IOException e) {
+            log.error("Could not open journal {}: {}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    private void appendRemove(Long quizExerciseId, String username, QuizSubmissionJournal journal) {
+        try {
+            journal.appendRemove(username);
+        }
+        catch (IOException e) {
+            log.error("Could not remove submission of {} in quiz {} from journal {}: {}", username, quizExerciseId, journal.getPath(), e.getMessage());
+        }
+    }
+
+    private void deleteJournal(QuizSubmissionJournal journal) {
+        try {
+            journal.delete();
+        }
+        catch (IOException e) {
+            log.error("Could not delete journal {}: {}", journal.getPath(), e.getMessage());
+        }
+    }
+
+    @FunctionalInterface
+    private interface JournalAction {
+
+        void run(QuizSubmissionJournal journal) throws IOException;
+    }
+
+    /**
+     * Gives access to the internal buffer so that the serialized bytes do not have to be copied before they are appended to the journal
+     */
+    private static class ReusableByteArrayOutputStream extends ByteArrayOutputStream {
+
+        ReusableByteArrayOutputStream(int size) {
+            super(size);
+        }
+
+        byte[] getBuffer() {
+            return buf;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package de.tum.in.www1.artemis.service.scheduled.quiz;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import de.tum.in.www1.artemis.domain.Result;
+import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
+
+/**
+ * Keeps the live quiz state on the heap of this node, which processes all quizzes. This is only suitable if Artemis runs on a single node.
+ */
+public class LocalQuizState implements QuizState {
+
+    /**
+     * quizExerciseId -> Map<username -> StudentParticipation>
+     */
+    private final Map<Long, Map<String, StudentParticipation>> participations = new ConcurrentHashMap<>();
+
+    /**
+     * quizExerciseId -> [Result]
+     */
+    private final Map<Long, Set<Result>> results = new ConcurrentHashMap<>();
+
+    private final QuizResultFanOut quizResultFanOut;
+
+    public LocalQuizState(QuizResultFanOut quizResultFanOut) {
+        this.quizResultFanOut = quizResultFanOut;
+    }
+
+    @Override
+    public boolean isOwner(Long quizExerciseId) {
+        return true;
+    }
+
+    @Override
+    public void addParticipation(Long quizExerciseId, StudentParticipation participation) {
+        participations.computeIfAbsent(quizExerciseId, id -> new ConcurrentHashMap<>()).put(participation.getParticipantIdentifier(), participation);
+    }
+
+    @Override
+    public StudentParticipation getParticipation(Long quizExerciseId, String username) {
+        Map<String, StudentParticipation> participationsOfQuiz = participations.get(quizExerciseId);
+        return participationsOfQuiz != null ? participationsOfQuiz.get(username) : null;
+    }
+
+    @Override
+    public Collection<StudentParticipation> removeParticipations(Long quizExerciseId) {
+        Map<String, StudentParticipation> participationsOfQuiz = participations.remove(quizExerciseId);
+        return participationsOfQuiz != null ? participationsOfQuiz.values() : Collections.emptyList();
+    }
+
+    @Override
+    public void addResult(Long quizExerciseId, Result result) {
+        // results are added concurrently by the quiz processing partitions and by practice submissions
+        results.computeIfAbsent(quizExerciseId, id -> ConcurrentHashMap.newKeySet()).add(result);
+    }
+
+    @Override
+    public Set<Result> removeResults(Long quizExerciseId) {
+        Set<Result> resultsOfQuiz = results.remove(quizExerciseId);
+        return resultsOfQuiz != null ? resultsOfQuiz : Collections.emptySet();
+    }
+
+    @Override
+    public Set<Long> getQuizExerciseIdsWithParticipations() {
+        return Collections.unmodifiableSet(participations.keySet());
+    }
+
+    @Override
+    public Set<Long> getQuizExerciseIdsWithResults() {
+        return Collections.unmodifiableSet(results.keySet());
+    }
+
+    @Override
+    public void sendResults(Long quizExerciseId, Map<String, byte[]> payloadsByUsername) {
+        quizResultFanOut.sendResults(quizExerciseId, payloadsByUsername);
+    }
+
+    @Override
+    public void removeQuiz(Long quizExerciseId) {
+        participations.remove(quizExerciseId);
+        results.remove(quizExerciseId);
+    }
+
+    @Override
+    public void clear() {
+        participations.clear();
+        results.clear();
+    }
+}
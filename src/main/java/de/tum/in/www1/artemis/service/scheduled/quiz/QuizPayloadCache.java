@@ -0,0 +1,195 @@
+package de.tum.in.www1.artemis.service.scheduled.quiz;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.RawValue;
+
+import de.tum.in.www1.artemis.domain.Exercise;
+import de.tum.in.www1.artemis.domain.participation.Participation;
+import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
+import de.tum.in.www1.artemis.domain.quiz.QuizExercise;
+
+/**
+ * Caches the serialized JSON of quiz exercises that are sent to many students at the same time, i.e. when the quiz starts and when the results are sent out. The payloads are
+ * cached by (quiz id, view). The serialized quiz contains values that depend on the current time (e.g. the remaining time), therefore a payload is only reused for
+ * {@link #MAX_AGE_MILLIS} ms. The payloads of a quiz are removed by {@link #invalidate(Long)} whenever the quiz is changed or re-evaluated; a payload of the old quiz that is
+ * serialized concurrently is reused for at most {@link #MAX_AGE_MILLIS} ms.
+ */
+@Service
+public class QuizPayloadCache {
+
+    private static final Logger log = LoggerFactory.getLogger(QuizPayloadCache.class);
+
+    /**
+     * the time after which a payload is serialized again, the time dependent values of a quiz have a precision of one second
+     */
+    static final long MAX_AGE_MILLIS = 1000;
+
+    private final Map<PayloadKey, CachedPayload> payloads = new ConcurrentHashMap<>();
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * serializes the quiz exercise in the same way as the exercise property of a participation (see Participation.exercise) and participations without their exercise
+     */
+    private final ObjectMapper participationMapper;
+
+    public QuizPayloadCache(MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter) {
+        this.objectMapper = mappingJackson2HttpMessageConverter.getObjectMapper();
+        this.participationMapper = objectMapper.copy().addMixIn(QuizExercise.class, ParticipationExerciseMixIn.class).addMixIn(Participation.class,
+                ParticipationWithoutExerciseMixIn.class);
+    }
+
+    /**
+     * Get the serialized quiz exercise for the given view, it is only serialized if there is no recent payload of the quiz
+     *
+     * @param quizExercise the quiz exercise to serialize
+     * @param view         the JSON view which is used to filter the quiz exercise (e.g. QuizView.During)
+     * @return the serialized quiz exercise
+     * @throws JsonProcessingException if the quiz exercise cannot be serialized
+     */
+    public byte[] getQuizExercisePayload(QuizExercise quizExercise, Class<?> view) throws JsonProcessingException {
+        return getPayload(quizExercise, view).payload;
+    }
+
+    /**
+     * Serialize the given participation (including its results) of a quiz. The quiz exercise of the participation is the same for all students, it is only serialized once and
+     * added as raw JSON to the payload of each participation. The participation is not modified.
+     *
+     * @param participation the participation to serialize, must not be modified concurrently
+     * @return the serialized participation, equivalent to the participation serialized by the ObjectMapper
+     * @throws JsonProcessingException if the participation cannot be serialized
+     */
+    public byte[] getParticipationPayload(StudentParticipation participation) throws JsonProcessingException {
+        Exercise exercise = participation.getExercise();
+        if (!(exercise instanceof QuizExercise) || exercise.getId() == null) {
+            return objectMapper.writeValueAsBytes(participation);
+        }
+        ObjectNode payload = participationMapper.valueToTree(participation);
+        payload.putRawValue("exercise", getPayload((QuizExercise) exercise, null).rawValue);
+        return objectMapper.writeValueAsBytes(payload);
+    }
+
+    /**
+     * Remove all payloads of the given quiz, this has to be invoked whenever the quiz is changed (e.g. edited, started or re-evaluated)
+     *
+     * @param quizExerciseId the id of the changed quiz exercise
+     */
+    public void invalidate(Long quizExerciseId) {
+        if (quizExerciseId == null) {
+            return;
+        }
+        payloads.keySet().removeIf(key -> key.quizExerciseId.equals(quizExerciseId));
+    }
+
+    /**
+     * Remove all payloads of the given quiz, e.g. because the quiz was deleted
+     *
+     * @param quizExerciseId the id of the quiz exercise
+     */
+    public void evict(Long quizExerciseId) {
+        invalidate(quizExerciseId);
+    }
+
+    private CachedPayload getPayload(QuizExercise quizExercise, Class<?> view) throws JsonProcessingException {
+        Long quizExerciseId = quizExercise.getId();
+        long now = System.currentTimeMillis();
+        if (quizExerciseId == null) {
+            return new CachedPayload(serialize(quizExercise, view), view == null, now);
+        }
+        PayloadKey key = new PayloadKey(quizExerciseId, view);
+        CachedPayload cachedPayload = payloads.get(key);
+        if (cachedPayload != null && now - cachedPayload.createdAt < MAX_AGE_MILLIS) {
+            return cachedPayload;
+        }
+
+        cachedPayload = new CachedPayload(serialize(quizExercise, view), view == null, now);
+        // outdated payloads of all quizzes are removed whenever a new payload is cached, so that the cache does not grow with the number of quizzes
+        payloads.values().removeIf(outdatedPayload -> now - outdatedPayload.createdAt >= MAX_AGE_MILLIS);
+        payloads.put(key, cachedPayload);
+        log.debug("Serialized quiz exercise {} for view {} with {} bytes", quizExerciseId, view != null ? view.getSimpleName() : "none", cachedPayload.payload.length);
+        return cachedPayload;
+    }
+
+    private byte[] serialize(QuizExercise quizExercise, Class<?> view) throws JsonProcessingException {
+        if (view == null) {
+            return participationMapper.writeValueAsBytes(quizExercise);
+        }
+        return objectMapper.writerWithView(view).writeValueAsBytes(quizExercise);
+    }
+
+    /**
+     * Same as @JsonIgnoreProperties("studentParticipations") on Participation.exercise
+     */
+    @JsonIgnoreProperties("studentParticipations")
+    private abstract static class ParticipationExerciseMixIn {
+    }
+
+    /**
+     * The exercise is added to the serialized participation as raw JSON
+     */
+    @JsonIgnoreProperties("exercise")
+    private abstract static class ParticipationWithoutExerciseMixIn {
+    }
+
+    private static final class PayloadKey {
+
+        private final Long quizExerciseId;
+
+        private final Class<?> view;
+
+        private PayloadKey(Long quizExerciseId, Class<?> view) {
+            this.quizExerciseId = quizExerciseId;
+            this.view = view;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof PayloadKey)) {
+                return false;
+            }
+            PayloadKey other = (PayloadKey) obj;
+            return quizExerciseId.equals(other.quizExerciseId) && view == other.view;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(quizExerciseId, view);
+        }
+    }
+
+    private static final class CachedPayload {
+
+        private final byte[] payload;
+
+        /**
+         * the payload as raw JSON value for the participations (null for the other views), its UTF-8 bytes are kept by the SerializedString, so that it is not encoded again for
+         * every participation
+         */
+        private final RawValue rawValue;
+
+        private final long createdAt;
+
+        private CachedPayload(byte[] payload, boolean asRawValue, long createdAt) {
+            this.payload = payload;
+            this.rawValue = asRawValue ? new RawValue(new SerializedString(new String(payload, StandardCharsets.UTF_8))) : null;
+            this.createdAt = createdAt;
+        }
+    }
+}
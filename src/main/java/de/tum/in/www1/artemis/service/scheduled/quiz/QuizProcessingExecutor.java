@@ -0,0 +1,107 @@
+package de.tum.in.www1.artemis.service.scheduled.quiz;
+
+import java.util.Queue;
+import java.util.concurrent.*;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Executes the processing of cached quiz submissions on a fixed number of partitions. Each quiz exercise is owned by exactly one partition (determined by its id), and every
+ * partition is backed by a single thread. Therefore, tasks for the same quiz are executed one after another in the order they were submitted, while different quizzes are
+ * processed concurrently.
+ */
+public class QuizProcessingExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(QuizProcessingExecutor.class);
+
+    private final ExecutorService[] partitions;
+
+    /**
+     * partition -> submission times (in ms) of all tasks that have not been started yet, in the order they were submitted
+     */
+    private final Queue<Long>[] pendingSince;
+
+    /**
+     * Create the executor and register the lag of each partition as gauge "artemis.quiz.processing.lag"
+     *
+     * @param poolSize      the number of partitions (i.e. threads)
+     * @param meterRegistry the registry the lag metrics are published to
+     */
+    @SuppressWarnings("unchecked")
+    public QuizProcessingExecutor(int poolSize, MeterRegistry meterRegistry) {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("The quiz processing pool size must be at least 1, but was " + poolSize);
+        }
+        partitions = new ExecutorService[poolSize];
+        pendingSince = new Queue[poolSize];
+        for (int partition = 0; partition < poolSize; partition++) {
+            partitions[partition] = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("QuizProcessing-" + partition + "-"));
+            pendingSince[partition] = new ConcurrentLinkedQueue<>();
+            final int finalPartition = partition;
+            Gauge.builder("artemis.quiz.processing.lag", this, executor -> executor.getLagMillis(finalPartition)).tag("partition", String.valueOf(partition))
+                    .description("Time in ms the oldest pending quiz processing task of the partition has been waiting").baseUnit("milliseconds").register(meterRegistry);
+        }
+        log.info("Quiz submissions are processed on {} partitions", poolSize);
+    }
+
+    /**
+     * @return the number of partitions
+     */
+    public int getPoolSize() {
+        return partitions.length;
+    }
+
+    /**
+     * @param quizExerciseId the id of the quiz exercise
+     * @return the partition that owns the given quiz exercise
+     */
+    public int partitionOf(long quizExerciseId) {
+        return Math.floorMod(Long.hashCode(quizExerciseId), partitions.length);
+    }
+
+    /**
+     * Execute the given task on the partition that owns the given quiz exercise
+     *
+     * @param quizExerciseId the id of the quiz exercise the task belongs to
+     * @param task           the task to execute
+     * @return a future that completes when the task has been executed
+     */
+    public CompletableFuture<Void> submit(long quizExerciseId, Runnable task) {
+        int partition = partitionOf(quizExerciseId);
+        Long submittedAt = System.currentTimeMillis();
+        pendingSince[partition].add(submittedAt);
+        try {
+            return CompletableFuture.runAsync(() -> {
+                pendingSince[partition].remove(submittedAt);
+                task.run();
+            }, partitions[partition]);
+        }
+        catch (RejectedExecutionException e) {
+            pendingSince[partition].remove(submittedAt);
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * @param partition the partition
+     * @return the time in ms the oldest pending task of the given partition has been waiting, 0 if there is no pending task
+     */
+    public long getLagMillis(int partition) {
+        Long oldest = pendingSince[partition].peek();
+        return oldest != null ? Math.max(0, System.currentTimeMillis() - oldest) : 0;
+    }
+
+    /**
+     * Stop all partitions, tasks that have already been submitted are still executed
+     */
+    public void shutdown() {
+        for (ExecutorService partition : partitions) {
+            partition.shutdown();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package de.tum.in.www1.artemis.service.scheduled.quiz;
+
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import de.tum.in.www1.artemis.domain.Result;
+import de.tum.in.www1.artemis.domain.SubmittedAnswer;
+import de.tum.in.www1.artemis.domain.User;
+import de.tum.in.www1.artemis.domain.enumeration.AssessmentType;
+import de.tum.in.www1.artemis.domain.enumeration.InitializationState;
+import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
+import de.tum.in.www1.artemis.domain.quiz.QuizExercise;
+import de.tum.in.www1.artemis.domain.quiz.QuizSubmission;
+import de.tum.in.www1.artemis.domain.quiz.scoring.CompiledQuizAnswerKey;
+import de.tum.in.www1.artemis.repository.QuizSubmissionRepository;
+import de.tum.in.www1.artemis.repository.ResultRepository;
+import de.tum.in.www1.artemis.repository.StudentParticipationRepository;
+import de.tum.in.www1.artemis.repository.UserRepository;
+import de.tum.in.www1.artemis.service.scheduled.quiz.QuizWorkingTimeScheduler.WorkingTime;
+
+/**
+ * Persists the participations and results of processed quiz submissions in bulk. All users are resolved with one query and all participations, submissions (including their
+ * submitted answers) and results are inserted in one transaction, so that Hibernate can send them to the database in JDBC batches. The results of a re-evaluated quiz are
+ * updated in the same way, in chunks of participations.
+ */
+@Service
+public class QuizResultBatchService {
+
+    private final UserRepository userRepository;
+
+    private final StudentParticipationRepository studentParticipationRepository;
+
+    private final QuizSubmissionRepository quizSubmissionRepository;
+
+    private final ResultRepository resultRepository;
+
+    private final QuizWorkingTimeScheduler quizWorkingTimeScheduler;
+
+    public QuizResultBatchService(UserRepository userRepository, StudentParticipationRepository studentParticipationRepository,
+            QuizSubmissionRepository quizSubmissionRepository, ResultRepository resultRepository, QuizWorkingTimeScheduler quizWorkingTimeScheduler) {
+        this.userRepository = userRepository;
+        this.studentParticipationRepository = studentParticipationRepository;
+        this.quizSubmissionRepository = quizSubmissionRepository;
+        this.resultRepository = resultRepository;
+        this.quizWorkingTimeScheduler = quizWorkingTimeScheduler;
+    }
+
+    /**
+     * Create a participation with a rated result for each of the given (submitted) quiz submissions and save them to the database. Either all or none of them are saved.
+     *
+     * @param quizExercise          the quiz exercise the submissions belong to (including its questions)
+     * @param submissionsByUsername username -> QuizSubmission, the submissions that should be evaluated and saved
+     * @return the saved participations, each containing its result (which contains the submission)
+     */
+    @Transactional
+    public List<StudentParticipation> createParticipationsWithResults(QuizExercise quizExercise, Map<String, QuizSubmission> submissionsByUsername) {
+        Map<String, User> usersByLogin = userRepository.findAllByLoginIn(submissionsByUsername.keySet()).stream()
+                .collect(Collectors.toMap(User::getLogin, Function.identity()));
+
+        // the answer key is only compiled once for all submissions
+        CompiledQuizAnswerKey answerKey = CompiledQuizAnswerKey.compile(quizExercise);
+
+        List<StudentParticipation> participations = new ArrayList<>(submissionsByUsername.size());
+        List<QuizSubmission> quizSubmissions = new ArrayList<>(submissionsByUsername.size());
+        List<Result> results = new ArrayList<>(submissionsByUsername.size());
+        for (Map.Entry<String, QuizSubmission> entry : submissionsByUsername.entrySet()) {
+            QuizSubmission quizSubmission = entry.getValue();
+            // the participation starts with the working time of the user, if it is unknown (e.g. after a restart) with the submission
+            ZonedDateTime initializationDate = quizWorkingTimeScheduler.getWorkingTime(quizExercise.getId(), entry.getKey()).map(WorkingTime::getStartDate)
+                    .orElse(quizSubmission.getSubmissionDate());
+            Result result = createParticipationWithResult(quizExercise, answerKey, usersByLogin.get(entry.getKey()), quizSubmission, initializationDate);
+            participations.add((StudentParticipation) result.getParticipation());
+            quizSubmissions.add(quizSubmission);
+            results.add(result);
+        }
+
+        // the order matters: submissions reference their participation and results reference both
+        studentParticipationRepository.saveAll(participations);
+        quizSubmissionRepository.saveAll(quizSubmissions);
+        resultRepository.saveAll(results);
+        return participations;
+    }
+
+    /**
+     * create Participation and Result for the given quiz submission (without saving them)
+     *
+     * @param quizExercise       the quizExercise the quizSubmission belongs to
+     * @param answerKey          the compiled answer key of the quizExercise
+     * @param user               the user, who submitted the quizSubmission (might be null if the user does not exist anymore)
+     * @param quizSubmission     the quizSubmission, which is used to calculate the Result
+     * @param initializationDate the time at which the user started the quiz
+     * @return the result, which references the new participation and the quizSubmission
+     */
+    private Result createParticipationWithResult(QuizExercise quizExercise, CompiledQuizAnswerKey answerKey, User user, QuizSubmission quizSubmission,
+            ZonedDateTime initializationDate) {
+        // create new participation
+        StudentParticipation participation = new StudentParticipation();
+        participation.setInitializationDate(initializationDate);
+        participation.setParticipant(user);
+        // add the quizExercise to the participation
+        participation.setExercise(quizExercise);
+
+        // create new result
+        Result result = new Result().participation(participation).submission(quizSubmission);
+        result.setRated(true);
+        result.setAssessmentType(AssessmentType.AUTOMATIC);
+        result.setCompletionDate(quizSubmission.getSubmissionDate());
+
+        // calculate scores and update result and submission accordingly
+        quizSubmission.calculateAndUpdateScores(answerKey);
+        result.evaluateSubmission();
+
+        // add result and submission to participation
+        participation.addResult(result);
+        participation.addSubmissions(quizSubmission);
+        participation.setInitializationState(InitializationState.FINISHED);
+        return result;
+    }
+
+    /**
+     * Pass the ids of all participations of the given quiz exercise on in chunks. The chunks are read with keyset pagination, i.e. every chunk is read in its own short query
+     * starting after the last id of the previous chunk, so that no database connection is kept while the chunks are processed.
+     *
+     * @param quizExerciseId the id of the quiz exercise
+     * @param chunkSize      the maximal number of participation ids in a chunk
+     * @param action         invoked with each chunk, in ascending order of the ids
+     */
+    public void forEachChunkOfParticipationIds(Long quizExerciseId, int chunkSize, Consumer<List<Long>> action) {
+        long lastId = 0;
+        List<Long> chunk = studentParticipationRepository.findIdsByExerciseIdAndIdGreaterThan(quizExerciseId, lastId, PageRequest.of(0, chunkSize));
+        while (!chunk.isEmpty()) {
+            lastId = chunk.get(chunk.size() - 1);
+            action.accept(chunk);
+            if (chunk.size() < chunkSize) {
+                break;
+            }
+            chunk = studentParticipationRepository.findIdsByExerciseIdAndIdGreaterThan(quizExerciseId, lastId, PageRequest.of(0, chunkSize));
+        }
+    }
+
+    /**
+     * Adjust the given results (and their submissions) to the changed quiz exercise and save them in one transaction: references to deleted questions and answers are removed
+     * and the scores are calculated again.
+     *
+     * @param quizExercise     the changed quiz exercise (including its questions)
+     * @param answerKey        the compiled answer key of the changed quiz exercise
+     * @param participationIds the ids of the participations whose results should be re-evaluated
+     * @return the number of re-evaluated results
+     */
+    @Transactional
+    public int reEvaluateResults(QuizExercise quizExercise, CompiledQuizAnswerKey answerKey, Collection<Long> participationIds) {
+        List<Result> results = resultRepository.findAllWithEagerSubmissionAndParticipationByParticipationIdIn(participationIds);
+        List<QuizSubmission> quizSubmissions = new ArrayList<>(results.size());
+        for (Result result : results) {
+            QuizSubmission quizSubmission = (QuizSubmission) result.getSubmission();
+            Set<SubmittedAnswer> submittedAnswersToDelete = new HashSet<>();
+            for (SubmittedAnswer submittedAnswer : quizSubmission.getSubmittedAnswers()) {
+                // Delete all references to question and question-elements if the question was changed
+                submittedAnswer.checkAndDeleteReferences(quizExercise);
+                if (!quizExercise.getQuizQuestions().contains(submittedAnswer.getQuizQuestion())) {
+                    submittedAnswersToDelete.add(submittedAnswer);
+                }
+            }
+            quizSubmission.getSubmittedAnswers().removeAll(submittedAnswersToDelete);
+
+            // recalculate existing score
+            quizSubmission.calculateAndUpdateScores(answerKey);
+            // update Successful-Flag in Result
+            StudentParticipation studentParticipation = (StudentParticipation) result.getParticipation();
+            studentParticipation.setExercise(quizExercise);
+            result.evaluateSubmission();
+            quizSubmissions.add(quizSubmission);
+        }
+        // the changes are sent to the database in JDBC batches when the transaction is committed
+        quizSubmissionRepository.saveAll(quizSubmissions);
+        resultRepository.saveAll(results);
+        return results.size();
+    }
+}
@@ -0,0 +1,361 @@
+package de.tum.in.www1.artemis.service.scheduled.quiz;
+
+import java.security.Principal;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.LongSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Sends the results of a quiz to its participants when the quiz has ended. Instead of sending all results at once (which saturates the outbound channel of the websocket, so
+ * that e.g. heartbeats of other users are delayed), the results are paced with a token bucket and spread over a configurable window. Students who are connected are served
+ * first. Results that could not be delivered (the student was not connected or the send failed) are retained for some time and sent again as soon as the student subscribes to
+ * the participation topic of the quiz again (e.g. after a reconnect).
+ */
+public class QuizResultFanOut {
+
+    private static final Logger log = LoggerFactory.getLogger(QuizResultFanOut.class);
+
+    /**
+     * the interval in ms in which tokens are added to the buckets and pending results are sent
+     */
+    static final long TICK_MILLIS = 100;
+
+    /**
+     * the delay in ms after a subscription before a retained result is sent, so that the subscription is registered at the broker
+     */
+    static final long REDELIVERY_DELAY_MILLIS = 500;
+
+    private static final Pattern PARTICIPATION_DESTINATION = Pattern.compile("^/user/topic/exercise/(\\d+)/participation$");
+
+    private final SimpMessageSendingOperations messagingTemplate;
+
+    private final SimpUserRegistry simpUserRegistry;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final LongSupplier clock;
+
+    private final long windowMillis;
+
+    private final int minRate;
+
+    private final long retentionMillis;
+
+    private final Queue<FanOut> fanOuts = new ConcurrentLinkedQueue<>();
+
+    /**
+     * quizExerciseId -> Map<username -> retained result>
+     */
+    private final Map<Long, Map<String, RetainedResult>> retainedResults = new ConcurrentHashMap<>();
+
+    private final Timer fanOutDuration;
+
+    private final Counter sentResults;
+
+    private final Counter retainedSends;
+
+    private final Counter droppedSends;
+
+    private final Counter redeliveredResults;
+
+    private final Counter expiredResults;
+
+    /**
+     * Create the fan-out and register its metrics "artemis.quiz.result.fan-out.duration", "artemis.quiz.result.fan-out.sends" (tagged with the outcome) and
+     * "artemis.quiz.result.fan-out.pending"
+     *
+     * @param messagingTemplate the template the results are sent with
+     * @param simpUserRegistry  the registry of the connected websocket users
+     * @param meterRegistry     the registry the metrics are published to
+     * @param windowMillis      the time in ms in which the results of a quiz should be sent
+     * @param minRate           the minimal number of results that are sent per second, also if this is faster than necessary for the window
+     * @param retentionMillis   the time in ms an undelivered result is retained for a reconnect of the student
+     */
+    public QuizResultFanOut(SimpMessageSendingOperations messagingTemplate, SimpUserRegistry simpUserRegistry, MeterRegistry meterRegistry, long windowMillis, int minRate,
+            long retentionMillis) {
+        this(messagingTemplate, simpUserRegistry, meterRegistry, windowMillis, minRate, retentionMillis,
+                Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("QuizResultFanOut-")), System::currentTimeMillis);
+        scheduler.scheduleAtFixedRate(this::tick, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    QuizResultFanOut(SimpMessageSendingOperations messagingTemplate, SimpUserRegistry simpUserRegistry, MeterRegistry meterRegistry, long windowMillis, int minRate,
+            long retentionMillis, ScheduledExecutorService scheduler, LongSupplier clock) {
+        if (windowMillis < 0 || minRate < 1 || retentionMillis < 0) {
+            throw new IllegalArgumentException(
+                    "Invalid quiz result fan-out configuration: window " + windowMillis + " ms, rate " + minRate + "/s, retention " + retentionMillis + " ms");
+        }
+        this.messagingTemplate = messagingTemplate;
+        this.simpUserRegistry = simpUserRegistry;
+        this.windowMillis = windowMillis;
+        this.minRate = minRate;
+        this.retentionMillis = retentionMillis;
+        this.scheduler = scheduler;
+        this.clock = clock;
+
+        fanOutDuration = Timer.builder("artemis.quiz.result.fan-out.duration").description("Time it takes to send the results of a quiz to all participants")
+                .register(meterRegistry);
+        sentResults = sendCounter(meterRegistry, "sent");
+        retainedSends = sendCounter(meterRegistry, "retained");
+        droppedSends = sendCounter(meterRegistry, "dropped");
+        redeliveredResults = sendCounter(meterRegistry, "redelivered");
+        expiredResults = sendCounter(meterRegistry, "expired");
+        Gauge.builder("artemis.quiz.result.fan-out.pending", this, QuizResultFanOut::getPendingResults).description("Number of quiz results that are waiting to be sent")
+                .register(meterRegistry);
+    }
+
+    private static Counter sendCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("artemis.quiz.result.fan-out.sends").tag("outcome", outcome).description("Number of quiz results by the outcome of the send")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Send the given results of a quiz to the participants. The results are sent asynchronously within the configured window, the results of connected students first.
+     *
+     * @param quizExerciseId     the id of the quiz exercise
+     * @param payloadsByUsername the serialized participation (including its result) of each participant
+     */
+    public void sendResults(long quizExerciseId, Map<String, byte[]> payloadsByUsername) {
+        if (payloadsByUsername.isEmpty()) {
+            return;
+        }
+        Deque<Delivery> deliveries = new ArrayDeque<>();
+        List<Delivery> disconnected = new ArrayList<>();
+        payloadsByUsername.forEach((username, payload) -> {
+            if (isConnected(username)) {
+                deliveries.add(new Delivery(username, payload));
+            }
+            else {
+                disconnected.add(new Delivery(username, payload));
+            }
+        });
+        // students who are not connected (to this instance) are served last, they might still receive the result through the broker
+        deliveries.addAll(disconnected);
+
+        // spread the results over the window, but never send fewer than minRate results per second
+        double ratePerMilli = windowMillis > 0 ? Math.max(minRate / 1000.0, (double) deliveries.size() / windowMillis) : Double.POSITIVE_INFINITY;
+        fanOuts.add(new FanOut(quizExerciseId, deliveries, ratePerMilli, clock.getAsLong()));
+        log.info("Scheduled {} quiz results ({} connected) for quiz {} at {} results per second", deliveries.size(), deliveries.size() - disconnected.size(), quizExerciseId,
+                Math.round(Math.min(ratePerMilli * 1000, deliveries.size())));
+    }
+
+    /**
+     * Cancel all pending and retained results of the given quiz, e.g. because the quiz was deleted
+     *
+     * @param quizExerciseId the id of the quiz exercise
+     */
+    public void cancel(long quizExerciseId) {
+        fanOuts.removeIf(fanOut -> fanOut.quizExerciseId == quizExerciseId);
+        retainedResults.remove(quizExerciseId);
+    }
+
+    /**
+     * Send the retained result of a quiz again when the student subscribes to the participation topic of the quiz (e.g. after a reconnect)
+     *
+     * @param event the subscribe event of a websocket session
+     */
+    @EventListener
+    public void handleSubscribe(SessionSubscribeEvent event) {
+        Principal user = event.getUser();
+        String destination = StompHeaderAccessor.wrap(event.getMessage()).getDestination();
+        if (user == null || destination == null) {
+            return;
+        }
+        Matcher matcher = PARTICIPATION_DESTINATION.matcher(destination);
+        if (!matcher.matches()) {
+            return;
+        }
+        long quizExerciseId = Long.parseLong(matcher.group(1));
+        Map<String, RetainedResult> retainedResultsOfQuiz = retainedResults.get(quizExerciseId);
+        RetainedResult retainedResult = retainedResultsOfQuiz != null ? retainedResultsOfQuiz.remove(user.getName()) : null;
+        if (retainedResult != null) {
+            scheduler.schedule(() -> redeliver(quizExerciseId, user.getName(), retainedResult.payload), REDELIVERY_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Add tokens to the bucket of each quiz and send as many pending results as there are tokens, afterwards remove the retained results that have expired
+     */
+    void tick() {
+        long now = clock.getAsLong();
+        try {
+            for (FanOut fanOut : fanOuts) {
+                fanOut.refill(now);
+                while (fanOut.tokens >= 1 && !fanOut.pending.isEmpty()) {
+                    fanOut.tokens--;
+                    send(fanOut.quizExerciseId, fanOut.pending.poll(), now);
+                }
+                if (fanOut.pending.isEmpty()) {
+                    fanOuts.remove(fanOut);
+                    fanOutDuration.record(now - fanOut.startedAt, TimeUnit.MILLISECONDS);
+                    log.info("Sent out {} quiz results for quiz {} in {} ms", fanOut.size, fanOut.quizExerciseId, now - fanOut.startedAt);
+                }
+            }
+            removeExpiredResults(now);
+        }
+        catch (Exception e) {
+            // the scheduler would not run the tick again after an exception
+            log.error("Exception while sending quiz results", e);
+        }
+    }
+
+    private void send(long quizExerciseId, Delivery delivery, long now) {
+        boolean connected = isConnected(delivery.username);
+        try {
+            messagingTemplate.convertAndSendToUser(delivery.username, getDestination(quizExerciseId), delivery.payload);
+        }
+        catch (MessagingException e) {
+            log.warn("Could not send the result of quiz {} to user {}: {}", quizExerciseId, delivery.username, e.getMessage());
+            droppedSends.increment();
+            retain(quizExerciseId, delivery, now);
+            return;
+        }
+        if (connected) {
+            sentResults.increment();
+        }
+        else {
+            retainedSends.increment();
+            retain(quizExerciseId, delivery, now);
+        }
+    }
+
+    private void redeliver(long quizExerciseId, String username, byte[] payload) {
+        try {
+            messagingTemplate.convertAndSendToUser(username, getDestination(quizExerciseId), payload);
+            redeliveredResults.increment();
+        }
+        catch (MessagingException e) {
+            log.warn("Could not send the retained result of quiz {} to user {}: {}", quizExerciseId, username, e.getMessage());
+            droppedSends.increment();
+        }
+    }
+
+    private void retain(long quizExerciseId, Delivery delivery, long now) {
+        if (retentionMillis > 0) {
+            retainedResults.computeIfAbsent(quizExerciseId, id -> new ConcurrentHashMap<>()).put(delivery.username, new RetainedResult(delivery.payload, now + retentionMillis));
+        }
+    }
+
+    private void removeExpiredResults(long now) {
+        for (Map<String, RetainedResult> retainedResultsOfQuiz : retainedResults.values()) {
+            for (Iterator<RetainedResult> iterator = retainedResultsOfQuiz.values().iterator(); iterator.hasNext();) {
+                if (iterator.next().retainedUntil <= now) {
+                    iterator.remove();
+                    expiredResults.increment();
+                }
+            }
+        }
+        retainedResults.values().removeIf(Map::isEmpty);
+    }
+
+    private boolean isConnected(String username) {
+        return simpUserRegistry.getUser(username) != null;
+    }
+
+    private static String getDestination(long quizExerciseId) {
+        return "/topic/exercise/" + quizExerciseId + "/participation";
+    }
+
+    /**
+     * @return the number of results that have not been sent yet
+     */
+    public int getPendingResults() {
+        return fanOuts.stream().mapToInt(fanOut -> fanOut.pending.size()).sum();
+    }
+
+    /**
+     * @param quizExerciseId the id of the quiz exercise
+     * @return the number of results of the given quiz that are retained for a reconnect of the student
+     */
+    public int getRetainedResults(long quizExerciseId) {
+        Map<String, RetainedResult> retainedResultsOfQuiz = retainedResults.get(quizExerciseId);
+        return retainedResultsOfQuiz != null ? retainedResultsOfQuiz.size() : 0;
+    }
+
+    /**
+     * Stop sending results, pending results are discarded
+     */
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+
+    /**
+     * The results of one quiz that are sent with a token bucket: tokens are added with the rate of the quiz and every sent result takes one token. The bucket holds at most the
+     * tokens of one tick, so that results are never sent in bursts.
+     */
+    private static final class FanOut {
+
+        private final long quizExerciseId;
+
+        private final Deque<Delivery> pending;
+
+        private final int size;
+
+        private final double ratePerMilli;
+
+        private final double capacity;
+
+        private final long startedAt;
+
+        private double tokens;
+
+        private long lastRefill;
+
+        private FanOut(long quizExerciseId, Deque<Delivery> pending, double ratePerMilli, long startedAt) {
+            this.quizExerciseId = quizExerciseId;
+            this.pending = pending;
+            this.size = pending.size();
+            this.ratePerMilli = ratePerMilli;
+            this.capacity = Math.max(1, ratePerMilli * TICK_MILLIS);
+            this.startedAt = startedAt;
+            this.lastRefill = startedAt;
+        }
+
+        private void refill(long now) {
+            if (now > lastRefill) {
+                tokens = Math.min(capacity, tokens + (now - lastRefill) * ratePerMilli);
+                lastRefill = now;
+            }
+        }
+    }
+
+    private static final class Delivery {
+
+        private final String username;
+
+        private final byte[] payload;
+
+        private Delivery(String username, byte[] payload) {
+            this.username = username;
+            this.payload = payload;
+        }
+    }
+
+    private static final class RetainedResult {
+
+        private final byte[] payload;
+
+        private final long retainedUntil;
+
+        private RetainedResult(byte[] payload, long retainedUntil) {
+            this.payload = payload;
+            this.retainedUntil = retainedUntil;
+        }
+    }
+}
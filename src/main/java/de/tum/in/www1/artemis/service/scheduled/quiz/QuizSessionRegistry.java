@@ -0,0 +1,190 @@
+package de.tum.in.www1.artemis.service.scheduled.quiz;
+
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import de.tum.in.www1.artemis.config.Constants;
+import de.tum.in.www1.artemis.domain.quiz.QuizExercise;
+import de.tum.in.www1.artemis.repository.QuizExerciseRepository;
+import de.tum.in.www1.artemis.repository.StudentParticipationRepository;
+
+/**
+ * Keeps the state of running quizzes that is needed to decide whether a student may still change the submission, so that saving a submission over websocket does not access
+ * the database. The session of a quiz contains the time window in which submissions are allowed and the users who have already submitted the quiz. It is registered when the
+ * quiz starts and loaded from the database when it is accessed for the first time otherwise (e.g. after a restart or after the quiz was changed).
+ */
+@Service
+public class QuizSessionRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(QuizSessionRegistry.class);
+
+    /**
+     * quizExerciseId -> QuizSession
+     */
+    private final Map<Long, QuizSession> sessions = new ConcurrentHashMap<>();
+
+    private final QuizExerciseRepository quizExerciseRepository;
+
+    private final StudentParticipationRepository studentParticipationRepository;
+
+    public QuizSessionRegistry(QuizExerciseRepository quizExerciseRepository, StudentParticipationRepository studentParticipationRepository) {
+        this.quizExerciseRepository = quizExerciseRepository;
+        this.studentParticipationRepository = studentParticipationRepository;
+    }
+
+    /**
+     * Get the session of the given quiz, the session is only loaded from the database (DB Read) if it is not registered yet
+     *
+     * @param quizExerciseId the id of the quiz exercise
+     * @return the session of the quiz or an empty optional if the quiz does not exist
+     */
+    public Optional<QuizSession> getSession(Long quizExerciseId) {
+        if (quizExerciseId == null) {
+            return Optional.empty();
+        }
+        QuizSession session = sessions.get(quizExerciseId);
+        if (session != null) {
+            return Optional.of(session);
+        }
+        // the users who have submitted are loaded while the entry is locked, so that markSubmitted() waits for the session and no submission is missed
+        return Optional.ofNullable(sessions.computeIfAbsent(quizExerciseId, id -> quizExerciseRepository.findById(id).map(this::loadSession).orElse(null)));
+    }
+
+    /**
+     * Register the session of the given quiz (DB Read), this is invoked when the quiz starts
+     *
+     * @param quizExercise the quiz exercise that starts
+     */
+    public void register(QuizExercise quizExercise) {
+        if (quizExercise.getId() == null) {
+            return;
+        }
+        sessions.compute(quizExercise.getId(), (id, oldSession) -> loadSession(quizExercise));
+    }
+
+    /**
+     * Add the user to the users who have submitted the quiz, this has to be invoked after the submitted submission of the user has been saved to the database
+     *
+     * @param quizExerciseId the id of the quiz exercise
+     * @param username       the user who has submitted the quiz
+     */
+    public void markSubmitted(Long quizExerciseId, String username) {
+        if (quizExerciseId == null || username == null) {
+            return;
+        }
+        // if the session is not loaded yet, the submission is loaded from the database together with the session
+        sessions.computeIfPresent(quizExerciseId, (id, session) -> {
+            session.submittedUsers.add(username);
+            return session;
+        });
+    }
+
+    /**
+     * Remove the session of the given quiz, this has to be invoked whenever the quiz is changed (it is loaded again on the next access) or when it is not needed anymore
+     *
+     * @param quizExerciseId the id of the quiz exercise
+     */
+    public void evict(Long quizExerciseId) {
+        if (quizExerciseId != null) {
+            sessions.remove(quizExerciseId);
+        }
+    }
+
+    /**
+     * Remove the sessions of all quizzes
+     */
+    public void clear() {
+        sessions.clear();
+    }
+
+    private QuizSession loadSession(QuizExercise quizExercise) {
+        long start = System.currentTimeMillis();
+        Set<String> submittedUsers = ConcurrentHashMap.newKeySet();
+        submittedUsers.addAll(studentParticipationRepository.findStudentLoginsWithSubmittedSubmissionByExerciseId(quizExercise.getId()));
+        log.debug("Loaded session of quiz {} with {} submitted users in {} ms", quizExercise.getId(), submittedUsers.size(), System.currentTimeMillis() - start);
+        return new QuizSession(quizExercise, submittedUsers);
+    }
+
+    /**
+     * The state of a quiz which is needed while students save their submissions
+     */
+    public static final class QuizSession {
+
+        private final Long quizExerciseId;
+
+        private final String title;
+
+        private final ZonedDateTime releaseDate;
+
+        /**
+         * null, if the quiz is not planned to start
+         */
+        private final ZonedDateTime dueDate;
+
+        /**
+         * the working time of each student in seconds
+         */
+        private final Integer duration;
+
+        private final Set<String> submittedUsers;
+
+        QuizSession(QuizExercise quizExercise, Set<String> submittedUsers) {
+            this.quizExerciseId = quizExercise.getId();
+            this.title = quizExercise.getTitle();
+            this.releaseDate = quizExercise.getReleaseDate();
+            this.dueDate = Boolean.TRUE.equals(quizExercise.isIsPlannedToStart()) ? quizExercise.getDueDate() : null;
+            this.duration = quizExercise.getDuration();
+            this.submittedUsers = submittedUsers;
+        }
+
+        public Long getQuizExerciseId() {
+            return quizExerciseId;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        /**
+         * Check if submissions for this quiz are allowed at the given time, see {@link QuizExercise#isSubmissionAllowed()}
+         *
+         * @param now the current time
+         * @return true if submissions are allowed, false otherwise
+         */
+        public boolean isSubmissionAllowed(ZonedDateTime now) {
+            return dueDate != null && now.isAfter(releaseDate) && ChronoUnit.SECONDS.between(now, dueDate) + Constants.QUIZ_GRACE_PERIOD_IN_SECONDS > 0;
+        }
+
+        /**
+         * Get the end of the working time of a student who opens the quiz at the given time: the student can work for the duration of the quiz, but not after the quiz has ended
+         *
+         * @param startDate the time at which the student opens the quiz
+         * @return the end of the working time or null if the quiz is not planned to start
+         */
+        public ZonedDateTime getIndividualDueDate(ZonedDateTime startDate) {
+            if (dueDate == null || duration == null) {
+                return null;
+            }
+            ZonedDateTime individualDueDate = startDate.plusSeconds(duration);
+            return individualDueDate.isBefore(dueDate) ? individualDueDate : dueDate;
+        }
+
+        /**
+         * Check if the given user has already submitted the quiz, submissions that are not processed yet are not included
+         *
+         * @param username the username of the user
+         * @return true if a submitted submission of the user has been saved, false otherwise
+         */
+        public boolean hasSubmitted(String username) {
+            return submittedUsers.contains(username);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package de.tum.in.www1.artemis.service.scheduled.quiz;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+import de.tum.in.www1.artemis.domain.Result;
+import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
+
+/**
+ * Keeps the live state of running quizzes that is created while their submissions are processed: the participations that are sent to the students when the quiz has ended and
+ * the results that still have to be added to the quiz statistics. The buffered submissions are kept in the {@link QuizSubmissionStore}.
+ *
+ * Each quiz is processed by exactly one node, its owner, see {@link #isOwner(Long)}.
+ */
+public interface QuizState {
+
+    /**
+     * Check if this node processes the submissions, participations and results of the given quiz
+     *
+     * @param quizExerciseId the id of the quiz
+     * @return true if this node owns the quiz, false if another node processes it
+     */
+    boolean isOwner(Long quizExerciseId);
+
+    /**
+     * Add the participation of a student who has submitted the quiz, it is sent to the student when the quiz has ended
+     *
+     * @param quizExerciseId the id of the quiz the participation belongs to
+     * @param participation  the participation including its result
+     */
+    void addParticipation(Long quizExerciseId, StudentParticipation participation);
+
+    /**
+     * Get the participation of the given user
+     *
+     * @param quizExerciseId the id of the quiz the participation belongs to
+     * @param username       the username of the user, the participation belongs to
+     * @return the participation or null if there is none
+     */
+    StudentParticipation getParticipation(Long quizExerciseId, String username);
+
+    /**
+     * Remove all participations of the given quiz, e.g. to send them to the students
+     *
+     * @param quizExerciseId the id of the quiz
+     * @return the removed participations (empty if there are none)
+     */
+    Collection<StudentParticipation> removeParticipations(Long quizExerciseId);
+
+    /**
+     * Add a result for a statistic update, this should only be invoked once, when the quiz was submitted
+     *
+     * @param quizExerciseId the id of the quiz the result belongs to
+     * @param result         the result which should be added
+     */
+    void addResult(Long quizExerciseId, Result result);
+
+    /**
+     * Remove all results of the given quiz, e.g. to update the statistics with them
+     *
+     * @param quizExerciseId the id of the quiz
+     * @return the removed results (empty if there are none)
+     */
+    Set<Result> removeResults(Long quizExerciseId);
+
+    /**
+     * @return the ids of all quizzes with participations
+     */
+    Set<Long> getQuizExerciseIdsWithParticipations();
+
+    /**
+     * @return the ids of all quizzes with results
+     */
+    Set<Long> getQuizExerciseIdsWithResults();
+
+    /**
+     * Send the results of an ended quiz to its participants with the {@link QuizResultFanOut}
+     *
+     * @param quizExerciseId     the id of the ended quiz
+     * @param payloadsByUsername username -> serialized participation with the result of the user
+     */
+    void sendResults(Long quizExerciseId, Map<String, byte[]> payloadsByUsername);
+
+    /**
+     * Remove all participations and results of the given quiz, e.g. because the quiz was deleted
+     *
+     * @param quizExerciseId the id of the quiz
+     */
+    void removeQuiz(Long quizExerciseId);
+
+    /**
+     * Remove all participations and results of all quizzes
+     */
+    void clear();
+}
@@ -0,0 +1,359 @@
+package de.tum.in.www1.artemis.service.scheduled.quiz;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import de.tum.in.www1.artemis.domain.Result;
+import de.tum.in.www1.artemis.domain.SubmittedAnswer;
+import de.tum.in.www1.artemis.domain.quiz.*;
+import de.tum.in.www1.artemis.repository.QuizQuestionStatisticRepository;
+import de.tum.in.www1.artemis.repository.StatisticCounterRepository;
+import de.tum.in.www1.artemis.repository.StatisticRepository;
+import de.tum.in.www1.artemis.service.QuizExerciseService;
+
+/**
+ * Aggregates the statistics of running quizzes in memory. The statistics of a quiz are loaded once from the database, afterwards new results only change in-memory counters,
+ * which can be updated concurrently without locks. {@link #flush(Long)} writes the changes since the last flush to the database with relative updates (counter = counter +
+ * delta), so that the statistics never have to be loaded and saved as a whole while the quiz is running.
+ */
+@Service
+public class QuizStatisticAggregator {
+
+    private static final Logger log = LoggerFactory.getLogger(QuizStatisticAggregator.class);
+
+    /**
+     * quizExerciseId -> aggregated statistics of the quiz
+     */
+    private final Map<Long, AggregatedQuizStatistics> aggregatedStatistics = new ConcurrentHashMap<>();
+
+    private final QuizExerciseService quizExerciseService;
+
+    private final StatisticRepository statisticRepository;
+
+    private final QuizQuestionStatisticRepository quizQuestionStatisticRepository;
+
+    private final StatisticCounterRepository statisticCounterRepository;
+
+    public QuizStatisticAggregator(QuizExerciseService quizExerciseService, StatisticRepository statisticRepository,
+            QuizQuestionStatisticRepository quizQuestionStatisticRepository, StatisticCounterRepository statisticCounterRepository) {
+        this.quizExerciseService = quizExerciseService;
+        this.statisticRepository = statisticRepository;
+        this.quizQuestionStatisticRepository = quizQuestionStatisticRepository;
+        this.statisticCounterRepository = statisticCounterRepository;
+    }
+
+    /**
+     * Get the quiz exercise (including questions and statistics) the statistics of the given quiz are aggregated for. The quiz is loaded from the database the first time it is
+     * requested. The returned quiz must not be modified, because it is used to evaluate the results.
+     *
+     * @param quizExerciseId the id of the quiz exercise
+     * @return the quiz exercise or null if it does not exist
+     */
+    public QuizExercise getQuizExercise(Long quizExerciseId) {
+        AggregatedQuizStatistics statistics = getAggregatedStatistics(quizExerciseId);
+        return statistics != null ? statistics.quizExercise : null;
+    }
+
+    /**
+     * Add the given result to all aggregated statistics of its quiz
+     *
+     * @param quizExerciseId the id of the quiz exercise the result belongs to
+     * @param result         the result (including its submission) which should be added
+     */
+    public void addResult(Long quizExerciseId, Result result) {
+        changeStatisticsBasedOnResult(quizExerciseId, result, 1);
+    }
+
+    /**
+     * Remove the given result from all aggregated statistics of its quiz
+     *
+     * @param quizExerciseId the id of the quiz exercise the result belongs to
+     * @param result         the result (including its submission) which should be removed
+     */
+    public void removeResult(Long quizExerciseId, Result result) {
+        changeStatisticsBasedOnResult(quizExerciseId, result, -1);
+    }
+
+    private void changeStatisticsBasedOnResult(Long quizExerciseId, Result result, int change) {
+        AggregatedQuizStatistics statistics = getAggregatedStatistics(quizExerciseId);
+        if (statistics == null || result == null) {
+            return;
+        }
+        boolean rated = Boolean.TRUE.equals(result.isRated());
+        QuizExercise quizExercise = statistics.quizExercise;
+
+        // the same values as in QuizPointStatistic.addResult(...) and QuizQuestionStatistic.addResult(...) are changed
+        if (result.getScore() != null) {
+            QuizPointStatistic quizPointStatistic = quizExercise.getQuizPointStatistic();
+            statistics.participants(quizPointStatistic).add(rated, change);
+            for (PointCounter pointCounter : quizPointStatistic.findCountersToChange(result.getScore())) {
+                statistics.counter(pointCounter).add(rated, change);
+            }
+        }
+
+        QuizSubmission quizSubmission = (QuizSubmission) result.getSubmission();
+        if (quizSubmission == null) {
+            return;
+        }
+        for (QuizQuestion quizQuestion : quizExercise.getQuizQuestions()) {
+            QuizQuestionStatistic quizQuestionStatistic = quizQuestion.getQuizQuestionStatistic();
+            SubmittedAnswer submittedAnswer = quizSubmission.getSubmittedAnswerForQuestion(quizQuestion);
+            if (quizQuestionStatistic == null || submittedAnswer == null) {
+                continue;
+            }
+            statistics.participants(quizQuestionStatistic).add(rated, change);
+            for (QuizStatisticCounter counter : quizQuestionStatistic.findCountersToChange(submittedAnswer)) {
+                statistics.counter(counter).add(rated, change);
+            }
+            if (quizQuestion.isAnswerCorrect(submittedAnswer)) {
+                statistics.correctCounter(quizQuestionStatistic).add(rated, change);
+            }
+        }
+    }
+
+    /**
+     * Write all changes of the aggregated statistics of the given quiz since the last flush to the database. If the changes cannot be written, they are kept for the next flush.
+     *
+     * @param quizExerciseId the id of the quiz exercise
+     * @return the number of updated rows
+     */
+    @Transactional
+    public int flush(Long quizExerciseId) {
+        AggregatedQuizStatistics statistics = aggregatedStatistics.get(quizExerciseId);
+        if (statistics == null) {
+            return 0;
+        }
+        List<Runnable> undoActions = new ArrayList<>();
+        try {
+            flush(statistics.participants, statisticRepository::incrementParticipants, undoActions);
+            flush(statistics.correctCounters, quizQuestionStatisticRepository::incrementCorrectCounters, undoActions);
+            flush(statistics.counters, statisticCounterRepository::incrementCounters, undoActions);
+        }
+        catch (RuntimeException e) {
+            // the transaction is rolled back, so the changes have to be flushed again
+            undoActions.forEach(Runnable::run);
+            throw e;
+        }
+        log.debug("Flushed {} changed statistic rows of quiz {}", undoActions.size(), quizExerciseId);
+        return undoActions.size();
+    }
+
+    private void flush(Map<Long, Cell> cells, RowUpdate rowUpdate, List<Runnable> undoActions) {
+        for (var entry : cells.entrySet()) {
+            Cell cell = entry.getValue();
+            long ratedDelta = cell.ratedPending.sumThenReset();
+            long unRatedDelta = cell.unRatedPending.sumThenReset();
+            if (ratedDelta != 0 || unRatedDelta != 0) {
+                undoActions.add(() -> {
+                    cell.ratedPending.add(ratedDelta);
+                    cell.unRatedPending.add(unRatedDelta);
+                });
+                rowUpdate.increment(entry.getKey(), (int) ratedDelta, (int) unRatedDelta);
+            }
+        }
+    }
+
+    /**
+     * Adds the given deltas to the rated and unrated value of a row
+     */
+    @FunctionalInterface
+    private interface RowUpdate {
+
+        void increment(Long id, int ratedDelta, int unRatedDelta);
+    }
+
+    /**
+     * Get the current statistics of the given quiz for the websocket, i.e. the quiz without any information about the correct answers, but with the aggregated values in all
+     * statistics. The returned quiz is shared between calls and is only updated by this method.
+     *
+     * @param quizExerciseId the id of the quiz exercise
+     * @return the quiz with the current statistics or null if the statistics of the quiz are not aggregated
+     */
+    public QuizExercise getStatisticsForWebsocket(Long quizExerciseId) {
+        AggregatedQuizStatistics statistics = aggregatedStatistics.get(quizExerciseId);
+        if (statistics == null) {
+            return null;
+        }
+        QuizExercise quizForWebsocket = statistics.quizForWebsocket;
+        statistics.applyTo(quizForWebsocket.getQuizPointStatistic());
+        for (QuizQuestion quizQuestion : quizForWebsocket.getQuizQuestions()) {
+            statistics.applyTo(quizQuestion.getQuizQuestionStatistic());
+        }
+        return quizForWebsocket;
+    }
+
+    /**
+     * Discard the aggregated statistics of the given quiz without flushing them, e.g. because the statistics were recalculated or the quiz was deleted. They are loaded again the
+     * next time they are needed.
+     *
+     * @param quizExerciseId the id of the quiz exercise
+     */
+    public void evict(Long quizExerciseId) {
+        aggregatedStatistics.remove(quizExerciseId);
+    }
+
+    /**
+     * Discard the aggregated statistics of all quizzes without flushing them
+     */
+    public void clear() {
+        aggregatedStatistics.clear();
+    }
+
+    private AggregatedQuizStatistics getAggregatedStatistics(Long quizExerciseId) {
+        AggregatedQuizStatistics statistics = aggregatedStatistics.get(quizExerciseId);
+        if (statistics != null) {
+            return statistics;
+        }
+        // the quiz is loaded twice, because the copy that is sent to the clients is filtered and could not be used to evaluate results anymore
+        QuizExercise quizExercise = quizExerciseService.findOneWithQuestionsAndStatistics(quizExerciseId);
+        QuizExercise quizForWebsocket = quizExerciseService.findOneWithQuestionsAndStatistics(quizExerciseId);
+        if (quizExercise == null || quizForWebsocket == null || quizExercise.getQuizPointStatistic() == null) {
+            return null;
+        }
+        quizForWebsocket.filterForStatisticWebsocket();
+        return aggregatedStatistics.computeIfAbsent(quizExerciseId, id -> new AggregatedQuizStatistics(quizExercise, quizForWebsocket));
+    }
+
+    /**
+     * Get the counters of the given statistic
+     *
+     * @param statistic the QuizPointStatistic or QuizQuestionStatistic
+     * @return the PointCounters, AnswerCounters, DropLocationCounters or ShortAnswerSpotCounters of the statistic
+     */
+    static Iterable<? extends QuizStatisticCounter> countersOf(QuizStatistic statistic) {
+        if (statistic instanceof QuizPointStatistic) {
+            return ((QuizPointStatistic) statistic).getPointCounters();
+        }
+        else if (statistic instanceof MultipleChoiceQuestionStatistic) {
+            return ((MultipleChoiceQuestionStatistic) statistic).getAnswerCounters();
+        }
+        else if (statistic instanceof DragAndDropQuestionStatistic) {
+            return ((DragAndDropQuestionStatistic) statistic).getDropLocationCounters();
+        }
+        else if (statistic instanceof ShortAnswerQuestionStatistic) {
+            return ((ShortAnswerQuestionStatistic) statistic).getShortAnswerSpotCounters();
+        }
+        return List.of();
+    }
+
+    /**
+     * The aggregated statistics of one quiz. All values are addressed by the id of the row they are stored in.
+     */
+    private static class AggregatedQuizStatistics {
+
+        private final QuizExercise quizExercise;
+
+        private final QuizExercise quizForWebsocket;
+
+        /**
+         * statisticId -> participants of the QuizPointStatistic or QuizQuestionStatistic
+         */
+        private final Map<Long, Cell> participants = new ConcurrentHashMap<>();
+
+        /**
+         * statisticId -> correct counters of the QuizQuestionStatistic
+         */
+        private final Map<Long, Cell> correctCounters = new ConcurrentHashMap<>();
+
+        /**
+         * counterId -> PointCounter, AnswerCounter, DropLocationCounter or ShortAnswerSpotCounter
+         */
+        private final Map<Long, Cell> counters = new ConcurrentHashMap<>();
+
+        private AggregatedQuizStatistics(QuizExercise quizExercise, QuizExercise quizForWebsocket) {
+            this.quizExercise = quizExercise;
+            this.quizForWebsocket = quizForWebsocket;
+        }
+
+        private Cell participants(QuizStatistic statistic) {
+            return participants.computeIfAbsent(statistic.getId(), id -> new Cell(statistic.getParticipantsRated(), statistic.getParticipantsUnrated()));
+        }
+
+        private Cell correctCounter(QuizQuestionStatistic statistic) {
+            return correctCounters.computeIfAbsent(statistic.getId(), id -> new Cell(statistic.getRatedCorrectCounter(), statistic.getUnRatedCorrectCounter()));
+        }
+
+        private Cell counter(QuizStatisticCounter counter) {
+            return counters.computeIfAbsent(counter.getId(), id -> new Cell(counter.getRatedCounter(), counter.getUnRatedCounter()));
+        }
+
+        /**
+         * Write the current values into the given statistic (and its counters), values that have not changed since the statistics were loaded are left as they are
+         */
+        private void applyTo(QuizStatistic statistic) {
+            if (statistic == null) {
+                return;
+            }
+            Cell participantsCell = participants.get(statistic.getId());
+            if (participantsCell != null) {
+                statistic.setParticipantsRated(participantsCell.getRated());
+                statistic.setParticipantsUnrated(participantsCell.getUnRated());
+            }
+            if (statistic instanceof QuizQuestionStatistic) {
+                QuizQuestionStatistic questionStatistic = (QuizQuestionStatistic) statistic;
+                Cell correctCell = correctCounters.get(statistic.getId());
+                if (correctCell != null) {
+                    questionStatistic.setRatedCorrectCounter(correctCell.getRated());
+                    questionStatistic.setUnRatedCorrectCounter(correctCell.getUnRated());
+                }
+            }
+            for (QuizStatisticCounter counter : countersOf(statistic)) {
+                Cell counterCell = counters.get(counter.getId());
+                if (counterCell != null) {
+                    counter.setRatedCounter(counterCell.getRated());
+                    counter.setUnRatedCounter(counterCell.getUnRated());
+                }
+            }
+        }
+    }
+
+    /**
+     * A rated and an unrated value: the value that was loaded from the database plus all changes since then. The changes that have not been flushed yet are tracked separately.
+     */
+    private static class Cell {
+
+        private final int ratedBase;
+
+        private final int unRatedBase;
+
+        private final LongAdder ratedChanges = new LongAdder();
+
+        private final LongAdder unRatedChanges = new LongAdder();
+
+        private final LongAdder ratedPending = new LongAdder();
+
+        private final LongAdder unRatedPending = new LongAdder();
+
+        private Cell(Integer ratedBase, Integer unRatedBase) {
+            this.ratedBase = ratedBase != null ? ratedBase : 0;
+            this.unRatedBase = unRatedBase != null ? unRatedBase : 0;
+        }
+
+        private void add(boolean rated, int change) {
+            if (rated) {
+                ratedChanges.add(change);
+                ratedPending.add(change);
+            }
+            else {
+                unRatedChanges.add(change);
+                unRatedPending.add(change);
+            }
+        }
+
+        private int getRated() {
+            return ratedBase + ratedChanges.intValue();
+        }
+
+        private int getUnRated() {
+            return unRatedBase + unRatedChanges.intValue();
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package de.tum.in.www1.artemis.service.scheduled.quiz;
+
+import java.security.Principal;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.LongSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+import de.tum.in.www1.artemis.domain.quiz.*;
+import de.tum.in.www1.artemis.web.websocket.dto.QuizStatisticUpdateDTO;
+import de.tum.in.www1.artemis.web.websocket.dto.QuizStatisticUpdateDTO.CounterValues;
+import de.tum.in.www1.artemis.web.websocket.dto.QuizStatisticUpdateDTO.StatisticValues;
+
+/**
+ * Sends the live statistics of running quizzes to the instructors. Instead of sending the whole quiz after every statistic update, the updates of a quiz are coalesced: only
+ * the latest statistics are kept and sent at most once per interval, and only the statistics and counters that have changed since the previous update are sent to
+ * /topic/statistic/{quizExerciseId}. A client that subscribes to /user/topic/statistic/{quizExerciseId} receives all values of the latest update, so that it does not miss the
+ * values that were sent before it subscribed.
+ */
+public class QuizStatisticPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(QuizStatisticPublisher.class);
+
+    /**
+     * the delay in ms after a subscription before the latest statistics are sent, so that the subscription is registered at the broker
+     */
+    static final long REPLAY_DELAY_MILLIS = 500;
+
+    /**
+     * the time in ms the latest statistics of a quiz are kept for late subscribers after the last update
+     */
+    static final long RETENTION_MILLIS = 10 * 60 * 1000;
+
+    private static final Pattern REPLAY_DESTINATION = Pattern.compile("^/user/topic/statistic/(\\d+)$");
+
+    private final SimpMessageSendingOperations messagingTemplate;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final LongSupplier clock;
+
+    /**
+     * quizExerciseId -> the latest statistics, which have not been sent yet
+     */
+    private final Map<Long, Snapshot> pendingSnapshots = new ConcurrentHashMap<>();
+
+    /**
+     * quizExerciseId -> the statistics which have been sent last, they are only changed by the thread of the scheduler
+     */
+    private final Map<Long, PublishedSnapshot> publishedSnapshots = new ConcurrentHashMap<>();
+
+    /**
+     * Create the publisher, which sends the latest statistics of each quiz every intervalMillis ms
+     *
+     * @param messagingTemplate the template the statistics are sent with
+     * @param intervalMillis    the minimal time in ms between two updates of the statistics of a quiz
+     */
+    public QuizStatisticPublisher(SimpMessageSendingOperations messagingTemplate, long intervalMillis) {
+        this(messagingTemplate, Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("QuizStatisticPublisher-")), System::currentTimeMillis);
+        if (intervalMillis < 1) {
+            throw new IllegalArgumentException("Invalid quiz statistic update interval: " + intervalMillis + " ms");
+        }
+        scheduler.scheduleAtFixedRate(this::tick, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    QuizStatisticPublisher(SimpMessageSendingOperations messagingTemplate, ScheduledExecutorService scheduler, LongSupplier clock) {
+        this.messagingTemplate = messagingTemplate;
+        this.scheduler = scheduler;
+        this.clock = clock;
+    }
+
+    /**
+     * Publish the current statistics of the given quiz. The values are copied right away, they are sent with the next update (unless they are replaced by newer statistics).
+     *
+     * @param quizExerciseId   the id of the quiz exercise
+     * @param quizForWebsocket the quiz with the current statistics, filtered for the websocket
+     */
+    public void publish(long quizExerciseId, QuizExercise quizForWebsocket) {
+        if (quizForWebsocket != null) {
+            pendingSnapshots.put(quizExerciseId, Snapshot.of(quizForWebsocket));
+        }
+    }
+
+    /**
+     * Discard the pending and the latest statistics of the given quiz, e.g. because the quiz was deleted
+     *
+     * @param quizExerciseId the id of the quiz exercise
+     */
+    public void evict(long quizExerciseId) {
+        pendingSnapshots.remove(quizExerciseId);
+        publishedSnapshots.remove(quizExerciseId);
+    }
+
+    /**
+     * Discard the pending and the latest statistics of all quizzes
+     */
+    public void clear() {
+        pendingSnapshots.clear();
+        publishedSnapshots.clear();
+    }
+
+    /**
+     * Stop sending statistics, pending statistics are discarded
+     */
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+
+    /**
+     * Send all values of the latest statistics of a quiz when a client subscribes to the statistic replay topic of the quiz
+     *
+     * @param event the subscribe event of a websocket session
+     */
+    @EventListener
+    public void handleSubscribe(SessionSubscribeEvent event) {
+        Principal user = event.getUser();
+        String destination = StompHeaderAccessor.wrap(event.getMessage()).getDestination();
+        if (user == null || destination == null) {
+            return;
+        }
+        Matcher matcher = REPLAY_DESTINATION.matcher(destination);
+        if (matcher.matches()) {
+            long quizExerciseId = Long.parseLong(matcher.group(1));
+            scheduler.schedule(() -> replay(quizExerciseId, user.getName()), REPLAY_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Send the changed values of the pending statistics of each quiz, afterwards remove the latest statistics that have expired
+     */
+    void tick() {
+        long now = clock.getAsLong();
+        try {
+            for (Long quizExerciseId : pendingSnapshots.keySet()) {
+                Snapshot snapshot = pendingSnapshots.remove(quizExerciseId);
+                if (snapshot != null) {
+                    send(quizExerciseId, snapshot, now);
+                }
+            }
+            publishedSnapshots.values().removeIf(publishedSnapshot -> publishedSnapshot.publishedAt + RETENTION_MILLIS <= now);
+        }
+        catch (Exception e) {
+            // the scheduler would not run the tick again after an exception
+            log.error("Exception while sending quiz statistics", e);
+        }
+    }
+
+    private void send(long quizExerciseId, Snapshot snapshot, long now) {
+        PublishedSnapshot previous = publishedSnapshots.get(quizExerciseId);
+        Snapshot previousSnapshot = previous != null ? previous.snapshot : Snapshot.EMPTY;
+        List<StatisticValues> changedStatistics = snapshot.statistics.values().stream().filter(values -> !values.equals(previousSnapshot.statistics.get(values.getId())))
+                .collect(Collectors.toList());
+        List<CounterValues> changedCounters = snapshot.counters.values().stream().filter(values -> !values.equals(previousSnapshot.counters.get(values.getId())))
+                .collect(Collectors.toList());
+        if (changedStatistics.isEmpty() && changedCounters.isEmpty()) {
+            if (previous != null) {
+                previous.publishedAt = now;
+            }
+            return;
+        }
+        // the version follows the current time (in ms), so the versions of a quiz also increase if a new sequence of updates starts with an empty state, e.g. after an eviction,
+        // the expiry of the retention, a restart or a new owner of the quiz in the cluster
+        long version = previous != null ? Math.max(previous.version + 1, now) : now;
+        // the first update of a quiz contains all values
+        messagingTemplate.convertAndSend(getDestination(quizExerciseId), new QuizStatisticUpdateDTO(version, previous == null, changedStatistics, changedCounters));
+        publishedSnapshots.put(quizExerciseId, new PublishedSnapshot(snapshot, version, now));
+        log.debug("Sent {} changed statistics and {} changed counters of quiz {}", changedStatistics.size(), changedCounters.size(), quizExerciseId);
+    }
+
+    private void replay(long quizExerciseId, String username) {
+        PublishedSnapshot published = publishedSnapshots.get(quizExerciseId);
+        if (published == null) {
+            return;
+        }
+        QuizStatisticUpdateDTO update = new QuizStatisticUpdateDTO(published.version, true, new ArrayList<>(published.snapshot.statistics.values()),
+                new ArrayList<>(published.snapshot.counters.values()));
+        try {
+            messagingTemplate.convertAndSendToUser(username, getDestination(quizExerciseId), update);
+        }
+        catch (Exception e) {
+            log.warn("Could not send the statistics of quiz {} to user {}: {}", quizExerciseId, username, e.getMessage());
+        }
+    }
+
+    private static String getDestination(long quizExerciseId) {
+        return "/topic/statistic/" + quizExerciseId;
+    }
+
+    /**
+     * The values of all statistics and counters of a quiz at one point in time
+     */
+    private static final class Snapshot {
+
+        private static final Snapshot EMPTY = new Snapshot();
+
+        /**
+         * statisticId -> values of the QuizPointStatistic or QuizQuestionStatistic
+         */
+        private final Map<Long, StatisticValues> statistics = new LinkedHashMap<>();
+
+        /**
+         * counterId -> values of the counter
+         */
+        private final Map<Long, CounterValues> counters = new LinkedHashMap<>();
+
+        private static Snapshot of(QuizExercise quizExercise) {
+            Snapshot snapshot = new Snapshot();
+            snapshot.add(quizExercise.getQuizPointStatistic());
+            if (quizExercise.getQuizQuestions() != null) {
+                for (QuizQuestion quizQuestion : quizExercise.getQuizQuestions()) {
+                    snapshot.add(quizQuestion.getQuizQuestionStatistic());
+                }
+            }
+            return snapshot;
+        }
+
+        private void add(QuizStatistic statistic) {
+            if (statistic == null || statistic.getId() == null) {
+                return;
+            }
+            if (statistic instanceof QuizQuestionStatistic) {
+                QuizQuestionStatistic questionStatistic = (QuizQuestionStatistic) statistic;
+                statistics.put(statistic.getId(), new StatisticValues(statistic.getId(), statistic.getParticipantsRated(), statistic.getParticipantsUnrated(),
+                        questionStatistic.getRatedCorrectCounter(), questionStatistic.getUnRatedCorrectCounter()));
+            }
+            else {
+                statistics.put(statistic.getId(), new StatisticValues(statistic.getId(), statistic.getParticipantsRated(), statistic.getParticipantsUnrated(), null, null));
+            }
+            for (QuizStatisticCounter counter : QuizStatisticAggregator.countersOf(statistic)) {
+                if (counter.getId() != null) {
+                    counters.put(counter.getId(), new CounterValues(counter.getId(), counter.getRatedCounter(), counter.getUnRatedCounter()));
+                }
+            }
+        }
+    }
+
+    /**
+     * The statistics of a quiz which have been sent last
+     */
+    private static final class PublishedSnapshot {
+
+        private final Snapshot snapshot;
+
+        private final long version;
+
+        private long publishedAt;
+
+        private PublishedSnapshot(Snapshot snapshot, long version, long publishedAt) {
+            this.snapshot = snapshot;
+            this.version = version;
+            this.publishedAt = publishedAt;
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package de.tum.in.www1.artemis.service.scheduled.quiz;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Append-only, memory-mapped journal of the buffered submissions of one quiz. Each record has the layout
+ *
+ * <pre>
+ * int length | byte type | short usernameLength | username (UTF-8) | payload
+ * </pre>
+ *
+ * where length counts all bytes after the length field. The length is written last, so a record that was only partially written when the server crashed is ignored during
+ * replay. The unused part of the file is zero-filled, a length of 0 therefore marks the end of the journal.
+ *
+ * NOTE: this class is not thread-safe, the caller has to synchronize on the journal instance.
+ */
+public class QuizSubmissionJournal implements Closeable {
+
+    static final byte PUT = 1;
+
+    static final byte REMOVE = 2;
+
+    private static final int HEADER_SIZE = Integer.BYTES + Byte.BYTES + Short.BYTES;
+
+    private static final int REGION_SIZE = 4 * 1024 * 1024;
+
+    private final Path path;
+
+    private FileChannel channel;
+
+    private MappedByteBuffer region;
+
+    private long regionStart;
+
+    private boolean closed;
+
+    private QuizSubmissionJournal(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Open the journal at the given path and position it behind the last complete record. The file is created if it does not exist yet.
+     *
+     * @param path the path of the journal file
+     * @return the opened journal
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    public static QuizSubmissionJournal open(Path path) throws IOException {
+        QuizSubmissionJournal journal = new QuizSubmissionJournal(path);
+        journal.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        journal.mapRegion(journal.findEnd(), REGION_SIZE);
+        return journal;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Append a record that stores the serialized submission of the given user
+     *
+     * @param username      the username of the user the submission belongs to
+     * @param payload       buffer containing the serialized submission
+     * @param payloadLength the number of valid bytes in the payload buffer
+     * @throws IOException if the journal cannot be extended
+     */
+    public void appendPut(String username, byte[] payload, int payloadLength) throws IOException {
+        append(PUT, username, payload, payloadLength);
+    }
+
+    /**
+     * Append a record that marks the submission of the given user as removed
+     *
+     * @param username the username of the user the submission belongs to
+     * @throws IOException if the journal cannot be extended
+     */
+    public void appendRemove(String username) throws IOException {
+        append(REMOVE, username, null, 0);
+    }
+
+    private void append(byte type, String username, byte[] payload, int payloadLength) throws IOException {
+        if (closed) {
+            throw new IOException("Journal " + path + " is already closed");
+        }
+        byte[] usernameBytes = username.getBytes(StandardCharsets.UTF_8);
+        int length = HEADER_SIZE - Integer.BYTES + usernameBytes.length + payloadLength;
+        // reserve space for the record and the end marker behind it
+        if (region.remaining() < 2 * Integer.BYTES + length) {
+            mapRegion(regionStart + region.position(), Math.max(REGION_SIZE, 2 * Integer.BYTES + length));
+        }
+        int start = region.position();
+        region.position(start + Integer.BYTES);
+        region.put(type);
+        region.putShort((short) usernameBytes.length);
+        region.put(usernameBytes);
+        if (payloadLength > 0) {
+            region.put(payload, 0, payloadLength);
+        }
+        // clear leftovers of a record that was only partially written before a crash
+        region.putInt(region.position(), 0);
+        // the length is written last, so that incomplete records are never replayed
+        region.putInt(start, length);
+    }
+
+    /**
+     * Replay all complete records of the journal in the order they have been written
+     *
+     * @param onPut    invoked with the username and the serialized submission for each stored submission
+     * @param onRemove invoked with the username for each removed submission
+     * @throws IOException if the journal cannot be read
+     */
+    public void replay(BiConsumer<String, byte[]> onPut, Consumer<String> onRemove) throws IOException {
+        long size = channel.size();
+        long position = 0;
+        while (position + HEADER_SIZE <= size) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(size - position, Integer.MAX_VALUE));
+            int offset = 0;
+            while (offset + HEADER_SIZE <= buffer.limit()) {
+                int length = buffer.getInt(offset);
+                if (length <= 0) {
+                    return;
+                }
+                if (offset + Integer.BYTES + length > buffer.limit()) {
+                    // the record continues behind the current mapping, remap starting at the record
+                    break;
+                }
+                byte type = buffer.get(offset + Integer.BYTES);
+                int usernameLength = buffer.getShort(offset + Integer.BYTES + Byte.BYTES);
+                byte[] record = new byte[length - Byte.BYTES - Short.BYTES];
+                buffer.position(offset + HEADER_SIZE);
+                buffer.get(record);
+                String username = new String(record, 0, usernameLength, StandardCharsets.UTF_8);
+                if (type == PUT) {
+                    onPut.accept(username, Arrays.copyOfRange(record, usernameLength, record.length));
+                }
+                else if (type == REMOVE) {
+                    onRemove.accept(username);
+                }
+                offset += Integer.BYTES + length;
+            }
+            if (offset == 0) {
+                // a single record larger than the mapping can only be the result of a corrupted length field
+                return;
+            }
+            position += offset;
+        }
+    }
+
+    /**
+     * Force all appended records to the storage device
+     *
+     * @throws IOException if the region cannot be written
+     */
+    public void force() throws IOException {
+        if (!closed) {
+            region.force();
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Replace the journal by a new file that only contains the given records. The new file is written next to the old one and moved over it atomically.
+     *
+     * @param writer writes the records that should be kept into the new journal
+     * @throws IOException if the new journal cannot be written
+     */
+    public void rewrite(JournalWriter writer) throws IOException {
+        Path compactedPath = path.resolveSibling(path.getFileName() + ".compact");
+        Files.deleteIfExists(compactedPath);
+        try (QuizSubmissionJournal compacted = open(compactedPath)) {
+            writer.writeTo(compacted);
+            compacted.force();
+        }
+        close();
+        Files.move(compactedPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        mapRegion(findEnd(), REGION_SIZE);
+        closed = false;
+    }
+
+    /**
+     * Close the journal and delete its file
+     *
+     * @throws IOException if the file cannot be deleted
+     */
+    public void delete() throws IOException {
+        close();
+        Files.deleteIfExists(path);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            region.force();
+            region = null;
+            channel.close();
+        }
+    }
+
+    /**
+     * @return the file position directly behind the last complete record
+     */
+    private long findEnd() throws IOException {
+        long size = channel.size();
+        long position = 0;
+        while (position + HEADER_SIZE <= size) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(size - position, Integer.MAX_VALUE));
+            int offset = 0;
+            while (offset + HEADER_SIZE <= buffer.limit()) {
+                int length = buffer.getInt(offset);
+                if (length <= 0 || offset + Integer.BYTES + length > buffer.limit()) {
+                    return position + offset;
+                }
+                offset += Integer.BYTES + length;
+            }
+            position += offset;
+        }
+        return position;
+    }
+
+    private void mapRegion(long start, int size) throws IOException {
+        if (region != null) {
+            region.force();
+        }
+        regionStart = start;
+        region = channel.map(FileChannel.MapMode.READ_WRITE, start, size);
+        if (channel.size() > start + Integer.BYTES) {
+            // overwrite the remainder of a partially written record
+            region.putInt(0, 0);
+        }
+    }
+
+    /**
+     * Writes the records of a compacted journal
+     */
+    @FunctionalInterface
+    public interface JournalWriter {
+
+        void writeTo(QuizSubmissionJournal journal) throws IOException;
+    }
+}
@@ -0,0 +1,345 @@
+package de.tum.in.www1.artemis.service.scheduled.quiz;
+
+import java.io.IOException;
+import java.security.Principal;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.tum.in.www1.artemis.web.websocket.dto.QuizSubmissionAckDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Limits the rate in which a user can save submissions of a quiz over the websocket, so that a few misbehaving clients cannot flood the server with saves. The saves of each
+ * user and quiz are admitted with a token bucket. Saves that exceed the rate are queued (in order) and released when the bucket has been refilled: a queued full submission
+ * replaces all saves queued before it, because it contains all answers, and changed answers are dropped if the queue is full. The client is then asked right away to send its
+ * full submission, otherwise the dropped change would be lost if it is the last one. The final save with which the user submits the quiz is always accepted right away.
+ *
+ * The limiter is registered as interceptor of the inbound channel of the websocket, so that throttled saves do not reach the controller.
+ */
+public class QuizSubmissionRateLimiter implements ChannelInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(QuizSubmissionRateLimiter.class);
+
+    /**
+     * the interval in ms in which tokens are added to the buckets and queued saves are released
+     */
+    static final long TICK_MILLIS = 100;
+
+    /**
+     * marks a save that is released from the queue, so that it passes the limiter
+     */
+    static final String RELEASED_HEADER = "quizSubmissionReleased";
+
+    private static final Pattern SUBMISSION_DESTINATION = Pattern.compile("^/topic/quizExercise/(\\d+)/submission(/delta)?$");
+
+    private final ObjectMapper objectMapper;
+
+    private final Supplier<SimpMessageSendingOperations> messagingTemplate;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final LongSupplier clock;
+
+    private final double ratePerMilli;
+
+    private final int burst;
+
+    /**
+     * quizExerciseId -> Map<username -> bucket>
+     */
+    private final Map<Long, Map<String, Bucket>> buckets = new ConcurrentHashMap<>();
+
+    private final Counter acceptedSaves;
+
+    private final Counter finalSaves;
+
+    private final Counter delayedSaves;
+
+    private final Counter collapsedSaves;
+
+    private final Counter droppedSaves;
+
+    /**
+     * Create the limiter and register its metrics "artemis.quiz.submission.saves" (tagged with the outcome) and "artemis.quiz.submission.queued"
+     *
+     * @param objectMapper      the object mapper used to recognize the final save of a submission
+     * @param messagingTemplate provides the template the client is asked for its full submission with, it is only requested when a change is dropped, as the template
+     *                          depends on the websocket configuration the limiter is registered in
+     * @param meterRegistry     the registry the metrics are published to
+     * @param savesPerSecond    the number of saves a user can send per second and quiz
+     * @param burst             the number of saves a user can send at once, also the maximal number of queued saves
+     */
+    public QuizSubmissionRateLimiter(ObjectMapper objectMapper, Supplier<SimpMessageSendingOperations> messagingTemplate, MeterRegistry meterRegistry, double savesPerSecond,
+            int burst) {
+        this(objectMapper, messagingTemplate, meterRegistry, savesPerSecond, burst,
+                Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("QuizSubmissionRateLimiter-")), System::currentTimeMillis);
+        scheduler.scheduleAtFixedRate(this::tick, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    QuizSubmissionRateLimiter(ObjectMapper objectMapper, Supplier<SimpMessageSendingOperations> messagingTemplate, MeterRegistry meterRegistry, double savesPerSecond, int burst,
+            ScheduledExecutorService scheduler, LongSupplier clock) {
+        if (savesPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Invalid quiz submission rate limit: " + savesPerSecond + " saves per second, burst " + burst);
+        }
+        this.objectMapper = objectMapper;
+        this.messagingTemplate = messagingTemplate;
+        this.ratePerMilli = savesPerSecond / 1000;
+        this.burst = burst;
+        this.scheduler = scheduler;
+        this.clock = clock;
+
+        acceptedSaves = saveCounter(meterRegistry, "accepted");
+        finalSaves = saveCounter(meterRegistry, "final");
+        delayedSaves = saveCounter(meterRegistry, "delayed");
+        collapsedSaves = saveCounter(meterRegistry, "collapsed");
+        droppedSaves = saveCounter(meterRegistry, "dropped");
+        Gauge.builder("artemis.quiz.submission.queued", this, QuizSubmissionRateLimiter::getQueuedSaves).description("Number of quiz submission saves that are throttled")
+                .register(meterRegistry);
+    }
+
+    private static Counter saveCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("artemis.quiz.submission.saves").tag("outcome", outcome).description("Number of quiz submission saves by the outcome of the rate limit")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Admit the saves of quiz submissions with the token bucket of the user and quiz, all other messages pass
+     *
+     * @param message the message the websocket client is sending
+     * @param channel the inbound channel
+     * @return the message, or null if the save is throttled
+     */
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (message.getHeaders().containsKey(RELEASED_HEADER)) {
+            return message;
+        }
+        StompHeaderAccessor headerAccessor = StompHeaderAccessor.wrap(message);
+        Principal principal = headerAccessor.getUser();
+        String destination = headerAccessor.getDestination();
+        if (!StompCommand.SEND.equals(headerAccessor.getCommand()) || principal == null || destination == null) {
+            return message;
+        }
+        Matcher matcher = SUBMISSION_DESTINATION.matcher(destination);
+        if (!matcher.matches()) {
+            return message;
+        }
+        long quizExerciseId = Long.parseLong(matcher.group(1));
+        boolean fullSubmission = matcher.group(2) == null;
+        boolean finalSave = fullSubmission && isFinalSave(message);
+        Admission admission;
+        while (true) {
+            Bucket bucket = buckets.computeIfAbsent(quizExerciseId, id -> new ConcurrentHashMap<>()).computeIfAbsent(principal.getName(), username -> new Bucket(clock.getAsLong()));
+            synchronized (bucket) {
+                // otherwise the bucket has been removed in the meantime and the save is admitted with a new bucket
+                if (!bucket.removed) {
+                    admission = admit(bucket, new QueuedSave(message, channel), fullSubmission, finalSave);
+                    break;
+                }
+            }
+        }
+        switch (admission) {
+            case ACCEPTED:
+                return message;
+            case DROPPED:
+                requestFullSubmission(quizExerciseId, principal.getName(), message);
+                return null;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Admit the given save with the bucket, the caller holds the lock of the bucket
+     *
+     * @return whether the save is accepted right away, queued or dropped
+     */
+    private Admission admit(Bucket bucket, QueuedSave save, boolean fullSubmission, boolean finalSave) {
+        if (finalSave) {
+            // the final save contains all answers, the queued saves would be rejected after it anyway
+            collapsedSaves.increment(bucket.queue.size());
+            bucket.queue.clear();
+            finalSaves.increment();
+            return Admission.ACCEPTED;
+        }
+        bucket.refill(clock.getAsLong());
+        // the queued saves are released first, so that the saves are processed in order
+        if (bucket.queue.isEmpty() && bucket.tokens >= 1) {
+            bucket.tokens--;
+            acceptedSaves.increment();
+            return Admission.ACCEPTED;
+        }
+        if (fullSubmission) {
+            collapsedSaves.increment(bucket.queue.size());
+            bucket.queue.clear();
+        }
+        else if (bucket.queue.size() >= burst) {
+            droppedSaves.increment();
+            return Admission.DROPPED;
+        }
+        bucket.queue.add(save);
+        delayedSaves.increment();
+        return Admission.QUEUED;
+    }
+
+    /**
+     * Acknowledge the dropped change with a resync, so that the client sends its full submission, which replaces the queued changes. Otherwise, the change would only be
+     * detected as missing with the next change of the client, and the client would wait for the acknowledgement forever.
+     */
+    private void requestFullSubmission(long quizExerciseId, String username, Message<?> droppedChange) {
+        long sequenceNumber = 0;
+        if (droppedChange.getPayload() instanceof byte[]) {
+            try {
+                sequenceNumber = objectMapper.readTree((byte[]) droppedChange.getPayload()).path("sequenceNumber").asLong(0);
+            }
+            catch (IOException e) {
+                // the client sends its full submission anyway
+            }
+        }
+        messagingTemplate.get().convertAndSendToUser(username, "/topic/quizExercise/" + quizExerciseId + "/submission/delta", new QuizSubmissionAckDTO(sequenceNumber, null, true));
+    }
+
+    private boolean isFinalSave(Message<?> message) {
+        if (!(message.getPayload() instanceof byte[])) {
+            return false;
+        }
+        try {
+            return objectMapper.readTree((byte[]) message.getPayload()).path("submitted").asBoolean(false);
+        }
+        catch (IOException e) {
+            // the controller rejects the message
+            return false;
+        }
+    }
+
+    /**
+     * Add tokens to the buckets and release one queued save of each user and quiz, afterwards remove the buckets which are full and have no queued saves
+     */
+    void tick() {
+        long now = clock.getAsLong();
+        try {
+            for (Map<String, Bucket> bucketsOfQuiz : buckets.values()) {
+                for (Iterator<Bucket> iterator = bucketsOfQuiz.values().iterator(); iterator.hasNext();) {
+                    Bucket bucket = iterator.next();
+                    QueuedSave release = null;
+                    synchronized (bucket) {
+                        bucket.refill(now);
+                        // only one save per tick, the inbound channel does not preserve the order of messages which are sent at the same time
+                        if (bucket.tokens >= 1 && !bucket.queue.isEmpty()) {
+                            bucket.tokens--;
+                            release = bucket.queue.poll();
+                        }
+                        else if (bucket.queue.isEmpty() && bucket.tokens >= burst) {
+                            bucket.removed = true;
+                            iterator.remove();
+                        }
+                    }
+                    if (release != null) {
+                        release.channel.send(MessageBuilder.fromMessage(release.message).setHeader(RELEASED_HEADER, true).build());
+                    }
+                }
+            }
+            buckets.values().removeIf(Map::isEmpty);
+        }
+        catch (Exception e) {
+            // the scheduler would not run the tick again after an exception
+            log.error("Exception while releasing quiz submission saves", e);
+        }
+    }
+
+    /**
+     * Discard the buckets and queued saves of the given quiz, e.g. because the quiz was deleted
+     *
+     * @param quizExerciseId the id of the quiz exercise
+     */
+    public void evict(long quizExerciseId) {
+        buckets.remove(quizExerciseId);
+    }
+
+    /**
+     * Discard the buckets and queued saves of all quizzes
+     */
+    public void clear() {
+        buckets.clear();
+    }
+
+    /**
+     * @return the number of saves that are queued
+     */
+    public int getQueuedSaves() {
+        int queuedSaves = 0;
+        for (Map<String, Bucket> bucketsOfQuiz : buckets.values()) {
+            for (Bucket bucket : bucketsOfQuiz.values()) {
+                synchronized (bucket) {
+                    queuedSaves += bucket.queue.size();
+                }
+            }
+        }
+        return queuedSaves;
+    }
+
+    /**
+     * Stop releasing saves, queued saves are discarded
+     */
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+
+    /**
+     * The token bucket of a user and quiz with the saves that wait for a token. Tokens are added with the configured rate and the bucket holds at most burst tokens.
+     */
+    private final class Bucket {
+
+        private final Deque<QueuedSave> queue = new ArrayDeque<>();
+
+        private double tokens = burst;
+
+        private long lastRefill;
+
+        private boolean removed;
+
+        private Bucket(long createdAt) {
+            this.lastRefill = createdAt;
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(burst, tokens + Math.max(0, now - lastRefill) * ratePerMilli);
+            lastRefill = now;
+        }
+    }
+
+    private enum Admission {
+        ACCEPTED, QUEUED, DROPPED
+    }
+
+    private static final class QueuedSave {
+
+        private final Message<?> message;
+
+        private final MessageChannel channel;
+
+        private QueuedSave(Message<?> message, MessageChannel channel) {
+            this.message = message;
+            this.channel = channel;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package de.tum.in.www1.artemis.service.scheduled.quiz;
+
+import java.util.Map;
+import java.util.Set;
+
+import de.tum.in.www1.artemis.domain.quiz.QuizSubmission;
+
+/**
+ * Buffers the live (not yet persisted) quiz submissions of all running quizzes. The QuizScheduleService writes into this store whenever a student saves an answer and drains
+ * it when submissions are persisted to the database.
+ */
+public interface QuizSubmissionStore {
+
+    /**
+     * Add or replace the buffered submission of the given user
+     *
+     * @param quizExerciseId the id of the quiz the submission belongs to
+     * @param username       the username of the user, who submitted the submission
+     * @param quizSubmission the submission which should be buffered
+     */
+    void put(Long quizExerciseId, String username, QuizSubmission quizSubmission);
+
+    /**
+     * Get the buffered submission of the given user
+     *
+     * @param quizExerciseId the id of the quiz the submission belongs to
+     * @param username       the username of the user, who submitted the submission
+     * @return the buffered submission or null if there is none
+     */
+    QuizSubmission get(Long quizExerciseId, String username);
+
+    /**
+     * Get all buffered submissions of the given quiz. The returned map is a read-only view, use {@link #remove(Long, String)} to drain it.
+     *
+     * @param quizExerciseId the id of the quiz
+     * @return username -> QuizSubmission (empty if there are no buffered submissions)
+     */
+    Map<String, QuizSubmission> getSubmissions(Long quizExerciseId);
+
+    /**
+     * @return the ids of all quizzes with buffered submissions
+     */
+    Set<Long> getQuizExerciseIds();
+
+    /**
+     * Remove the buffered submission of the given user, e.g. because it has been persisted to the database
+     *
+     * @param quizExerciseId the id of the quiz the submission belongs to
+     * @param username       the username of the user, who submitted the submission
+     */
+    void remove(Long quizExerciseId, String username);
+
+    /**
+     * Remove all buffered submissions of the given quiz, e.g. because the quiz was deleted
+     *
+     * @param quizExerciseId the id of the quiz
+     */
+    void removeQuiz(Long quizExerciseId);
+
+    /**
+     * Release all resources that are no longer needed for the given quiz after its submissions have been persisted. Submissions that are still buffered are kept.
+     *
+     * @param quizExerciseId the id of the quiz
+     */
+    void compact(Long quizExerciseId);
+
+    /**
+     * Restore the buffered submissions after a restart of the server. The submissions of users whose submission had been saved right before the restart might be restored as
+     * well, the caller has to skip them.
+     *
+     * @return the number of restored submissions
+     */
+    int recover();
+
+    /**
+     * Remove all buffered submissions of all quizzes
+     */
+    void clear();
+}
@@ -0,0 +1,216 @@
+package de.tum.in.www1.artemis.service.scheduled.quiz;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A hierarchical hashed timing wheel which keeps a large number of deadlines (e.g. the end of the working time of every student in a quiz) with constant effort to add and
+ * cancel a deadline. Each level is a wheel of slots, a slot of the first level covers one tick and a slot of each further level covers a whole revolution of the level below. A
+ * deadline is added to the lowest level whose revolution reaches it and moves down to the lower levels (cascades) when the time of its slot has come. Deadlines beyond the
+ * highest level wait in its last reachable slot and are added again from there.
+ *
+ * The wheel is not thread-safe, the owner has to synchronize the access.
+ *
+ * @param <T> the type of the elements which are scheduled
+ */
+public class QuizTimingWheel<T> {
+
+    private final long tickMillis;
+
+    private final int bitsPerLevel;
+
+    private final int slotMask;
+
+    /**
+     * levels -> slots -> the first timeout in the (doubly linked) list of the slot
+     */
+    private final Timeout<T>[][] wheels;
+
+    private final long startMillis;
+
+    /**
+     * the last tick that has been processed
+     */
+    private long currentTick;
+
+    private int size;
+
+    /**
+     * Create an empty wheel
+     *
+     * @param tickMillis    the duration of a tick in ms, deadlines expire at the end of the tick they fall into
+     * @param slotsPerLevel the number of slots of each level, has to be a power of two
+     * @param levels        the number of levels, the wheel reaches tickMillis * slotsPerLevel^levels ms into the future
+     * @param startMillis   the time in ms the first tick starts at
+     */
+    @SuppressWarnings("unchecked")
+    public QuizTimingWheel(long tickMillis, int slotsPerLevel, int levels, long startMillis) {
+        if (tickMillis < 1 || slotsPerLevel < 2 || Integer.bitCount(slotsPerLevel) != 1 || levels < 1 || (long) Integer.numberOfTrailingZeros(slotsPerLevel) * levels > 62) {
+            throw new IllegalArgumentException("Invalid timing wheel: tick " + tickMillis + " ms, " + slotsPerLevel + " slots per level, " + levels + " levels");
+        }
+        this.tickMillis = tickMillis;
+        this.bitsPerLevel = Integer.numberOfTrailingZeros(slotsPerLevel);
+        this.slotMask = slotsPerLevel - 1;
+        this.wheels = new Timeout[levels][slotsPerLevel];
+        this.startMillis = startMillis;
+    }
+
+    /**
+     * Add a deadline for the given element
+     *
+     * @param element        the element which expires at the deadline
+     * @param deadlineMillis the time in ms at which the element expires, deadlines in the past expire with the next tick
+     * @return the timeout, which can be used to cancel the deadline
+     */
+    public Timeout<T> schedule(T element, long deadlineMillis) {
+        // round up, so that an element never expires before its deadline
+        long deadlineTick = Math.max(currentTick + 1, Math.floorDiv(deadlineMillis - startMillis + tickMillis - 1, tickMillis));
+        Timeout<T> timeout = new Timeout<>(element, deadlineMillis, deadlineTick);
+        add(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Remove the given timeout from the wheel, nothing happens if it has already expired or been cancelled
+     *
+     * @param timeout the timeout which should not expire
+     * @return true if the timeout has been cancelled, false otherwise
+     */
+    public boolean cancel(Timeout<T> timeout) {
+        if (timeout.level < 0) {
+            return false;
+        }
+        remove(timeout);
+        size--;
+        return true;
+    }
+
+    /**
+     * Process all ticks which have ended until the given time
+     *
+     * @param nowMillis the current time in ms
+     * @return the elements whose deadlines have passed, in the order of their deadlines (at the precision of a tick)
+     */
+    public List<T> advance(long nowMillis) {
+        List<T> expired = new ArrayList<>();
+        long lastEndedTick = Math.floorDiv(nowMillis - startMillis, tickMillis);
+        while (currentTick < lastEndedTick) {
+            currentTick++;
+            // the deadlines of the slots on the higher levels move down before the first level expires, because some of them might expire in this tick
+            for (int level = wheels.length - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (bitsPerLevel * level)) - 1)) == 0) {
+                    cascade(level, slotIndex(currentTick, level));
+                }
+            }
+            int slot = slotIndex(currentTick, 0);
+            Timeout<T> timeout = wheels[0][slot];
+            while (timeout != null) {
+                Timeout<T> next = timeout.next;
+                remove(timeout);
+                size--;
+                expired.add(timeout.element);
+                timeout = next;
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * @return the number of deadlines in the wheel
+     */
+    public int size() {
+        return size;
+    }
+
+    private void cascade(int level, int slot) {
+        Timeout<T> timeout = wheels[level][slot];
+        wheels[level][slot] = null;
+        while (timeout != null) {
+            Timeout<T> next = timeout.next;
+            timeout.previous = null;
+            timeout.next = null;
+            add(timeout);
+            timeout = next;
+        }
+    }
+
+    private void add(Timeout<T> timeout) {
+        long delta = timeout.deadlineTick - currentTick;
+        int level = 0;
+        while (level < wheels.length - 1 && delta >= (1L << (bitsPerLevel * (level + 1)))) {
+            level++;
+        }
+        long tick = timeout.deadlineTick;
+        if (delta >= (1L << (bitsPerLevel * wheels.length))) {
+            // the deadline is beyond the wheel, the timeout waits in the last slot the highest level reaches
+            tick = currentTick + (1L << (bitsPerLevel * wheels.length)) - 1;
+        }
+        int slot = slotIndex(tick, level);
+        timeout.level = level;
+        timeout.slot = slot;
+        timeout.next = wheels[level][slot];
+        if (timeout.next != null) {
+            timeout.next.previous = timeout;
+        }
+        wheels[level][slot] = timeout;
+    }
+
+    private void remove(Timeout<T> timeout) {
+        if (timeout.previous != null) {
+            timeout.previous.next = timeout.next;
+        }
+        else {
+            wheels[timeout.level][timeout.slot] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.previous = timeout.previous;
+        }
+        timeout.previous = null;
+        timeout.next = null;
+        timeout.level = -1;
+    }
+
+    private int slotIndex(long tick, int level) {
+        return (int) (tick >>> (bitsPerLevel * level)) & slotMask;
+    }
+
+    /**
+     * A deadline in the wheel
+     *
+     * @param <T> the type of the element
+     */
+    public static final class Timeout<T> {
+
+        private final T element;
+
+        private final long deadlineMillis;
+
+        private final long deadlineTick;
+
+        /**
+         * -1, if the timeout is not in the wheel (anymore)
+         */
+        private int level = -1;
+
+        private int slot;
+
+        private Timeout<T> previous;
+
+        private Timeout<T> next;
+
+        private Timeout(T element, long deadlineMillis, long deadlineTick) {
+            this.element = element;
+            this.deadlineMillis = deadlineMillis;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public T getElement() {
+            return element;
+        }
+
+        public long getDeadlineMillis() {
+            return deadlineMillis;
+        }
+    }
+}
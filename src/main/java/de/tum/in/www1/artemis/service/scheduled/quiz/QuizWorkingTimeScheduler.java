@@ -0,0 +1,275 @@
+package de.tum.in.www1.artemis.service.scheduled.quiz;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import de.tum.in.www1.artemis.config.Constants;
+import de.tum.in.www1.artemis.domain.enumeration.SubmissionType;
+import de.tum.in.www1.artemis.domain.quiz.QuizSubmission;
+import de.tum.in.www1.artemis.service.scheduled.quiz.QuizSessionRegistry.QuizSession;
+
+/**
+ * Keeps the individual working time of each student in a running quiz. The working time starts when the student opens the quiz and lasts for the duration of the quiz, but not
+ * longer than the quiz itself. When the working time (including the grace period) is over, the buffered submission of the student is submitted with the type TIMEOUT right away
+ * and the listener is notified, so that the submission is processed without waiting for the next run of the quiz schedule. The deadlines of all students are kept in a
+ * {@link QuizTimingWheel}, so that starting and cancelling a working time takes constant effort, also for many thousand students.
+ */
+public class QuizWorkingTimeScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(QuizWorkingTimeScheduler.class);
+
+    /**
+     * the precision in ms of the deadlines
+     */
+    static final long TICK_MILLIS = 100;
+
+    /**
+     * 3 levels of 256 slots reach 100 ms * 256^3 (about 19 days) into the future, later deadlines are kept in the last slot until they are reached
+     */
+    private static final int SLOTS_PER_LEVEL = 256;
+
+    private static final int LEVELS = 3;
+
+    private final QuizSubmissionStore submissionStore;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final LongSupplier clock;
+
+    /**
+     * guarded by itself
+     */
+    private final QuizTimingWheel<WorkingTime> wheel;
+
+    /**
+     * quizExerciseId -> Map<username -> WorkingTime>
+     */
+    private final Map<Long, Map<String, WorkingTime>> workingTimes = new ConcurrentHashMap<>();
+
+    private volatile Consumer<Set<Long>> timeoutListener = quizExerciseIds -> {
+    };
+
+    /**
+     * Create the scheduler, which checks for ended working times every {@value #TICK_MILLIS} ms
+     *
+     * @param submissionStore the store of the buffered submissions, which are submitted when the working time is over
+     */
+    public QuizWorkingTimeScheduler(QuizSubmissionStore submissionStore) {
+        this(submissionStore, Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("QuizWorkingTime-")), System::currentTimeMillis);
+        scheduler.scheduleAtFixedRate(this::tick, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    QuizWorkingTimeScheduler(QuizSubmissionStore submissionStore, ScheduledExecutorService scheduler, LongSupplier clock) {
+        this.submissionStore = submissionStore;
+        this.scheduler = scheduler;
+        this.clock = clock;
+        this.wheel = new QuizTimingWheel<>(TICK_MILLIS, SLOTS_PER_LEVEL, LEVELS, clock.getAsLong());
+    }
+
+    /**
+     * Set the listener which is notified with the ids of the quizzes in which submissions have been submitted because the working time was over. It is invoked on the thread of
+     * the scheduler and should therefore only hand the quizzes over.
+     *
+     * @param timeoutListener the listener
+     */
+    public void setTimeoutListener(Consumer<Set<Long>> timeoutListener) {
+        this.timeoutListener = timeoutListener;
+    }
+
+    /**
+     * Start the working time of the given user, this is invoked when the user opens the quiz. If the working time has already been started, it is not changed.
+     *
+     * @param quizSession the session of the running quiz
+     * @param username    the user who works on the quiz
+     * @return the working time of the user or an empty optional if the quiz is not planned to start
+     */
+    public Optional<WorkingTime> start(QuizSession quizSession, String username) {
+        Map<String, WorkingTime> workingTimesOfQuiz = workingTimes.computeIfAbsent(quizSession.getQuizExerciseId(), id -> new ConcurrentHashMap<>());
+        WorkingTime workingTime = workingTimesOfQuiz.get(username);
+        if (workingTime != null) {
+            return Optional.of(workingTime);
+        }
+        ZonedDateTime startDate = ZonedDateTime.ofInstant(Instant.ofEpochMilli(clock.getAsLong()), ZoneId.systemDefault());
+        ZonedDateTime endDate = quizSession.getIndividualDueDate(startDate);
+        if (endDate == null) {
+            return Optional.empty();
+        }
+        WorkingTime newWorkingTime = new WorkingTime(quizSession.getQuizExerciseId(), username, startDate, endDate);
+        workingTime = workingTimesOfQuiz.putIfAbsent(username, newWorkingTime);
+        if (workingTime != null) {
+            // the user opened the quiz concurrently (e.g. in two tabs)
+            return Optional.of(workingTime);
+        }
+        // the submission is only submitted after the grace period, in which the last changes of the student are still accepted
+        long deadline = endDate.plusSeconds(Constants.QUIZ_GRACE_PERIOD_IN_SECONDS).toInstant().toEpochMilli();
+        synchronized (wheel) {
+            newWorkingTime.timeout = wheel.schedule(newWorkingTime, deadline);
+        }
+        return Optional.of(newWorkingTime);
+    }
+
+    /**
+     * Get the working time of the given user
+     *
+     * @param quizExerciseId the id of the quiz exercise
+     * @param username       the user who works on the quiz
+     * @return the working time or an empty optional if the user has not opened the quiz (or the quiz has been evicted)
+     */
+    public Optional<WorkingTime> getWorkingTime(Long quizExerciseId, String username) {
+        if (quizExerciseId == null || username == null) {
+            return Optional.empty();
+        }
+        Map<String, WorkingTime> workingTimesOfQuiz = workingTimes.get(quizExerciseId);
+        return Optional.ofNullable(workingTimesOfQuiz != null ? workingTimesOfQuiz.get(username) : null);
+    }
+
+    /**
+     * Stop the timer of the given user, this is invoked when the user has submitted the quiz. The working time is kept until the quiz is evicted.
+     *
+     * @param quizExerciseId the id of the quiz exercise
+     * @param username       the user who has submitted the quiz
+     */
+    public void cancel(Long quizExerciseId, String username) {
+        getWorkingTime(quizExerciseId, username).ifPresent(this::cancelTimeout);
+    }
+
+    /**
+     * Remove the working times of all users in the given quiz, this is invoked when the quiz has been processed or changed
+     *
+     * @param quizExerciseId the id of the quiz exercise
+     */
+    public void evict(Long quizExerciseId) {
+        Map<String, WorkingTime> workingTimesOfQuiz = workingTimes.remove(quizExerciseId);
+        if (workingTimesOfQuiz != null) {
+            workingTimesOfQuiz.values().forEach(this::cancelTimeout);
+        }
+    }
+
+    /**
+     * Remove the working times of all quizzes
+     */
+    public void clear() {
+        new ArrayList<>(workingTimes.keySet()).forEach(this::evict);
+    }
+
+    /**
+     * @return the number of working times which have not ended yet
+     */
+    public int getRunningWorkingTimes() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+
+    /**
+     * Stop the timers, the remaining submissions are submitted by the quiz schedule when the quiz has ended
+     */
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+
+    /**
+     * Submit the buffered submissions of all users whose working time is over and notify the listener
+     */
+    void tick() {
+        List<WorkingTime> endedWorkingTimes;
+        synchronized (wheel) {
+            endedWorkingTimes = wheel.advance(clock.getAsLong());
+        }
+        if (endedWorkingTimes.isEmpty()) {
+            return;
+        }
+        Set<Long> quizExerciseIds = new HashSet<>();
+        for (WorkingTime workingTime : endedWorkingTimes) {
+            try {
+                if (submitTimedOutSubmission(workingTime)) {
+                    quizExerciseIds.add(workingTime.quizExerciseId);
+                }
+            }
+            catch (Exception e) {
+                log.error("Could not submit the submission of {} in quiz {} after the working time: {}", workingTime.username, workingTime.quizExerciseId, e.getMessage());
+            }
+        }
+        log.debug("Working time of {} users is over in the quizzes {}", endedWorkingTimes.size(), quizExerciseIds);
+        if (!quizExerciseIds.isEmpty()) {
+            timeoutListener.accept(quizExerciseIds);
+        }
+    }
+
+    private boolean submitTimedOutSubmission(WorkingTime workingTime) {
+        QuizSubmission quizSubmission = submissionStore.get(workingTime.quizExerciseId, workingTime.username);
+        // nothing to do if the user has not saved any answer or has already submitted
+        if (quizSubmission == null || quizSubmission.isSubmitted()) {
+            return false;
+        }
+        quizSubmission.setSubmitted(true);
+        quizSubmission.setType(SubmissionType.TIMEOUT);
+        quizSubmission.setSubmissionDate(ZonedDateTime.now());
+        submissionStore.put(workingTime.quizExerciseId, workingTime.username, quizSubmission);
+        return true;
+    }
+
+    private void cancelTimeout(WorkingTime workingTime) {
+        synchronized (wheel) {
+            if (workingTime.timeout != null) {
+                wheel.cancel(workingTime.timeout);
+            }
+        }
+    }
+
+    /**
+     * The time in which a student works on a quiz
+     */
+    public static final class WorkingTime {
+
+        private final Long quizExerciseId;
+
+        private final String username;
+
+        private final ZonedDateTime startDate;
+
+        private final ZonedDateTime endDate;
+
+        /**
+         * guarded by the wheel
+         */
+        private QuizTimingWheel.Timeout<WorkingTime> timeout;
+
+        private WorkingTime(Long quizExerciseId, String username, ZonedDateTime startDate, ZonedDateTime endDate) {
+            this.quizExerciseId = quizExerciseId;
+            this.username = username;
+            this.startDate = startDate;
+            this.endDate = endDate;
+        }
+
+        public ZonedDateTime getStartDate() {
+            return startDate;
+        }
+
+        public ZonedDateTime getEndDate() {
+            return endDate;
+        }
+
+        /**
+         * Check if the student may still change the submission at the given time, the grace period is included like in {@link QuizSession#isSubmissionAllowed(ZonedDateTime)}
+         *
+         * @param now the current time
+         * @return true if the working time (including the grace period) is not over, false otherwise
+         */
+        public boolean isSubmissionAllowed(ZonedDateTime now) {
+            return now.isBefore(endDate.plusSeconds(Constants.QUIZ_GRACE_PERIOD_IN_SECONDS));
+        }
+    }
+}
@@ -33,6 +33,8 @@ import de.tum.in.www1.artemis.service.*;
 import de.tum.in.www1.artemis.service.connectors.ContinuousIntegrationService;
 import de.tum.in.www1.artemis.service.feature.Feature;
 import de.tum.in.www1.artemis.service.feature.FeatureToggle;
+import de.tum.in.www1.artemis.service.scheduled.quiz.QuizSessionRegistry;
+import de.tum.in.www1.artemis.service.scheduled.quiz.QuizWorkingTimeScheduler;
 import de.tum.in.www1.artemis.web.rest.errors.AccessForbiddenException;
 import de.tum.in.www1.artemis.web.rest.errors.BadRequestAlertException;
 import de.tum.in.www1.artemis.web.rest.errors.EntityNotFoundException;
@@ -82,11 +84,15 @@ public class ParticipationResource {
 
     private final TeamService teamService;
 
+    private final QuizSessionRegistry quizSessionRegistry;
+
+    private final QuizWorkingTimeScheduler quizWorkingTimeScheduler;
+
     public ParticipationResource(ParticipationService participationService, ProgrammingExerciseParticipationService programmingExerciseParticipationService,
             CourseService courseService, QuizExerciseService quizExerciseService, ExerciseService exerciseService, AuthorizationCheckService authCheckService,
             Optional<ContinuousIntegrationService> continuousIntegrationService, AuthorizationCheckService authorizationCheckService, TextSubmissionService textSubmissionService,
             ResultService resultService, UserService userService, AuditEventRepository auditEventRepository, GuidedTourConfiguration guidedTourConfiguration,
-            TeamService teamService) {
+            TeamService teamService, QuizSessionRegistry quizSessionRegistry, QuizWorkingTimeScheduler quizWorkingTimeScheduler) {
         this.participationService = participationService;
         this.programmingExerciseParticipationService = programmingExerciseParticipationService;
         this.quizExerciseService = quizExerciseService;
@@ -101,6 +107,8 @@ public class ParticipationResource {
         this.auditEventRepository = auditEventRepository;
         this.guidedTourConfiguration = guidedTourConfiguration;
         this.teamService = teamService;
+        this.quizSessionRegistry = quizSessionRegistry;
+        this.quizWorkingTimeScheduler = quizWorkingTimeScheduler;
     }
 
     /**
@@ -461,8 +469,9 @@ public class ParticipationResource {
             return new MappingJacksonValue(participation);
         }
         else if (quizExercise.isSubmissionAllowed()) {
-            // Quiz is active => construct Participation from
-            // filtered quizExercise and submission from HashMap
+            // Quiz is active => the working time of the student starts when the quiz is shown for the first time
+            quizSessionRegistry.getSession(quizExercise.getId()).ifPresent(quizSession -> quizWorkingTimeScheduler.start(quizSession, username));
+            // construct Participation from filtered quizExercise and submission from HashMap
             quizExercise = quizExerciseService.findOneWithQuestions(quizExercise.getId());
             quizExercise.filterForStudentsDuringQuiz();
             StudentParticipation participation = participationService.participationForQuizWithResult(quizExercise, username);
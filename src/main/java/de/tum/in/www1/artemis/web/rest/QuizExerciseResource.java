@@ -23,6 +23,7 @@ import de.tum.in.www1.artemis.domain.quiz.QuizExercise;
 import de.tum.in.www1.artemis.repository.QuizExerciseRepository;
 import de.tum.in.www1.artemis.service.*;
 import de.tum.in.www1.artemis.service.scheduled.QuizScheduleService;
+import de.tum.in.www1.artemis.service.scheduled.quiz.QuizPayloadCache;
 import de.tum.in.www1.artemis.web.rest.util.HeaderUtil;
 import io.github.jhipster.web.util.ResponseUtil;
 
@@ -56,9 +57,14 @@ public class QuizExerciseResource {
 
     private final GroupNotificationService groupNotificationService;
 
+    private final QuizPayloadCache quizPayloadCache;
+
+    private final QuizReEvaluationService quizReEvaluationService;
+
     public QuizExerciseResource(QuizExerciseService quizExerciseService, QuizExerciseRepository quizExerciseRepository, CourseService courseService,
             QuizStatisticService quizStatisticService, AuthorizationCheckService authCheckService, GroupNotificationService groupNotificationService,
-            QuizScheduleService quizScheduleService, ExerciseService exerciseService, UserService userService) {
+            QuizScheduleService quizScheduleService, ExerciseService exerciseService, UserService userService, QuizPayloadCache quizPayloadCache,
+            QuizReEvaluationService quizReEvaluationService) {
         this.quizExerciseService = quizExerciseService;
         this.quizExerciseRepository = quizExerciseRepository;
         this.userService = userService;
@@ -68,6 +74,8 @@ public class QuizExerciseResource {
         this.groupNotificationService = groupNotificationService;
         this.quizScheduleService = quizScheduleService;
         this.exerciseService = exerciseService;
+        this.quizPayloadCache = quizPayloadCache;
+        this.quizReEvaluationService = quizReEvaluationService;
     }
 
     /**
@@ -317,6 +325,7 @@ public class QuizExerciseResource {
 
         // save quiz exercise
         quizExercise = quizExerciseRepository.save(quizExercise);
+        quizPayloadCache.invalidate(quizExercise.getId());
         quizScheduleService.scheduleQuizStart(quizExercise);
 
         // notify websocket channel of changes to the quiz exercise
@@ -354,12 +363,14 @@ public class QuizExerciseResource {
     /**
      * PUT /quiz-exercises-re-evaluate : Re-evaluates an existing quizExercise.
      * <p>
-     * 1. reset not allowed changes and set flag updateResultsAndStatistics if a recalculation of results and statistics is necessary 2. save changed quizExercise 3. if flag is
-     * set: -> change results if an answer or a question is set invalid -> recalculate statistics and results and save them.
+     * 1. reset not allowed changes and set flag updateResultsAndStatistics if a recalculation of results and statistics is necessary 2. change results if an answer or a question
+     * is set invalid 3. save changed quizExercise 4. if flag is set: -> recalculate statistics and save them.
+     *
+     * Steps 2 to 4 run in the background (see {@link QuizReEvaluationService}), the progress is sent to /topic/quizExercise/{quizExerciseId}/re-evaluation.
      *
      * @param quizExercise the quizExercise to re-evaluate
-     * @return the ResponseEntity with status 200 (OK) and with body the re-evaluated quizExercise, or with status 400 (Bad Request) if the quizExercise is not valid, or with
-     *         status 500 (Internal Server Error) if the quizExercise couldn't be re-evaluated
+     * @return the ResponseEntity with status 202 (Accepted) and with body the quizExercise that is re-evaluated, or with status 400 (Bad Request) if the quizExercise is not valid or
+     *         is already being re-evaluated, or with status 500 (Internal Server Error) if the re-evaluation of the quizExercise couldn't be started
      */
     @PutMapping("/quiz-exercises-re-evaluate")
     @PreAuthorize("hasAnyRole('INSTRUCTOR', 'ADMIN')")
@@ -392,16 +403,13 @@ public class QuizExerciseResource {
         quizExercise.setMaxScore(quizExercise.getMaxTotalScore().doubleValue());
         quizExercise.reconnectJSONIgnoreAttributes();
 
-        // adjust existing results if an answer or and question was deleted and recalculate them
-        quizExerciseService.adjustResultsOnQuizChanges(quizExercise);
-
-        quizExercise = quizExerciseService.save(quizExercise);
-
-        if (updateOfResultsAndStatisticsNecessary) {
-            // update Statistics
-            quizStatisticService.recalculateStatistics(quizExercise);
+        // adjust existing results if an answer or and question was deleted and recalculate them, then save the quiz exercise and update the statistics in the background
+        if (quizReEvaluationService.reEvaluate(quizExercise, updateOfResultsAndStatisticsNecessary).isEmpty()) {
+            return ResponseEntity.badRequest().headers(HeaderUtil.createFailureAlert(applicationName, true, ENTITY_NAME, "quizExerciseReEvaluationRunning",
+                    "The quiz exercise is already being re-evaluated. Please wait until the re-evaluation has finished.")).build();
         }
 
-        return ResponseEntity.ok().headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, quizExercise.getId().toString())).body(quizExercise);
+        // nothing has been saved yet, the client learns about the end of the re-evaluation from its progress
+        return ResponseEntity.accepted().body(quizExercise);
     }
 }
@@ -2,7 +2,7 @@ package de.tum.in.www1.artemis.web.websocket;
 
 import java.security.Principal;
 import java.time.ZonedDateTime;
-import java.util.Optional;
+import java.util.*;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,13 +13,14 @@ import org.springframework.messaging.simp.SimpMessageSendingOperations;
 import org.springframework.stereotype.Controller;
 
 import de.tum.in.www1.artemis.domain.*;
-import de.tum.in.www1.artemis.domain.participation.Participation;
-import de.tum.in.www1.artemis.domain.quiz.QuizExercise;
 import de.tum.in.www1.artemis.domain.quiz.QuizSubmission;
 import de.tum.in.www1.artemis.security.SecurityUtils;
-import de.tum.in.www1.artemis.service.ParticipationService;
-import de.tum.in.www1.artemis.service.QuizExerciseService;
 import de.tum.in.www1.artemis.service.scheduled.QuizScheduleService;
+import de.tum.in.www1.artemis.service.scheduled.quiz.QuizSessionRegistry;
+import de.tum.in.www1.artemis.service.scheduled.quiz.QuizSessionRegistry.QuizSession;
+import de.tum.in.www1.artemis.service.scheduled.quiz.QuizWorkingTimeScheduler;
+import de.tum.in.www1.artemis.web.websocket.dto.QuizSubmissionAckDTO;
+import de.tum.in.www1.artemis.web.websocket.dto.QuizSubmissionDeltaDTO;
 
 @SuppressWarnings("unused")
 @Controller
@@ -27,21 +28,19 @@ public class QuizSubmissionWebsocketService {
 
     private static final Logger log = LoggerFactory.getLogger(QuizSubmissionWebsocketService.class);
 
-    private final QuizExerciseService quizExerciseService;
+    private final QuizSessionRegistry quizSessionRegistry;
 
-    private final ParticipationService participationService;
+    private final QuizWorkingTimeScheduler quizWorkingTimeScheduler;
 
     private final SimpMessageSendingOperations messagingTemplate;
 
-    public QuizSubmissionWebsocketService(QuizExerciseService quizExerciseService, ParticipationService participationService, SimpMessageSendingOperations messagingTemplate) {
-        this.quizExerciseService = quizExerciseService;
-        this.participationService = participationService;
+    public QuizSubmissionWebsocketService(QuizSessionRegistry quizSessionRegistry, QuizWorkingTimeScheduler quizWorkingTimeScheduler,
+            SimpMessageSendingOperations messagingTemplate) {
+        this.quizSessionRegistry = quizSessionRegistry;
+        this.quizWorkingTimeScheduler = quizWorkingTimeScheduler;
         this.messagingTemplate = messagingTemplate;
     }
 
-    // TODO it would be nice to have some kind of startQuiz call that creates the participation with an initialization date. This should happen when the quiz is first shown
-    // to the user. Then we also could find out how long students work on the quiz on average
-
     /**
      * Saves a Submission
      * @param exerciseId the exerciseID to the corresponding QuizExercise
@@ -55,33 +54,11 @@ public class QuizSubmissionWebsocketService {
         SecurityUtils.setAuthorizationObject();
 
         String username = principal.getName();
-        // check if submission is still allowed
-        Optional<QuizExercise> quizExercise = quizExerciseService.findById(exerciseId);
-        if (quizExercise.isEmpty()) {
-            return;
-        }
-        if (!quizExercise.get().isSubmissionAllowed()) {
-            // notify the user that submission was not saved because quiz is not active over payload and handle this case in the client
-            messagingTemplate.convertAndSendToUser(username, "/topic/quizExercise/" + exerciseId + "/submission", "the quiz is not active");
+        Optional<QuizSession> quizSession = findQuizSessionForSubmission(exerciseId, username);
+        if (quizSession.isEmpty()) {
             return;
         }
 
-        // TODO: add one additional check: fetch quizSubmission.getId() with the corresponding participation and check that the user of participation is the
-        // same as the user who executes this call. This prevents injecting submissions to other users
-
-        // check if user already submitted for this quiz
-        Participation participation = participationService.participationForQuizWithResult(quizExercise.get(), username);
-        if (!participation.getResults().isEmpty()) {
-            // NOTE: At this point, there can only be one Result because we already checked
-            // if the quiz is active, so there is no way the student could have already practiced
-            Result result = (Result) participation.getResults().toArray()[0];
-            if (result.getSubmission().isSubmitted()) {
-                // notify the user that submission was not saved because they already submitted over payload and handle this case in the client
-                messagingTemplate.convertAndSendToUser(username, "/topic/quizExercise/" + exerciseId + "/submission", "you have already submitted the quiz");
-                return;
-            }
-        }
-
         // recreate pointers back to submission in each submitted answer
         for (SubmittedAnswer submittedAnswer : quizSubmission.getSubmittedAnswers()) {
             submittedAnswer.setSubmission(quizSubmission);
@@ -89,12 +66,125 @@ public class QuizSubmissionWebsocketService {
 
         // set submission date
         quizSubmission.setSubmissionDate(ZonedDateTime.now());
+        // the full submission is the base for the following changes of the client
+        quizSubmission.setSyncSequenceNumber(0L);
 
         // save submission to HashMap
         QuizScheduleService.updateSubmission(exerciseId, username, quizSubmission);
 
         // send updated submission over websocket
         messagingTemplate.convertAndSendToUser(username, "/topic/quizExercise/" + exerciseId + "/submission", quizSubmission);
-        log.info("Save quiz submission for {} in {} ms in quiz {}", principal.getName(), System.currentTimeMillis() - start, quizExercise.get().getTitle());
+        log.info("Save quiz submission for {} in {} ms in quiz {}", principal.getName(), System.currentTimeMillis() - start, quizSession.get().getTitle());
+    }
+
+    /**
+     * Saves the changed answers of a submission: the answers are merged into the buffered submission of the user, which was saved before with
+     * {@link #saveSubmission(Long, QuizSubmission, Principal)}. Instead of the whole submission, only a short acknowledgement is sent back. If the server misses changes (e.g.
+     * after a restart or because a message was lost), the client is asked to send the full submission again.
+     *
+     * @param exerciseId the exerciseID to the corresponding QuizExercise
+     * @param delta      the changed answers with the sequence number of the change
+     * @param principal  the current principal
+     */
+    @MessageMapping("/topic/quizExercise/{exerciseId}/submission/delta")
+    public void saveSubmissionDelta(@DestinationVariable Long exerciseId, @Payload QuizSubmissionDeltaDTO delta, Principal principal) {
+        // Without this, custom jpa repository methods don't work in websocket channel.
+        SecurityUtils.setAuthorizationObject();
+
+        String username = principal.getName();
+        if (findQuizSessionForSubmission(exerciseId, username).isEmpty()) {
+            return;
+        }
+        String ackDestination = "/topic/quizExercise/" + exerciseId + "/submission/delta";
+
+        QuizSubmission bufferedSubmission = QuizScheduleService.getQuizSubmission(exerciseId, username);
+        if (bufferedSubmission.isSubmitted()) {
+            // the submission has not been processed yet, but it must not be changed anymore
+            messagingTemplate.convertAndSendToUser(username, "/topic/quizExercise/" + exerciseId + "/submission", "you have already submitted the quiz");
+            return;
+        }
+        Long lastSequenceNumber = bufferedSubmission.getSyncSequenceNumber();
+        if (lastSequenceNumber == null || delta.getSequenceNumber() > lastSequenceNumber + 1) {
+            // changes are missing (or the server does not know the submission of the client), so the client has to send the full submission
+            log.debug("Request full quiz submission of {} in quiz {} after change {} (last change: {})", username, exerciseId, delta.getSequenceNumber(), lastSequenceNumber);
+            messagingTemplate.convertAndSendToUser(username, ackDestination, new QuizSubmissionAckDTO(delta.getSequenceNumber(), null, true));
+            return;
+        }
+        if (delta.getSequenceNumber() <= lastSequenceNumber) {
+            // the change has already been saved (e.g. it was sent twice)
+            messagingTemplate.convertAndSendToUser(username, ackDestination, new QuizSubmissionAckDTO(lastSequenceNumber, bufferedSubmission.getSubmissionDate(), false));
+            return;
+        }
+
+        QuizSubmission quizSubmission = mergeSubmission(bufferedSubmission, delta.getSubmittedAnswers());
+        quizSubmission.setSubmissionDate(ZonedDateTime.now());
+        quizSubmission.setSyncSequenceNumber(delta.getSequenceNumber());
+
+        // replace the buffered submission, it might be read concurrently and is therefore not changed
+        QuizScheduleService.updateSubmission(exerciseId, username, quizSubmission);
+        messagingTemplate.convertAndSendToUser(username, ackDestination, new QuizSubmissionAckDTO(delta.getSequenceNumber(), quizSubmission.getSubmissionDate(), false));
+    }
+
+    /**
+     * Create a new submission with the answers of the given submission, where the answers to the questions of the changed answers are replaced
+     *
+     * @param bufferedSubmission the submission before the change
+     * @param changedAnswers     the changed answers, at most one per question
+     * @return the new submission
+     */
+    private QuizSubmission mergeSubmission(QuizSubmission bufferedSubmission, List<SubmittedAnswer> changedAnswers) {
+        Set<Long> changedQuestionIds = new HashSet<>();
+        for (SubmittedAnswer changedAnswer : changedAnswers) {
+            if (changedAnswer.getQuizQuestion() != null) {
+                changedQuestionIds.add(changedAnswer.getQuizQuestion().getId());
+            }
+        }
+        QuizSubmission quizSubmission = new QuizSubmission();
+        quizSubmission.setId(bufferedSubmission.getId());
+        for (SubmittedAnswer submittedAnswer : bufferedSubmission.getSubmittedAnswers()) {
+            if (submittedAnswer.getQuizQuestion() == null || !changedQuestionIds.contains(submittedAnswer.getQuizQuestion().getId())) {
+                quizSubmission.addSubmittedAnswers(submittedAnswer);
+            }
+        }
+        for (SubmittedAnswer changedAnswer : changedAnswers) {
+            quizSubmission.addSubmittedAnswers(changedAnswer);
+        }
+        return quizSubmission;
+    }
+
+    /**
+     * Find the session of the quiz the user wants to save a submission for and check that the user is still allowed to change the submission. Otherwise, the user is notified.
+     * The check only uses the state of the quiz in memory, so that saving a submission does not access the database.
+     *
+     * @param exerciseId the exerciseID to the corresponding QuizExercise
+     * @param username   the user who saves a submission
+     * @return the session of the quiz or an empty optional if the submission must not be saved
+     */
+    private Optional<QuizSession> findQuizSessionForSubmission(Long exerciseId, String username) {
+        // check if submission is still allowed
+        Optional<QuizSession> quizSession = quizSessionRegistry.getSession(exerciseId);
+        if (quizSession.isEmpty()) {
+            return Optional.empty();
+        }
+        ZonedDateTime now = ZonedDateTime.now();
+        // the working time usually starts when the user opens the quiz, it is started here if the user opened the quiz before a restart or on another node
+        if (!quizSession.get().isSubmissionAllowed(now)
+                || !quizWorkingTimeScheduler.start(quizSession.get(), username).map(workingTime -> workingTime.isSubmissionAllowed(now)).orElse(true)) {
+            // notify the user that submission was not saved because quiz is not active over payload and handle this case in the client
+            messagingTemplate.convertAndSendToUser(username, "/topic/quizExercise/" + exerciseId + "/submission", "the quiz is not active");
+            return Optional.empty();
+        }
+
+        // TODO: add one additional check: fetch quizSubmission.getId() with the corresponding participation and check that the user of participation is the
+        // same as the user who executes this call. This prevents injecting submissions to other users
+
+        // check if user already submitted for this quiz: either the submission has already been saved (possibly by another node) or it is still waiting to be processed
+        if (quizSession.get().hasSubmitted(username) || QuizScheduleService.getParticipation(exerciseId, username) != null
+                || QuizScheduleService.getQuizSubmission(exerciseId, username).isSubmitted()) {
+            // notify the user that submission was not saved because they already submitted over payload and handle this case in the client
+            messagingTemplate.convertAndSendToUser(username, "/topic/quizExercise/" + exerciseId + "/submission", "you have already submitted the quiz");
+            return Optional.empty();
+        }
+        return quizSession;
     }
 }
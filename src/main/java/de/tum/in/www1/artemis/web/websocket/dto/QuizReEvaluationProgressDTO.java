@@ -0,0 +1,47 @@
+package de.tum.in.www1.artemis.web.websocket.dto;
+
+/**
+ * The progress of the re-evaluation of a quiz exercise, which is sent to the instructors while the results are re-evaluated in the background
+ */
+public class QuizReEvaluationProgressDTO {
+
+    public enum Status {
+        RUNNING, FINISHED, FAILED
+    }
+
+    private Status status;
+
+    private long processedResults;
+
+    private long totalResults;
+
+    public QuizReEvaluationProgressDTO(Status status, long processedResults, long totalResults) {
+        this.status = status;
+        this.processedResults = processedResults;
+        this.totalResults = totalResults;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public long getProcessedResults() {
+        return processedResults;
+    }
+
+    public void setProcessedResults(long processedResults) {
+        this.processedResults = processedResults;
+    }
+
+    public long getTotalResults() {
+        return totalResults;
+    }
+
+    public void setTotalResults(long totalResults) {
+        this.totalResults = totalResults;
+    }
+}
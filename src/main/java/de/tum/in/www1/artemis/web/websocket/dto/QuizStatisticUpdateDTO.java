@@ -0,0 +1,171 @@
+package de.tum.in.www1.artemis.web.websocket.dto;
+
+import java.util.List;
+import java.util.Objects;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * An update of the live statistics of a quiz: the values of the statistics and counters that have changed since the previous update, or all values if the update is complete
+ * (the replay of the latest statistics for a client that subscribes late). The version is increased with every update and follows the current time in ms, so that it also
+ * increases after the server has lost the previous updates (e.g. after a restart) and a client can skip updates that are older than the values it already has.
+ */
+public class QuizStatisticUpdateDTO {
+
+    private long version;
+
+    private boolean complete;
+
+    private List<StatisticValues> statistics;
+
+    private List<CounterValues> counters;
+
+    public QuizStatisticUpdateDTO(long version, boolean complete, List<StatisticValues> statistics, List<CounterValues> counters) {
+        this.version = version;
+        this.complete = complete;
+        this.statistics = statistics;
+        this.counters = counters;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public void setComplete(boolean complete) {
+        this.complete = complete;
+    }
+
+    public List<StatisticValues> getStatistics() {
+        return statistics;
+    }
+
+    public void setStatistics(List<StatisticValues> statistics) {
+        this.statistics = statistics;
+    }
+
+    public List<CounterValues> getCounters() {
+        return counters;
+    }
+
+    public void setCounters(List<CounterValues> counters) {
+        this.counters = counters;
+    }
+
+    /**
+     * The values of a QuizPointStatistic or QuizQuestionStatistic, the correct counters are only set for question statistics
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static final class StatisticValues {
+
+        private final long id;
+
+        private final Integer participantsRated;
+
+        private final Integer participantsUnrated;
+
+        private final Integer ratedCorrectCounter;
+
+        private final Integer unRatedCorrectCounter;
+
+        public StatisticValues(long id, Integer participantsRated, Integer participantsUnrated, Integer ratedCorrectCounter, Integer unRatedCorrectCounter) {
+            this.id = id;
+            this.participantsRated = participantsRated;
+            this.participantsUnrated = participantsUnrated;
+            this.ratedCorrectCounter = ratedCorrectCounter;
+            this.unRatedCorrectCounter = unRatedCorrectCounter;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public Integer getParticipantsRated() {
+            return participantsRated;
+        }
+
+        public Integer getParticipantsUnrated() {
+            return participantsUnrated;
+        }
+
+        public Integer getRatedCorrectCounter() {
+            return ratedCorrectCounter;
+        }
+
+        public Integer getUnRatedCorrectCounter() {
+            return unRatedCorrectCounter;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            StatisticValues other = (StatisticValues) obj;
+            return id == other.id && Objects.equals(participantsRated, other.participantsRated) && Objects.equals(participantsUnrated, other.participantsUnrated)
+                    && Objects.equals(ratedCorrectCounter, other.ratedCorrectCounter) && Objects.equals(unRatedCorrectCounter, other.unRatedCorrectCounter);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, participantsRated, participantsUnrated, ratedCorrectCounter, unRatedCorrectCounter);
+        }
+    }
+
+    /**
+     * The values of a PointCounter, AnswerCounter, DropLocationCounter or ShortAnswerSpotCounter
+     */
+    public static final class CounterValues {
+
+        private final long id;
+
+        private final Integer ratedCounter;
+
+        private final Integer unRatedCounter;
+
+        public CounterValues(long id, Integer ratedCounter, Integer unRatedCounter) {
+            this.id = id;
+            this.ratedCounter = ratedCounter;
+            this.unRatedCounter = unRatedCounter;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public Integer getRatedCounter() {
+            return ratedCounter;
+        }
+
+        public Integer getUnRatedCounter() {
+            return unRatedCounter;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            CounterValues other = (CounterValues) obj;
+            return id == other.id && Objects.equals(ratedCounter, other.ratedCounter) && Objects.equals(unRatedCounter, other.unRatedCounter);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, ratedCounter, unRatedCounter);
+        }
+    }
+}
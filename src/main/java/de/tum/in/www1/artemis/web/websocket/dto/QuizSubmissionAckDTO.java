@@ -0,0 +1,46 @@
+package de.tum.in.www1.artemis.web.websocket.dto;
+
+import java.time.ZonedDateTime;
+
+/**
+ * The answer of the server to a {@link QuizSubmissionDeltaDTO}: either the changes up to the sequence number have been saved or the client has to send its full submission again
+ * (resync), because the server misses changes.
+ */
+public class QuizSubmissionAckDTO {
+
+    private long sequenceNumber;
+
+    private ZonedDateTime submissionDate;
+
+    private boolean resync;
+
+    public QuizSubmissionAckDTO(long sequenceNumber, ZonedDateTime submissionDate, boolean resync) {
+        this.sequenceNumber = sequenceNumber;
+        this.submissionDate = submissionDate;
+        this.resync = resync;
+    }
+
+    public long getSequenceNumber() {
+        return sequenceNumber;
+    }
+
+    public void setSequenceNumber(long sequenceNumber) {
+        this.sequenceNumber = sequenceNumber;
+    }
+
+    public ZonedDateTime getSubmissionDate() {
+        return submissionDate;
+    }
+
+    public void setSubmissionDate(ZonedDateTime submissionDate) {
+        this.submissionDate = submissionDate;
+    }
+
+    public boolean isResync() {
+        return resync;
+    }
+
+    public void setResync(boolean resync) {
+        this.resync = resync;
+    }
+}
@@ -0,0 +1,33 @@
+package de.tum.in.www1.artemis.web.websocket.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import de.tum.in.www1.artemis.domain.SubmittedAnswer;
+
+/**
+ * The answers of a quiz submission that changed since the last synchronization. The client numbers its changes consecutively (starting with 1 after each full save of the
+ * submission), so that the server can detect missing changes.
+ */
+public class QuizSubmissionDeltaDTO {
+
+    private long sequenceNumber;
+
+    private List<SubmittedAnswer> submittedAnswers = new ArrayList<>();
+
+    public long getSequenceNumber() {
+        return sequenceNumber;
+    }
+
+    public void setSequenceNumber(long sequenceNumber) {
+        this.sequenceNumber = sequenceNumber;
+    }
+
+    public List<SubmittedAnswer> getSubmittedAnswers() {
+        return submittedAnswers;
+    }
+
+    public void setSubmittedAnswers(List<SubmittedAnswer> submittedAnswers) {
+        this.submittedAnswers = submittedAnswers;
+    }
+}
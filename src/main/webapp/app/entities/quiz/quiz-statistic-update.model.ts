@@ -0,0 +1,30 @@
+/**
+ * Update of the live statistics of a quiz. It contains the values of the statistics and counters that have changed since the previous update,
+ * or all values if it is complete. Updates with a version that is not newer than the values of the client are outdated.
+ */
+export interface QuizStatisticUpdate {
+    version: number;
+    complete: boolean;
+    statistics: QuizStatisticValues[];
+    counters: QuizStatisticCounterValues[];
+}
+
+/**
+ * Values of a quiz point statistic or quiz question statistic, the correct counters are only set for question statistics
+ */
+export interface QuizStatisticValues {
+    id: number;
+    participantsRated: number;
+    participantsUnrated: number;
+    ratedCorrectCounter?: number;
+    unRatedCorrectCounter?: number;
+}
+
+/**
+ * Values of a point counter, answer counter, drop location counter or short answer spot counter
+ */
+export interface QuizStatisticCounterValues {
+    id: number;
+    ratedCounter: number;
+    unRatedCounter: number;
+}
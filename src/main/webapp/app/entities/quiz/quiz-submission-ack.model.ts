@@ -0,0 +1,11 @@
+import { Moment } from 'moment';
+
+/**
+ * Acknowledgement of the server for the changed answers of a quiz submission that were sent with the given sequence number.
+ * If resync is set, the server misses changes and the full submission has to be sent again.
+ */
+export interface QuizSubmissionAck {
+    sequenceNumber: number;
+    submissionDate?: Moment;
+    resync: boolean;
+}
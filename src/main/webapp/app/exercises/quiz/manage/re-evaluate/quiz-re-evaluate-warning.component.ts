@@ -1,25 +1,28 @@
-import { Component, OnInit } from '@angular/core';
+import { Component, OnDestroy, OnInit } from '@angular/core';
 import { NgbActiveModal } from '@ng-bootstrap/ng-bootstrap';
 import { JhiEventManager } from 'ng-jhipster';
-import { QuizReEvaluateService } from './quiz-re-evaluate.service';
+import { QuizReEvaluateService, QuizReEvaluationProgress } from './quiz-re-evaluate.service';
 import { ShortAnswerQuestion } from 'app/entities/quiz/short-answer-question.model';
 import { QuizExerciseService } from 'app/exercises/quiz/manage/quiz-exercise.service';
 import { QuizQuestion, QuizQuestionType } from 'app/entities/quiz/quiz-question.model';
 import { DragAndDropQuestion } from 'app/entities/quiz/drag-and-drop-question.model';
 import { MultipleChoiceQuestion } from 'app/entities/quiz/multiple-choice-question.model';
 import { QuizExercise } from 'app/entities/quiz/quiz-exercise.model';
+import { JhiWebsocketService } from 'app/core/websocket/websocket.service';
 
 @Component({
     selector: 'jhi-quiz-re-evaluate-warning',
     templateUrl: './quiz-re-evaluate-warning.component.html',
     styleUrls: ['../../shared/quiz.scss'],
 })
-export class QuizReEvaluateWarningComponent implements OnInit {
+export class QuizReEvaluateWarningComponent implements OnInit, OnDestroy {
     isSaving: boolean;
 
     successful = false;
     failed = false;
     busy = false;
+    progress?: QuizReEvaluationProgress;
+    private reEvaluationChannel?: string;
 
     questionElementDeleted = false;
     questionElementInvalid = false;
@@ -37,6 +40,7 @@ export class QuizReEvaluateWarningComponent implements OnInit {
         private eventManager: JhiEventManager,
         private quizExerciseService: QuizExerciseService,
         private quizReEvaluateService: QuizReEvaluateService,
+        private jhiWebsocketService: JhiWebsocketService,
     ) {}
 
     /**
@@ -50,6 +54,13 @@ export class QuizReEvaluateWarningComponent implements OnInit {
         });
     }
 
+    /**
+     * Unsubscribe from the progress of the re-evaluation
+     */
+    ngOnDestroy(): void {
+        this.unsubscribeFromProgress();
+    }
+
     /**
      * Closes the modal
      */
@@ -233,24 +244,53 @@ export class QuizReEvaluateWarningComponent implements OnInit {
 
     /**
      * Confirm changes
-     *  => send changes to server and wait for result
-     *  if saving failed -> show failed massage
+     *  => send changes to server, which re-evaluates the results in the background
+     *  => wait until the re-evaluation has finished, its progress is sent via websocket
+     *  if the re-evaluation could not be started or failed -> show failed message
      */
     confirmChange(): void {
         this.busy = true;
+        this.progress = undefined;
+
+        // subscribe before the re-evaluation is started, so that no progress (e.g. the end of a fast re-evaluation) is missed
+        this.reEvaluationChannel = '/topic/quizExercise/' + this.quizExercise.id + '/re-evaluation';
+        this.jhiWebsocketService.subscribe(this.reEvaluationChannel);
+        this.jhiWebsocketService.receive(this.reEvaluationChannel).subscribe((progress: QuizReEvaluationProgress) => this.onProgress(progress));
 
         this.quizReEvaluateService.update(this.quizExercise).subscribe(
+            () => {},
             () => {
-                this.busy = false;
-                this.successful = true;
-            },
-            () => {
+                this.unsubscribeFromProgress();
                 this.busy = false;
                 this.failed = true;
             },
         );
     }
 
+    /**
+     * Show the progress of the re-evaluation, the result is only shown when the re-evaluation has finished or failed
+     * @param progress the progress sent by the server
+     */
+    onProgress(progress: QuizReEvaluationProgress): void {
+        if (!this.busy) {
+            return;
+        }
+        this.progress = progress;
+        if (progress.status === 'FINISHED' || progress.status === 'FAILED') {
+            this.unsubscribeFromProgress();
+            this.busy = false;
+            this.successful = progress.status === 'FINISHED';
+            this.failed = progress.status === 'FAILED';
+        }
+    }
+
+    private unsubscribeFromProgress(): void {
+        if (this.reEvaluationChannel) {
+            this.jhiWebsocketService.unsubscribe(this.reEvaluationChannel);
+            this.reEvaluationChannel = undefined;
+        }
+    }
+
     /**
      * Close modal
      */
@@ -3,12 +3,25 @@ import { HttpClient } from '@angular/common/http';
 import { SERVER_API_URL } from 'app/app.constants';
 import { QuizExercise } from 'app/entities/quiz/quiz-exercise.model';
 
+/**
+ * The progress of a re-evaluation, which is sent to /topic/quizExercise/{quizExerciseId}/re-evaluation while the results are re-evaluated in the background
+ */
+export interface QuizReEvaluationProgress {
+    status: 'RUNNING' | 'FINISHED' | 'FAILED';
+    processedResults: number;
+    totalResults: number;
+}
+
 @Injectable({ providedIn: 'root' })
 export class QuizReEvaluateService {
     private resourceUrl = SERVER_API_URL + 'api/quiz-exercises-re-evaluate';
 
     constructor(private http: HttpClient) {}
 
+    /**
+     * Start the re-evaluation of the given quiz exercise, the server answers with 202 (Accepted) and re-evaluates the results in the background
+     * @param quizExercise the changed quiz exercise
+     */
     update(quizExercise: QuizExercise) {
         const copy = this.convert(quizExercise);
         return this.http.put<QuizExercise>(this.resourceUrl, copy, { observe: 'response' });
@@ -16,6 +16,7 @@ import { DragAndDropQuestion } from 'app/entities/quiz/drag-and-drop-question.mo
 import { DragAndDropQuestionStatistic } from 'app/entities/quiz/drag-and-drop-question-statistic.model';
 import { DropLocation } from 'app/entities/quiz/drop-location.model';
 import { QuizExercise } from 'app/entities/quiz/quiz-exercise.model';
+import { QuizStatisticUpdate } from 'app/entities/quiz/quiz-statistic-update.model';
 
 interface BackgroundColorConfig {
     backgroundColor: string;
@@ -57,6 +58,7 @@ export class DragAndDropQuestionStatisticComponent implements OnInit, OnDestroy,
     showSolution = false;
     participants: number;
     websocketChannelForData: string;
+    websocketChannelForReplay: string;
 
     questionTextRendered: SafeHtml | null;
 
@@ -85,6 +87,7 @@ export class DragAndDropQuestionStatisticComponent implements OnInit, OnDestroy,
             // use different REST-call if the User is a Student
             if (this.accountService.hasAnyAuthorityDirect(['ROLE_ADMIN', 'ROLE_INSTRUCTOR', 'ROLE_TA'])) {
                 this.quizExerciseService.find(params['exerciseId']).subscribe((res) => {
+                    this.quizStatisticUtil.applyLatestStatistics(res.body!);
                     this.loadQuiz(res.body!, false);
                 });
             }
@@ -92,11 +95,19 @@ export class DragAndDropQuestionStatisticComponent implements OnInit, OnDestroy,
             // subscribe websocket for new statistical data
             this.websocketChannelForData = '/topic/statistic/' + params['exerciseId'];
             this.jhiWebsocketService.subscribe(this.websocketChannelForData);
-
-            // ask for new Data if the websocket for new statistical data was notified
-            this.jhiWebsocketService.receive(this.websocketChannelForData).subscribe((quiz) => {
-                this.loadQuiz(quiz, true);
-            });
+            // the latest statistical data is sent once to this channel after subscribing, afterwards only the changed data is sent
+            this.websocketChannelForReplay = '/user/topic/statistic/' + params['exerciseId'];
+            this.jhiWebsocketService.subscribe(this.websocketChannelForReplay);
+
+            // update the statistics if the websocket for new statistical data was notified
+            const onStatisticUpdate = (update: QuizStatisticUpdate) => {
+                if (this.quizStatisticUtil.mergeStatisticUpdate(+params['exerciseId'], update) && this.quizExercise) {
+                    this.quizStatisticUtil.applyLatestStatistics(this.quizExercise);
+                    this.loadQuiz(this.quizExercise, true);
+                }
+            };
+            this.jhiWebsocketService.receive(this.websocketChannelForData).subscribe(onStatisticUpdate);
+            this.jhiWebsocketService.receive(this.websocketChannelForReplay).subscribe(onStatisticUpdate);
 
             // add Axes-labels based on selected language
             this.translateService.get('showStatistic.quizStatistic.xAxes').subscribe((xLabel) => {
@@ -110,6 +121,7 @@ export class DragAndDropQuestionStatisticComponent implements OnInit, OnDestroy,
 
     ngOnDestroy() {
         this.jhiWebsocketService.unsubscribe(this.websocketChannelForData);
+        this.jhiWebsocketService.unsubscribe(this.websocketChannelForReplay);
     }
 
     @HostListener('window:resize') onResize() {
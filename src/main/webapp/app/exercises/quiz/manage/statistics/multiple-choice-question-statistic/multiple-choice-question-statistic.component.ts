@@ -13,6 +13,7 @@ import { QuizExerciseService } from 'app/exercises/quiz/manage/quiz-exercise.ser
 import { MultipleChoiceQuestionStatistic } from 'app/entities/quiz/multiple-choice-question-statistic.model';
 import { MultipleChoiceQuestion } from 'app/entities/quiz/multiple-choice-question.model';
 import { QuizExercise } from 'app/entities/quiz/quiz-exercise.model';
+import { QuizStatisticUpdate } from 'app/entities/quiz/quiz-statistic-update.model';
 
 @Component({
     selector: 'jhi-multiple-choice-question-statistic',
@@ -46,6 +47,7 @@ export class MultipleChoiceQuestionStatisticComponent implements OnInit, OnDestr
     showSolution = false;
     participants: number;
     websocketChannelForData: string;
+    websocketChannelForReplay: string;
 
     questionTextRendered: SafeHtml | null;
     answerTextRendered: (SafeHtml | null)[];
@@ -72,6 +74,7 @@ export class MultipleChoiceQuestionStatisticComponent implements OnInit, OnDestr
             // use different REST-call if the User is a Student
             if (this.accountService.hasAnyAuthorityDirect(['ROLE_ADMIN', 'ROLE_INSTRUCTOR', 'ROLE_TA'])) {
                 this.quizExerciseService.find(params['exerciseId']).subscribe((res) => {
+                    this.quizStatisticUtil.applyLatestStatistics(res.body!);
                     this.loadQuiz(res.body!, false);
                 });
             }
@@ -79,11 +82,19 @@ export class MultipleChoiceQuestionStatisticComponent implements OnInit, OnDestr
             // subscribe websocket for new statistical data
             this.websocketChannelForData = '/topic/statistic/' + params['exerciseId'];
             this.jhiWebsocketService.subscribe(this.websocketChannelForData);
+            // the latest statistical data is sent once to this channel after subscribing, afterwards only the changed data is sent
+            this.websocketChannelForReplay = '/user/topic/statistic/' + params['exerciseId'];
+            this.jhiWebsocketService.subscribe(this.websocketChannelForReplay);
 
-            // ask for new Data if the websocket for new statistical data was notified
-            this.jhiWebsocketService.receive(this.websocketChannelForData).subscribe((quiz) => {
-                this.loadQuiz(quiz, true);
-            });
+            // update the statistics if the websocket for new statistical data was notified
+            const onStatisticUpdate = (update: QuizStatisticUpdate) => {
+                if (this.quizStatisticUtil.mergeStatisticUpdate(+params['exerciseId'], update) && this.quizExercise) {
+                    this.quizStatisticUtil.applyLatestStatistics(this.quizExercise);
+                    this.loadQuiz(this.quizExercise, true);
+                }
+            };
+            this.jhiWebsocketService.receive(this.websocketChannelForData).subscribe(onStatisticUpdate);
+            this.jhiWebsocketService.receive(this.websocketChannelForReplay).subscribe(onStatisticUpdate);
 
             // add Axes-labels based on selected language
             this.translateService.get('showStatistic.questionStatistic.xAxes').subscribe((xLabel) => {
@@ -97,6 +108,7 @@ export class MultipleChoiceQuestionStatisticComponent implements OnInit, OnDestr
 
     ngOnDestroy() {
         this.jhiWebsocketService.unsubscribe(this.websocketChannelForData);
+        this.jhiWebsocketService.unsubscribe(this.websocketChannelForReplay);
     }
 
     getDataSets() {
@@ -12,6 +12,7 @@ import { PointCounter } from 'app/entities/quiz/point-counter.model';
 import { QuizExerciseService } from 'app/exercises/quiz/manage/quiz-exercise.service';
 import { QuizPointStatistic } from 'app/entities/quiz/quiz-point-statistic.model';
 import { QuizExercise } from 'app/entities/quiz/quiz-exercise.model';
+import { QuizStatisticUpdate } from 'app/entities/quiz/quiz-statistic-update.model';
 
 @Component({
     selector: 'jhi-quiz-point-statistic',
@@ -37,6 +38,7 @@ export class QuizPointStatisticComponent implements OnInit, OnDestroy, DataSetPr
     rated = true;
     participants: number;
     websocketChannelForData: string;
+    websocketChannelForReplay: string;
     quizExerciseChannel: string;
 
     // options for chart.js style
@@ -65,6 +67,7 @@ export class QuizPointStatisticComponent implements OnInit, OnDestroy, DataSetPr
             // use different REST-call if the User is a Student
             if (this.accountService.hasAnyAuthorityDirect(['ROLE_ADMIN', 'ROLE_INSTRUCTOR', 'ROLE_TA'])) {
                 this.quizExerciseService.find(params['exerciseId']).subscribe((res) => {
+                    this.quizStatisticUtil.applyLatestStatistics(res.body!);
                     this.loadQuizSuccess(res.body!);
                 });
             }
@@ -72,6 +75,9 @@ export class QuizPointStatisticComponent implements OnInit, OnDestroy, DataSetPr
             // subscribe websocket for new statistical data
             this.websocketChannelForData = '/topic/statistic/' + params['exerciseId'];
             this.jhiWebsocketService.subscribe(this.websocketChannelForData);
+            // the latest statistical data is sent once to this channel after subscribing, afterwards only the changed data is sent
+            this.websocketChannelForReplay = '/user/topic/statistic/' + params['exerciseId'];
+            this.jhiWebsocketService.subscribe(this.websocketChannelForReplay);
 
             if (!this.quizExerciseChannel) {
                 this.quizExerciseChannel = '/topic/quizExercise/' + params['exerciseId'];
@@ -88,10 +94,15 @@ export class QuizPointStatisticComponent implements OnInit, OnDestroy, DataSetPr
                 );
             }
 
-            // ask for new Data if the websocket for new statistical data was notified
-            this.jhiWebsocketService.receive(this.websocketChannelForData).subscribe((quiz) => {
-                this.loadNewData(quiz.quizPointStatistic);
-            });
+            // update the statistic if the websocket for new statistical data was notified
+            const onStatisticUpdate = (update: QuizStatisticUpdate) => {
+                if (this.quizStatisticUtil.mergeStatisticUpdate(+params['exerciseId'], update) && this.quizExercise) {
+                    this.quizStatisticUtil.applyLatestStatistics(this.quizExercise);
+                    this.loadNewData(this.quizExercise.quizPointStatistic);
+                }
+            };
+            this.jhiWebsocketService.receive(this.websocketChannelForData).subscribe(onStatisticUpdate);
+            this.jhiWebsocketService.receive(this.websocketChannelForReplay).subscribe(onStatisticUpdate);
 
             // add Axes-labels based on selected language
             this.translateService.get('showStatistic.quizPointStatistic.xAxes').subscribe((xLabel) => {
@@ -151,6 +162,7 @@ export class QuizPointStatisticComponent implements OnInit, OnDestroy, DataSetPr
     ngOnDestroy() {
         clearInterval(this.interval);
         this.jhiWebsocketService.unsubscribe(this.websocketChannelForData);
+        this.jhiWebsocketService.unsubscribe(this.websocketChannelForReplay);
     }
 
     getDataSets() {
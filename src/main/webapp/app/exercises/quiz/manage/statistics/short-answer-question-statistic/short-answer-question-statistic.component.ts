@@ -16,6 +16,7 @@ import { ShortAnswerSpot } from 'app/entities/quiz/short-answer-spot.model';
 import { ShortAnswerQuestionStatistic } from 'app/entities/quiz/short-answer-question-statistic.model';
 import { ShortAnswerSolution } from 'app/entities/quiz/short-answer-solution.model';
 import { QuizExercise } from 'app/entities/quiz/quiz-exercise.model';
+import { QuizStatisticUpdate } from 'app/entities/quiz/quiz-statistic-update.model';
 
 interface BackgroundColorConfig {
     backgroundColor: string;
@@ -56,6 +57,7 @@ export class ShortAnswerQuestionStatisticComponent implements OnInit, OnDestroy,
     showSolution = false;
     participants: number;
     websocketChannelForData: string;
+    websocketChannelForReplay: string;
 
     questionTextRendered: SafeHtml | null;
 
@@ -87,6 +89,7 @@ export class ShortAnswerQuestionStatisticComponent implements OnInit, OnDestroy,
             // use different REST-call if the User is a Student
             if (this.accountService.hasAnyAuthorityDirect(['ROLE_ADMIN', 'ROLE_INSTRUCTOR', 'ROLE_TA'])) {
                 this.quizExerciseService.find(params['exerciseId']).subscribe((res) => {
+                    this.quizStatisticUtil.applyLatestStatistics(res.body!);
                     this.loadQuiz(res.body!, false);
                 });
             }
@@ -94,11 +97,19 @@ export class ShortAnswerQuestionStatisticComponent implements OnInit, OnDestroy,
             // subscribe websocket for new statistical data
             this.websocketChannelForData = '/topic/statistic/' + params['exerciseId'];
             this.jhiWebsocketService.subscribe(this.websocketChannelForData);
-
-            // ask for new Data if the websocket for new statistical data was notified
-            this.jhiWebsocketService.receive(this.websocketChannelForData).subscribe((quiz) => {
-                this.loadQuiz(quiz, true);
-            });
+            // the latest statistical data is sent once to this channel after subscribing, afterwards only the changed data is sent
+            this.websocketChannelForReplay = '/user/topic/statistic/' + params['exerciseId'];
+            this.jhiWebsocketService.subscribe(this.websocketChannelForReplay);
+
+            // update the statistics if the websocket for new statistical data was notified
+            const onStatisticUpdate = (update: QuizStatisticUpdate) => {
+                if (this.quizStatisticUtil.mergeStatisticUpdate(+params['exerciseId'], update) && this.quizExercise) {
+                    this.quizStatisticUtil.applyLatestStatistics(this.quizExercise);
+                    this.loadQuiz(this.quizExercise, true);
+                }
+            };
+            this.jhiWebsocketService.receive(this.websocketChannelForData).subscribe(onStatisticUpdate);
+            this.jhiWebsocketService.receive(this.websocketChannelForReplay).subscribe(onStatisticUpdate);
 
             // add Axes-labels based on selected language
             this.translateService.get('showStatistic.quizStatistic.xAxes').subscribe((xLabel) => {
@@ -112,6 +123,7 @@ export class ShortAnswerQuestionStatisticComponent implements OnInit, OnDestroy,
 
     ngOnDestroy() {
         this.jhiWebsocketService.unsubscribe(this.websocketChannelForData);
+        this.jhiWebsocketService.unsubscribe(this.websocketChannelForReplay);
     }
 
     getDataSets() {
@@ -31,6 +31,8 @@ import { ShortAnswerQuestion } from 'app/entities/quiz/short-answer-question.mod
 import { QuizQuestionType } from 'app/entities/quiz/quiz-question.model';
 import { MultipleChoiceSubmittedAnswer } from 'app/entities/quiz/multiple-choice-submitted-answer.model';
 import { DragAndDropQuestion } from 'app/entities/quiz/drag-and-drop-question.model';
+import { SubmittedAnswer } from 'app/entities/quiz/submitted-answer.model';
+import { QuizSubmissionAck } from 'app/entities/quiz/quiz-submission-ack.model';
 
 @Component({
     selector: 'jhi-quiz',
@@ -76,6 +78,14 @@ export class QuizParticipationComponent implements OnInit, OnDestroy {
     unsavedChanges = false;
 
     sendWebsocket: (submission: QuizSubmission) => void;
+    sendWebsocketDelta: (submittedAnswers: SubmittedAnswer[]) => void;
+
+    /**
+     * The sequence number of the last change that was sent to the server (undefined if the full submission has to be sent)
+     * and the last sent state of each answer (by question id), so that only changed answers have to be sent
+     */
+    syncSequenceNumber?: number;
+    syncedAnswers = new Map<number, string>();
     showingResult = false;
     userScore: number;
 
@@ -199,6 +209,8 @@ export class QuizParticipationComponent implements OnInit, OnDestroy {
         });
         this.onDisconnected = () => {
             this.disconnected = true;
+            // the server might have missed changes, so the full submission is sent after the reconnect
+            this.syncSequenceNumber = undefined;
             if (this.outstandingWebsocketResponses > 0) {
                 this.outstandingWebsocketResponses = 0;
                 this.isSaving = false;
@@ -317,8 +329,24 @@ export class QuizParticipationComponent implements OnInit, OnDestroy {
             // save answers (submissions) through websocket
             this.sendWebsocket = (submission: QuizSubmission) => {
                 this.outstandingWebsocketResponses++;
+                // following changes are sent as deltas based on this submission
+                this.syncSequenceNumber = 0;
+                this.syncedAnswers.clear();
+                (submission.submittedAnswers || []).forEach((submittedAnswer) => this.syncedAnswers.set(submittedAnswer.quizQuestion.id, JSON.stringify(submittedAnswer)));
                 this.jhiWebsocketService.send(this.submissionChannel, submission);
             };
+
+            // delta channel => react to acknowledgements of changed answers
+            this.jhiWebsocketService.subscribe('/user' + this.submissionChannel + '/delta');
+            this.jhiWebsocketService.receive('/user' + this.submissionChannel + '/delta').subscribe((ack: QuizSubmissionAck) => this.onSaveDeltaSuccess(ack));
+
+            // save only the changed answers through websocket
+            this.sendWebsocketDelta = (submittedAnswers: SubmittedAnswer[]) => {
+                this.outstandingWebsocketResponses++;
+                this.syncSequenceNumber!++;
+                submittedAnswers.forEach((submittedAnswer) => this.syncedAnswers.set(submittedAnswer.quizQuestion.id, JSON.stringify(submittedAnswer)));
+                this.jhiWebsocketService.send(this.submissionChannel + '/delta', { sequenceNumber: this.syncSequenceNumber, submittedAnswers });
+            };
         }
 
         if (!this.participationChannel) {
@@ -793,10 +821,58 @@ export class QuizParticipationComponent implements OnInit, OnDestroy {
         if (this.sendWebsocket) {
             if (!this.disconnected) {
                 this.isSaving = true;
+                this.saveChangedAnswers();
+            } else {
+                this.unsavedChanges = true;
+            }
+        }
+    }
+
+    /**
+     * Sends the answers that changed since the last save to the server, or the full submission if the server does not have the previous state
+     */
+    saveChangedAnswers() {
+        if (this.syncSequenceNumber === undefined) {
+            this.sendWebsocket(this.submission);
+            return;
+        }
+        const changedAnswers = this.submission.submittedAnswers.filter(
+            (submittedAnswer) => this.syncedAnswers.get(submittedAnswer.quizQuestion.id) !== JSON.stringify(submittedAnswer),
+        );
+        if (changedAnswers.length > 0) {
+            this.sendWebsocketDelta(changedAnswers);
+        } else if (this.outstandingWebsocketResponses === 0) {
+            this.isSaving = false;
+        }
+    }
+
+    /**
+     * Callback function for handling the acknowledgement of changed answers
+     * @param ack the acknowledgement of the server, which might request the full submission
+     */
+    onSaveDeltaSuccess(ack: QuizSubmissionAck) {
+        if (this.outstandingWebsocketResponses > 0) {
+            this.outstandingWebsocketResponses--;
+        }
+        if (ack.resync) {
+            // the server misses changes => send the full submission
+            // changes that are still queued on the server (e.g. because they were sent too fast) are never acknowledged, the full submission replaces them
+            this.outstandingWebsocketResponses = 0;
+            if (!this.disconnected) {
                 this.sendWebsocket(this.submission);
             } else {
+                this.syncSequenceNumber = undefined;
                 this.unsavedChanges = true;
             }
+            return;
+        }
+        if (this.outstandingWebsocketResponses === 0) {
+            this.isSaving = false;
+            this.unsavedChanges = false;
+        }
+        if (ack.submissionDate) {
+            this.submission.submissionDate = ack.submissionDate;
+            this.updateSubmissionTime();
         }
     }
 
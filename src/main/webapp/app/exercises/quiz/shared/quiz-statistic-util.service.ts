@@ -3,9 +3,27 @@ import { Router } from '@angular/router';
 import { QuizExerciseService } from 'app/exercises/quiz/manage/quiz-exercise.service';
 import { QuizQuestion, QuizQuestionType } from 'app/entities/quiz/quiz-question.model';
 import { QuizExercise } from 'app/entities/quiz/quiz-exercise.model';
+import { QuizStatistic } from 'app/entities/quiz/quiz-statistic.model';
+import { QuizQuestionStatistic } from 'app/entities/quiz/quiz-question-statistic.model';
+import { QuizStatisticCounter } from 'app/entities/quiz/quiz-statistic-counter.model';
+import { MultipleChoiceQuestionStatistic } from 'app/entities/quiz/multiple-choice-question-statistic.model';
+import { DragAndDropQuestionStatistic } from 'app/entities/quiz/drag-and-drop-question-statistic.model';
+import { ShortAnswerQuestionStatistic } from 'app/entities/quiz/short-answer-question-statistic.model';
+import { QuizStatisticCounterValues, QuizStatisticUpdate, QuizStatisticValues } from 'app/entities/quiz/quiz-statistic-update.model';
+
+/**
+ * The latest values of the live statistics of a quiz, merged from all updates the client has received
+ */
+interface LatestQuizStatistics {
+    version: number;
+    statistics: Map<number, QuizStatisticValues>;
+    counters: Map<number, QuizStatisticCounterValues>;
+}
 
 @Injectable({ providedIn: 'root' })
 export class QuizStatisticUtil {
+    private latestStatistics = new Map<number, LatestQuizStatistics>();
+
     constructor(private router: Router, private quizExerciseService: QuizExerciseService) {}
 
     /**
@@ -64,4 +82,77 @@ export class QuizStatisticUtil {
             this.router.navigateByUrl(`/course-management/${quizExercise.course?.id}/quiz-exercises/${quizExercise.id}/sa-question-statistic/${question.id}`);
         }
     }
+
+    /**
+     * Merge the received update of the live statistics with the latest values of the quiz.
+     * Outdated updates are ignored, e.g. the replay of the latest statistics if the client has already received a newer update.
+     *
+     * @param quizExerciseId the id of the quiz exercise
+     * @param update the update received via websocket
+     * @return true if the latest values have changed
+     */
+    mergeStatisticUpdate(quizExerciseId: number, update: QuizStatisticUpdate): boolean {
+        let latest = this.latestStatistics.get(quizExerciseId);
+        if (latest && update.version <= latest.version) {
+            return false;
+        }
+        if (!latest || update.complete) {
+            latest = { version: update.version, statistics: new Map(), counters: new Map() };
+            this.latestStatistics.set(quizExerciseId, latest);
+        }
+        latest.version = update.version;
+        update.statistics.forEach((values) => latest!.statistics.set(values.id, values));
+        update.counters.forEach((values) => latest!.counters.set(values.id, values));
+        return true;
+    }
+
+    /**
+     * Write the latest values of the live statistics into the statistics of the given quiz exercise, after an update has been received
+     * or after the quiz exercise has been loaded, because the loaded statistics might be older than the received updates
+     *
+     * @param quizExercise the quiz exercise with all statistics, which is updated
+     * @return true if there are live statistics for the quiz exercise
+     */
+    applyLatestStatistics(quizExercise: QuizExercise): boolean {
+        const latest = this.latestStatistics.get(quizExercise.id);
+        if (!latest) {
+            return false;
+        }
+        if (quizExercise.quizPointStatistic) {
+            this.applyStatisticValues(quizExercise.quizPointStatistic, latest.statistics.get(quizExercise.quizPointStatistic.id));
+            this.applyCounterValues(quizExercise.quizPointStatistic.pointCounters, latest.counters);
+        }
+        (quizExercise.quizQuestions || [])
+            .map((question) => question.quizQuestionStatistic)
+            .filter((statistic) => !!statistic)
+            .forEach((statistic: QuizQuestionStatistic) => {
+                const values = latest.statistics.get(statistic.id);
+                this.applyStatisticValues(statistic, values);
+                if (values && values.ratedCorrectCounter !== undefined) {
+                    statistic.ratedCorrectCounter = values.ratedCorrectCounter;
+                    statistic.unRatedCorrectCounter = values.unRatedCorrectCounter!;
+                }
+                this.applyCounterValues((statistic as MultipleChoiceQuestionStatistic).answerCounters, latest.counters);
+                this.applyCounterValues((statistic as DragAndDropQuestionStatistic).dropLocationCounters, latest.counters);
+                this.applyCounterValues((statistic as ShortAnswerQuestionStatistic).shortAnswerSpotCounters, latest.counters);
+            });
+        return true;
+    }
+
+    private applyStatisticValues(statistic: QuizStatistic, values?: QuizStatisticValues) {
+        if (values) {
+            statistic.participantsRated = values.participantsRated;
+            statistic.participantsUnrated = values.participantsUnrated;
+        }
+    }
+
+    private applyCounterValues(counters: QuizStatisticCounter[] | undefined, latestCounters: Map<number, QuizStatisticCounterValues>) {
+        (counters || []).forEach((counter) => {
+            const values = latestCounters.get(counter.id);
+            if (values) {
+                counter.ratedCounter = values.ratedCounter;
+                counter.unRatedCounter = values.unRatedCounter;
+            }
+        });
+    }
 }
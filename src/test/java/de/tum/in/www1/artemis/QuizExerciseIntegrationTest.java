@@ -5,6 +5,8 @@ import static org.assertj.core.api.Assertions.*;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -19,6 +21,7 @@ import de.tum.in.www1.artemis.domain.enumeration.DifficultyLevel;
 import de.tum.in.www1.artemis.domain.quiz.*;
 import de.tum.in.www1.artemis.repository.*;
 import de.tum.in.www1.artemis.service.QuizExerciseService;
+import de.tum.in.www1.artemis.service.QuizReEvaluationService;
 import de.tum.in.www1.artemis.service.scheduled.QuizScheduleService;
 import de.tum.in.www1.artemis.util.DatabaseUtilService;
 import de.tum.in.www1.artemis.util.RequestUtilService;
@@ -59,6 +62,9 @@ public class QuizExerciseIntegrationTest extends AbstractSpringIntegrationBamboo
     @Autowired
     QuizSubmissionRepository quizSubmissionRepository;
 
+    @Autowired
+    QuizReEvaluationService quizReEvaluationService;
+
     @BeforeEach
     public void init() {
         database.addUsers(10, 5, 1);
@@ -334,7 +340,11 @@ public class QuizExerciseIntegrationTest extends AbstractSpringIntegrationBamboo
             }
         }
 
-        request.putWithResponseBody("/api/quiz-exercises-re-evaluate/", quizExercise, QuizExercise.class, HttpStatus.OK);
+        request.putWithResponseBody("/api/quiz-exercises-re-evaluate/", quizExercise, QuizExercise.class, HttpStatus.ACCEPTED);
+        // the results are re-evaluated in the background
+        quizReEvaluationService.getReEvaluation(quizExercise.getId()).orElse(CompletableFuture.completedFuture(null)).get(10, TimeUnit.SECONDS);
+        // the submissions do not contain any answers
+        assertThat(resultRepository.findByParticipationExerciseIdOrderByCompletionDateAsc(quizExercise.getId())).hasSize(5).allMatch(result -> result.getScore() == 0L);
         // TODO: actually set some question elements invalid, remove them, etc. and check that afert the reevaluation everything is ok
 
     }
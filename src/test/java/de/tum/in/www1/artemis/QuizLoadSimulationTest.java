@@ -0,0 +1,253 @@
+package de.tum.in.www1.artemis;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import de.tum.in.www1.artemis.config.Constants;
+import de.tum.in.www1.artemis.domain.Course;
+import de.tum.in.www1.artemis.domain.SubmittedAnswer;
+import de.tum.in.www1.artemis.domain.quiz.*;
+import de.tum.in.www1.artemis.repository.ResultRepository;
+import de.tum.in.www1.artemis.security.AuthoritiesConstants;
+import de.tum.in.www1.artemis.security.jwt.TokenProvider;
+import de.tum.in.www1.artemis.service.QuizExerciseService;
+import de.tum.in.www1.artemis.service.scheduled.QuizScheduleService;
+import de.tum.in.www1.artemis.service.scheduled.quiz.QuizProcessingExecutor;
+import de.tum.in.www1.artemis.service.scheduled.quiz.QuizWorkingTimeScheduler;
+import de.tum.in.www1.artemis.util.DatabaseUtilService;
+import de.tum.in.www1.artemis.util.QuizLoadSimulator;
+import de.tum.in.www1.artemis.util.QuizLoadSimulator.SimulatedStudent;
+
+/**
+ * Simulates a live quiz with thousands of students who are connected to an embedded server over the websocket. The students save their answers in realistic intervals and most
+ * of them submit before the quiz ends. The simulation reports the latency of the saves, the time it takes to persist the submissions at the end of the quiz and the time until
+ * all students have received their result. Run it with "./gradlew benchmarkTest", the load can be adjusted with the system properties
+ * "artemis.benchmark.quiz.students", "artemis.benchmark.quiz.duration-seconds" and "artemis.benchmark.quiz.save-interval-millis".
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class QuizLoadSimulationTest extends AbstractSpringIntegrationBambooBitbucketJiraTest {
+
+    private static final Logger log = LoggerFactory.getLogger(QuizLoadSimulationTest.class);
+
+    private static final int NUMBER_OF_STUDENTS = Integer.getInteger("artemis.benchmark.quiz.students", 2000);
+
+    private static final int DURATION_SECONDS = Integer.getInteger("artemis.benchmark.quiz.duration-seconds", 60);
+
+    /**
+     * the mean time in ms between two changes of the answers of a student
+     */
+    private static final int SAVE_INTERVAL_MILLIS = Integer.getInteger("artemis.benchmark.quiz.save-interval-millis", 5000);
+
+    /**
+     * the share of the students who submit before the quiz ends, the submissions of the others are submitted automatically at the end of the quiz
+     */
+    private static final double SUBMITTING_STUDENTS = 0.8;
+
+    /**
+     * the interval in ms in which the cached quiz submissions are processed, like the quiz schedule of the server
+     */
+    private static final long PROCESSING_INTERVAL_MILLIS = 3000;
+
+    /**
+     * the time in ms after the end of the grace period until the quiz is considered ended and all working times have been processed
+     */
+    private static final long END_MARGIN_MILLIS = 1000;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    DatabaseUtilService database;
+
+    @Autowired
+    QuizExerciseService quizExerciseService;
+
+    @Autowired
+    QuizScheduleService quizScheduleService;
+
+    @Autowired
+    QuizWorkingTimeScheduler quizWorkingTimeScheduler;
+
+    @Autowired
+    QuizProcessingExecutor quizProcessingExecutor;
+
+    @Autowired
+    ResultRepository resultRepository;
+
+    @Autowired
+    TokenProvider tokenProvider;
+
+    @Autowired
+    MappingJackson2HttpMessageConverter springMvcJacksonConverter;
+
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(8);
+
+    private final ScheduledExecutorService processingScheduler = Executors.newSingleThreadScheduledExecutor();
+
+    @BeforeEach
+    public void init() {
+        // the simulation processes the submissions itself, so that the end of the quiz can be measured
+        quizScheduleService.stopSchedule();
+        database.addUsers(NUMBER_OF_STUDENTS, 0, 1);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        scheduler.shutdownNow();
+        processingScheduler.shutdownNow();
+        quizScheduleService.clearAllQuizData();
+        database.resetDatabase();
+    }
+
+    @Test
+    public void simulateLiveQuiz() throws Exception {
+        List<Course> courses = database.createCoursesWithExercisesAndLectures(false);
+        QuizExercise quizExercise = database.createQuiz(courses.get(0), ZonedDateTime.now().plusHours(1), null);
+        quizExercise.setDuration(DURATION_SECONDS);
+        quizExercise.setIsPlannedToStart(true);
+        quizExercise.setIsVisibleBeforeStart(true);
+        quizExercise = quizExerciseService.save(quizExercise);
+
+        Map<String, String> tokensByUsername = new LinkedHashMap<>();
+        for (int i = 1; i <= NUMBER_OF_STUDENTS; i++) {
+            String username = "student" + i;
+            var authentication = new UsernamePasswordAuthenticationToken(username, null, List.of(new SimpleGrantedAuthority(AuthoritiesConstants.USER)));
+            tokensByUsername.put(username, tokenProvider.createToken(authentication, false));
+        }
+
+        try (QuizLoadSimulator simulator = new QuizLoadSimulator("http://localhost:" + port + "/websocket/tracker", springMvcJacksonConverter.getObjectMapper())) {
+            long connectStart = System.nanoTime();
+            List<SimulatedStudent> students = simulator.connect(tokensByUsername, quizExercise.getId());
+            log.info("Connected {} simulated students in {} ms", students.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - connectStart));
+
+            // the quiz starts now
+            quizExercise.setReleaseDate(ZonedDateTime.now());
+            quizExercise = quizExerciseService.save(quizExercise);
+            quizExerciseService.sendQuizExerciseToSubscribedClients(quizExercise);
+            long quizEnd = System.currentTimeMillis() + DURATION_SECONDS * 1000L;
+
+            for (SimulatedStudent student : students) {
+                simulateParticipation(student, quizExercise, quizEnd);
+            }
+            ScheduledFuture<?> processing = processingScheduler.scheduleWithFixedDelay(quizScheduleService::processCachedQuizSubmissions, PROCESSING_INTERVAL_MILLIS,
+                    PROCESSING_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+
+            // wait until the quiz has ended including the grace period and the running processing is finished (the processing scheduler has only one thread)
+            Thread.sleep(Math.max(0, quizEnd - System.currentTimeMillis()) + Constants.QUIZ_GRACE_PERIOD_IN_SECONDS * 1000L + END_MARGIN_MILLIS);
+            processing.cancel(false);
+            processingScheduler.submit(() -> {
+            }).get();
+
+            // drain the working time scheduler: the submissions of the students whose working time is over are processed on the processing executor of the quiz
+            long drainDeadline = System.currentTimeMillis() + END_MARGIN_MILLIS;
+            while (quizWorkingTimeScheduler.getRunningWorkingTimes() > 0 && System.currentTimeMillis() < drainDeadline) {
+                Thread.sleep(100);
+            }
+            assertThat(quizWorkingTimeScheduler.getRunningWorkingTimes()).isZero();
+            quizProcessingExecutor.submit(quizExercise.getId(), () -> {
+            }).get();
+
+            // 1. the remaining submissions are persisted, 2. the results are sent to the students
+            long flushStart = System.nanoTime();
+            quizScheduleService.processCachedQuizSubmissions();
+            long flushMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - flushStart);
+            long fanOutStart = System.nanoTime();
+            quizScheduleService.processCachedQuizSubmissions();
+            CompletableFuture.allOf(students.stream().map(SimulatedStudent::getResult).toArray(CompletableFuture[]::new)).get(5, TimeUnit.MINUTES);
+            long lastResult = students.stream().mapToLong(student -> student.getResult().join()).max().orElse(fanOutStart);
+            long fanOutMillis = TimeUnit.NANOSECONDS.toMillis(lastResult - fanOutStart);
+
+            log.info("Simulated a quiz with {} students for {} s: {} saves acknowledged, save latency p50 {} ms, p99 {} ms, end-of-quiz flush {} ms, result fan-out {} ms",
+                    NUMBER_OF_STUDENTS, DURATION_SECONDS, simulator.getAcknowledgedSaves(), simulator.getSaveLatencyPercentile(0.5), simulator.getSaveLatencyPercentile(0.99),
+                    flushMillis, fanOutMillis);
+            assertThat(resultRepository.count()).isEqualTo(NUMBER_OF_STUDENTS);
+        }
+    }
+
+    /**
+     * Schedule the actions of the student: the whole submission is saved when the quiz starts, afterwards one answer is changed in random intervals. Most of the students
+     * submit the quiz in the last third of the quiz.
+     */
+    private void simulateParticipation(SimulatedStudent student, QuizExercise quizExercise, long quizEnd) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        QuizSubmission quizSubmission = new QuizSubmission();
+        for (QuizQuestion question : quizExercise.getQuizQuestions()) {
+            quizSubmission.addSubmittedAnswers(randomAnswer(question));
+        }
+        long now = System.currentTimeMillis();
+        long submitAt = random.nextDouble() < SUBMITTING_STUDENTS ? quizEnd - random.nextLong(DURATION_SECONDS * 1000L / 3) : Long.MAX_VALUE;
+        // the students do not open the quiz at the same time
+        scheduler.schedule(() -> {
+            synchronized (quizSubmission) {
+                student.save(quizSubmission);
+            }
+            scheduleChange(student, quizExercise, quizSubmission, Math.min(submitAt, quizEnd));
+        }, random.nextLong(2000), TimeUnit.MILLISECONDS);
+        if (submitAt != Long.MAX_VALUE) {
+            scheduler.schedule(() -> {
+                synchronized (quizSubmission) {
+                    student.submit(quizSubmission);
+                }
+            }, submitAt - now, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void scheduleChange(SimulatedStudent student, QuizExercise quizExercise, QuizSubmission quizSubmission, long lastChange) {
+        // exponentially distributed intervals between the changes
+        long delay = (long) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) * SAVE_INTERVAL_MILLIS);
+        if (System.currentTimeMillis() + delay >= lastChange) {
+            return;
+        }
+        scheduler.schedule(() -> {
+            List<QuizQuestion> questions = quizExercise.getQuizQuestions();
+            SubmittedAnswer changedAnswer = randomAnswer(questions.get(ThreadLocalRandom.current().nextInt(questions.size())));
+            synchronized (quizSubmission) {
+                quizSubmission.getSubmittedAnswers().removeIf(answer -> answer.getQuizQuestion().getId().equals(changedAnswer.getQuizQuestion().getId()));
+                quizSubmission.addSubmittedAnswers(changedAnswer);
+                student.saveChanges(quizSubmission, List.of(changedAnswer));
+            }
+            scheduleChange(student, quizExercise, quizSubmission, lastChange);
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private SubmittedAnswer randomAnswer(QuizQuestion question) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (question instanceof MultipleChoiceQuestion) {
+            var multipleChoiceQuestion = (MultipleChoiceQuestion) question;
+            var submittedAnswer = new MultipleChoiceSubmittedAnswer();
+            submittedAnswer.setQuizQuestion(question);
+            submittedAnswer.addSelectedOptions(multipleChoiceQuestion.getAnswerOptions().get(random.nextInt(multipleChoiceQuestion.getAnswerOptions().size())));
+            return submittedAnswer;
+        }
+        if (question instanceof DragAndDropQuestion) {
+            var dragAndDropQuestion = (DragAndDropQuestion) question;
+            var submittedAnswer = new DragAndDropSubmittedAnswer();
+            submittedAnswer.setQuizQuestion(question);
+            submittedAnswer.addMappings(new DragAndDropMapping().dragItem(dragAndDropQuestion.getDragItems().get(random.nextInt(dragAndDropQuestion.getDragItems().size())))
+                    .dropLocation(dragAndDropQuestion.getDropLocations().get(random.nextInt(dragAndDropQuestion.getDropLocations().size()))));
+            return submittedAnswer;
+        }
+        var shortAnswerQuestion = (ShortAnswerQuestion) question;
+        var submittedAnswer = new ShortAnswerSubmittedAnswer();
+        submittedAnswer.setQuizQuestion(question);
+        submittedAnswer.addSubmittedTexts(new ShortAnswerSubmittedText().text("answer" + random.nextInt(3)).spot(shortAnswerQuestion.getSpots().get(0)));
+        return submittedAnswer;
+    }
+}
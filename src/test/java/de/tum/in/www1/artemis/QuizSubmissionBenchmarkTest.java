@@ -0,0 +1,155 @@
+package de.tum.in.www1.artemis;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.security.Principal;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import de.tum.in.www1.artemis.domain.Course;
+import de.tum.in.www1.artemis.domain.quiz.*;
+import de.tum.in.www1.artemis.repository.ParticipationRepository;
+import de.tum.in.www1.artemis.repository.QuizSubmissionRepository;
+import de.tum.in.www1.artemis.repository.ResultRepository;
+import de.tum.in.www1.artemis.service.QuizExerciseService;
+import de.tum.in.www1.artemis.service.scheduled.QuizScheduleService;
+import de.tum.in.www1.artemis.util.DatabaseUtilService;
+import de.tum.in.www1.artemis.web.websocket.QuizSubmissionWebsocketService;
+
+/**
+ * Measures how long it takes to save the submissions of a large quiz while it is running and to persist them when it ends. Run it with "./gradlew benchmarkTest".
+ */
+@Tag("benchmark")
+public class QuizSubmissionBenchmarkTest extends AbstractSpringIntegrationBambooBitbucketJiraTest {
+
+    private static final Logger log = LoggerFactory.getLogger(QuizSubmissionBenchmarkTest.class);
+
+    private static final int NUMBER_OF_STUDENTS = 2000;
+
+    private static final int SAVES_PER_STUDENT = 10;
+
+    @Autowired
+    DatabaseUtilService database;
+
+    @Autowired
+    QuizExerciseService quizExerciseService;
+
+    @Autowired
+    QuizScheduleService quizScheduleService;
+
+    @Autowired
+    QuizSubmissionWebsocketService quizSubmissionWebsocketService;
+
+    @Autowired
+    QuizSubmissionRepository quizSubmissionRepository;
+
+    @Autowired
+    ParticipationRepository participationRepository;
+
+    @Autowired
+    ResultRepository resultRepository;
+
+    @BeforeEach
+    public void init() {
+        quizScheduleService.stopSchedule();
+        database.addUsers(NUMBER_OF_STUDENTS, 0, 1);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        quizScheduleService.clearAllQuizData();
+        database.resetDatabase();
+    }
+
+    @Test
+    public void benchmarkQuizEnd() throws Exception {
+        List<Course> courses = database.createCoursesWithExercisesAndLectures(false);
+        QuizExercise quizExercise = database.createQuiz(courses.get(0), ZonedDateTime.now().minusMinutes(2), null);
+        quizExercise.setDuration(60);
+        quizExercise.setIsPlannedToStart(true);
+        quizExercise.setIsVisibleBeforeStart(true);
+        quizExercise = quizExerciseService.save(quizExercise);
+
+        // none of the students submitted before the quiz ended, so all submissions are persisted in the first run after the end of the quiz
+        for (int i = 1; i <= NUMBER_OF_STUDENTS; i++) {
+            QuizScheduleService.updateSubmission(quizExercise.getId(), "student" + i, quizSubmissionFor(quizExercise));
+        }
+
+        long start = System.nanoTime();
+        quizScheduleService.processCachedQuizSubmissions();
+        long durationInMillis = (System.nanoTime() - start) / 1_000_000;
+        log.info("Processed the submissions of {} students at the end of the quiz in {} ms ({} ms per student)", NUMBER_OF_STUDENTS, durationInMillis,
+                (double) durationInMillis / NUMBER_OF_STUDENTS);
+
+        assertThat(quizSubmissionRepository.count()).isEqualTo(NUMBER_OF_STUDENTS);
+        assertThat(participationRepository.count()).isEqualTo(NUMBER_OF_STUDENTS);
+        assertThat(resultRepository.count()).isEqualTo(NUMBER_OF_STUDENTS);
+    }
+
+    @Test
+    public void benchmarkSaveSubmissions() throws Exception {
+        List<Course> courses = database.createCoursesWithExercisesAndLectures(false);
+        QuizExercise quizExercise = database.createQuiz(courses.get(0), ZonedDateTime.now().minusSeconds(10), null);
+        quizExercise.setDuration(600);
+        quizExercise.setIsPlannedToStart(true);
+        quizExercise.setIsVisibleBeforeStart(true);
+        quizExercise = quizExerciseService.save(quizExercise);
+        // the quiz starts, which registers the quiz session, so that saving a submission does not access the database
+        quizExerciseService.sendQuizExerciseToSubscribedClients(quizExercise);
+
+        List<Principal> principals = new ArrayList<>();
+        for (int i = 1; i <= NUMBER_OF_STUDENTS; i++) {
+            final var username = "student" + i;
+            principals.add(() -> username);
+        }
+        long start = System.nanoTime();
+        for (int round = 0; round < SAVES_PER_STUDENT; round++) {
+            for (Principal principal : principals) {
+                quizSubmissionWebsocketService.saveSubmission(quizExercise.getId(), quizSubmissionFor(quizExercise), principal);
+            }
+        }
+        long durationInNanos = System.nanoTime() - start;
+        int saves = NUMBER_OF_STUDENTS * SAVES_PER_STUDENT;
+        log.info("Saved {} quiz submissions of {} students in {} ms ({} saves per second)", saves, NUMBER_OF_STUDENTS, durationInNanos / 1_000_000,
+                (long) (saves / (durationInNanos / 1e9)));
+
+        for (Principal principal : principals) {
+            assertThat(QuizScheduleService.getQuizSubmission(quizExercise.getId(), principal.getName()).getSubmissionDate()).isNotNull();
+        }
+    }
+
+    private QuizSubmission quizSubmissionFor(QuizExercise quizExercise) {
+        var quizSubmission = new QuizSubmission();
+        for (var question : quizExercise.getQuizQuestions()) {
+            if (question instanceof MultipleChoiceQuestion) {
+                var submittedAnswer = new MultipleChoiceSubmittedAnswer();
+                submittedAnswer.setQuizQuestion(question);
+                submittedAnswer.addSelectedOptions(((MultipleChoiceQuestion) question).getAnswerOptions().get(0));
+                quizSubmission.addSubmittedAnswers(submittedAnswer);
+            }
+            else if (question instanceof DragAndDropQuestion) {
+                var dragAndDropQuestion = (DragAndDropQuestion) question;
+                var submittedAnswer = new DragAndDropSubmittedAnswer();
+                submittedAnswer.setQuizQuestion(question);
+                submittedAnswer.addMappings(new DragAndDropMapping().dragItem(dragAndDropQuestion.getDragItems().get(0)).dropLocation(dragAndDropQuestion.getDropLocations().get(0)));
+                quizSubmission.addSubmittedAnswers(submittedAnswer);
+            }
+            else if (question instanceof ShortAnswerQuestion) {
+                var submittedAnswer = new ShortAnswerSubmittedAnswer();
+                submittedAnswer.setQuizQuestion(question);
+                submittedAnswer.addSubmittedTexts(new ShortAnswerSubmittedText().text("answer").spot(((ShortAnswerQuestion) question).getSpots().get(0)));
+                quizSubmission.addSubmittedAnswers(submittedAnswer);
+            }
+        }
+        return quizSubmission;
+    }
+}
@@ -1,6 +1,8 @@
 package de.tum.in.www1.artemis;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -15,6 +17,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.test.context.support.WithMockUser;
 
+import de.tum.in.www1.artemis.config.Constants;
 import de.tum.in.www1.artemis.domain.Course;
 import de.tum.in.www1.artemis.domain.Result;
 import de.tum.in.www1.artemis.domain.quiz.*;
@@ -24,6 +27,8 @@ import de.tum.in.www1.artemis.service.scheduled.QuizScheduleService;
 import de.tum.in.www1.artemis.util.DatabaseUtilService;
 import de.tum.in.www1.artemis.util.RequestUtilService;
 import de.tum.in.www1.artemis.web.websocket.QuizSubmissionWebsocketService;
+import de.tum.in.www1.artemis.web.websocket.dto.QuizSubmissionAckDTO;
+import de.tum.in.www1.artemis.web.websocket.dto.QuizSubmissionDeltaDTO;
 
 public class QuizSubmissionIntegrationTest extends AbstractSpringIntegrationBambooBitbucketJiraTest {
 
@@ -142,6 +147,102 @@ public class QuizSubmissionIntegrationTest extends AbstractSpringIntegrationBamb
         // TODO: check more statistics (e.g. for each question)
     }
 
+    @Test
+    @WithMockUser(value = "student1", roles = "USER")
+    public void testQuizSubmitWithDeltas() throws Exception {
+        List<Course> courses = database.createCoursesWithExercisesAndLectures(true);
+        Course course = courses.get(0);
+        QuizExercise quizExercise = database.createQuiz(course, ZonedDateTime.now(), null);
+        quizExercise.setDueDate(ZonedDateTime.now().plusSeconds(2));
+        quizExercise.setDuration(2);
+        quizExercise.setIsPlannedToStart(true);
+        quizExercise.setIsVisibleBeforeStart(true);
+        quizExerciseService.save(quizExercise);
+        final var username = "student1";
+        final Principal principal = () -> username;
+        final var ackDestination = "/topic/quizExercise/" + quizExercise.getId() + "/submission/delta";
+
+        // without a full submission, the server cannot apply changes
+        var delta = new QuizSubmissionDeltaDTO();
+        delta.setSequenceNumber(1);
+        quizSubmissionWebsocketService.saveSubmissionDelta(quizExercise.getId(), delta, principal);
+        verify(messagingTemplate, times(1)).convertAndSendToUser(eq(username), eq(ackDestination), argThat((QuizSubmissionAckDTO ack) -> ack.isResync()));
+
+        // full save
+        var quizSubmission = wrongQuizSubmissionFor(quizExercise);
+        quizSubmissionWebsocketService.saveSubmission(quizExercise.getId(), quizSubmission, principal);
+
+        // change the answer of the multiple choice question
+        var question = quizExercise.getQuizQuestions().stream().filter(quizQuestion -> quizQuestion instanceof MultipleChoiceQuestion).findFirst().get();
+        var changedAnswer = new MultipleChoiceSubmittedAnswer();
+        changedAnswer.setQuizQuestion(question);
+        delta.setSubmittedAnswers(List.of(changedAnswer));
+        quizSubmissionWebsocketService.saveSubmissionDelta(quizExercise.getId(), delta, principal);
+        verify(messagingTemplate, times(1)).convertAndSendToUser(eq(username), eq(ackDestination),
+                argThat((QuizSubmissionAckDTO ack) -> !ack.isResync() && ack.getSequenceNumber() == 1 && ack.getSubmissionDate() != null));
+
+        var bufferedSubmission = QuizScheduleService.getQuizSubmission(quizExercise.getId(), username);
+        assertThat(bufferedSubmission.getSubmittedAnswers()).hasSameSizeAs(quizSubmission.getSubmittedAnswers()).contains(changedAnswer);
+        assertThat(bufferedSubmission.getSubmittedAnswerForQuestion(question)).isSameAs(changedAnswer);
+        assertThat(bufferedSubmission.getSyncSequenceNumber()).isEqualTo(1L);
+
+        // a gap in the sequence numbers requires a full save
+        delta.setSequenceNumber(3);
+        quizSubmissionWebsocketService.saveSubmissionDelta(quizExercise.getId(), delta, principal);
+        verify(messagingTemplate, times(1)).convertAndSendToUser(eq(username), eq(ackDestination),
+                argThat((QuizSubmissionAckDTO ack) -> ack.isResync() && ack.getSequenceNumber() == 3));
+        assertThat(QuizScheduleService.getQuizSubmission(quizExercise.getId(), username)).isSameAs(bufferedSubmission);
+    }
+
+    @Test
+    @WithMockUser(value = "student1", roles = "USER")
+    public void testQuizSubmitNotAllowed() throws Exception {
+        List<Course> courses = database.createCoursesWithExercisesAndLectures(true);
+        Course course = courses.get(0);
+        QuizExercise quizExercise = database.createQuiz(course, ZonedDateTime.now(), null);
+        quizExercise.setDueDate(ZonedDateTime.now().plusSeconds(60));
+        quizExercise.setDuration(60);
+        quizExercise.setIsPlannedToStart(true);
+        quizExercise.setIsVisibleBeforeStart(true);
+        quizExerciseService.save(quizExercise);
+        final var submissionDestination = "/topic/quizExercise/" + quizExercise.getId() + "/submission";
+
+        // student1 submits, the submission is persisted by the schedule service
+        final Principal student1 = () -> "student1";
+        var quizSubmission = wrongQuizSubmissionFor(quizExercise);
+        quizSubmission.setSubmitted(true);
+        quizSubmissionWebsocketService.saveSubmission(quizExercise.getId(), quizSubmission, student1);
+        // the submission is not processed yet, but it must not be changed anymore
+        quizSubmissionWebsocketService.saveSubmission(quizExercise.getId(), wrongQuizSubmissionFor(quizExercise), student1);
+        verify(messagingTemplate, times(1)).convertAndSendToUser("student1", submissionDestination, "you have already submitted the quiz");
+
+        quizScheduleService.processCachedQuizSubmissions();
+        assertThat(quizSubmissionRepository.findAll().size()).isEqualTo(1);
+        quizSubmissionWebsocketService.saveSubmission(quizExercise.getId(), wrongQuizSubmissionFor(quizExercise), student1);
+        verify(messagingTemplate, times(2)).convertAndSendToUser("student1", submissionDestination, "you have already submitted the quiz");
+
+        // the submitted users are also loaded from the database, e.g. after a restart
+        quizScheduleService.clearAllQuizData();
+        var delta = new QuizSubmissionDeltaDTO();
+        delta.setSequenceNumber(1);
+        quizSubmissionWebsocketService.saveSubmissionDelta(quizExercise.getId(), delta, student1);
+        verify(messagingTemplate, times(3)).convertAndSendToUser("student1", submissionDestination, "you have already submitted the quiz");
+
+        // other students can still save their submission
+        final Principal student2 = () -> "student2";
+        var otherSubmission = wrongQuizSubmissionFor(quizExercise);
+        quizSubmissionWebsocketService.saveSubmission(quizExercise.getId(), otherSubmission, student2);
+        verify(messagingTemplate, times(1)).convertAndSendToUser("student2", submissionDestination, otherSubmission);
+
+        // the quiz is ended early, so no submission is accepted anymore
+        quizExercise.setDuration(-Constants.QUIZ_GRACE_PERIOD_IN_SECONDS);
+        quizExerciseService.save(quizExercise);
+        quizSubmissionWebsocketService.saveSubmission(quizExercise.getId(), wrongQuizSubmissionFor(quizExercise), student2);
+        quizSubmissionWebsocketService.saveSubmissionDelta(quizExercise.getId(), delta, student2);
+        verify(messagingTemplate, times(2)).convertAndSendToUser("student2", submissionDestination, "the quiz is not active");
+        assertThat(QuizScheduleService.getQuizSubmission(quizExercise.getId(), "student2")).isSameAs(otherSubmission);
+    }
+
     @Test
     @WithMockUser(value = "student1", roles = "USER")
     public void testQuizSubmitPractice() throws Exception {
@@ -0,0 +1,295 @@
+package de.tum.in.www1.artemis.domain.quiz.scoring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.tum.in.www1.artemis.domain.SubmittedAnswer;
+import de.tum.in.www1.artemis.domain.enumeration.ScoringType;
+import de.tum.in.www1.artemis.domain.quiz.*;
+
+/**
+ * Compares the scores of the compiled answer key with the scores of the ScoringStrategy implementations for a large corpus of randomly generated quizzes and submissions.
+ */
+public class CompiledQuizAnswerKeyTest {
+
+    private static final int NUMBER_OF_QUIZZES = 300;
+
+    private static final int SUBMISSIONS_PER_QUIZ = 40;
+
+    private static final String[] WORDS = { "java", "Java", "jav", "python", "pyhton", "c", "", "kotlin", "Kotlin ", "scala", "haskell", "haskel" };
+
+    private Random random;
+
+    private long nextId;
+
+    @BeforeEach
+    public void init() {
+        random = new Random(4711);
+        nextId = 1;
+    }
+
+    @Test
+    public void calculateAndUpdateScores_sameScoresAsScoringStrategies() {
+        int scoredAnswers = 0;
+        for (int quizIndex = 0; quizIndex < NUMBER_OF_QUIZZES; quizIndex++) {
+            QuizExercise quizExercise = createQuiz();
+            CompiledQuizAnswerKey answerKey = CompiledQuizAnswerKey.compile(quizExercise);
+            for (int submissionIndex = 0; submissionIndex < SUBMISSIONS_PER_QUIZ; submissionIndex++) {
+                QuizSubmission quizSubmission = createSubmission(quizExercise);
+                List<Boolean> initialCorrectness = correctnessOfSubmittedTexts(quizSubmission);
+
+                // expected: the scores of the ScoringStrategy implementations (including the correctness of the submitted texts they set)
+                List<Double> expectedScores = new ArrayList<>();
+                for (QuizQuestion quizQuestion : quizExercise.getQuizQuestions()) {
+                    SubmittedAnswer submittedAnswer = quizSubmission.getSubmittedAnswerForQuestion(quizQuestion);
+                    expectedScores.add(submittedAnswer != null ? ScoringStrategyFactory.makeScoringStrategy(quizQuestion).calculateScore(quizQuestion, submittedAnswer) : null);
+                }
+                Double expectedTotalScore = quizExercise.getScoreInPointsForSubmission(quizSubmission);
+                List<Boolean> expectedCorrectness = correctnessOfSubmittedTexts(quizSubmission);
+                resetCorrectnessOfSubmittedTexts(quizSubmission, initialCorrectness);
+
+                quizSubmission.calculateAndUpdateScores(answerKey);
+
+                String description = "quiz " + quizIndex + ", submission " + submissionIndex;
+                for (int i = 0; i < quizExercise.getQuizQuestions().size(); i++) {
+                    SubmittedAnswer submittedAnswer = quizSubmission.getSubmittedAnswerForQuestion(quizExercise.getQuizQuestions().get(i));
+                    if (submittedAnswer != null) {
+                        assertThat(submittedAnswer.getScoreInPoints()).as(description + ", question " + i).isEqualTo(expectedScores.get(i));
+                        scoredAnswers++;
+                    }
+                }
+                assertThat(quizSubmission.getScoreInPoints()).as(description).isEqualTo(expectedTotalScore);
+                assertThat(correctnessOfSubmittedTexts(quizSubmission)).as(description).isEqualTo(expectedCorrectness);
+            }
+        }
+        assertThat(scoredAnswers).isGreaterThan(NUMBER_OF_QUIZZES * SUBMISSIONS_PER_QUIZ);
+    }
+
+    @Test
+    public void calculateAndUpdateScores_fallsBackToScoringStrategy() {
+        QuizExercise quizExercise = new QuizExercise();
+        // elements with temporary ids (i.e. not saved yet) are not compiled
+        DragAndDropQuestion question = createDragAndDropQuestion();
+        question.setInvalid(false);
+        question.getDropLocations().forEach(dropLocation -> dropLocation.setTempID(nextId()));
+        quizExercise.addQuestions(question);
+
+        QuizSubmission quizSubmission = new QuizSubmission();
+        DragAndDropSubmittedAnswer submittedAnswer = new DragAndDropSubmittedAnswer();
+        submittedAnswer.setQuizQuestion(question);
+        for (DragAndDropMapping correctMapping : question.getCorrectMappings()) {
+            submittedAnswer.addMappings(new DragAndDropMapping().dragItem(correctMapping.getDragItem()).dropLocation(correctMapping.getDropLocation()));
+        }
+        quizSubmission.addSubmittedAnswers(submittedAnswer);
+
+        Double expectedScore = quizExercise.getScoreInPointsForSubmission(quizSubmission);
+        quizSubmission.calculateAndUpdateScores(quizExercise);
+
+        assertThat(quizSubmission.getScoreInPoints()).isEqualTo(expectedScore);
+        assertThat(submittedAnswer.getScoreInPoints()).isEqualTo(expectedScore);
+    }
+
+    private QuizExercise createQuiz() {
+        QuizExercise quizExercise = new QuizExercise();
+        int numberOfQuestions = 1 + random.nextInt(4);
+        for (int i = 0; i < numberOfQuestions; i++) {
+            int type = random.nextInt(3);
+            QuizQuestion question = type == 0 ? createMultipleChoiceQuestion() : type == 1 ? createDragAndDropQuestion() : createShortAnswerQuestion();
+            quizExercise.addQuestions(question);
+        }
+        return quizExercise;
+    }
+
+    private void initQuestion(QuizQuestion question) {
+        question.setId(nextId());
+        question.setScore(1 + random.nextInt(5));
+        question.setScoringType(random.nextBoolean() ? ScoringType.ALL_OR_NOTHING : ScoringType.PROPORTIONAL_WITH_PENALTY);
+        question.setInvalid(random.nextInt(20) == 0);
+    }
+
+    private MultipleChoiceQuestion createMultipleChoiceQuestion() {
+        MultipleChoiceQuestion question = new MultipleChoiceQuestion();
+        initQuestion(question);
+        int numberOfOptions = random.nextInt(7);
+        for (int i = 0; i < numberOfOptions; i++) {
+            AnswerOption answerOption = new AnswerOption().text("option " + i).isCorrect(random.nextBoolean());
+            answerOption.setId(nextId());
+            answerOption.setInvalid(random.nextInt(8) == 0);
+            answerOption.setQuestion(question);
+            question.getAnswerOptions().add(answerOption);
+        }
+        return question;
+    }
+
+    private DragAndDropQuestion createDragAndDropQuestion() {
+        DragAndDropQuestion question = new DragAndDropQuestion();
+        initQuestion(question);
+        int numberOfDragItems = 1 + random.nextInt(5);
+        for (int i = 0; i < numberOfDragItems; i++) {
+            DragItem dragItem = new DragItem().text("item " + i);
+            dragItem.setId(nextId());
+            dragItem.setInvalid(random.nextInt(8) == 0);
+            question.addDragItems(dragItem);
+        }
+        int numberOfDropLocations = 1 + random.nextInt(5);
+        for (int i = 0; i < numberOfDropLocations; i++) {
+            DropLocation dropLocation = new DropLocation();
+            dropLocation.setId(nextId());
+            dropLocation.setInvalid(random.nextInt(8) == 0);
+            dropLocation.setQuestion(question);
+            question.getDropLocations().add(dropLocation);
+            // some drop locations are meant to stay empty, some have several correct drag items
+            int numberOfCorrectDragItems = random.nextInt(3);
+            for (int j = 0; j < numberOfCorrectDragItems; j++) {
+                DragItem dragItem = question.getDragItems().get(random.nextInt(numberOfDragItems));
+                question.addCorrectMappings(new DragAndDropMapping().dragItem(dragItem).dropLocation(dropLocation));
+            }
+        }
+        return question;
+    }
+
+    private ShortAnswerQuestion createShortAnswerQuestion() {
+        ShortAnswerQuestion question = new ShortAnswerQuestion();
+        initQuestion(question);
+        int numberOfSolutions = 1 + random.nextInt(5);
+        for (int i = 0; i < numberOfSolutions; i++) {
+            ShortAnswerSolution solution = new ShortAnswerSolution().text(WORDS[random.nextInt(WORDS.length)]);
+            solution.setId(nextId());
+            question.addSolutions(solution);
+        }
+        int numberOfSpots = 1 + random.nextInt(4);
+        for (int i = 0; i < numberOfSpots; i++) {
+            ShortAnswerSpot spot = new ShortAnswerSpot().spotNr(i);
+            spot.setId(nextId());
+            spot.setInvalid(random.nextInt(10) == 0 ? Boolean.TRUE : random.nextBoolean() ? Boolean.FALSE : null);
+            spot.setQuestion(question);
+            question.getSpots().add(spot);
+            // solutions can be shared between spots, but each solution can only be used once per answer
+            int numberOfCorrectSolutions = random.nextInt(3);
+            for (int j = 0; j < numberOfCorrectSolutions; j++) {
+                ShortAnswerSolution solution = question.getSolutions().get(random.nextInt(numberOfSolutions));
+                question.addCorrectMappings(new ShortAnswerMapping().spot(spot).solution(solution));
+            }
+        }
+        return question;
+    }
+
+    private QuizSubmission createSubmission(QuizExercise quizExercise) {
+        QuizSubmission quizSubmission = new QuizSubmission();
+        for (QuizQuestion question : quizExercise.getQuizQuestions()) {
+            if (random.nextInt(10) == 0) {
+                // not answered
+                continue;
+            }
+            if (random.nextInt(30) == 0) {
+                // answer of the wrong type
+                MultipleChoiceSubmittedAnswer submittedAnswer = new MultipleChoiceSubmittedAnswer();
+                submittedAnswer.setQuizQuestion(question);
+                quizSubmission.addSubmittedAnswers(submittedAnswer);
+            }
+            else if (question instanceof MultipleChoiceQuestion) {
+                quizSubmission.addSubmittedAnswers(createMultipleChoiceAnswer((MultipleChoiceQuestion) question));
+            }
+            else if (question instanceof DragAndDropQuestion) {
+                quizSubmission.addSubmittedAnswers(createDragAndDropAnswer((DragAndDropQuestion) question));
+            }
+            else {
+                quizSubmission.addSubmittedAnswers(createShortAnswerAnswer((ShortAnswerQuestion) question));
+            }
+        }
+        return quizSubmission;
+    }
+
+    private MultipleChoiceSubmittedAnswer createMultipleChoiceAnswer(MultipleChoiceQuestion question) {
+        MultipleChoiceSubmittedAnswer submittedAnswer = new MultipleChoiceSubmittedAnswer();
+        submittedAnswer.setQuizQuestion(question);
+        for (AnswerOption answerOption : question.getAnswerOptions()) {
+            if (random.nextBoolean()) {
+                // submitted answers reference copies (e.g. deserialized from the client), not the answer options of the quiz
+                submittedAnswer.addSelectedOptions(copyOf(answerOption));
+            }
+        }
+        if (random.nextInt(10) == 0) {
+            AnswerOption unknownOption = new AnswerOption();
+            unknownOption.setId(nextId());
+            submittedAnswer.addSelectedOptions(unknownOption);
+        }
+        return submittedAnswer;
+    }
+
+    private DragAndDropSubmittedAnswer createDragAndDropAnswer(DragAndDropQuestion question) {
+        DragAndDropSubmittedAnswer submittedAnswer = new DragAndDropSubmittedAnswer();
+        submittedAnswer.setQuizQuestion(question);
+        for (DropLocation dropLocation : question.getDropLocations()) {
+            // several mappings onto the same drop location are possible
+            int numberOfMappings = random.nextInt(4) == 0 ? 0 : random.nextInt(8) == 0 ? 2 : 1;
+            for (int i = 0; i < numberOfMappings; i++) {
+                DragItem dragItem = null;
+                if (random.nextInt(10) > 0) {
+                    DragItem original = question.getDragItems().get(random.nextInt(question.getDragItems().size()));
+                    dragItem = new DragItem().text(original.getText());
+                    dragItem.setId(random.nextInt(20) == 0 ? nextId() : original.getId());
+                    dragItem.setInvalid(random.nextInt(8) == 0);
+                }
+                DropLocation submittedDropLocation = new DropLocation();
+                submittedDropLocation.setId(random.nextInt(20) == 0 ? nextId() : dropLocation.getId());
+                submittedAnswer.addMappings(new DragAndDropMapping().dragItem(dragItem).dropLocation(submittedDropLocation));
+            }
+        }
+        return submittedAnswer;
+    }
+
+    private ShortAnswerSubmittedAnswer createShortAnswerAnswer(ShortAnswerQuestion question) {
+        ShortAnswerSubmittedAnswer submittedAnswer = new ShortAnswerSubmittedAnswer();
+        submittedAnswer.setQuizQuestion(question);
+        for (ShortAnswerSpot spot : question.getSpots()) {
+            if (random.nextInt(8) == 0) {
+                continue;
+            }
+            ShortAnswerSpot submittedSpot = new ShortAnswerSpot();
+            submittedSpot.setId(spot.getId());
+            String text = WORDS[random.nextInt(WORDS.length)];
+            submittedAnswer.addSubmittedTexts(new ShortAnswerSubmittedText().text(random.nextBoolean() ? text.toUpperCase() : text).spot(submittedSpot));
+        }
+        return submittedAnswer;
+    }
+
+    private AnswerOption copyOf(AnswerOption answerOption) {
+        AnswerOption copy = new AnswerOption().text(answerOption.getText());
+        copy.setId(answerOption.getId());
+        return copy;
+    }
+
+    private List<Boolean> correctnessOfSubmittedTexts(QuizSubmission quizSubmission) {
+        List<Boolean> correctness = new ArrayList<>();
+        for (SubmittedAnswer submittedAnswer : quizSubmission.getSubmittedAnswers()) {
+            if (submittedAnswer instanceof ShortAnswerSubmittedAnswer) {
+                for (ShortAnswerSubmittedText submittedText : ((ShortAnswerSubmittedAnswer) submittedAnswer).getSubmittedTexts()) {
+                    correctness.add(submittedText.isIsCorrect());
+                }
+            }
+        }
+        return correctness;
+    }
+
+    private void resetCorrectnessOfSubmittedTexts(QuizSubmission quizSubmission, List<Boolean> correctness) {
+        int index = 0;
+        for (SubmittedAnswer submittedAnswer : quizSubmission.getSubmittedAnswers()) {
+            if (submittedAnswer instanceof ShortAnswerSubmittedAnswer) {
+                for (ShortAnswerSubmittedText submittedText : ((ShortAnswerSubmittedAnswer) submittedAnswer).getSubmittedTexts()) {
+                    submittedText.setIsCorrect(correctness.get(index++));
+                }
+            }
+        }
+    }
+
+    private long nextId() {
+        return nextId++;
+    }
+}
@@ -0,0 +1,110 @@
+package de.tum.in.www1.artemis.service.compass;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class CompassAssessmentQueueTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private List<String> events;
+
+    private CountDownLatch releaseAssessment;
+
+    private CompassAssessmentQueue queue;
+
+    @BeforeEach
+    public void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        events = Collections.synchronizedList(new ArrayList<>());
+        releaseAssessment = new CountDownLatch(0);
+        queue = new CompassAssessmentQueue(1, (exerciseId, submissionIds) -> {
+            try {
+                releaseAssessment.await();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (submissionIds != null && submissionIds.contains(-1L)) {
+                throw new IllegalStateException("Submission could not be loaded");
+            }
+            events.add("assess " + exerciseId + " " + (submissionIds != null ? new TreeSet<>(submissionIds) : "all"));
+        }, meterRegistry);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        queue.shutdown();
+    }
+
+    @Test
+    public void submit_assessesAfterUpdate() throws Exception {
+        queue.submit(1, () -> events.add("update 1"), Set.of(10L)).get(5, TimeUnit.SECONDS);
+
+        assertThat(events).containsExactly("update 1", "assess 1 [10]");
+        assertThat(meterRegistry.get("artemis.compass.assessment.duration").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void assess_coalescesPendingAssessments() throws Exception {
+        releaseAssessment = new CountDownLatch(1);
+        CompletableFuture<Void> running = queue.assess(1, Set.of(10L));
+        // wait until the first assessment has been started, so that the next ones are pending
+        while (queue.getQueueSize() > 0) {
+            Thread.sleep(10);
+        }
+
+        CompletableFuture<Void> pending = queue.assess(2, Set.of(20L));
+        assertThat(queue.assess(2, Set.of(21L))).isSameAs(pending);
+        assertThat(queue.assess(2, Set.of(22L))).isSameAs(pending);
+        assertThat(queue.getQueueSize()).isEqualTo(1);
+        assertThat(queue.getStalenessMillis()).isGreaterThanOrEqualTo(0);
+
+        releaseAssessment.countDown();
+        CompletableFuture.allOf(running, pending).get(5, TimeUnit.SECONDS);
+
+        assertThat(events).containsExactly("assess 1 [10]", "assess 2 [20, 21, 22]");
+        assertThat(meterRegistry.get("artemis.compass.assessment.coalesced").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("artemis.compass.assessment.queue").gauge().value()).isEqualTo(0);
+        assertThat(queue.getStalenessMillis()).isEqualTo(0);
+    }
+
+    @Test
+    public void assess_allSubmissionsIncludeSingleSubmissions() throws Exception {
+        releaseAssessment = new CountDownLatch(1);
+        CompletableFuture<Void> running = queue.assess(1, Set.of(10L));
+        while (queue.getQueueSize() > 0) {
+            Thread.sleep(10);
+        }
+
+        queue.assess(1, Set.of(11L));
+        CompletableFuture<Void> pending = queue.assess(1, null);
+        queue.assess(1, Set.of(12L));
+
+        releaseAssessment.countDown();
+        CompletableFuture.allOf(running, pending).get(5, TimeUnit.SECONDS);
+
+        assertThat(events).containsExactly("assess 1 [10]", "assess 1 all");
+    }
+
+    @Test
+    public void assess_failedAssessmentCompletesExceptionally() throws Exception {
+        CompletableFuture<Void> failed = queue.assess(1, Set.of(-1L));
+
+        assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+        queue.assess(1, Set.of(10L)).get(5, TimeUnit.SECONDS);
+        assertThat(events).containsExactly("assess 1 [10]");
+    }
+}
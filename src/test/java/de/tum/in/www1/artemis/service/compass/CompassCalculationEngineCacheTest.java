@@ -0,0 +1,152 @@
+package de.tum.in.www1.artemis.service.compass;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class CompassCalculationEngineCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private Map<Long, CalculationEngine> engines;
+
+    private Map<Long, CalculationEngine> evictedEngines;
+
+    private CompassCalculationEngineCache cache;
+
+    @BeforeEach
+    public void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        engines = new HashMap<>();
+        evictedEngines = new LinkedHashMap<>();
+        cache = new CompassCalculationEngineCache(1000, 2, engines::get, evictedEngines::put, meterRegistry);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        cache.shutdown();
+    }
+
+    @Test
+    public void getOrLoad_evictsLeastRecentlyUsedEngines() {
+        CalculationEngine engine1 = engine(1, 400, LocalDateTime.now());
+        CalculationEngine engine2 = engine(2, 400, LocalDateTime.now());
+        CalculationEngine engine3 = engine(3, 400, LocalDateTime.now());
+
+        assertThat(cache.getOrLoad(1).join()).isSameAs(engine1);
+        assertThat(cache.getOrLoad(2).join()).isSameAs(engine2);
+        // engine 1 is used more recently than engine 2
+        assertThat(cache.get(1)).isSameAs(engine1);
+        assertThat(cache.getOrLoad(3).join()).isSameAs(engine3);
+
+        assertThat(evictedEngines).containsExactly(Map.entry(2L, engine2));
+        assertThat(cache.get(2)).isNull();
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.getEstimatedMemoryUsage()).isEqualTo(800);
+        assertThat(meterRegistry.get("artemis.compass.engines.memory").gauge().value()).isEqualTo(800);
+        assertThat(meterRegistry.get("artemis.compass.engine.evictions").tag("reason", "memory").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("artemis.compass.engine.load.duration").timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    public void evictIfNecessary_keepsSingleEngineOverBudget() {
+        CalculationEngine engine1 = engine(1, 400, LocalDateTime.now());
+        CalculationEngine engine2 = engine(2, 400, LocalDateTime.now());
+        cache.getOrLoad(1).join();
+        cache.getOrLoad(2).join();
+
+        // engine 2 has grown beyond the memory budget on its own
+        when(engine2.getEstimatedMemoryUsage()).thenReturn(1500L);
+        cache.evictIfNecessary();
+
+        assertThat(evictedEngines).containsExactly(Map.entry(1L, engine1));
+        assertThat(cache.get(2)).isSameAs(engine2);
+    }
+
+    @Test
+    public void getOrLoad_loadsEngineOnce() throws Exception {
+        CalculationEngine engine = engine(1, 100, LocalDateTime.now());
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch releaseLoad = new CountDownLatch(1);
+        cache.shutdown();
+        cache = new CompassCalculationEngineCache(1000, 2, exerciseId -> {
+            loads.incrementAndGet();
+            try {
+                releaseLoad.await();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return engine;
+        }, evictedEngines::put, new SimpleMeterRegistry());
+
+        CompletableFuture<CalculationEngine> firstRequest = cache.getOrLoad(1);
+        CompletableFuture<CalculationEngine> secondRequest = cache.getOrLoad(1);
+        assertThat(firstRequest).isNotDone();
+        assertThat(cache.get(1)).isNull();
+
+        releaseLoad.countDown();
+        assertThat(firstRequest.get(5, TimeUnit.SECONDS)).isSameAs(engine);
+        assertThat(secondRequest.get(5, TimeUnit.SECONDS)).isSameAs(engine);
+        assertThat(cache.getOrLoad(1)).isCompletedWithValue(engine);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    public void getOrLoad_failedLoadIsRetried() {
+        AtomicInteger loads = new AtomicInteger();
+        CalculationEngine engine = engine(2, 100, LocalDateTime.now());
+        cache.shutdown();
+        cache = new CompassCalculationEngineCache(1000, Executors.newSingleThreadExecutor(), exerciseId -> {
+            if (loads.incrementAndGet() == 1) {
+                throw new IllegalStateException("Database not available");
+            }
+            return engine;
+        }, evictedEngines::put, new SimpleMeterRegistry());
+
+        assertThrows(CompletionException.class, () -> cache.getOrLoad(1).join());
+        assertThat(cache.getOrLoad(1).join()).isSameAs(engine);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    public void evictUnusedEngines() {
+        CalculationEngine unusedEngine = engine(1, 100, LocalDateTime.now().minusDays(2));
+        engine(2, 100, LocalDateTime.now());
+        cache.getOrLoad(1).join();
+        cache.getOrLoad(2).join();
+
+        cache.evictUnusedEngines(1);
+
+        assertThat(evictedEngines).containsExactly(Map.entry(1L, unusedEngine));
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(meterRegistry.get("artemis.compass.engine.evictions").tag("reason", "unused").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("artemis.compass.engines").gauge().value()).isEqualTo(1);
+    }
+
+    private CalculationEngine engine(long exerciseId, long estimatedMemoryUsage, LocalDateTime lastUsedAt) {
+        CalculationEngine engine = mock(CalculationEngine.class);
+        when(engine.getEstimatedMemoryUsage()).thenReturn(estimatedMemoryUsage);
+        when(engine.getLastUsedAt()).thenReturn(lastUsedAt);
+        engines.put(exerciseId, engine);
+        return engine;
+    }
+}
@@ -0,0 +1,151 @@
+package de.tum.in.www1.artemis.service.compass;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZonedDateTime;
+import java.util.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.google.gson.JsonParser;
+
+import de.tum.in.www1.artemis.domain.Feedback;
+import de.tum.in.www1.artemis.domain.Result;
+import de.tum.in.www1.artemis.domain.enumeration.AssessmentType;
+import de.tum.in.www1.artemis.domain.modeling.ModelingSubmission;
+import de.tum.in.www1.artemis.service.compass.controller.JSONParser;
+import de.tum.in.www1.artemis.service.compass.umlmodel.UMLDiagram;
+import de.tum.in.www1.artemis.service.compass.umlmodel.UMLElement;
+import de.tum.in.www1.artemis.util.DatabaseUtilService;
+
+class CompassCalculationEngineSnapshotTest {
+
+    @TempDir
+    Path snapshotDirectory;
+
+    private List<String> models;
+
+    @BeforeEach
+    void loadModels() throws Exception {
+        models = DatabaseUtilService.loadCompassModelsFromResources();
+    }
+
+    @Test
+    void restoreFromSnapshot_sameSimilaritySetsAndAssessments() throws Exception {
+        Set<ModelingSubmission> submissions = createSubmissions(models);
+        CompassCalculationEngine engine = new CompassCalculationEngine(submissions);
+        engine.getNextOptimalModels(2);
+
+        CompassSnapshotStore snapshotStore = new CompassSnapshotStore(snapshotDirectory);
+        snapshotStore.save(1L, engine.createSnapshot());
+        CompassCalculationEngine restoredEngine = new CompassCalculationEngine(submissions, snapshotStore.load(1L).orElseThrow());
+
+        assertThat(restoredEngine.isRestoredFromSnapshot()).isTrue();
+        assertSameEngineState(restoredEngine, engine);
+        assertThat(restoredEngine.getModelsWaitingForAssessment()).containsExactlyInAnyOrderElementsOf(engine.getModelsWaitingForAssessment());
+
+        // new models get the same similarity ids as in the engine that was built from scratch
+        engine.notifyNewModel(models.get(0), 1000L);
+        restoredEngine.notifyNewModel(models.get(0), 1000L);
+        assertSameEngineState(restoredEngine, engine);
+    }
+
+    @Test
+    void restoreFromSnapshot_changedSubmission_buildFromScratch() throws Exception {
+        CompassCalculationEngine engine = new CompassCalculationEngine(createSubmissions(models));
+        CompassSnapshot snapshot = engine.createSnapshot();
+
+        List<String> changedModels = new ArrayList<>(models);
+        Collections.swap(changedModels, 0, 1);
+        Set<ModelingSubmission> changedSubmissions = createSubmissions(changedModels);
+        CompassCalculationEngine restoredEngine = new CompassCalculationEngine(changedSubmissions, snapshot);
+
+        assertThat(restoredEngine.isRestoredFromSnapshot()).isFalse();
+        assertSameEngineState(restoredEngine, new CompassCalculationEngine(changedSubmissions));
+
+        Set<ModelingSubmission> removedSubmissions = createSubmissions(models);
+        removedSubmissions.remove(removedSubmissions.iterator().next());
+        assertThat(new CompassCalculationEngine(removedSubmissions, snapshot).isRestoredFromSnapshot()).isFalse();
+    }
+
+    @Test
+    void restoreFromSnapshot_additionalSubmissions_analyzeOnlyNewModels() throws Exception {
+        CompassCalculationEngine engine = new CompassCalculationEngine(createSubmissions(models));
+        CompassSnapshot snapshot = engine.createSnapshot();
+
+        Set<ModelingSubmission> additionalSubmissions = createSubmissions(models);
+        for (int i = 0; i < models.size(); i++) {
+            ModelingSubmission additionalSubmission = new ModelingSubmission();
+            additionalSubmission.setId(1000L + i);
+            additionalSubmission.setModel(models.get(i));
+            additionalSubmissions.add(additionalSubmission);
+        }
+        CompassCalculationEngine restoredEngine = new CompassCalculationEngine(additionalSubmissions, snapshot);
+
+        assertThat(restoredEngine.isRestoredFromSnapshot()).isTrue();
+        // the new submissions have the highest ids, so they are analyzed last when the engine is built from scratch as well
+        CompassCalculationEngine rebuiltEngine = new CompassCalculationEngine(additionalSubmissions);
+        assertSameEngineState(restoredEngine, rebuiltEngine);
+        assertThat(restoredEngine.getModelsWaitingForAssessment()).containsExactlyInAnyOrderElementsOf(rebuiltEngine.getModelsWaitingForAssessment());
+    }
+
+    @Test
+    void load_invalidSnapshot_empty() throws Exception {
+        CompassSnapshotStore snapshotStore = new CompassSnapshotStore(snapshotDirectory);
+        assertThat(snapshotStore.load(1L)).isEmpty();
+
+        Files.writeString(snapshotDirectory.resolve("exercise-1.snapshot"), "no snapshot");
+        assertThat(snapshotStore.load(1L)).isEmpty();
+
+        snapshotStore.save(1L, new CompassCalculationEngine(createSubmissions(models)).createSnapshot());
+        assertThat(snapshotStore.load(1L)).isPresent();
+        snapshotStore.delete(1L);
+        assertThat(snapshotStore.load(1L)).isEmpty();
+    }
+
+    /**
+     * Creates a submission for every model, every model is submitted three times. The first submission of every model is assessed manually, every element gets one point.
+     */
+    private Set<ModelingSubmission> createSubmissions(List<String> models) throws Exception {
+        Set<ModelingSubmission> submissions = new LinkedHashSet<>();
+        long submissionId = 1;
+        long feedbackId = 1;
+        for (String model : models) {
+            for (int i = 0; i < 3; i++) {
+                ModelingSubmission submission = new ModelingSubmission();
+                submission.setId(submissionId++);
+                submission.setModel(model);
+                if (i == 0) {
+                    List<Feedback> feedbacks = new ArrayList<>();
+                    UMLDiagram diagram = JSONParser.buildModelFromJSON(JsonParser.parseString(model).getAsJsonObject(), submission.getId());
+                    for (UMLElement element : diagram.getAllModelElements()) {
+                        Feedback feedback = new Feedback().reference(element.getType() + ":" + element.getJSONElementID()).credits(1.0);
+                        feedback.setId(feedbackId++);
+                        feedbacks.add(feedback);
+                    }
+                    submission.setResult(new Result().completionDate(ZonedDateTime.now()).assessmentType(AssessmentType.MANUAL).feedbacks(feedbacks));
+                }
+                submissions.add(submission);
+            }
+        }
+        return submissions;
+    }
+
+    private void assertSameEngineState(CompassCalculationEngine actual, CompassCalculationEngine expected) {
+        assertThat(actual.getModelIds()).containsExactlyInAnyOrderElementsOf(expected.getModelIds());
+        for (long modelId : expected.getModelIds()) {
+            UMLDiagram expectedModel = expected.getModelMap().get(modelId);
+            UMLDiagram actualModel = actual.getModelMap().get(modelId);
+            for (UMLElement expectedElement : expectedModel.getAllModelElements()) {
+                UMLElement actualElement = actualModel.getElementByJSONID(expectedElement.getJSONElementID());
+                assertThat(actualElement.getSimilarityID()).as(expectedElement.toString()).isEqualTo(expectedElement.getSimilarityID());
+                assertThat(actualElement.getContext()).isEqualTo(expectedElement.getContext());
+            }
+            assertThat(actual.getGradeForModel(modelId).getJsonIdPointsMapping()).isEqualTo(expected.getGradeForModel(modelId).getJsonIdPointsMapping());
+        }
+    }
+}
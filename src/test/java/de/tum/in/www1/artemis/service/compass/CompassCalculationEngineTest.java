@@ -0,0 +1,119 @@
+package de.tum.in.www1.artemis.service.compass;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import de.tum.in.www1.artemis.domain.modeling.ModelingSubmission;
+import de.tum.in.www1.artemis.service.compass.controller.JSONParser;
+import de.tum.in.www1.artemis.service.compass.controller.ModelIndex;
+import de.tum.in.www1.artemis.service.compass.controller.SimilarityDetector;
+import de.tum.in.www1.artemis.service.compass.umlmodel.UMLDiagram;
+import de.tum.in.www1.artemis.service.compass.umlmodel.UMLElement;
+import de.tum.in.www1.artemis.util.DatabaseUtilService;
+
+class CompassCalculationEngineTest {
+
+    @Test
+    void constructor_sameSimilarityIdsForAnyOrderOfSubmissions() throws Exception {
+        List<ModelingSubmission> submissions = new ArrayList<>();
+        long submissionId = 1;
+        for (String model : DatabaseUtilService.loadCompassModelsFromResources()) {
+            for (int i = 0; i < 5; i++) {
+                ModelingSubmission submission = new ModelingSubmission();
+                submission.setId(submissionId++);
+                submission.setModel(model);
+                submissions.add(submission);
+            }
+        }
+
+        assertSameSimilarityIdsForAnyOrderOfSubmissions(submissions);
+    }
+
+    @Test
+    void constructor_sameSimilarityIdsForAnyOrderOfSubmissions_parallelScoring() throws Exception {
+        // the classes get names of the same length from a pool of random names, some with a typo, so that they are compared to more unique classes than the threshold for
+        // scoring the candidates in parallel (see ModelIndex.PARALLEL_SCORING_THRESHOLD)
+        Random random = new Random(42);
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            names.add(randomName(random, 10));
+        }
+        List<ModelingSubmission> submissions = new ArrayList<>();
+        for (long submissionId = 1; submissionId <= 10; submissionId++) {
+            JsonArray elements = new JsonArray();
+            for (int i = 0; i < 80; i++) {
+                String name = names.get(random.nextInt(names.size()));
+                if (random.nextInt(10) == 0) {
+                    name = name.substring(0, 9) + randomName(random, 1);
+                }
+                JsonObject umlClass = new JsonObject();
+                umlClass.addProperty("id", UUID.nameUUIDFromBytes((submissionId + "-" + i).getBytes()).toString());
+                umlClass.addProperty("name", name);
+                umlClass.addProperty("type", "Class");
+                umlClass.add("attributes", new JsonArray());
+                umlClass.add("methods", new JsonArray());
+                elements.add(umlClass);
+            }
+            JsonObject model = new JsonObject();
+            model.addProperty("version", "2.0.0");
+            model.addProperty("type", "ClassDiagram");
+            model.add("elements", elements);
+            model.add("relationships", new JsonArray());
+
+            ModelingSubmission submission = new ModelingSubmission();
+            submission.setId(submissionId);
+            submission.setModel(model.toString());
+            submissions.add(submission);
+        }
+
+        ModelIndex modelIndex = assertSameSimilarityIdsForAnyOrderOfSubmissions(submissions);
+        assertThat(modelIndex.getNumberOfUniqueElements()).isGreaterThan(256);
+    }
+
+    /**
+     * Build the similarity sets of the given submissions sequentially in the order of the submission ids and check that the calculation engine assigns the same similarity ids
+     * to the model elements when the submissions are passed in a different order
+     *
+     * @return the model index with the similarity sets built sequentially
+     */
+    private static ModelIndex assertSameSimilarityIdsForAnyOrderOfSubmissions(List<ModelingSubmission> submissions) throws Exception {
+        ModelIndex expectedModelIndex = new ModelIndex();
+        for (ModelingSubmission submission : submissions) {
+            UMLDiagram model = JSONParser.buildModelFromJSON(JsonParser.parseString(submission.getModel()).getAsJsonObject(), submission.getId());
+            SimilarityDetector.analyzeSimilarity(model, expectedModelIndex);
+            expectedModelIndex.addModel(model);
+        }
+
+        for (int seed = 0; seed < 3; seed++) {
+            List<ModelingSubmission> shuffledSubmissions = new ArrayList<>(submissions);
+            Collections.shuffle(shuffledSubmissions, new Random(seed));
+            CompassCalculationEngine engine = new CompassCalculationEngine(new LinkedHashSet<>(shuffledSubmissions));
+
+            assertThat(engine.getModelIds()).hasSameSizeAs(submissions);
+            for (UMLDiagram expectedModel : expectedModelIndex.getModelCollection()) {
+                UMLDiagram model = engine.getModelMap().get(expectedModel.getModelSubmissionId());
+                for (UMLElement expectedElement : expectedModel.getAllModelElements()) {
+                    assertThat(model.getElementByJSONID(expectedElement.getJSONElementID()).getSimilarityID()).as(expectedElement.toString())
+                            .isEqualTo(expectedElement.getSimilarityID());
+                }
+                assertThat(model.getLastAssessmentCompassResult()).isNotNull();
+            }
+        }
+        return expectedModelIndex;
+    }
+
+    private static String randomName(Random random, int length) {
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            name.append((char) ('a' + random.nextInt(26)));
+        }
+        return name.toString();
+    }
+}
@@ -0,0 +1,84 @@
+package de.tum.in.www1.artemis.service.compass.controller;
+
+import static com.google.gson.JsonParser.parseString;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import de.tum.in.www1.artemis.service.compass.umlmodel.UMLDiagram;
+import de.tum.in.www1.artemis.service.compass.umlmodel.UMLElement;
+import de.tum.in.www1.artemis.service.compass.umlmodel.activitydiagram.UMLActivityElement;
+import de.tum.in.www1.artemis.service.compass.umlmodel.classdiagram.UMLClass;
+import de.tum.in.www1.artemis.service.compass.umlmodel.classdiagram.UMLRelationship;
+import de.tum.in.www1.artemis.util.DatabaseUtilService;
+
+class JSONStreamParserTest {
+
+    @Test
+    void buildModelFromJSON_sameModelsAsJSONParser() throws Exception {
+        for (var modelFile : DatabaseUtilService.loadModelSubmissionsFromResources().entrySet()) {
+            String model = modelFile.getValue();
+            String diagramType = parseString(model).getAsJsonObject().get("type").getAsString();
+
+            if ("ClassDiagram".equals(diagramType) || "ActivityDiagram".equals(diagramType)) {
+                assertSameModel(JSONStreamParser.buildModelFromJSON(model, 123456789), JSONParser.buildModelFromJSON(parseString(model).getAsJsonObject(), 123456789),
+                        modelFile.getKey());
+            }
+            else {
+                assertThrows(IllegalArgumentException.class, () -> JSONStreamParser.buildModelFromJSON(model, 123456789));
+            }
+        }
+    }
+
+    @Test
+    void buildModelFromJSON_propertiesInAnyOrder() throws Exception {
+        String model = "{\"elements\": [{\"bounds\": {\"x\": 0}, \"methods\": [], \"attributes\": [\"2\"], \"owner\": null, \"name\": \"Class\", \"type\": \"Class\", \"id\": \"1\"},"
+                + "{\"id\": \"2\", \"type\": \"ClassAttribute\", \"name\": \"attribute: int\", \"owner\": \"1\"}, {\"id\": 3, \"type\": \"Class\", \"name\": 42, \"attributes\": [],"
+                + "\"methods\": []}], \"relationships\": [{\"target\": {\"multiplicity\": \"*\", \"role\": null, \"element\": 3}, \"source\": {\"element\": \"1\"},"
+                + "\"id\": \"4\", \"type\": \"ClassBidirectional\"}], \"version\": \"2.0.0\", \"type\": \"ClassDiagram\"}";
+
+        assertSameModel(JSONStreamParser.buildModelFromJSON(model, 1), JSONParser.buildModelFromJSON(parseString(model).getAsJsonObject(), 1), "model");
+    }
+
+    @Test
+    void buildModelFromJSON_missingElement_exception() {
+        String model = "{\"type\": \"ClassDiagram\", \"elements\": [{\"id\": \"1\", \"type\": \"Class\", \"name\": \"Class\", \"attributes\": [\"2\"], \"methods\": []}],"
+                + "\"relationships\": []}";
+
+        assertThrows(IOException.class, () -> JSONStreamParser.buildModelFromJSON(model, 1));
+    }
+
+    private void assertSameModel(UMLDiagram actual, UMLDiagram expected, String description) {
+        assertThat(actual.getModelSubmissionId()).isEqualTo(expected.getModelSubmissionId());
+
+        List<UMLElement> actualElements = actual.getAllModelElements();
+        List<UMLElement> expectedElements = expected.getAllModelElements();
+        assertThat(actualElements).as(description).containsExactlyElementsOf(expectedElements);
+
+        for (int i = 0; i < expectedElements.size(); i++) {
+            UMLElement actualElement = actualElements.get(i);
+            UMLElement expectedElement = expectedElements.get(i);
+            assertThat(actualElement.toString()).as(description).isEqualTo(expectedElement.toString());
+            assertThat(actualElement.getJSONElementID()).as(description).isEqualTo(expectedElement.getJSONElementID());
+
+            if (expectedElement instanceof UMLClass && ((UMLClass) expectedElement).getUmlPackage() != null) {
+                assertThat(((UMLClass) actualElement).getUmlPackage().getJSONElementID()).isEqualTo(((UMLClass) expectedElement).getUmlPackage().getJSONElementID());
+            }
+            else if (expectedElement instanceof UMLClass) {
+                assertThat(((UMLClass) actualElement).getUmlPackage()).isNull();
+            }
+            else if (expectedElement instanceof UMLRelationship) {
+                assertThat(((UMLRelationship) actualElement).getSource().getJSONElementID()).isEqualTo(((UMLRelationship) expectedElement).getSource().getJSONElementID());
+                assertThat(((UMLRelationship) actualElement).getTarget().getJSONElementID()).isEqualTo(((UMLRelationship) expectedElement).getTarget().getJSONElementID());
+            }
+            else if (expectedElement instanceof UMLActivityElement && ((UMLActivityElement) expectedElement).getParentActivity() != null) {
+                assertThat(((UMLActivityElement) actualElement).getParentActivity().getJSONElementID())
+                        .isEqualTo(((UMLActivityElement) expectedElement).getParentActivity().getJSONElementID());
+            }
+        }
+    }
+}
@@ -4,13 +4,23 @@ import static de.tum.in.www1.artemis.service.compass.utils.CompassConfiguration.
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import de.tum.in.www1.artemis.service.compass.umlmodel.UMLDiagram;
 import de.tum.in.www1.artemis.service.compass.umlmodel.UMLElement;
+import de.tum.in.www1.artemis.util.DatabaseUtilService;
 
 @ExtendWith(MockitoExtension.class)
 class ModelIndexTest {
@@ -91,6 +101,92 @@ class ModelIndexTest {
         assertThat(modelIndex.getNumberOfUniqueElements()).isEqualTo(3);
     }
 
+    @Test
+    void retrieveSimilarityId_sameSimilarityIdsAsComparisonWithAllUniqueElements() throws Exception {
+        List<JsonObject> models = new ArrayList<>();
+        Random random = new Random(42);
+        for (String jsonModel : DatabaseUtilService.loadCompassModelsFromResources()) {
+            JsonObject model = JsonParser.parseString(jsonModel).getAsJsonObject();
+            models.add(model);
+            // variants of the model with slightly different names lead to similarities around the equality threshold
+            for (int i = 0; i < 20; i++) {
+                models.add(createVariant(model, random));
+            }
+        }
+
+        List<UMLElement> uniqueElements = new ArrayList<>();
+        int numberOfElements = 0;
+        for (int i = 0; i < models.size(); i++) {
+            UMLDiagram model = JSONParser.buildModelFromJSON(models.get(i), i);
+            UMLDiagram referenceModel = JSONParser.buildModelFromJSON(models.get(i), i);
+            List<UMLElement> elements = model.getAllModelElements();
+            List<UMLElement> referenceElements = referenceModel.getAllModelElements();
+            for (int j = 0; j < elements.size(); j++) {
+                int similarityId = modelIndex.retrieveSimilarityId(elements.get(j));
+                int expectedSimilarityId = retrieveSimilarityIdByComparisonWithAllUniqueElements(referenceElements.get(j), uniqueElements);
+                assertThat(similarityId).as("similarity id of " + elements.get(j)).isEqualTo(expectedSimilarityId);
+                elements.get(j).setSimilarityID(similarityId);
+                referenceElements.get(j).setSimilarityID(expectedSimilarityId);
+                numberOfElements++;
+            }
+        }
+
+        assertThat(modelIndex.getNumberOfUniqueElements()).isEqualTo(uniqueElements.size());
+        assertThat(uniqueElements.size()).isGreaterThan(0).isLessThan(numberOfElements);
+    }
+
+    /**
+     * The original similarity detection, which compares the element with all unique elements
+     */
+    private int retrieveSimilarityIdByComparisonWithAllUniqueElements(UMLElement element, List<UMLElement> uniqueElements) {
+        double bestSimilarity = -1.0;
+        int bestSimilarityId = -1;
+        for (UMLElement knownElement : uniqueElements) {
+            double similarity = knownElement.similarity(element);
+            if (similarity > EQUALITY_THRESHOLD && similarity > bestSimilarity) {
+                bestSimilarity = similarity;
+                bestSimilarityId = knownElement.getSimilarityID();
+            }
+        }
+        if (bestSimilarityId != -1) {
+            return bestSimilarityId;
+        }
+        uniqueElements.add(element);
+        return uniqueElements.size() - 1;
+    }
+
+    private JsonObject createVariant(JsonObject model, Random random) {
+        JsonObject variant = model.deepCopy();
+        for (JsonElement element : variant.getAsJsonArray("elements")) {
+            JsonObject elementObject = element.getAsJsonObject();
+            if (!elementObject.has("name") || elementObject.get("name").isJsonNull() || random.nextInt(3) == 0) {
+                continue;
+            }
+            StringBuilder name = new StringBuilder(elementObject.get("name").getAsString());
+            int position = name.length() > 0 ? random.nextInt(name.length()) : 0;
+            switch (random.nextInt(4)) {
+                case 0:
+                    name.insert(position, (char) ('a' + random.nextInt(26)));
+                    break;
+                case 1:
+                    name.append("s".repeat(1 + random.nextInt(3)));
+                    break;
+                case 2:
+                    if (name.length() > 0) {
+                        name.deleteCharAt(position);
+                    }
+                    break;
+                default:
+                    if (name.length() > 0) {
+                        char character = name.charAt(position);
+                        name.setCharAt(position, Character.isUpperCase(character) ? Character.toLowerCase(character) : Character.toUpperCase(character));
+                    }
+            }
+            elementObject.addProperty("name", name.toString());
+        }
+        return variant;
+    }
+
     private void mockSimilarityBetweenElements(UMLElement element1, UMLElement element2, double similarity) {
         when(element2.similarity(element1)).thenReturn(similarity);
     }
@@ -0,0 +1,140 @@
+package de.tum.in.www1.artemis.service.compass.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import de.tum.in.www1.artemis.service.compass.assessment.CompassResult;
+import de.tum.in.www1.artemis.service.compass.umlmodel.UMLDiagram;
+import de.tum.in.www1.artemis.util.DatabaseUtilService;
+
+class ModelSelectorTest {
+
+    private static final double[] COVERAGES = { 0, 0.1, 0.25, 0.5, 0.8, 1 };
+
+    private List<JsonObject> jsonModels;
+
+    private ModelIndex modelIndex;
+
+    private ModelSelector modelSelector;
+
+    private final Random random = new Random(42);
+
+    private long nextSubmissionId = 1;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jsonModels = new ArrayList<>();
+        for (String model : DatabaseUtilService.loadCompassModelsFromResources()) {
+            jsonModels.add(JsonParser.parseString(model).getAsJsonObject());
+        }
+        modelIndex = new ModelIndex();
+        modelSelector = new ModelSelector(modelIndex);
+    }
+
+    @Test
+    void selectNextModels_sameModelsAsComparisonWithAllUnhandledModels() throws Exception {
+        for (int i = 0; i < 60; i++) {
+            addModel();
+        }
+        assessRandomly(modelIndex.getModelCollection());
+        Set<Long> alreadyHandledModels = new HashSet<>();
+
+        for (int step = 0; step < 100; step++) {
+            switch (random.nextInt(4)) {
+                case 0:
+                    List<Long> expectedModels = selectNextModelsByComparisonWithAllUnhandledModels(alreadyHandledModels, 2);
+                    alreadyHandledModels.addAll(expectedModels);
+                    assertThat(modelSelector.selectNextModels(2)).as("step " + step).isEqualTo(expectedModels);
+                    break;
+                case 1:
+                    // a tutor cancels an assessment
+                    if (!alreadyHandledModels.isEmpty()) {
+                        long modelId = new ArrayList<>(alreadyHandledModels).get(random.nextInt(alreadyHandledModels.size()));
+                        alreadyHandledModels.remove(modelId);
+                        modelSelector.removeAlreadyHandledModel(modelId);
+                    }
+                    break;
+                case 2:
+                    // a new assessment changes the coverage of the models
+                    assessRandomly(modelIndex.getModelCollection().stream().filter(model -> random.nextInt(3) == 0).collect(Collectors.toList()));
+                    break;
+                default:
+                    UMLDiagram model = addModel();
+                    assessRandomly(List.of(model));
+            }
+        }
+        assertThat(modelSelector.getAlreadyHandledModels()).isEqualTo(alreadyHandledModels);
+    }
+
+    @Test
+    void selectNextModels_noUnhandledModels() throws Exception {
+        assertThat(modelSelector.selectNextModels(2)).isEmpty();
+
+        UMLDiagram model = addModel();
+        modelSelector.addAlreadyHandledModel(model.getModelSubmissionId());
+        assertThat(modelSelector.selectNextModels(2)).isEmpty();
+
+        modelSelector.removeAlreadyHandledModel(model.getModelSubmissionId());
+        assertThat(modelSelector.selectNextModels(2)).containsExactly(model.getModelSubmissionId());
+        assertThat(modelSelector.getModelsWaitingForAssessment()).containsExactly(model.getModelSubmissionId());
+    }
+
+    private UMLDiagram addModel() throws Exception {
+        UMLDiagram model = JSONParser.buildModelFromJSON(jsonModels.get(random.nextInt(jsonModels.size())), nextSubmissionId++);
+        SimilarityDetector.analyzeSimilarity(model, modelIndex);
+        modelIndex.addModel(model);
+        modelSelector.addModel(model);
+        return model;
+    }
+
+    private void assessRandomly(Collection<UMLDiagram> models) {
+        for (UMLDiagram model : models) {
+            model.setLastAssessmentCompassResult(new CompassResult(new HashMap<>(), COVERAGES[random.nextInt(COVERAGES.length)]));
+            modelSelector.updateCoverage(model);
+        }
+    }
+
+    /**
+     * The selection of the next models as it was implemented before the unhandled models were indexed: all unhandled models are sorted by their coverage and the mean similarity
+     * of every candidate is calculated by comparing it with all unhandled models.
+     */
+    private List<Long> selectNextModelsByComparisonWithAllUnhandledModels(Set<Long> alreadyHandledModels, int numberOfModels) {
+        double threshold = 0.15;
+        int maxCandidateListSize = 10;
+
+        List<UMLDiagram> unhandledModels = modelIndex.getModelCollection().stream().filter(model -> !alreadyHandledModels.contains(model.getModelSubmissionId()))
+                .sorted(Comparator.comparingDouble(UMLDiagram::getLastAssessmentCoverage).thenComparingLong(UMLDiagram::getModelSubmissionId)).collect(Collectors.toList());
+        if (unhandledModels.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        double smallestCoverage = unhandledModels.get(0).getLastAssessmentCoverage();
+        if (smallestCoverage < 1) {
+            while (maxCandidateListSize + 5 < unhandledModels.size() && smallestCoverage > (unhandledModels.get(maxCandidateListSize).getLastAssessmentCoverage() - threshold)
+                    && maxCandidateListSize < 50) {
+                maxCandidateListSize += 5;
+            }
+        }
+        List<UMLDiagram> candidates = unhandledModels.subList(0, Math.min(unhandledModels.size(), maxCandidateListSize));
+
+        SortedMap<Double, Long> sortedSimilarityMap = new TreeMap<>(Collections.reverseOrder());
+        double epsilon = 0.0000001;
+        for (UMLDiagram candidate : candidates) {
+            double similarity = 0;
+            for (UMLDiagram model : unhandledModels) {
+                similarity += model.similarity(candidate);
+            }
+            sortedSimilarityMap.put(similarity / unhandledModels.size() + epsilon, candidate.getModelSubmissionId());
+            epsilon += 0.0000001;
+        }
+        return sortedSimilarityMap.values().stream().limit(numberOfModels).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,94 @@
+package de.tum.in.www1.artemis.service.compass.strategy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+
+import me.xdrop.fuzzywuzzy.FuzzySearch;
+
+import org.junit.jupiter.api.Test;
+
+class NameSimilarityTest {
+
+    private static final String ALPHABET = "abcdeABCDE _-()+:äöüß中";
+
+    @Test
+    void levenshteinSimilarity_sameAsFuzzySearchRatio() {
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            String string1 = randomString(random);
+            String string2 = random.nextInt(4) == 0 ? mutate(string1, random) : randomString(random);
+
+            double expectedSimilarity = string1.equals(string2) ? 1 : FuzzySearch.ratio(string1, string2) / 100.0;
+            assertThat(NameSimilarity.levenshteinSimilarity(string1, string2)).as(string1 + " / " + string2).isEqualTo(expectedSimilarity);
+            // the ratio is memoized and has to be the same for the swapped strings
+            assertThat(NameSimilarity.levenshteinSimilarity(string2, string1)).as(string2 + " / " + string1).isEqualTo(expectedSimilarity);
+        }
+    }
+
+    @Test
+    void levenshteinSimilarity_longNames() {
+        Random random = new Random(7);
+        for (int length : new int[] { 63, 64, 65, 127, 128, 129, 300 }) {
+            String string1 = randomString(random, length);
+            String string2 = mutate(mutate(string1, random), random);
+            assertThat(NameSimilarity.levenshteinSimilarity(string1, string2)).isEqualTo(FuzzySearch.ratio(string1, string2) / 100.0);
+            assertThat(NameSimilarity.levenshteinSimilarity(string1, randomString(random, length / 2))).isBetween(0.0, 1.0);
+        }
+    }
+
+    @Test
+    void levenshteinSimilarity_nullAndEmptyNames() {
+        assertThat(NameSimilarity.levenshteinSimilarity(null, null)).isEqualTo(1);
+        assertThat(NameSimilarity.levenshteinSimilarity("", "")).isEqualTo(1);
+        assertThat(NameSimilarity.levenshteinSimilarity("name", null)).isEqualTo(0);
+        assertThat(NameSimilarity.levenshteinSimilarity(null, "name")).isEqualTo(0);
+        assertThat(NameSimilarity.levenshteinSimilarity("", "name")).isEqualTo(0);
+    }
+
+    @Test
+    void levenshteinSimilarity_minSimilarity() {
+        Random random = new Random(4711);
+        for (int i = 0; i < 20000; i++) {
+            String string1 = randomString(random);
+            String string2 = random.nextInt(2) == 0 ? mutate(string1, random) : randomString(random);
+            double minSimilarity = random.nextInt(101) / 100.0;
+
+            double similarity = NameSimilarity.levenshteinSimilarity(string1, string2);
+            double expectedSimilarity = similarity > minSimilarity ? similarity : 0;
+            assertThat(NameSimilarity.levenshteinSimilarity(string1, string2, minSimilarity)).as(string1 + " / " + string2 + " > " + minSimilarity).isEqualTo(expectedSimilarity);
+        }
+    }
+
+    private static String randomString(Random random) {
+        return randomString(random, random.nextInt(20));
+    }
+
+    private static String randomString(Random random, int length) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return builder.toString();
+    }
+
+    private static String mutate(String string, Random random) {
+        StringBuilder builder = new StringBuilder(string);
+        int position = builder.length() > 0 ? random.nextInt(builder.length()) : 0;
+        switch (random.nextInt(3)) {
+            case 0:
+                builder.insert(position, ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+                break;
+            case 1:
+                if (builder.length() > 0) {
+                    builder.deleteCharAt(position);
+                }
+                break;
+            default:
+                if (builder.length() > 0) {
+                    builder.setCharAt(position, ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+                }
+        }
+        return builder.toString();
+    }
+}
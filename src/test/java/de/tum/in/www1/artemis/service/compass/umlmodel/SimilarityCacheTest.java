@@ -0,0 +1,100 @@
+package de.tum.in.www1.artemis.service.compass.umlmodel;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import de.tum.in.www1.artemis.service.compass.controller.JSONStreamParser;
+import de.tum.in.www1.artemis.util.DatabaseUtilService;
+
+class SimilarityCacheTest {
+
+    private final AtomicInteger calculations = new AtomicInteger();
+
+    @Test
+    void getSimilarity_pairsCalculatedOnce() {
+        SimilarityCache similarityCache = new SimilarityCache(64);
+        assertThat(similarityCache.getMemoryUsage()).isZero();
+
+        assertThat(similarityCache.getSimilarity(1, 0, 2, 3, () -> calculate(0.5))).isEqualTo(0.5);
+        assertThat(similarityCache.getSimilarity(1, 0, 2, 3, () -> calculate(0.7))).isEqualTo(0.5);
+        assertThat(similarityCache.getSimilarity(2, 3, 1, 0, () -> calculate(0.7))).isEqualTo(0.7);
+        assertThat(similarityCache.getSimilarity(1, 1, 2, 3, () -> calculate(0.9))).isEqualTo(0.9);
+
+        assertThat(calculations).hasValue(3);
+        assertThat(similarityCache.size()).isEqualTo(3);
+        assertThat(similarityCache.getHits()).isEqualTo(1);
+        assertThat(similarityCache.getMisses()).isEqualTo(3);
+        assertThat(similarityCache.getHitRate()).isEqualTo(0.25);
+        assertThat(similarityCache.getMemoryUsage()).isEqualTo(64 * 24);
+    }
+
+    @Test
+    void getSimilarity_boundedCapacity() {
+        SimilarityCache similarityCache = new SimilarityCache(64);
+        for (int id = 0; id < 1000; id++) {
+            similarityCache.getSimilarity(id, 0, id + 1, 0, () -> calculate(0.25));
+        }
+
+        assertThat(calculations).hasValue(1000);
+        assertThat(similarityCache.size()).isLessThanOrEqualTo(64);
+        assertThat(similarityCache.getMemoryUsage()).isEqualTo(64 * 24);
+        assertThat(similarityCache.getSimilarity(999, 0, 1000, 0, () -> calculate(0.5))).isEqualTo(0.25);
+    }
+
+    @Test
+    void getSimilarity_notCacheableElements() {
+        SimilarityCache similarityCache = new SimilarityCache(64);
+        similarityCache.getSimilarity(1, 0, 2, 1 << 16, () -> calculate(0.5));
+        similarityCache.getSimilarity(1, 0, 2, 1 << 16, () -> calculate(0.5));
+        similarityCache.getSimilarity(-1, 0, 2, 0, () -> calculate(0.5));
+        similarityCache.getSimilarity(1L << 47, 0, 2, 0, () -> calculate(0.5));
+
+        assertThat(calculations).hasValue(4);
+        assertThat(similarityCache.size()).isZero();
+    }
+
+    @Test
+    void invalidate_removesAllPairsOfModel() {
+        SimilarityCache similarityCache = new SimilarityCache(64);
+        similarityCache.getSimilarity(1, 0, 2, 0, () -> calculate(0.5));
+        similarityCache.getSimilarity(3, 0, 1, 5, () -> calculate(0.5));
+        similarityCache.getSimilarity(2, 0, 3, 0, () -> calculate(0.5));
+
+        similarityCache.invalidate(1);
+
+        assertThat(similarityCache.size()).isEqualTo(1);
+        assertThat(similarityCache.getSimilarity(1, 0, 2, 0, () -> calculate(0.75))).isEqualTo(0.75);
+        assertThat(similarityCache.getSimilarity(3, 0, 1, 5, () -> calculate(0.75))).isEqualTo(0.75);
+        assertThat(similarityCache.getSimilarity(2, 0, 3, 0, () -> calculate(0.75))).isEqualTo(0.5);
+        assertThat(calculations).hasValue(5);
+    }
+
+    @Test
+    void similarity_sameResultWithCache() throws Exception {
+        List<UMLDiagram> models = new ArrayList<>();
+        for (String model : DatabaseUtilService.loadCompassModelsFromResources()) {
+            models.add(JSONStreamParser.buildModelFromJSON(model, models.size() + 1));
+        }
+        SimilarityCache similarityCache = new SimilarityCache(1 << 12);
+
+        // the second round is answered from the cache
+        for (int round = 0; round < 2; round++) {
+            for (UMLDiagram model : models) {
+                for (UMLDiagram reference : models) {
+                    assertThat(model.similarity(reference, similarityCache)).isEqualTo(model.similarity(reference));
+                }
+            }
+        }
+        assertThat(similarityCache.getHits()).isPositive();
+    }
+
+    private double calculate(double similarity) {
+        calculations.incrementAndGet();
+        return similarity;
+    }
+}
@@ -0,0 +1,140 @@
+package de.tum.in.www1.artemis.service.scheduled.quiz;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.tum.in.www1.artemis.domain.Result;
+import de.tum.in.www1.artemis.domain.User;
+import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
+import de.tum.in.www1.artemis.domain.quiz.QuizSubmission;
+import de.tum.in.www1.artemis.service.scheduled.quiz.LocalQuizCluster.Node;
+
+public class DistributedQuizStateTest {
+
+    private static final int NUMBER_OF_NODES = 3;
+
+    private LocalQuizCluster cluster;
+
+    @BeforeEach
+    public void init() {
+        cluster = new LocalQuizCluster(NUMBER_OF_NODES);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        cluster.close();
+    }
+
+    @Test
+    public void isOwner_eachQuizIsOwnedByOneNode() {
+        for (long quizExerciseId = 1; quizExerciseId <= 100; quizExerciseId++) {
+            final long id = quizExerciseId;
+            assertThat(cluster.getNodes().stream().filter(node -> node.getQuizState().isOwner(id))).hasSize(1);
+        }
+        // the quizzes are partitioned between all nodes
+        for (Node node : cluster.getNodes()) {
+            assertThat(Set.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L).stream().filter(id -> node.getQuizState().isOwner(id))).isNotEmpty();
+        }
+    }
+
+    @Test
+    public void getSubmissions_containsSubmissionsOfAllNodes() {
+        Long quizExerciseId = 1L;
+        for (int i = 0; i < 30; i++) {
+            Node node = cluster.getNode(i % NUMBER_OF_NODES);
+            node.getSubmissionStore().put(quizExerciseId, "student" + i, createSubmission(i));
+        }
+
+        Node owner = cluster.getOwner(quizExerciseId);
+        Map<String, QuizSubmission> submissions = owner.getSubmissionStore().getSubmissions(quizExerciseId);
+
+        assertThat(submissions).hasSize(30);
+        assertThat(submissions.get("student7").getId()).isEqualTo(7L);
+        for (Node node : cluster.getNodes()) {
+            assertThat(node.getSubmissionStore().getQuizExerciseIds()).containsExactly(quizExerciseId);
+            assertThat(node.getSubmissionStore().get(quizExerciseId, "student11").getId()).isEqualTo(11L);
+        }
+
+        // processed submissions are removed, the quiz is only processed again when there are new submissions
+        submissions.keySet().forEach(username -> owner.getSubmissionStore().remove(quizExerciseId, username));
+        owner.getSubmissionStore().compact(quizExerciseId);
+        for (Node node : cluster.getNodes()) {
+            assertThat(node.getSubmissionStore().getQuizExerciseIds()).isEmpty();
+        }
+    }
+
+    @Test
+    public void stop_ownerIsTakenOverWithoutLosingState() {
+        Long quizExerciseId = 1L;
+        for (int i = 0; i < 30; i++) {
+            cluster.getNode(i % NUMBER_OF_NODES).getSubmissionStore().put(quizExerciseId, "student" + i, createSubmission(i));
+        }
+        Node owner = cluster.getOwner(quizExerciseId);
+        owner.getQuizState().addParticipation(quizExerciseId, createParticipation(quizExerciseId, "student100"));
+        owner.getQuizState().addResult(quizExerciseId, new Result());
+
+        cluster.stop(owner);
+
+        Node newOwner = cluster.getOwner(quizExerciseId);
+        assertThat(newOwner).isNotSameAs(owner);
+        assertThat(cluster.getNodes()).hasSize(NUMBER_OF_NODES - 1);
+        assertThat(newOwner.getSubmissionStore().getSubmissions(quizExerciseId)).hasSize(30);
+        assertThat(newOwner.getQuizState().getQuizExerciseIdsWithParticipations()).containsExactly(quizExerciseId);
+        assertThat(newOwner.getQuizState().getParticipation(quizExerciseId, "student100")).isNotNull();
+        assertThat(newOwner.getQuizState().removeResults(quizExerciseId)).hasSize(1);
+        assertThat(newOwner.getQuizState().getQuizExerciseIdsWithResults()).isEmpty();
+    }
+
+    @Test
+    public void removeParticipations_returnsParticipationsOfAllNodes() {
+        Long quizExerciseId = 2L;
+        for (int i = 0; i < 10; i++) {
+            cluster.getNode(i % NUMBER_OF_NODES).getQuizState().addParticipation(quizExerciseId, createParticipation(quizExerciseId, "student" + i));
+        }
+
+        var participations = cluster.getOwner(quizExerciseId).getQuizState().removeParticipations(quizExerciseId);
+
+        assertThat(participations.stream().map(StudentParticipation::getParticipantIdentifier).collect(Collectors.toSet())).hasSize(10).contains("student0", "student9");
+        for (Node node : cluster.getNodes()) {
+            assertThat(node.getQuizState().getQuizExerciseIdsWithParticipations()).isEmpty();
+            assertThat(node.getQuizState().getParticipation(quizExerciseId, "student0")).isNull();
+        }
+    }
+
+    @Test
+    public void sendResults_isSentByAllNodes() {
+        Long quizExerciseId = 3L;
+        Map<String, byte[]> payloads = Map.of("student1", new byte[] { 1 }, "student2", new byte[] { 2 });
+
+        cluster.getOwner(quizExerciseId).getQuizState().sendResults(quizExerciseId, payloads);
+
+        // every node sends the results to the students that are connected to it
+        for (Node node : cluster.getNodes()) {
+            verify(node.getQuizResultFanOut(), timeout(5000)).sendResults(eq(quizExerciseId.longValue()), argThat(sentPayloads -> sentPayloads.keySet().equals(payloads.keySet())));
+        }
+    }
+
+    private QuizSubmission createSubmission(int index) {
+        QuizSubmission quizSubmission = new QuizSubmission();
+        quizSubmission.setId((long) index);
+        quizSubmission.setSubmissionDate(ZonedDateTime.now());
+        return quizSubmission;
+    }
+
+    private StudentParticipation createParticipation(Long quizExerciseId, String username) {
+        User student = new User();
+        student.setLogin(username);
+        StudentParticipation participation = new StudentParticipation();
+        participation.setParticipant(student);
+        return participation;
+    }
+}
@@ -0,0 +1,129 @@
+package de.tum.in.www1.artemis.service.scheduled.quiz;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZonedDateTime;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import de.tum.in.www1.artemis.domain.SubmittedAnswer;
+import de.tum.in.www1.artemis.domain.quiz.AnswerOption;
+import de.tum.in.www1.artemis.domain.quiz.MultipleChoiceQuestion;
+import de.tum.in.www1.artemis.domain.quiz.MultipleChoiceSubmittedAnswer;
+import de.tum.in.www1.artemis.domain.quiz.QuizSubmission;
+
+public class JournaledQuizSubmissionStoreTest {
+
+    private static final Long QUIZ_ID = 42L;
+
+    @TempDir
+    Path journalDirectory;
+
+    private ObjectMapper objectMapper;
+
+    private JournaledQuizSubmissionStore store;
+
+    @BeforeEach
+    public void init() throws IOException {
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule()).disable(MapperFeature.DEFAULT_VIEW_INCLUSION);
+        store = new JournaledQuizSubmissionStore(journalDirectory, objectMapper);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        store.close();
+    }
+
+    @Test
+    public void recover_restoresLatestSubmissionOfEachUser() throws IOException {
+        store.put(QUIZ_ID, "student1", submission(1L, false));
+        store.put(QUIZ_ID, "student2", submission(2L, false));
+        store.put(QUIZ_ID, "student1", submission(3L, true));
+
+        QuizSubmission recovered = restartAndRecover(2).get(QUIZ_ID, "student1");
+        assertThat(recovered.isSubmitted()).isTrue();
+        assertThat(recovered.getSubmittedAnswers()).hasSize(1);
+        SubmittedAnswer submittedAnswer = recovered.getSubmittedAnswers().iterator().next();
+        assertThat(submittedAnswer.getSubmission()).isSameAs(recovered);
+        assertThat(submittedAnswer.getQuizQuestion().getId()).isEqualTo(10L);
+        assertThat(((MultipleChoiceSubmittedAnswer) submittedAnswer).getSelectedOptions()).extracting(AnswerOption::getId).containsExactly(3L);
+    }
+
+    @Test
+    public void recover_doesNotRestoreRemovedSubmissions() throws IOException {
+        store.put(QUIZ_ID, "student1", submission(1L, true));
+        store.put(QUIZ_ID, "student2", submission(2L, false));
+        store.remove(QUIZ_ID, "student1");
+
+        QuizSubmissionStore recoveredStore = restartAndRecover(1);
+        assertThat(recoveredStore.get(QUIZ_ID, "student1")).isNull();
+        assertThat(recoveredStore.get(QUIZ_ID, "student2")).isNotNull();
+    }
+
+    @Test
+    public void compact_deletesJournalOfProcessedQuiz() throws IOException {
+        store.put(QUIZ_ID, "student1", submission(1L, true));
+        store.remove(QUIZ_ID, "student1");
+        store.compact(QUIZ_ID);
+
+        assertThat(store.getQuizExerciseIds()).isEmpty();
+        try (var journalFiles = Files.list(journalDirectory)) {
+            assertThat(journalFiles).isEmpty();
+        }
+        restartAndRecover(0);
+    }
+
+    @Test
+    public void compact_keepsRemainingSubmissions() throws IOException {
+        store.put(QUIZ_ID, "student1", submission(1L, true));
+        store.put(QUIZ_ID, "student2", submission(2L, false));
+        store.remove(QUIZ_ID, "student1");
+        store.compact(QUIZ_ID);
+        // appending after the compaction continues the compacted journal
+        store.put(QUIZ_ID, "student3", submission(3L, false));
+
+        QuizSubmissionStore recoveredStore = restartAndRecover(2);
+        assertThat(recoveredStore.getSubmissions(QUIZ_ID)).containsOnlyKeys("student2", "student3");
+    }
+
+    @Test
+    public void removeQuiz_deletesJournal() throws IOException {
+        store.put(QUIZ_ID, "student1", submission(1L, false));
+        store.removeQuiz(QUIZ_ID);
+
+        assertThat(store.get(QUIZ_ID, "student1")).isNull();
+        restartAndRecover(0);
+    }
+
+    private QuizSubmissionStore restartAndRecover(int expectedSubmissions) throws IOException {
+        store.close();
+        store = new JournaledQuizSubmissionStore(journalDirectory, objectMapper);
+        assertThat(store.recover()).isEqualTo(expectedSubmissions);
+        return store;
+    }
+
+    private QuizSubmission submission(Long selectedOptionId, boolean submitted) {
+        MultipleChoiceQuestion question = new MultipleChoiceQuestion();
+        question.setId(10L);
+        AnswerOption answerOption = new AnswerOption();
+        answerOption.setId(selectedOptionId);
+        MultipleChoiceSubmittedAnswer submittedAnswer = new MultipleChoiceSubmittedAnswer();
+        submittedAnswer.setQuizQuestion(question);
+        submittedAnswer.addSelectedOptions(answerOption);
+        QuizSubmission quizSubmission = new QuizSubmission();
+        quizSubmission.addSubmittedAnswers(submittedAnswer);
+        quizSubmission.setSubmitted(submitted);
+        quizSubmission.setSubmissionDate(ZonedDateTime.now());
+        return quizSubmission;
+    }
+}
@@ -0,0 +1,134 @@
+package de.tum.in.www1.artemis.service.scheduled.quiz;
+
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.PartitionService;
+
+import de.tum.in.www1.artemis.config.QuizConfiguration;
+
+/**
+ * Simulates several Artemis nodes that form a quiz cluster in this JVM. Every node has its own hazelcast member, quiz state, submission store and (mocked) result fan-out.
+ */
+public class LocalQuizCluster implements AutoCloseable {
+
+    private final List<Node> nodes = new ArrayList<>();
+
+    /**
+     * Start the given number of nodes, the method returns after all nodes have joined the cluster
+     *
+     * @param numberOfNodes the number of nodes
+     */
+    public LocalQuizCluster(int numberOfNodes) {
+        // a unique cluster name and random ports, so that the cluster does not join other clusters on this machine
+        String clusterName = "quiz-test-" + UUID.randomUUID();
+        int basePort = ThreadLocalRandom.current().nextInt(20000, 40000);
+        List<String> members = new ArrayList<>();
+        for (int i = 0; i < numberOfNodes; i++) {
+            members.add("127.0.0.1:" + (basePort + i));
+        }
+        for (int i = 0; i < numberOfNodes; i++) {
+            Config config = QuizConfiguration.createClusterConfig(clusterName, basePort + i, members);
+            config.getNetworkConfig().setPortAutoIncrement(false);
+            config.setProperty("hazelcast.wait.seconds.before.join", "0");
+            config.setProperty("hazelcast.max.no.heartbeat.seconds", "5");
+            nodes.add(new Node(Hazelcast.newHazelcastInstance(config)));
+        }
+        awaitPartitions();
+    }
+
+    public Node getNode(int index) {
+        return nodes.get(index);
+    }
+
+    /**
+     * @return the nodes that are still running
+     */
+    public List<Node> getNodes() {
+        return nodes.stream().filter(node -> node.hazelcastInstance.getLifecycleService().isRunning()).collect(Collectors.toList());
+    }
+
+    /**
+     * Find the node that processes the given quiz
+     *
+     * @param quizExerciseId the id of the quiz
+     * @return the owner of the quiz
+     */
+    public Node getOwner(Long quizExerciseId) {
+        return getNodes().stream().filter(node -> node.quizState.isOwner(quizExerciseId)).findFirst().orElseThrow();
+    }
+
+    /**
+     * Stop the given node like a crashed server, its partitions are migrated to the other nodes
+     *
+     * @param node the node to stop
+     */
+    public void stop(Node node) {
+        node.hazelcastInstance.getLifecycleService().terminate();
+        // wait until the remaining nodes have taken over the partitions of the stopped node
+        awaitPartitions();
+    }
+
+    /**
+     * Wait until all running nodes know each other and every partition has an owner and its backups
+     */
+    private void awaitPartitions() {
+        List<Node> runningNodes = getNodes();
+        for (Node node : runningNodes) {
+            PartitionService partitionService = node.hazelcastInstance.getPartitionService();
+            // querying the safe state before the node has noticed that a member left runs into the invocation timeout
+            while (node.hazelcastInstance.getCluster().getMembers().size() != runningNodes.size()
+                    || partitionService.getPartitions().stream().anyMatch(partition -> partition.getOwner() == null) || !partitionService.isClusterSafe()) {
+                try {
+                    Thread.sleep(50);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for the quiz cluster", e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        nodes.forEach(node -> node.hazelcastInstance.getLifecycleService().terminate());
+    }
+
+    public static class Node {
+
+        private final HazelcastInstance hazelcastInstance;
+
+        private final QuizResultFanOut quizResultFanOut = mock(QuizResultFanOut.class);
+
+        private final DistributedQuizState quizState;
+
+        private final DistributedQuizSubmissionStore submissionStore;
+
+        private Node(HazelcastInstance hazelcastInstance) {
+            this.hazelcastInstance = hazelcastInstance;
+            this.quizState = new DistributedQuizState(hazelcastInstance, quizResultFanOut);
+            this.submissionStore = new DistributedQuizSubmissionStore(hazelcastInstance);
+        }
+
+        public QuizResultFanOut getQuizResultFanOut() {
+            return quizResultFanOut;
+        }
+
+        public DistributedQuizState getQuizState() {
+            return quizState;
+        }
+
+        public DistributedQuizSubmissionStore getSubmissionStore() {
+            return submissionStore;
+        }
+    }
+}
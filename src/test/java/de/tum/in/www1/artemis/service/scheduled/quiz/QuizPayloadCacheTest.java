@@ -0,0 +1,148 @@
+package de.tum.in.www1.artemis.service.scheduled.quiz;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import de.tum.in.www1.artemis.domain.Result;
+import de.tum.in.www1.artemis.domain.User;
+import de.tum.in.www1.artemis.domain.enumeration.ScoringType;
+import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
+import de.tum.in.www1.artemis.domain.quiz.*;
+import de.tum.in.www1.artemis.domain.view.QuizView;
+
+public class QuizPayloadCacheTest {
+
+    private static final Long QUIZ_ID = 1L;
+
+    private ObjectMapper objectMapper;
+
+    private QuizPayloadCache quizPayloadCache;
+
+    @BeforeEach
+    public void init() {
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule()).disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(MapperFeature.DEFAULT_VIEW_INCLUSION);
+        quizPayloadCache = new QuizPayloadCache(new MappingJackson2HttpMessageConverter(objectMapper));
+    }
+
+    @Test
+    public void getParticipationPayload_isEqualToSerializedParticipation() throws Exception {
+        QuizExercise quizExercise = createQuiz();
+        for (int i = 0; i < 3; i++) {
+            StudentParticipation participation = createParticipation(quizExercise, i);
+            var expected = objectMapper.readTree(objectMapper.writeValueAsBytes(participation));
+
+            var actual = objectMapper.readTree(quizPayloadCache.getParticipationPayload(participation));
+
+            assertThat(actual).isEqualTo(expected);
+            assertThat(participation.getExercise()).isSameAs(quizExercise);
+        }
+    }
+
+    @Test
+    public void getParticipationPayload_withoutOtherProperties_isValidJson() throws Exception {
+        QuizExercise quizExercise = createQuiz();
+        StudentParticipation participation = new StudentParticipation();
+        participation.setExercise(quizExercise);
+        var expected = objectMapper.readTree(objectMapper.writeValueAsBytes(participation));
+
+        var actual = objectMapper.readTree(quizPayloadCache.getParticipationPayload(participation));
+
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    public void getQuizExercisePayload_isCachedPerView() throws Exception {
+        QuizExercise quizExercise = createQuiz();
+
+        byte[] before = quizPayloadCache.getQuizExercisePayload(quizExercise, QuizView.Before.class);
+        byte[] during = quizPayloadCache.getQuizExercisePayload(quizExercise, QuizView.During.class);
+
+        assertThat(quizPayloadCache.getQuizExercisePayload(quizExercise, QuizView.Before.class)).isSameAs(before);
+        assertThat(quizPayloadCache.getQuizExercisePayload(quizExercise, QuizView.During.class)).isSameAs(during);
+        assertThat(objectMapper.readTree(during)).isEqualTo(objectMapper.readTree(objectMapper.writerWithView(QuizView.During.class).writeValueAsBytes(quizExercise)));
+    }
+
+    @Test
+    public void invalidate_serializesChangedQuiz() throws Exception {
+        QuizExercise quizExercise = createQuiz();
+        byte[] payload = quizPayloadCache.getQuizExercisePayload(quizExercise, QuizView.During.class);
+
+        quizExercise.setTitle("Changed title");
+        assertThat(quizPayloadCache.getQuizExercisePayload(quizExercise, QuizView.During.class)).isSameAs(payload);
+
+        quizPayloadCache.invalidate(QUIZ_ID);
+        byte[] changedPayload = quizPayloadCache.getQuizExercisePayload(quizExercise, QuizView.During.class);
+        assertThat(changedPayload).isNotSameAs(payload);
+        assertThat(objectMapper.readTree(changedPayload).get("title").asText()).isEqualTo("Changed title");
+    }
+
+    private QuizExercise createQuiz() {
+        QuizExercise quizExercise = new QuizExercise();
+        quizExercise.setId(QUIZ_ID);
+        quizExercise.setTitle("Quiz");
+        quizExercise.setReleaseDate(ZonedDateTime.now().minusMinutes(1));
+        quizExercise.setIsPlannedToStart(true);
+        quizExercise.setIsVisibleBeforeStart(true);
+        quizExercise.setIsOpenForPractice(false);
+        quizExercise.setDuration(600);
+
+        MultipleChoiceQuestion question = new MultipleChoiceQuestion();
+        question.setId(2L);
+        question.setTitle("Question");
+        question.setScore(1);
+        question.setScoringType(ScoringType.ALL_OR_NOTHING);
+        List<AnswerOption> answerOptions = new ArrayList<>();
+        for (long id = 3; id <= 4; id++) {
+            AnswerOption answerOption = new AnswerOption();
+            answerOption.setId(id);
+            answerOption.setText("Option " + id);
+            answerOption.setIsCorrect(id == 3);
+            answerOption.setQuestion(question);
+            answerOptions.add(answerOption);
+        }
+        question.setAnswerOptions(answerOptions);
+        quizExercise.addQuestions(question);
+        return quizExercise;
+    }
+
+    private StudentParticipation createParticipation(QuizExercise quizExercise, int index) {
+        MultipleChoiceQuestion question = (MultipleChoiceQuestion) quizExercise.getQuizQuestions().get(0);
+        AnswerOption selectedOption = question.getAnswerOptions().get(index % 2);
+
+        MultipleChoiceSubmittedAnswer submittedAnswer = new MultipleChoiceSubmittedAnswer();
+        submittedAnswer.setQuizQuestion(question.copyQuestionId());
+        submittedAnswer.setSelectedOptions(Set.of(selectedOption));
+        QuizSubmission quizSubmission = new QuizSubmission();
+        quizSubmission.setId(100L + index);
+        quizSubmission.addSubmittedAnswers(submittedAnswer);
+
+        User student = new User();
+        student.setLogin("student" + index);
+        StudentParticipation participation = new StudentParticipation();
+        participation.setId(200L + index);
+        participation.setParticipant(student);
+        participation.setExercise(quizExercise);
+
+        Result result = new Result();
+        result.setId(300L + index);
+        result.setScore(index % 2 == 0 ? 100L : 0L);
+        result.setSubmission(quizSubmission);
+        result.setParticipation(participation);
+        participation.addResult(result);
+        return participation;
+    }
+}
@@ -0,0 +1,76 @@
+package de.tum.in.www1.artemis.service.scheduled.quiz;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class QuizProcessingExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private QuizProcessingExecutor executor;
+
+    @BeforeEach
+    public void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = new QuizProcessingExecutor(2, meterRegistry);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void submit_keepsOrderWithinQuiz() {
+        List<Integer> executed = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            final int task = i;
+            futures.add(executor.submit(1L, () -> executed.add(task)));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+        assertThat(executed).hasSize(100).isSorted();
+    }
+
+    @Test
+    public void submit_processesDifferentPartitionsConcurrently() throws Exception {
+        assertThat(executor.partitionOf(1L)).isNotEqualTo(executor.partitionOf(2L));
+        CountDownLatch blockingTaskStarted = new CountDownLatch(1);
+        CountDownLatch releaseBlockingTask = new CountDownLatch(1);
+        CompletableFuture<Void> blocking = executor.submit(1L, () -> {
+            blockingTaskStarted.countDown();
+            try {
+                releaseBlockingTask.await();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        blockingTaskStarted.await();
+
+        // the other quiz is not delayed by the blocked quiz
+        executor.submit(2L, () -> {
+        }).get(5, TimeUnit.SECONDS);
+        CompletableFuture<Void> queued = executor.submit(1L, () -> {
+        });
+        assertThat(queued).isNotDone();
+        assertThat(meterRegistry.get("artemis.quiz.processing.lag").tag("partition", String.valueOf(executor.partitionOf(1L))).gauge()).isNotNull();
+
+        releaseBlockingTask.countDown();
+        CompletableFuture.allOf(blocking, queued).get(5, TimeUnit.SECONDS);
+        assertThat(executor.getLagMillis(executor.partitionOf(1L))).isEqualTo(0);
+    }
+}
@@ -0,0 +1,177 @@
+package de.tum.in.www1.artemis.service.scheduled.quiz;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class QuizResultFanOutTest {
+
+    private static final long QUIZ_ID = 1L;
+
+    private static final String DESTINATION = "/topic/exercise/" + QUIZ_ID + "/participation";
+
+    @Mock
+    private SimpMessageSendingOperations messagingTemplate;
+
+    @Mock
+    private SimpUserRegistry simpUserRegistry;
+
+    @Mock
+    private ScheduledExecutorService scheduler;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+
+    @BeforeEach
+    public void init() {
+        MockitoAnnotations.initMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    public void tick_sendsResultsPacedOverWindow() {
+        // 1000 results in 10 seconds => 10 results per tick of 100 ms
+        QuizResultFanOut fanOut = new QuizResultFanOut(messagingTemplate, simpUserRegistry, meterRegistry, 10_000, 1, 60_000, scheduler, clock::get);
+        Map<String, byte[]> payloads = createPayloads(1000);
+        payloads.keySet().forEach(this::connect);
+        fanOut.sendResults(QUIZ_ID, payloads);
+
+        tick(fanOut, QuizResultFanOut.TICK_MILLIS);
+        verify(messagingTemplate, times(10)).convertAndSendToUser(anyString(), eq(DESTINATION), any(byte[].class));
+
+        // tokens are never accumulated for more than one tick
+        tick(fanOut, 20 * QuizResultFanOut.TICK_MILLIS);
+        verify(messagingTemplate, times(20)).convertAndSendToUser(anyString(), eq(DESTINATION), any(byte[].class));
+        assertThat(fanOut.getPendingResults()).isEqualTo(980);
+
+        for (long tick = 21; tick <= 200; tick++) {
+            tick(fanOut, tick * QuizResultFanOut.TICK_MILLIS);
+        }
+        verify(messagingTemplate, times(1000)).convertAndSendToUser(anyString(), eq(DESTINATION), any(byte[].class));
+        assertThat(fanOut.getPendingResults()).isZero();
+        assertThat(meterRegistry.get("artemis.quiz.result.fan-out.sends").tag("outcome", "sent").counter().count()).isEqualTo(1000);
+        assertThat(meterRegistry.get("artemis.quiz.result.fan-out.duration").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void sendResults_sendsConnectedStudentsFirst() {
+        QuizResultFanOut fanOut = new QuizResultFanOut(messagingTemplate, simpUserRegistry, meterRegistry, 0, 1, 60_000, scheduler, clock::get);
+        Map<String, byte[]> payloads = createPayloads(4);
+        connect("student2");
+        connect("student3");
+        fanOut.sendResults(QUIZ_ID, payloads);
+
+        tick(fanOut, QuizResultFanOut.TICK_MILLIS);
+
+        InOrder inOrder = inOrder(messagingTemplate);
+        inOrder.verify(messagingTemplate, times(2)).convertAndSendToUser(matches("student[23]"), eq(DESTINATION), any(byte[].class));
+        inOrder.verify(messagingTemplate, times(2)).convertAndSendToUser(matches("student[01]"), eq(DESTINATION), any(byte[].class));
+        // the results of the disconnected students are retained for a reconnect
+        assertThat(fanOut.getRetainedResults(QUIZ_ID)).isEqualTo(2);
+        assertThat(meterRegistry.get("artemis.quiz.result.fan-out.sends").tag("outcome", "retained").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    public void handleSubscribe_sendsRetainedResultAfterReconnect() {
+        QuizResultFanOut fanOut = new QuizResultFanOut(messagingTemplate, simpUserRegistry, meterRegistry, 0, 1, 60_000, scheduler, clock::get);
+        byte[] payload = new byte[] { 1 };
+        doThrow(new MessageDeliveryException("send timeout")).when(messagingTemplate).convertAndSendToUser("student0", DESTINATION, payload);
+        connect("student0");
+        fanOut.sendResults(QUIZ_ID, Map.of("student0", payload));
+        tick(fanOut, QuizResultFanOut.TICK_MILLIS);
+        assertThat(meterRegistry.get("artemis.quiz.result.fan-out.sends").tag("outcome", "dropped").counter().count()).isEqualTo(1);
+        assertThat(fanOut.getRetainedResults(QUIZ_ID)).isEqualTo(1);
+
+        // subscriptions of other users or to other destinations are ignored
+        fanOut.handleSubscribe(subscribeEvent("student1", "/user" + DESTINATION));
+        fanOut.handleSubscribe(subscribeEvent("student0", "/topic/quizExercise/" + QUIZ_ID));
+        verifyNoInteractions(scheduler);
+
+        reset(messagingTemplate);
+        fanOut.handleSubscribe(subscribeEvent("student0", "/user" + DESTINATION));
+        ArgumentCaptor<Runnable> redelivery = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).schedule(redelivery.capture(), eq(QuizResultFanOut.REDELIVERY_DELAY_MILLIS), eq(TimeUnit.MILLISECONDS));
+        redelivery.getValue().run();
+
+        verify(messagingTemplate).convertAndSendToUser("student0", DESTINATION, payload);
+        assertThat(fanOut.getRetainedResults(QUIZ_ID)).isZero();
+        assertThat(meterRegistry.get("artemis.quiz.result.fan-out.sends").tag("outcome", "redelivered").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void tick_removesExpiredResults() {
+        QuizResultFanOut fanOut = new QuizResultFanOut(messagingTemplate, simpUserRegistry, meterRegistry, 0, 1, 1000, scheduler, clock::get);
+        fanOut.sendResults(QUIZ_ID, createPayloads(3));
+        tick(fanOut, QuizResultFanOut.TICK_MILLIS);
+        assertThat(fanOut.getRetainedResults(QUIZ_ID)).isEqualTo(3);
+
+        tick(fanOut, QuizResultFanOut.TICK_MILLIS + 1000);
+
+        assertThat(fanOut.getRetainedResults(QUIZ_ID)).isZero();
+        assertThat(meterRegistry.get("artemis.quiz.result.fan-out.sends").tag("outcome", "expired").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    public void cancel_discardsPendingAndRetainedResults() {
+        QuizResultFanOut fanOut = new QuizResultFanOut(messagingTemplate, simpUserRegistry, meterRegistry, 10_000, 1, 60_000, scheduler, clock::get);
+        fanOut.sendResults(QUIZ_ID, createPayloads(100));
+        tick(fanOut, QuizResultFanOut.TICK_MILLIS);
+        assertThat(fanOut.getRetainedResults(QUIZ_ID)).isPositive();
+
+        fanOut.cancel(QUIZ_ID);
+
+        assertThat(fanOut.getPendingResults()).isZero();
+        assertThat(fanOut.getRetainedResults(QUIZ_ID)).isZero();
+    }
+
+    private void tick(QuizResultFanOut fanOut, long millisAfterStart) {
+        clock.set(1_000_000 + millisAfterStart);
+        fanOut.tick();
+    }
+
+    private Map<String, byte[]> createPayloads(int count) {
+        Map<String, byte[]> payloads = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            payloads.put("student" + i, new byte[] { (byte) i });
+        }
+        return payloads;
+    }
+
+    private void connect(String username) {
+        when(simpUserRegistry.getUser(username)).thenReturn(mock(SimpUser.class));
+    }
+
+    private SessionSubscribeEvent subscribeEvent(String username, String destination) {
+        StompHeaderAccessor headers = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        headers.setDestination(destination);
+        headers.setSessionId("session");
+        Message<byte[]> message = MessageBuilder.createMessage(new byte[0], headers.getMessageHeaders());
+        return new SessionSubscribeEvent(this, message, new UsernamePasswordAuthenticationToken(username, null));
+    }
+}
@@ -0,0 +1,126 @@
+package de.tum.in.www1.artemis.service.scheduled.quiz;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import java.time.ZonedDateTime;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import de.tum.in.www1.artemis.config.Constants;
+import de.tum.in.www1.artemis.domain.quiz.QuizExercise;
+import de.tum.in.www1.artemis.repository.QuizExerciseRepository;
+import de.tum.in.www1.artemis.repository.StudentParticipationRepository;
+import de.tum.in.www1.artemis.service.scheduled.quiz.QuizSessionRegistry.QuizSession;
+
+public class QuizSessionRegistryTest {
+
+    private static final Long QUIZ_ID = 1L;
+
+    @Mock
+    private QuizExerciseRepository quizExerciseRepository;
+
+    @Mock
+    private StudentParticipationRepository studentParticipationRepository;
+
+    private QuizSessionRegistry quizSessionRegistry;
+
+    private final ZonedDateTime now = ZonedDateTime.now();
+
+    @BeforeEach
+    public void init() {
+        MockitoAnnotations.initMocks(this);
+        quizSessionRegistry = new QuizSessionRegistry(quizExerciseRepository, studentParticipationRepository);
+    }
+
+    @Test
+    public void getSession_isLoadedOnlyOnce() {
+        QuizExercise quizExercise = createQuiz(now.minusSeconds(10), 60);
+        when(quizExerciseRepository.findById(QUIZ_ID)).thenReturn(Optional.of(quizExercise));
+        when(studentParticipationRepository.findStudentLoginsWithSubmittedSubmissionByExerciseId(QUIZ_ID)).thenReturn(Set.of("student1"));
+
+        for (int i = 0; i < 100; i++) {
+            QuizSession session = quizSessionRegistry.getSession(QUIZ_ID).get();
+            assertThat(session.getTitle()).isEqualTo("Quiz");
+            assertThat(session.hasSubmitted("student1")).isTrue();
+        }
+
+        verify(quizExerciseRepository, times(1)).findById(QUIZ_ID);
+        verify(studentParticipationRepository, times(1)).findStudentLoginsWithSubmittedSubmissionByExerciseId(QUIZ_ID);
+    }
+
+    @Test
+    public void getSession_isEmptyForUnknownQuiz() {
+        when(quizExerciseRepository.findById(QUIZ_ID)).thenReturn(Optional.empty());
+
+        assertThat(quizSessionRegistry.getSession(QUIZ_ID)).isEmpty();
+        assertThat(quizSessionRegistry.getSession(null)).isEmpty();
+        verifyNoInteractions(studentParticipationRepository);
+    }
+
+    @Test
+    public void isSubmissionAllowed_isEqualToQuizExercise() {
+        // not started, running, within the grace period, ended
+        int[] releaseSecondsAgo = { -10, 10, 60 + Constants.QUIZ_GRACE_PERIOD_IN_SECONDS - 1, 60 + Constants.QUIZ_GRACE_PERIOD_IN_SECONDS + 1 };
+        boolean[] expected = { false, true, true, false };
+        for (int i = 0; i < releaseSecondsAgo.length; i++) {
+            QuizExercise quizExercise = createQuiz(ZonedDateTime.now().minusSeconds(releaseSecondsAgo[i]), 60);
+            QuizSession session = new QuizSession(quizExercise, Set.of());
+
+            assertThat(session.isSubmissionAllowed(ZonedDateTime.now())).isEqualTo(expected[i]).isEqualTo(quizExercise.isSubmissionAllowed());
+        }
+
+        QuizExercise notPlannedQuiz = createQuiz(now.minusSeconds(10), 60);
+        notPlannedQuiz.setIsPlannedToStart(false);
+        assertThat(new QuizSession(notPlannedQuiz, Set.of()).isSubmissionAllowed(now)).isFalse();
+    }
+
+    @Test
+    public void markSubmitted_addsUserToRegisteredSession() {
+        when(studentParticipationRepository.findStudentLoginsWithSubmittedSubmissionByExerciseId(QUIZ_ID)).thenReturn(Set.of());
+        // sessions that are not loaded are not created by a submission, they are loaded together with the persisted submission
+        quizSessionRegistry.markSubmitted(QUIZ_ID, "student1");
+        verifyNoInteractions(quizExerciseRepository, studentParticipationRepository);
+
+        quizSessionRegistry.register(createQuiz(now.minusSeconds(10), 60));
+        QuizSession session = quizSessionRegistry.getSession(QUIZ_ID).get();
+        assertThat(session.hasSubmitted("student1")).isFalse();
+
+        quizSessionRegistry.markSubmitted(QUIZ_ID, "student1");
+
+        assertThat(session.hasSubmitted("student1")).isTrue();
+        assertThat(session.hasSubmitted("student2")).isFalse();
+        verifyNoInteractions(quizExerciseRepository);
+    }
+
+    @Test
+    public void evict_loadsChangedQuizAgain() {
+        QuizExercise quizExercise = createQuiz(now.minusSeconds(10), 60);
+        when(quizExerciseRepository.findById(QUIZ_ID)).thenReturn(Optional.of(quizExercise));
+        when(studentParticipationRepository.findStudentLoginsWithSubmittedSubmissionByExerciseId(QUIZ_ID)).thenReturn(Set.of());
+        assertThat(quizSessionRegistry.getSession(QUIZ_ID).get().isSubmissionAllowed(now)).isTrue();
+
+        // the quiz is ended early
+        quizExercise.setDuration(1);
+        assertThat(quizSessionRegistry.getSession(QUIZ_ID).get().isSubmissionAllowed(now)).isTrue();
+        quizSessionRegistry.evict(QUIZ_ID);
+
+        assertThat(quizSessionRegistry.getSession(QUIZ_ID).get().isSubmissionAllowed(now)).isFalse();
+        verify(quizExerciseRepository, times(2)).findById(QUIZ_ID);
+    }
+
+    private QuizExercise createQuiz(ZonedDateTime releaseDate, int duration) {
+        QuizExercise quizExercise = new QuizExercise();
+        quizExercise.setId(QUIZ_ID);
+        quizExercise.setTitle("Quiz");
+        quizExercise.setReleaseDate(releaseDate);
+        quizExercise.setDuration(duration);
+        quizExercise.setIsPlannedToStart(true);
+        return quizExercise;
+    }
+}
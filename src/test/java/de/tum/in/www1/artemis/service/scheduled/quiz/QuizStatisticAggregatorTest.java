@@ -0,0 +1,178 @@
+package de.tum.in.www1.artemis.service.scheduled.quiz;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import de.tum.in.www1.artemis.domain.Result;
+import de.tum.in.www1.artemis.domain.enumeration.ScoringType;
+import de.tum.in.www1.artemis.domain.quiz.*;
+import de.tum.in.www1.artemis.repository.QuizQuestionStatisticRepository;
+import de.tum.in.www1.artemis.repository.StatisticCounterRepository;
+import de.tum.in.www1.artemis.repository.StatisticRepository;
+import de.tum.in.www1.artemis.service.QuizExerciseService;
+
+public class QuizStatisticAggregatorTest {
+
+    private static final Long QUIZ_ID = 1L;
+
+    private static final Long POINT_STATISTIC_ID = 10L;
+
+    private static final Long QUESTION_STATISTIC_ID = 11L;
+
+    @Mock
+    private QuizExerciseService quizExerciseService;
+
+    @Mock
+    private StatisticRepository statisticRepository;
+
+    @Mock
+    private QuizQuestionStatisticRepository quizQuestionStatisticRepository;
+
+    @Mock
+    private StatisticCounterRepository statisticCounterRepository;
+
+    private QuizStatisticAggregator quizStatisticAggregator;
+
+    @BeforeEach
+    public void init() {
+        MockitoAnnotations.initMocks(this);
+        // every call returns a new instance, like loading the quiz from the database
+        when(quizExerciseService.findOneWithQuestionsAndStatistics(QUIZ_ID)).thenAnswer(invocation -> createQuiz());
+        quizStatisticAggregator = new QuizStatisticAggregator(quizExerciseService, statisticRepository, quizQuestionStatisticRepository, statisticCounterRepository);
+    }
+
+    @Test
+    public void addResult_updatesWebsocketStatisticsWithoutDatabaseAccess() {
+        QuizExercise quizExercise = quizStatisticAggregator.getQuizExercise(QUIZ_ID);
+        quizStatisticAggregator.addResult(QUIZ_ID, createResult(quizExercise, 0, true));
+        quizStatisticAggregator.addResult(QUIZ_ID, createResult(quizExercise, 0, true));
+        quizStatisticAggregator.addResult(QUIZ_ID, createResult(quizExercise, 1, false));
+
+        QuizExercise statistics = quizStatisticAggregator.getStatisticsForWebsocket(QUIZ_ID);
+        assertThat(statistics.getQuizPointStatistic().getParticipantsRated()).isEqualTo(2);
+        assertThat(statistics.getQuizPointStatistic().getParticipantsUnrated()).isEqualTo(1);
+        var questionStatistic = (MultipleChoiceQuestionStatistic) statistics.getQuizQuestions().get(0).getQuizQuestionStatistic();
+        assertThat(questionStatistic.getParticipantsRated()).isEqualTo(2);
+        assertThat(questionStatistic.getRatedCorrectCounter()).isEqualTo(2);
+        assertThat(questionStatistic.getUnRatedCorrectCounter()).isEqualTo(0);
+        for (AnswerCounter answerCounter : questionStatistic.getAnswerCounters()) {
+            // the correct answers are filtered out of the statistics for the websocket
+            boolean correct = answerCounter.getId().equals(100L);
+            assertThat(answerCounter.getRatedCounter()).isEqualTo(correct ? 2 : 0);
+            assertThat(answerCounter.getUnRatedCounter()).isEqualTo(correct ? 0 : 1);
+        }
+        // the quiz is only loaded when it is requested for the first time
+        verify(quizExerciseService, times(2)).findOneWithQuestionsAndStatistics(QUIZ_ID);
+        verifyNoInteractions(statisticRepository, quizQuestionStatisticRepository, statisticCounterRepository);
+    }
+
+    @Test
+    public void flush_writesOnlyDeltas() {
+        QuizExercise quizExercise = quizStatisticAggregator.getQuizExercise(QUIZ_ID);
+        Result result = createResult(quizExercise, 0, true);
+        quizStatisticAggregator.addResult(QUIZ_ID, result);
+        quizStatisticAggregator.addResult(QUIZ_ID, result);
+
+        quizStatisticAggregator.flush(QUIZ_ID);
+        verify(statisticRepository).incrementParticipants(POINT_STATISTIC_ID, 2, 0);
+        verify(statisticRepository).incrementParticipants(QUESTION_STATISTIC_ID, 2, 0);
+        verify(quizQuestionStatisticRepository).incrementCorrectCounters(QUESTION_STATISTIC_ID, 2, 0);
+        verify(statisticCounterRepository).incrementCounters(100L, 2, 0);
+        verify(statisticCounterRepository).incrementCounters(pointCounterId(quizExercise, 1.0), 2, 0);
+
+        // a result that is removed again does not cause any update
+        quizStatisticAggregator.addResult(QUIZ_ID, result);
+        quizStatisticAggregator.removeResult(QUIZ_ID, result);
+        assertThat(quizStatisticAggregator.flush(QUIZ_ID)).isEqualTo(0);
+        verifyNoMoreInteractions(statisticRepository, quizQuestionStatisticRepository, statisticCounterRepository);
+    }
+
+    @Test
+    public void flush_keepsDeltasIfUpdateFails() {
+        QuizExercise quizExercise = quizStatisticAggregator.getQuizExercise(QUIZ_ID);
+        quizStatisticAggregator.addResult(QUIZ_ID, createResult(quizExercise, 1, true));
+        doThrow(new IllegalStateException("database not available")).when(statisticCounterRepository).incrementCounters(anyLong(), anyInt(), anyInt());
+
+        assertThatThrownBy(() -> quizStatisticAggregator.flush(QUIZ_ID)).isInstanceOf(IllegalStateException.class);
+
+        reset(statisticRepository, quizQuestionStatisticRepository, statisticCounterRepository);
+        assertThat(quizStatisticAggregator.flush(QUIZ_ID)).isEqualTo(4);
+        verify(statisticRepository).incrementParticipants(POINT_STATISTIC_ID, 1, 0);
+        verify(statisticRepository).incrementParticipants(QUESTION_STATISTIC_ID, 1, 0);
+        verify(statisticCounterRepository).incrementCounters(101L, 1, 0);
+        verify(statisticCounterRepository).incrementCounters(pointCounterId(quizExercise, 0.0), 1, 0);
+        verifyNoInteractions(quizQuestionStatisticRepository);
+    }
+
+    @Test
+    public void evict_reloadsQuiz() {
+        quizStatisticAggregator.getQuizExercise(QUIZ_ID);
+        quizStatisticAggregator.evict(QUIZ_ID);
+        assertThat(quizStatisticAggregator.getStatisticsForWebsocket(QUIZ_ID)).isNull();
+
+        quizStatisticAggregator.getQuizExercise(QUIZ_ID);
+        verify(quizExerciseService, times(4)).findOneWithQuestionsAndStatistics(QUIZ_ID);
+    }
+
+    private QuizExercise createQuiz() {
+        QuizExercise quizExercise = new QuizExercise();
+        quizExercise.setId(QUIZ_ID);
+        quizExercise.getQuizPointStatistic().setId(POINT_STATISTIC_ID);
+
+        MultipleChoiceQuestion question = (MultipleChoiceQuestion) new MultipleChoiceQuestion().title("MC").score(1).text("Q1");
+        question.setId(2L);
+        question.setScoringType(ScoringType.ALL_OR_NOTHING);
+        AnswerOption correctOption = new AnswerOption().text("A").isCorrect(true);
+        correctOption.setId(3L);
+        AnswerOption wrongOption = new AnswerOption().text("B").isCorrect(false);
+        wrongOption.setId(4L);
+        question.getAnswerOptions().add(correctOption);
+        question.getAnswerOptions().add(wrongOption);
+
+        MultipleChoiceQuestionStatistic questionStatistic = new MultipleChoiceQuestionStatistic();
+        questionStatistic.setId(QUESTION_STATISTIC_ID);
+        questionStatistic.setQuizQuestion(question);
+        questionStatistic.addAnswerCounters(createAnswerCounter(100L, correctOption));
+        questionStatistic.addAnswerCounters(createAnswerCounter(101L, wrongOption));
+        question.setQuizQuestionStatistic(questionStatistic);
+        quizExercise.addQuestions(question);
+
+        long pointCounterId = 200L;
+        for (PointCounter pointCounter : quizExercise.getQuizPointStatistic().getPointCounters()) {
+            pointCounter.setId(pointCounterId++);
+        }
+        return quizExercise;
+    }
+
+    private AnswerCounter createAnswerCounter(Long id, AnswerOption answerOption) {
+        AnswerCounter answerCounter = new AnswerCounter();
+        answerCounter.setId(id);
+        answerCounter.setAnswer(answerOption);
+        return answerCounter;
+    }
+
+    private Long pointCounterId(QuizExercise quizExercise, double points) {
+        return quizExercise.getQuizPointStatistic().getPointCounters().stream().filter(pointCounter -> pointCounter.getPoints() == points).findFirst().orElseThrow().getId();
+    }
+
+    private Result createResult(QuizExercise quizExercise, int selectedOption, boolean rated) {
+        MultipleChoiceQuestion question = (MultipleChoiceQuestion) quizExercise.getQuizQuestions().get(0);
+        MultipleChoiceSubmittedAnswer submittedAnswer = new MultipleChoiceSubmittedAnswer();
+        submittedAnswer.setQuizQuestion(question);
+        submittedAnswer.addSelectedOptions(question.getAnswerOptions().get(selectedOption));
+        QuizSubmission quizSubmission = new QuizSubmission();
+        quizSubmission.addSubmittedAnswers(submittedAnswer);
+        Result result = new Result().submission(quizSubmission);
+        result.setScore(selectedOption == 0 ? 100L : 0L);
+        result.setRated(rated);
+        return result;
+    }
+}
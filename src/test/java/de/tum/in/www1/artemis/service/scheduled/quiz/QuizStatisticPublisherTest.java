@@ -0,0 +1,210 @@
+package de.tum.in.www1.artemis.service.scheduled.quiz;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+import de.tum.in.www1.artemis.domain.quiz.*;
+import de.tum.in.www1.artemis.web.websocket.dto.QuizStatisticUpdateDTO;
+import de.tum.in.www1.artemis.web.websocket.dto.QuizStatisticUpdateDTO.CounterValues;
+import de.tum.in.www1.artemis.web.websocket.dto.QuizStatisticUpdateDTO.StatisticValues;
+
+public class QuizStatisticPublisherTest {
+
+    private static final long QUIZ_ID = 1L;
+
+    private static final String DESTINATION = "/topic/statistic/" + QUIZ_ID;
+
+    @Mock
+    private SimpMessageSendingOperations messagingTemplate;
+
+    @Mock
+    private ScheduledExecutorService scheduler;
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+
+    private QuizStatisticPublisher quizStatisticPublisher;
+
+    @BeforeEach
+    public void init() {
+        MockitoAnnotations.initMocks(this);
+        quizStatisticPublisher = new QuizStatisticPublisher(messagingTemplate, scheduler, clock::get);
+    }
+
+    @Test
+    public void tick_coalescesUpdatesAndSendsChangedValues() {
+        quizStatisticPublisher.publish(QUIZ_ID, createQuiz(1, 0));
+        quizStatisticPublisher.publish(QUIZ_ID, createQuiz(2, 0));
+        quizStatisticPublisher.tick();
+
+        QuizStatisticUpdateDTO firstUpdate = captureUpdate();
+        assertThat(firstUpdate.getVersion()).isEqualTo(clock.get());
+        assertThat(firstUpdate.isComplete()).isTrue();
+        assertThat(firstUpdate.getStatistics()).extracting(StatisticValues::getId).containsExactly(10L, 11L);
+        assertThat(firstUpdate.getStatistics()).extracting(StatisticValues::getParticipantsRated).containsExactly(2, 2);
+        assertThat(firstUpdate.getCounters()).extracting(CounterValues::getId).contains(100L, 101L, 200L);
+
+        reset(messagingTemplate);
+        // only the participants of the question statistic and the counter of the wrong answer change
+        quizStatisticPublisher.publish(QUIZ_ID, createQuiz(2, 1));
+        quizStatisticPublisher.tick();
+
+        QuizStatisticUpdateDTO secondUpdate = captureUpdate();
+        assertThat(secondUpdate.getVersion()).isEqualTo(firstUpdate.getVersion() + 1);
+        assertThat(secondUpdate.isComplete()).isFalse();
+        assertThat(secondUpdate.getStatistics()).containsExactly(new StatisticValues(11L, 3, 0, 2, 0));
+        assertThat(secondUpdate.getCounters()).containsExactly(new CounterValues(101L, 1, 0));
+    }
+
+    @Test
+    public void tick_sendsNothingWithoutChanges() {
+        quizStatisticPublisher.publish(QUIZ_ID, createQuiz(1, 0));
+        quizStatisticPublisher.tick();
+        reset(messagingTemplate);
+
+        quizStatisticPublisher.tick();
+        quizStatisticPublisher.publish(QUIZ_ID, createQuiz(1, 0));
+        quizStatisticPublisher.tick();
+
+        verifyNoInteractions(messagingTemplate);
+    }
+
+    @Test
+    public void tick_removesExpiredStatistics() {
+        quizStatisticPublisher.publish(QUIZ_ID, createQuiz(1, 0));
+        quizStatisticPublisher.tick();
+        long expiredVersion = captureUpdate().getVersion();
+
+        clock.addAndGet(QuizStatisticPublisher.RETENTION_MILLIS);
+        quizStatisticPublisher.tick();
+        reset(messagingTemplate);
+
+        // the next update is complete again and its version is still newer, so that clients do not skip it
+        quizStatisticPublisher.publish(QUIZ_ID, createQuiz(1, 0));
+        quizStatisticPublisher.tick();
+        QuizStatisticUpdateDTO update = captureUpdate();
+        assertThat(update.getVersion()).isGreaterThan(expiredVersion);
+        assertThat(update.isComplete()).isTrue();
+    }
+
+    @Test
+    public void evict_continuesWithNewerVersion() {
+        quizStatisticPublisher.publish(QUIZ_ID, createQuiz(1, 0));
+        quizStatisticPublisher.tick();
+        quizStatisticPublisher.publish(QUIZ_ID, createQuiz(2, 0));
+        quizStatisticPublisher.tick();
+        ArgumentCaptor<QuizStatisticUpdateDTO> updates = ArgumentCaptor.forClass(QuizStatisticUpdateDTO.class);
+        verify(messagingTemplate, times(2)).convertAndSend(eq(DESTINATION), updates.capture());
+        long evictedVersion = updates.getValue().getVersion();
+
+        quizStatisticPublisher.evict(QUIZ_ID);
+        clock.addAndGet(1000);
+        reset(messagingTemplate);
+
+        quizStatisticPublisher.publish(QUIZ_ID, createQuiz(3, 0));
+        quizStatisticPublisher.tick();
+        QuizStatisticUpdateDTO update = captureUpdate();
+        assertThat(update.getVersion()).isGreaterThan(evictedVersion);
+        assertThat(update.isComplete()).isTrue();
+    }
+
+    @Test
+    public void handleSubscribe_replaysLatestStatistics() {
+        quizStatisticPublisher.publish(QUIZ_ID, createQuiz(1, 0));
+        quizStatisticPublisher.tick();
+        quizStatisticPublisher.publish(QUIZ_ID, createQuiz(1, 1));
+        quizStatisticPublisher.tick();
+
+        // subscriptions to other destinations are ignored
+        quizStatisticPublisher.handleSubscribe(subscribeEvent("instructor1", DESTINATION));
+        verifyNoInteractions(scheduler);
+
+        quizStatisticPublisher.handleSubscribe(subscribeEvent("instructor1", "/user" + DESTINATION));
+        ArgumentCaptor<Runnable> replay = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).schedule(replay.capture(), eq(QuizStatisticPublisher.REPLAY_DELAY_MILLIS), eq(TimeUnit.MILLISECONDS));
+        replay.getValue().run();
+
+        ArgumentCaptor<QuizStatisticUpdateDTO> update = ArgumentCaptor.forClass(QuizStatisticUpdateDTO.class);
+        verify(messagingTemplate).convertAndSendToUser(eq("instructor1"), eq(DESTINATION), update.capture());
+        assertThat(update.getValue().getVersion()).isEqualTo(clock.get() + 1);
+        assertThat(update.getValue().isComplete()).isTrue();
+        assertThat(update.getValue().getStatistics()).hasSize(2);
+        assertThat(update.getValue().getCounters()).contains(new CounterValues(100L, 1, 0), new CounterValues(101L, 1, 0));
+    }
+
+    @Test
+    public void evict_discardsStatistics() {
+        quizStatisticPublisher.publish(QUIZ_ID, createQuiz(1, 0));
+        quizStatisticPublisher.evict(QUIZ_ID);
+        quizStatisticPublisher.tick();
+
+        verifyNoInteractions(messagingTemplate);
+    }
+
+    private QuizStatisticUpdateDTO captureUpdate() {
+        ArgumentCaptor<QuizStatisticUpdateDTO> update = ArgumentCaptor.forClass(QuizStatisticUpdateDTO.class);
+        verify(messagingTemplate).convertAndSend(eq(DESTINATION), update.capture());
+        return update.getValue();
+    }
+
+    /**
+     * Create a quiz with one multiple choice question, the given number of rated participants selected the correct and the wrong answer
+     */
+    private QuizExercise createQuiz(int correct, int wrong) {
+        QuizExercise quizExercise = new QuizExercise();
+        quizExercise.setId(QUIZ_ID);
+        quizExercise.getQuizPointStatistic().setId(10L);
+        quizExercise.getQuizPointStatistic().setParticipantsRated(correct);
+
+        MultipleChoiceQuestion question = (MultipleChoiceQuestion) new MultipleChoiceQuestion().title("MC").score(1).text("Q1");
+        question.setId(2L);
+        MultipleChoiceQuestionStatistic questionStatistic = new MultipleChoiceQuestionStatistic();
+        questionStatistic.setId(11L);
+        questionStatistic.setParticipantsRated(correct + wrong);
+        questionStatistic.setRatedCorrectCounter(correct);
+        questionStatistic.setUnRatedCorrectCounter(0);
+        questionStatistic.addAnswerCounters(createAnswerCounter(100L, correct));
+        questionStatistic.addAnswerCounters(createAnswerCounter(101L, wrong));
+        question.setQuizQuestionStatistic(questionStatistic);
+        quizExercise.addQuestions(question);
+
+        long pointCounterId = 200L;
+        for (PointCounter pointCounter : quizExercise.getQuizPointStatistic().getPointCounters()) {
+            pointCounter.setId(pointCounterId++);
+        }
+        return quizExercise;
+    }
+
+    private AnswerCounter createAnswerCounter(Long id, int ratedCounter) {
+        AnswerCounter answerCounter = new AnswerCounter();
+        answerCounter.setId(id);
+        answerCounter.setRatedCounter(ratedCounter);
+        answerCounter.setUnRatedCounter(0);
+        return answerCounter;
+    }
+
+    private SessionSubscribeEvent subscribeEvent(String username, String destination) {
+        StompHeaderAccessor headers = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        headers.setDestination(destination);
+        headers.setSessionId("session");
+        Message<byte[]> message = MessageBuilder.createMessage(new byte[0], headers.getMessageHeaders());
+        return new SessionSubscribeEvent(this, message, new UsernamePasswordAuthenticationToken(username, null));
+    }
+}
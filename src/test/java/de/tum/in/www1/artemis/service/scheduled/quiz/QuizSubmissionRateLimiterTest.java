@@ -0,0 +1,201 @@
+package de.tum.in.www1.artemis.service.scheduled.quiz;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.tum.in.www1.artemis.web.websocket.dto.QuizSubmissionAckDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class QuizSubmissionRateLimiterTest {
+
+    private static final long QUIZ_ID = 1L;
+
+    private static final String DESTINATION = "/topic/quizExercise/" + QUIZ_ID + "/submission";
+
+    @Mock
+    private MessageChannel channel;
+
+    @Mock
+    private ScheduledExecutorService scheduler;
+
+    @Mock
+    private SimpMessageSendingOperations messagingTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+
+    private QuizSubmissionRateLimiter rateLimiter;
+
+    @BeforeEach
+    public void init() {
+        MockitoAnnotations.initMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        // 2 saves per second with bursts of 3 saves
+        rateLimiter = new QuizSubmissionRateLimiter(new ObjectMapper(), () -> messagingTemplate, meterRegistry, 2, 3, scheduler, clock::get);
+    }
+
+    @Test
+    public void preSend_acceptsBurstAndQueuesExcessSaves() {
+        for (int i = 1; i <= 3; i++) {
+            assertThat(rateLimiter.preSend(delta("student1", i), channel)).isNotNull();
+        }
+        // the saves of other users and other messages are not limited
+        assertThat(rateLimiter.preSend(delta("student2", 1), channel)).isNotNull();
+        assertThat(rateLimiter.preSend(message("student1", StompCommand.SUBSCRIBE, "/user" + DESTINATION, "{}"), channel)).isNotNull();
+
+        assertThat(rateLimiter.preSend(delta("student1", 4), channel)).isNull();
+        assertThat(rateLimiter.getQueuedSaves()).isEqualTo(1);
+
+        // the queued save is released with the next token, it passes the limiter afterwards
+        tick(499);
+        verifyNoInteractions(channel);
+        tick(500);
+        List<Message<?>> released = releasedMessages(1);
+        assertThat(released.get(0).getPayload()).isEqualTo(delta("student1", 4).getPayload());
+        assertThat(rateLimiter.preSend(released.get(0), channel)).isSameAs(released.get(0));
+        assertThat(rateLimiter.getQueuedSaves()).isZero();
+        assertThat(saves("accepted")).isEqualTo(4);
+        assertThat(saves("delayed")).isEqualTo(1);
+    }
+
+    @Test
+    public void preSend_keepsOrderAndDropsChangesIfQueueIsFull() {
+        for (int i = 1; i <= 3; i++) {
+            rateLimiter.preSend(delta("student1", i), channel);
+        }
+        for (int i = 4; i <= 7; i++) {
+            assertThat(rateLimiter.preSend(delta("student1", i), channel)).isNull();
+        }
+        assertThat(rateLimiter.getQueuedSaves()).isEqualTo(3);
+        assertThat(saves("dropped")).isEqualTo(1);
+        verifyResyncRequested(7);
+
+        // a new token does not overtake the queued saves
+        clock.addAndGet(500);
+        assertThat(rateLimiter.preSend(delta("student1", 8), channel)).isNull();
+        assertThat(saves("dropped")).isEqualTo(2);
+        verifyResyncRequested(8);
+        verifyNoMoreInteractions(messagingTemplate);
+
+        // only one save is released per tick
+        tick(1500);
+        tick(1600);
+        tick(1700);
+        List<Message<?>> released = releasedMessages(3);
+        for (int i = 0; i < 3; i++) {
+            assertThat(released.get(i).getPayload()).isEqualTo(delta("student1", 4 + i).getPayload());
+        }
+    }
+
+    @Test
+    public void preSend_queuedSavesNotAcknowledgedByLimiter() {
+        for (int i = 1; i <= 6; i++) {
+            rateLimiter.preSend(delta("student1", i), channel);
+        }
+        Message<byte[]> fullSubmission = message("student1", StompCommand.SEND, DESTINATION, "{\"submittedAnswers\":[]}");
+        rateLimiter.preSend(fullSubmission, channel);
+
+        assertThat(saves("dropped")).isZero();
+        verifyNoInteractions(messagingTemplate);
+    }
+
+    @Test
+    public void preSend_collapsesQueuedSavesIntoFullSubmission() {
+        for (int i = 1; i <= 5; i++) {
+            rateLimiter.preSend(delta("student1", i), channel);
+        }
+        Message<byte[]> fullSubmission = message("student1", StompCommand.SEND, DESTINATION, "{\"submittedAnswers\":[]}");
+        assertThat(rateLimiter.preSend(fullSubmission, channel)).isNull();
+
+        assertThat(rateLimiter.getQueuedSaves()).isEqualTo(1);
+        assertThat(saves("collapsed")).isEqualTo(2);
+        tick(500);
+        assertThat(releasedMessages(1).get(0).getPayload()).isEqualTo(fullSubmission.getPayload());
+    }
+
+    @Test
+    public void preSend_alwaysAcceptsFinalSave() {
+        for (int i = 1; i <= 5; i++) {
+            rateLimiter.preSend(delta("student1", i), channel);
+        }
+        Message<byte[]> finalSave = message("student1", StompCommand.SEND, DESTINATION, "{\"submitted\":true,\"submittedAnswers\":[]}");
+
+        assertThat(rateLimiter.preSend(finalSave, channel)).isSameAs(finalSave);
+        assertThat(rateLimiter.getQueuedSaves()).isZero();
+        assertThat(saves("final")).isEqualTo(1);
+        assertThat(saves("collapsed")).isEqualTo(2);
+        tick(10_000);
+        verifyNoInteractions(channel);
+    }
+
+    @Test
+    public void tick_removesIdleBuckets() {
+        rateLimiter.preSend(delta("student1", 1), channel);
+        tick(100);
+        rateLimiter.preSend(delta("student1", 2), channel);
+
+        // the bucket is removed once it has been refilled, a new bucket is full again
+        tick(1000);
+        for (int i = 3; i <= 5; i++) {
+            assertThat(rateLimiter.preSend(delta("student1", i), channel)).isNotNull();
+        }
+        assertThat(rateLimiter.preSend(delta("student1", 6), channel)).isNull();
+    }
+
+    private void tick(long millisAfterStart) {
+        clock.set(1_000_000 + millisAfterStart);
+        rateLimiter.tick();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void verifyResyncRequested(long sequenceNumber) {
+        ArgumentCaptor<QuizSubmissionAckDTO> ack = ArgumentCaptor.forClass(QuizSubmissionAckDTO.class);
+        verify(messagingTemplate).convertAndSendToUser(eq("student1"), eq(DESTINATION + "/delta"), ack.capture());
+        assertThat(ack.getValue().getSequenceNumber()).isEqualTo(sequenceNumber);
+        assertThat(ack.getValue().isResync()).isTrue();
+        clearInvocations(messagingTemplate);
+    }
+
+    private List<Message<?>> releasedMessages(int count) {
+        ArgumentCaptor<Message<?>> released = ArgumentCaptor.forClass(Message.class);
+        verify(channel, times(count)).send(released.capture());
+        return released.getAllValues();
+    }
+
+    private double saves(String outcome) {
+        return meterRegistry.get("artemis.quiz.submission.saves").tag("outcome", outcome).counter().count();
+    }
+
+    private Message<byte[]> delta(String username, int sequenceNumber) {
+        return message(username, StompCommand.SEND, DESTINATION + "/delta", "{\"sequenceNumber\":" + sequenceNumber + ",\"submittedAnswers\":[]}");
+    }
+
+    private Message<byte[]> message(String username, StompCommand command, String destination, String payload) {
+        StompHeaderAccessor headers = StompHeaderAccessor.create(command);
+        headers.setDestination(destination);
+        headers.setSessionId("session-" + username);
+        headers.setUser(new UsernamePasswordAuthenticationToken(username, null));
+        return MessageBuilder.createMessage(payload.getBytes(StandardCharsets.UTF_8), headers.getMessageHeaders());
+    }
+}
@@ -0,0 +1,73 @@
+package de.tum.in.www1.artemis.service.scheduled.quiz;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+
+public class QuizTimingWheelTest {
+
+    private static final long START = 1_000_000;
+
+    @Test
+    public void advance_expiresAtTheEndOfTheDeadlineTick() {
+        QuizTimingWheel<String> wheel = new QuizTimingWheel<>(100, 8, 2, START);
+        wheel.schedule("a", START + 250);
+        wheel.schedule("b", START + 300);
+
+        assertThat(wheel.advance(START + 299)).isEmpty();
+        assertThat(wheel.advance(START + 300)).containsExactlyInAnyOrder("a", "b");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    public void schedule_pastDeadlineExpiresWithNextTick() {
+        QuizTimingWheel<String> wheel = new QuizTimingWheel<>(100, 8, 2, START);
+        wheel.advance(START + 1000);
+        wheel.schedule("late", START);
+
+        assertThat(wheel.advance(START + 1099)).isEmpty();
+        assertThat(wheel.advance(START + 1100)).containsExactly("late");
+    }
+
+    @Test
+    public void cancel_removesTimeout() {
+        QuizTimingWheel<String> wheel = new QuizTimingWheel<>(100, 8, 2, START);
+        QuizTimingWheel.Timeout<String> cancelled = wheel.schedule("cancelled", START + 500);
+        QuizTimingWheel.Timeout<String> expired = wheel.schedule("expired", START + 500);
+
+        assertThat(wheel.cancel(cancelled)).isTrue();
+        assertThat(wheel.cancel(cancelled)).isFalse();
+        assertThat(wheel.advance(START + 500)).containsExactly("expired");
+        assertThat(wheel.cancel(expired)).isFalse();
+    }
+
+    @Test
+    public void advance_cascadesDeadlinesOfAllLevelsAndBeyond() {
+        // 2 levels of 8 slots reach 64 ticks, the deadlines reach 300 ticks
+        QuizTimingWheel<Integer> wheel = new QuizTimingWheel<>(10, 8, 2, START);
+        Random random = new Random(42);
+        Map<Integer, Long> deadlines = new HashMap<>();
+        List<QuizTimingWheel.Timeout<Integer>> timeouts = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            long deadline = START + random.nextInt(3000);
+            deadlines.put(i, deadline);
+            timeouts.add(wheel.schedule(i, deadline));
+        }
+        for (int i = 0; i < 2000; i += 3) {
+            wheel.cancel(timeouts.get(i));
+            deadlines.remove(i);
+        }
+
+        for (long now = START; now <= START + 3010; now += 7) {
+            for (Integer expired : wheel.advance(now)) {
+                long deadline = deadlines.remove(expired);
+                // never too early and at most one tick (and the step of the clock) too late
+                assertThat(deadline).isLessThanOrEqualTo(now).isGreaterThan(now - 17);
+            }
+        }
+        assertThat(deadlines).isEmpty();
+        assertThat(wheel.size()).isZero();
+    }
+}
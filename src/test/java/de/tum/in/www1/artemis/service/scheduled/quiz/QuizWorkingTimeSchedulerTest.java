@@ -0,0 +1,131 @@
+package de.tum.in.www1.artemis.service.scheduled.quiz;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.tum.in.www1.artemis.config.Constants;
+import de.tum.in.www1.artemis.domain.enumeration.SubmissionType;
+import de.tum.in.www1.artemis.domain.quiz.QuizExercise;
+import de.tum.in.www1.artemis.domain.quiz.QuizSubmission;
+import de.tum.in.www1.artemis.service.scheduled.quiz.QuizSessionRegistry.QuizSession;
+import de.tum.in.www1.artemis.service.scheduled.quiz.QuizWorkingTimeScheduler.WorkingTime;
+
+public class QuizWorkingTimeSchedulerTest {
+
+    private static final long QUIZ_ID = 1L;
+
+    private final AtomicLong clock = new AtomicLong(System.currentTimeMillis());
+
+    private InMemoryQuizSubmissionStore submissionStore;
+
+    private QuizWorkingTimeScheduler workingTimeScheduler;
+
+    private final Set<Long> timedOutQuizzes = new HashSet<>();
+
+    @BeforeEach
+    public void init() {
+        submissionStore = new InMemoryQuizSubmissionStore();
+        workingTimeScheduler = new QuizWorkingTimeScheduler(submissionStore, mock(ScheduledExecutorService.class), clock::get);
+        workingTimeScheduler.setTimeoutListener(timedOutQuizzes::addAll);
+    }
+
+    @Test
+    public void start_endsWithDurationOrQuiz() {
+        // the quiz started 10 seconds ago and lasts 60 seconds
+        QuizSession quizSession = createQuizSession(now().minusSeconds(10), 60);
+
+        WorkingTime workingTime = workingTimeScheduler.start(quizSession, "student1").orElseThrow();
+
+        assertThat(workingTime.getStartDate()).isEqualTo(now());
+        assertThat(workingTime.getEndDate()).isEqualTo(now().plusSeconds(50));
+        assertThat(workingTime.isSubmissionAllowed(now().plusSeconds(50 + Constants.QUIZ_GRACE_PERIOD_IN_SECONDS - 1))).isTrue();
+        assertThat(workingTime.isSubmissionAllowed(now().plusSeconds(50 + Constants.QUIZ_GRACE_PERIOD_IN_SECONDS))).isFalse();
+        // opening the quiz again does not restart the working time
+        clock.addAndGet(5000);
+        assertThat(workingTimeScheduler.start(quizSession, "student1")).containsSame(workingTime);
+        assertThat(workingTimeScheduler.getRunningWorkingTimes()).isEqualTo(1);
+    }
+
+    @Test
+    public void tick_submitsTimedOutSubmission() {
+        QuizSession quizSession = createQuizSession(now(), 30);
+        workingTimeScheduler.start(quizSession, "student1");
+        workingTimeScheduler.start(quizSession, "student2");
+        workingTimeScheduler.start(quizSession, "student3");
+        submissionStore.put(QUIZ_ID, "student1", new QuizSubmission());
+        QuizSubmission submittedSubmission = new QuizSubmission();
+        submittedSubmission.setSubmitted(true);
+        submittedSubmission.setType(SubmissionType.MANUAL);
+        submissionStore.put(QUIZ_ID, "student2", submittedSubmission);
+
+        // the submissions are submitted after the grace period
+        advance(30_000);
+        assertThat(submissionStore.get(QUIZ_ID, "student1").isSubmitted()).isFalse();
+        advance((Constants.QUIZ_GRACE_PERIOD_IN_SECONDS * 1000) + QuizWorkingTimeScheduler.TICK_MILLIS);
+
+        assertThat(submissionStore.get(QUIZ_ID, "student1").isSubmitted()).isTrue();
+        assertThat(submissionStore.get(QUIZ_ID, "student1").getType()).isEqualTo(SubmissionType.TIMEOUT);
+        assertThat(submissionStore.get(QUIZ_ID, "student2").getType()).isEqualTo(SubmissionType.MANUAL);
+        assertThat(submissionStore.get(QUIZ_ID, "student3")).isNull();
+        assertThat(timedOutQuizzes).containsExactly(QUIZ_ID);
+        assertThat(workingTimeScheduler.getRunningWorkingTimes()).isZero();
+        // the start of the working time is kept until the quiz has been processed
+        assertThat(workingTimeScheduler.getWorkingTime(QUIZ_ID, "student1")).isPresent();
+    }
+
+    @Test
+    public void cancel_keepsSubmission() {
+        QuizSession quizSession = createQuizSession(now(), 30);
+        workingTimeScheduler.start(quizSession, "student1");
+        workingTimeScheduler.start(quizSession, "student2");
+        submissionStore.put(QUIZ_ID, "student1", new QuizSubmission());
+
+        workingTimeScheduler.cancel(QUIZ_ID, "student1");
+        assertThat(workingTimeScheduler.getRunningWorkingTimes()).isEqualTo(1);
+        workingTimeScheduler.evict(QUIZ_ID);
+        assertThat(workingTimeScheduler.getRunningWorkingTimes()).isZero();
+        advance(60_000);
+
+        assertThat(submissionStore.get(QUIZ_ID, "student1").isSubmitted()).isFalse();
+        assertThat(workingTimeScheduler.getWorkingTime(QUIZ_ID, "student1")).isEmpty();
+        assertThat(timedOutQuizzes).isEmpty();
+    }
+
+    @Test
+    public void start_isEmptyIfQuizIsNotPlannedToStart() {
+        QuizExercise quizExercise = new QuizExercise().duration(30).isPlannedToStart(false);
+        quizExercise.setId(QUIZ_ID);
+
+        assertThat(workingTimeScheduler.start(new QuizSession(quizExercise, Set.of()), "student1")).isEmpty();
+    }
+
+    private QuizSession createQuizSession(ZonedDateTime releaseDate, int duration) {
+        QuizExercise quizExercise = new QuizExercise().duration(duration).isPlannedToStart(true);
+        quizExercise.setId(QUIZ_ID);
+        quizExercise.setReleaseDate(releaseDate);
+        return new QuizSession(quizExercise, Set.of());
+    }
+
+    private void advance(long millis) {
+        long end = clock.get() + millis;
+        while (clock.get() < end) {
+            clock.set(Math.min(end, clock.get() + QuizWorkingTimeScheduler.TICK_MILLIS));
+            workingTimeScheduler.tick();
+        }
+    }
+
+    private ZonedDateTime now() {
+        return ZonedDateTime.ofInstant(Instant.ofEpochMilli(clock.get()), ZoneId.systemDefault());
+    }
+}
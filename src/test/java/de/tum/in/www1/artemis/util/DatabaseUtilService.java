@@ -1110,6 +1110,37 @@ public class DatabaseUtilService {
         return builder.toString();
     }
 
+    /**
+     * Load the models of all modeling submissions in the test data, i.e. the files in test-data/model-submission
+     *
+     * @return file name -> model in the JSON format of Apollon, ordered by the file name
+     * @throws Exception if a file cannot be read
+     */
+    public static SortedMap<String, String> loadModelSubmissionsFromResources() throws Exception {
+        SortedMap<String, String> models = new TreeMap<>();
+        for (java.io.File file : ResourceUtils.getFile("classpath:test-data/model-submission").listFiles()) {
+            models.put(file.getName(), Files.readString(file.toPath()));
+        }
+        return models;
+    }
+
+    /**
+     * Load the models of the modeling submissions in the test data that Compass can assess automatically, i.e. the class and activity diagrams
+     *
+     * @return the models in the JSON format of Apollon, ordered by their file names
+     * @throws Exception if a file cannot be read
+     */
+    public static List<String> loadCompassModelsFromResources() throws Exception {
+        List<String> models = new ArrayList<>();
+        for (String model : loadModelSubmissionsFromResources().values()) {
+            String diagramType = parseString(model).getAsJsonObject().get("type").getAsString();
+            if (DiagramType.ClassDiagram.name().equals(diagramType) || DiagramType.ActivityDiagram.name().equals(diagramType)) {
+                models.add(model);
+            }
+        }
+        return models;
+    }
+
     public List<Feedback> loadAssessmentFomResources(String path) throws Exception {
         String fileContent = loadFileFromResources(path);
         List<Feedback> modelingAssessment = mapper.readValue(fileContent, mapper.getTypeFactory().constructCollectionType(List.class, Feedback.class));
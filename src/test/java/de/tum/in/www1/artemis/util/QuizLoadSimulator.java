@@ -0,0 +1,285 @@
+package de.tum.in.www1.artemis.util;
+
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.converter.*;
+import org.springframework.messaging.simp.stomp.*;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.tum.in.www1.artemis.domain.SubmittedAnswer;
+import de.tum.in.www1.artemis.domain.quiz.QuizSubmission;
+import de.tum.in.www1.artemis.web.websocket.dto.QuizSubmissionDeltaDTO;
+
+/**
+ * Simulates students who participate in a live quiz with synthetic STOMP clients, which connect to the websocket of a running server like the web client: they save their
+ * submission, send the changed answers afterwards and finally submit. The latency between a save and its acknowledgement by the server is recorded for all students.
+ */
+public class QuizLoadSimulator implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(QuizLoadSimulator.class);
+
+    /**
+     * the number of clients which connect at the same time
+     */
+    private static final int PARALLEL_CONNECTS = 50;
+
+    private final String websocketUrl;
+
+    private final WebSocketStompClient stompClient;
+
+    private final Queue<Long> saveLatencies = new ConcurrentLinkedQueue<>();
+
+    private final List<SimulatedStudent> students = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param websocketUrl the url of the websocket endpoint, e.g. http://localhost:8080/websocket/tracker
+     * @param objectMapper the object mapper of the server, so that the submissions are serialized like in the web client
+     */
+    public QuizLoadSimulator(String websocketUrl, ObjectMapper objectMapper) {
+        this.websocketUrl = websocketUrl;
+        this.stompClient = new WebSocketStompClient(new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+        MappingJackson2MessageConverter jacksonConverter = new MappingJackson2MessageConverter();
+        jacksonConverter.setObjectMapper(objectMapper);
+        // the results are sent as serialized bytes, the notifications of the server as plain text
+        stompClient.setMessageConverter(new CompositeMessageConverter(List.of(new ByteArrayMessageConverter(), new StringMessageConverter(), jacksonConverter)));
+    }
+
+    /**
+     * Connect the given students to the websocket and subscribe to the topics of the quiz, the method returns after all students are connected
+     *
+     * @param tokensByUsername the JWT of each student
+     * @param quizExerciseId   the id of the quiz the students participate in
+     * @return the connected students
+     * @throws InterruptedException if the thread is interrupted while waiting for the connections
+     */
+    public List<SimulatedStudent> connect(Map<String, String> tokensByUsername, long quizExerciseId) throws InterruptedException {
+        Semaphore connects = new Semaphore(PARALLEL_CONNECTS);
+        List<CompletableFuture<SimulatedStudent>> connections = new ArrayList<>();
+        for (Map.Entry<String, String> usernameAndToken : tokensByUsername.entrySet()) {
+            connects.acquire();
+            SimulatedStudent student = new SimulatedStudent(usernameAndToken.getKey(), quizExerciseId);
+            CompletableFuture<SimulatedStudent> connection = student.connect(usernameAndToken.getValue()).whenComplete((ignored, error) -> connects.release());
+            connections.add(connection);
+        }
+        List<SimulatedStudent> connectedStudents = new ArrayList<>();
+        for (CompletableFuture<SimulatedStudent> connection : connections) {
+            connectedStudents.add(connection.join());
+        }
+        students.addAll(connectedStudents);
+        return connectedStudents;
+    }
+
+    /**
+     * @param percentile the percentile, e.g. 0.99
+     * @return the latency in ms of all saves of all students at the given percentile, or -1 if no save has been acknowledged
+     */
+    public long getSaveLatencyPercentile(double percentile) {
+        long[] latencies = saveLatencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        if (latencies.length == 0) {
+            return -1;
+        }
+        int index = (int) Math.ceil(percentile * latencies.length) - 1;
+        return TimeUnit.NANOSECONDS.toMillis(latencies[Math.max(0, Math.min(index, latencies.length - 1))]);
+    }
+
+    /**
+     * @return the number of saves which have been acknowledged by the server
+     */
+    public int getAcknowledgedSaves() {
+        return saveLatencies.size();
+    }
+
+    @Override
+    public void close() {
+        students.forEach(SimulatedStudent::disconnect);
+        stompClient.stop();
+    }
+
+    /**
+     * A student who participates in the quiz with an own websocket connection
+     */
+    public class SimulatedStudent {
+
+        private final String username;
+
+        private final long quizExerciseId;
+
+        private final String submissionDestination;
+
+        private StompSession session;
+
+        /**
+         * sequence number of the change -> the time in ns the change was sent
+         */
+        private final Map<Long, Long> pendingChanges = new ConcurrentHashMap<>();
+
+        /**
+         * the times in ns the full submissions were sent, they are acknowledged in order
+         */
+        private final Queue<Long> pendingSubmissions = new ConcurrentLinkedQueue<>();
+
+        private long sequenceNumber;
+
+        private volatile boolean resyncRequested;
+
+        private final CompletableFuture<Long> result = new CompletableFuture<>();
+
+        private SimulatedStudent(String username, long quizExerciseId) {
+            this.username = username;
+            this.quizExerciseId = quizExerciseId;
+            this.submissionDestination = "/topic/quizExercise/" + quizExerciseId + "/submission";
+        }
+
+        private CompletableFuture<SimulatedStudent> connect(String token) {
+            URI uri = URI.create(websocketUrl + "?access_token=" + token);
+            CompletableFuture<SimulatedStudent> connection = new CompletableFuture<>();
+            stompClient.connect(uri, new WebSocketHttpHeaders(), new StompHeaders(), new StompSessionHandlerAdapter() {
+
+                @Override
+                public void afterConnected(StompSession session, StompHeaders connectedHeaders) {
+                    SimulatedStudent.this.session = session;
+                    subscribe();
+                    connection.complete(SimulatedStudent.this);
+                }
+
+                @Override
+                public void handleTransportError(StompSession session, Throwable exception) {
+                    if (!connection.isDone()) {
+                        connection.completeExceptionally(exception);
+                    }
+                    else {
+                        log.warn("Transport error of simulated student {}: {}", username, exception.getMessage());
+                    }
+                }
+            });
+            return connection;
+        }
+
+        private void subscribe() {
+            session.subscribe("/user" + submissionDestination, new Handler() {
+
+                @Override
+                public void handleFrame(StompHeaders headers, Object payload) {
+                    Long sentAt = pendingSubmissions.poll();
+                    if (payload instanceof String) {
+                        // the save was rejected, e.g. because the quiz is not active
+                        log.debug("Save of simulated student {} was rejected: {}", username, payload);
+                    }
+                    else if (sentAt != null) {
+                        saveLatencies.add(System.nanoTime() - sentAt);
+                    }
+                }
+            });
+            session.subscribe("/user" + submissionDestination + "/delta", new Handler() {
+
+                @Override
+                public void handleFrame(StompHeaders headers, Object payload) {
+                    JsonNode ack = (JsonNode) payload;
+                    Long sentAt = pendingChanges.remove(ack.path("sequenceNumber").asLong());
+                    if (ack.path("resync").asBoolean(false)) {
+                        resyncRequested = true;
+                    }
+                    else if (sentAt != null) {
+                        saveLatencies.add(System.nanoTime() - sentAt);
+                    }
+                }
+            });
+            session.subscribe("/user/topic/exercise/" + quizExerciseId + "/participation", new Handler() {
+
+                @Override
+                public void handleFrame(StompHeaders headers, Object payload) {
+                    result.complete(System.nanoTime());
+                }
+            });
+        }
+
+        /**
+         * Save the whole submission, the following changes are based on it
+         *
+         * @param quizSubmission the submission with all answers
+         */
+        public synchronized void save(QuizSubmission quizSubmission) {
+            sequenceNumber = 0;
+            resyncRequested = false;
+            pendingChanges.clear();
+            pendingSubmissions.add(System.nanoTime());
+            session.send(submissionDestination, quizSubmission);
+        }
+
+        /**
+         * Save the changed answers, or the whole submission if the server has requested it
+         *
+         * @param quizSubmission the submission with all answers
+         * @param changedAnswers the answers that changed since the last save
+         */
+        public synchronized void saveChanges(QuizSubmission quizSubmission, List<SubmittedAnswer> changedAnswers) {
+            if (resyncRequested) {
+                save(quizSubmission);
+                return;
+            }
+            QuizSubmissionDeltaDTO delta = new QuizSubmissionDeltaDTO();
+            delta.setSequenceNumber(++sequenceNumber);
+            delta.setSubmittedAnswers(changedAnswers);
+            pendingChanges.put(delta.getSequenceNumber(), System.nanoTime());
+            session.send(submissionDestination + "/delta", delta);
+        }
+
+        /**
+         * Submit the quiz with the given answers
+         *
+         * @param quizSubmission the submission with all answers
+         */
+        public synchronized void submit(QuizSubmission quizSubmission) {
+            quizSubmission.setSubmitted(true);
+            pendingSubmissions.add(System.nanoTime());
+            session.send(submissionDestination, quizSubmission);
+        }
+
+        /**
+         * @return completes with the time in ns the result of the quiz was received
+         */
+        public CompletableFuture<Long> getResult() {
+            return result;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        private void disconnect() {
+            if (session != null && session.isConnected()) {
+                session.disconnect();
+            }
+        }
+    }
+
+    /**
+     * Receives the payload of a topic as JSON, as plain text (notifications of the server) or as bytes (results)
+     */
+    private abstract static class Handler implements StompFrameHandler {
+
+        @Override
+        public Type getPayloadType(StompHeaders headers) {
+            if (headers.getContentType() == null || MimeTypeUtils.APPLICATION_JSON.isCompatibleWith(headers.getContentType())) {
+                return JsonNode.class;
+            }
+            if (MimeTypeUtils.TEXT_PLAIN.isCompatibleWith(headers.getContentType())) {
+                return String.class;
+            }
+            return byte[].class;
+        }
+    }
+}
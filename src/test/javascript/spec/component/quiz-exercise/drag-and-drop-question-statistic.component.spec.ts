@@ -0,0 +1,136 @@
+import { ComponentFixture, TestBed } from '@angular/core/testing';
+import { HttpResponse } from '@angular/common/http';
+import { ActivatedRoute } from '@angular/router';
+import { Subject } from 'rxjs';
+import { TranslateService } from '@ngx-translate/core';
+import * as chai from 'chai';
+import * as sinonChai from 'sinon-chai';
+import { SinonSpy, SinonStub, spy, stub } from 'sinon';
+
+import { ArtemisTestModule } from '../../test.module';
+import { DragAndDropQuestionStatisticComponent } from 'app/exercises/quiz/manage/statistics/drag-and-drop-question-statistic/drag-and-drop-question-statistic.component';
+import { QuizExerciseService } from 'app/exercises/quiz/manage/quiz-exercise.service';
+import { QuizExercise } from 'app/entities/quiz/quiz-exercise.model';
+import { QuizStatisticUpdate } from 'app/entities/quiz/quiz-statistic-update.model';
+import { JhiWebsocketService } from 'app/core/websocket/websocket.service';
+import { MockWebsocketService } from '../../helpers/mocks/service/mock-websocket.service';
+import { MockActivatedRoute } from '../../helpers/mocks/activated-route/mock-activated-route';
+import { TranslateServiceStub } from '../../helpers/mocks/service/mock-translate.service';
+
+chai.use(sinonChai);
+const expect = chai.expect;
+
+describe('DragAndDropQuestionStatisticComponent', () => {
+    let comp: DragAndDropQuestionStatisticComponent;
+    let fixture: ComponentFixture<DragAndDropQuestionStatisticComponent>;
+    let quizExercise: Subject<HttpResponse<QuizExercise>>;
+    let statisticUpdates: Subject<QuizStatisticUpdate>;
+    let replayedStatistics: Subject<QuizStatisticUpdate>;
+    let loadQuizSpy: SinonSpy;
+
+    const createQuizExercise = () =>
+        (({
+            id: 1,
+            quizQuestions: [
+                {
+                    id: 2,
+                    text: 'question',
+                    dropLocations: [
+                        { id: 3, posX: 0 },
+                        { id: 4, posX: 100 },
+                    ],
+                    quizQuestionStatistic: {
+                        id: 20,
+                        participantsRated: 1,
+                        participantsUnrated: 0,
+                        ratedCorrectCounter: 1,
+                        unRatedCorrectCounter: 0,
+                        dropLocationCounters: [
+                            { id: 30, dropLocation: { id: 3 }, ratedCounter: 1, unRatedCounter: 0 },
+                            { id: 40, dropLocation: { id: 4 }, ratedCounter: 1, unRatedCounter: 0 },
+                        ],
+                    },
+                },
+            ],
+        } as any) as QuizExercise);
+
+    beforeEach(() => {
+        TestBed.configureTestingModule({
+            imports: [ArtemisTestModule],
+            declarations: [DragAndDropQuestionStatisticComponent],
+            providers: [
+                { provide: ActivatedRoute, useValue: new MockActivatedRoute({ exerciseId: 1, questionId: 2 }) },
+                { provide: JhiWebsocketService, useClass: MockWebsocketService },
+                { provide: TranslateService, useClass: TranslateServiceStub },
+            ],
+        })
+            .overrideTemplate(DragAndDropQuestionStatisticComponent, '')
+            .compileComponents();
+
+        fixture = TestBed.createComponent(DragAndDropQuestionStatisticComponent);
+        comp = fixture.componentInstance;
+
+        quizExercise = new Subject<HttpResponse<QuizExercise>>();
+        statisticUpdates = new Subject<QuizStatisticUpdate>();
+        replayedStatistics = new Subject<QuizStatisticUpdate>();
+        stub(fixture.debugElement.injector.get(QuizExerciseService), 'find').returns(quizExercise);
+        const receiveStub: SinonStub = stub(fixture.debugElement.injector.get(JhiWebsocketService), 'receive');
+        receiveStub.withArgs('/topic/statistic/1').returns(statisticUpdates);
+        receiveStub.withArgs('/user/topic/statistic/1').returns(replayedStatistics);
+        loadQuizSpy = spy(comp, 'loadQuiz');
+
+        comp.ngOnInit();
+    });
+
+    const loadQuizExercise = () => quizExercise.next(new HttpResponse({ body: createQuizExercise() }));
+
+    it('should apply the replayed snapshot that is received before the quiz exercise is loaded', () => {
+        replayedStatistics.next({
+            version: 100,
+            complete: true,
+            statistics: [{ id: 20, participantsRated: 4, participantsUnrated: 2, ratedCorrectCounter: 3, unRatedCorrectCounter: 1 }],
+            counters: [
+                { id: 30, ratedCounter: 4, unRatedCounter: 2 },
+                { id: 40, ratedCounter: 3, unRatedCounter: 1 },
+            ],
+        });
+        expect(loadQuizSpy).not.to.have.been.called;
+
+        loadQuizExercise();
+
+        expect(comp.participants).to.equal(4);
+        expect(comp.ratedData).to.deep.equal([4, 3]);
+        expect(comp.unratedData).to.deep.equal([2, 1]);
+        expect(comp.ratedCorrectData).to.equal(3);
+        expect(comp.unratedCorrectData).to.equal(1);
+    });
+
+    it('should update the changed counters with partial updates', () => {
+        loadQuizExercise();
+
+        statisticUpdates.next({ version: 100, complete: false, statistics: [], counters: [{ id: 30, ratedCounter: 2, unRatedCounter: 0 }] });
+        statisticUpdates.next({
+            version: 101,
+            complete: false,
+            statistics: [{ id: 20, participantsRated: 2, participantsUnrated: 0, ratedCorrectCounter: 2, unRatedCorrectCounter: 0 }],
+            counters: [],
+        });
+
+        expect(loadQuizSpy).to.have.been.calledThrice;
+        expect(loadQuizSpy.lastCall).to.have.been.calledWith(comp.quizExercise, true);
+        expect(comp.participants).to.equal(2);
+        expect(comp.ratedData).to.deep.equal([2, 1]);
+        expect(comp.ratedCorrectData).to.equal(2);
+    });
+
+    it('should ignore updates that are received out of order', () => {
+        loadQuizExercise();
+        statisticUpdates.next({ version: 102, complete: false, statistics: [], counters: [{ id: 40, ratedCounter: 5, unRatedCounter: 0 }] });
+
+        statisticUpdates.next({ version: 101, complete: false, statistics: [], counters: [{ id: 40, ratedCounter: 4, unRatedCounter: 0 }] });
+        replayedStatistics.next({ version: 100, complete: true, statistics: [], counters: [{ id: 40, ratedCounter: 3, unRatedCounter: 0 }] });
+
+        expect(loadQuizSpy).to.have.been.calledTwice;
+        expect(comp.ratedData).to.deep.equal([1, 5]);
+    });
+});
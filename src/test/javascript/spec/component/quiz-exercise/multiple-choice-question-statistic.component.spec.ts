@@ -0,0 +1,134 @@
+import { ComponentFixture, TestBed } from '@angular/core/testing';
+import { HttpResponse } from '@angular/common/http';
+import { ActivatedRoute } from '@angular/router';
+import { Subject } from 'rxjs';
+import { TranslateService } from '@ngx-translate/core';
+import * as chai from 'chai';
+import * as sinonChai from 'sinon-chai';
+import { SinonSpy, SinonStub, spy, stub } from 'sinon';
+
+import { ArtemisTestModule } from '../../test.module';
+import { MultipleChoiceQuestionStatisticComponent } from 'app/exercises/quiz/manage/statistics/multiple-choice-question-statistic/multiple-choice-question-statistic.component';
+import { QuizExerciseService } from 'app/exercises/quiz/manage/quiz-exercise.service';
+import { QuizExercise } from 'app/entities/quiz/quiz-exercise.model';
+import { QuizStatisticUpdate } from 'app/entities/quiz/quiz-statistic-update.model';
+import { JhiWebsocketService } from 'app/core/websocket/websocket.service';
+import { MockWebsocketService } from '../../helpers/mocks/service/mock-websocket.service';
+import { MockActivatedRoute } from '../../helpers/mocks/activated-route/mock-activated-route';
+import { TranslateServiceStub } from '../../helpers/mocks/service/mock-translate.service';
+
+chai.use(sinonChai);
+const expect = chai.expect;
+
+describe('MultipleChoiceQuestionStatisticComponent', () => {
+    let comp: MultipleChoiceQuestionStatisticComponent;
+    let fixture: ComponentFixture<MultipleChoiceQuestionStatisticComponent>;
+    let quizExercise: Subject<HttpResponse<QuizExercise>>;
+    let statisticUpdates: Subject<QuizStatisticUpdate>;
+    let replayedStatistics: Subject<QuizStatisticUpdate>;
+    let loadQuizSpy: SinonSpy;
+
+    const createQuizExercise = () =>
+        (({
+            id: 1,
+            quizQuestions: [
+                {
+                    id: 2,
+                    text: 'question',
+                    answerOptions: [
+                        { id: 3, text: 'correct', isCorrect: true },
+                        { id: 4, text: 'incorrect', isCorrect: false },
+                    ],
+                    quizQuestionStatistic: {
+                        id: 20,
+                        participantsRated: 1,
+                        participantsUnrated: 0,
+                        ratedCorrectCounter: 1,
+                        unRatedCorrectCounter: 0,
+                        answerCounters: [
+                            { id: 30, answer: { id: 3 }, ratedCounter: 1, unRatedCounter: 0 },
+                            { id: 40, answer: { id: 4 }, ratedCounter: 0, unRatedCounter: 0 },
+                        ],
+                    },
+                },
+            ],
+        } as any) as QuizExercise);
+
+    beforeEach(() => {
+        TestBed.configureTestingModule({
+            imports: [ArtemisTestModule],
+            declarations: [MultipleChoiceQuestionStatisticComponent],
+            providers: [
+                { provide: ActivatedRoute, useValue: new MockActivatedRoute({ exerciseId: 1, questionId: 2 }) },
+                { provide: JhiWebsocketService, useClass: MockWebsocketService },
+                { provide: TranslateService, useClass: TranslateServiceStub },
+            ],
+        })
+            .overrideTemplate(MultipleChoiceQuestionStatisticComponent, '')
+            .compileComponents();
+
+        fixture = TestBed.createComponent(MultipleChoiceQuestionStatisticComponent);
+        comp = fixture.componentInstance;
+
+        quizExercise = new Subject<HttpResponse<QuizExercise>>();
+        statisticUpdates = new Subject<QuizStatisticUpdate>();
+        replayedStatistics = new Subject<QuizStatisticUpdate>();
+        stub(fixture.debugElement.injector.get(QuizExerciseService), 'find').returns(quizExercise);
+        const receiveStub: SinonStub = stub(fixture.debugElement.injector.get(JhiWebsocketService), 'receive');
+        receiveStub.withArgs('/topic/statistic/1').returns(statisticUpdates);
+        receiveStub.withArgs('/user/topic/statistic/1').returns(replayedStatistics);
+        loadQuizSpy = spy(comp, 'loadQuiz');
+
+        comp.ngOnInit();
+    });
+
+    const loadQuizExercise = () => quizExercise.next(new HttpResponse({ body: createQuizExercise() }));
+
+    it('should apply the replayed snapshot that is received before the quiz exercise is loaded', () => {
+        replayedStatistics.next({
+            version: 100,
+            complete: true,
+            statistics: [{ id: 20, participantsRated: 3, participantsUnrated: 1, ratedCorrectCounter: 2, unRatedCorrectCounter: 1 }],
+            counters: [
+                { id: 30, ratedCounter: 2, unRatedCounter: 1 },
+                { id: 40, ratedCounter: 1, unRatedCounter: 0 },
+            ],
+        });
+        expect(loadQuizSpy).not.to.have.been.called;
+
+        loadQuizExercise();
+
+        expect(comp.participants).to.equal(3);
+        expect(comp.ratedData).to.deep.equal([2, 1]);
+        expect(comp.unratedData).to.deep.equal([1, 0]);
+        expect(comp.ratedCorrectData).to.equal(2);
+    });
+
+    it('should update the changed counters with partial updates', () => {
+        loadQuizExercise();
+
+        statisticUpdates.next({ version: 100, complete: false, statistics: [], counters: [{ id: 40, ratedCounter: 1, unRatedCounter: 0 }] });
+        statisticUpdates.next({
+            version: 101,
+            complete: false,
+            statistics: [{ id: 20, participantsRated: 3, participantsUnrated: 0, ratedCorrectCounter: 1, unRatedCorrectCounter: 0 }],
+            counters: [{ id: 40, ratedCounter: 2, unRatedCounter: 0 }],
+        });
+
+        expect(loadQuizSpy).to.have.been.calledThrice;
+        expect(loadQuizSpy.lastCall).to.have.been.calledWith(comp.quizExercise, true);
+        expect(comp.participants).to.equal(3);
+        expect(comp.ratedData).to.deep.equal([1, 2]);
+    });
+
+    it('should ignore updates that are received out of order', () => {
+        loadQuizExercise();
+        statisticUpdates.next({ version: 102, complete: false, statistics: [], counters: [{ id: 30, ratedCounter: 3, unRatedCounter: 0 }] });
+
+        statisticUpdates.next({ version: 101, complete: false, statistics: [], counters: [{ id: 30, ratedCounter: 2, unRatedCounter: 0 }] });
+        replayedStatistics.next({ version: 100, complete: true, statistics: [], counters: [{ id: 30, ratedCounter: 1, unRatedCounter: 0 }] });
+
+        expect(loadQuizSpy).to.have.been.calledTwice;
+        expect(comp.ratedData).to.deep.equal([3, 0]);
+    });
+});
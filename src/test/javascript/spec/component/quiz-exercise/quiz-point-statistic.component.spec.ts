@@ -0,0 +1,124 @@
+import { ComponentFixture, TestBed } from '@angular/core/testing';
+import { HttpResponse } from '@angular/common/http';
+import { ActivatedRoute } from '@angular/router';
+import { of, Subject } from 'rxjs';
+import { TranslateService } from '@ngx-translate/core';
+import * as chai from 'chai';
+import * as sinonChai from 'sinon-chai';
+import { SinonSpy, SinonStub, spy, stub } from 'sinon';
+
+import { ArtemisTestModule } from '../../test.module';
+import { QuizPointStatisticComponent } from 'app/exercises/quiz/manage/statistics/quiz-point-statistic/quiz-point-statistic.component';
+import { QuizExerciseService } from 'app/exercises/quiz/manage/quiz-exercise.service';
+import { QuizExercise } from 'app/entities/quiz/quiz-exercise.model';
+import { QuizStatisticUpdate } from 'app/entities/quiz/quiz-statistic-update.model';
+import { JhiWebsocketService } from 'app/core/websocket/websocket.service';
+import { MockWebsocketService } from '../../helpers/mocks/service/mock-websocket.service';
+import { MockActivatedRoute } from '../../helpers/mocks/activated-route/mock-activated-route';
+import { TranslateServiceStub } from '../../helpers/mocks/service/mock-translate.service';
+
+chai.use(sinonChai);
+const expect = chai.expect;
+
+describe('QuizPointStatisticComponent', () => {
+    let comp: QuizPointStatisticComponent;
+    let fixture: ComponentFixture<QuizPointStatisticComponent>;
+    let quizExercise: Subject<HttpResponse<QuizExercise>>;
+    let statisticUpdates: Subject<QuizStatisticUpdate>;
+    let replayedStatistics: Subject<QuizStatisticUpdate>;
+    let loadNewDataSpy: SinonSpy;
+
+    const createQuizExercise = () =>
+        (({
+            id: 1,
+            started: true,
+            remainingTime: 60,
+            quizQuestions: [{ id: 2, score: 1 }],
+            quizPointStatistic: {
+                id: 10,
+                participantsRated: 1,
+                participantsUnrated: 0,
+                pointCounters: [
+                    { id: 12, points: 1, ratedCounter: 1, unRatedCounter: 0 },
+                    { id: 11, points: 0, ratedCounter: 0, unRatedCounter: 0 },
+                ],
+            },
+        } as any) as QuizExercise);
+
+    beforeEach(() => {
+        TestBed.configureTestingModule({
+            imports: [ArtemisTestModule],
+            declarations: [QuizPointStatisticComponent],
+            providers: [
+                { provide: ActivatedRoute, useValue: new MockActivatedRoute({ exerciseId: 1 }) },
+                { provide: JhiWebsocketService, useClass: MockWebsocketService },
+                { provide: TranslateService, useClass: TranslateServiceStub },
+            ],
+        })
+            .overrideTemplate(QuizPointStatisticComponent, '')
+            .compileComponents();
+
+        fixture = TestBed.createComponent(QuizPointStatisticComponent);
+        comp = fixture.componentInstance;
+
+        quizExercise = new Subject<HttpResponse<QuizExercise>>();
+        statisticUpdates = new Subject<QuizStatisticUpdate>();
+        replayedStatistics = new Subject<QuizStatisticUpdate>();
+        stub(fixture.debugElement.injector.get(QuizExerciseService), 'find').returns(quizExercise);
+        const receiveStub: SinonStub = stub(fixture.debugElement.injector.get(JhiWebsocketService), 'receive').returns(of());
+        receiveStub.withArgs('/topic/statistic/1').returns(statisticUpdates);
+        receiveStub.withArgs('/user/topic/statistic/1').returns(replayedStatistics);
+        loadNewDataSpy = spy(comp, 'loadNewData');
+
+        comp.ngOnInit();
+    });
+
+    afterEach(() => {
+        comp.ngOnDestroy();
+    });
+
+    const loadQuizExercise = () => quizExercise.next(new HttpResponse({ body: createQuizExercise() }));
+
+    it('should apply the replayed snapshot that is received before the quiz exercise is loaded', () => {
+        replayedStatistics.next({
+            version: 100,
+            complete: true,
+            statistics: [{ id: 10, participantsRated: 5, participantsUnrated: 2 }],
+            counters: [
+                { id: 11, ratedCounter: 2, unRatedCounter: 1 },
+                { id: 12, ratedCounter: 3, unRatedCounter: 1 },
+            ],
+        });
+        expect(loadNewDataSpy).not.to.have.been.called;
+
+        loadQuizExercise();
+
+        expect(comp.participants).to.equal(5);
+        // the point counters are ordered by their points
+        expect(comp.ratedData).to.deep.equal([2, 3]);
+        expect(comp.unratedData).to.deep.equal([1, 1]);
+    });
+
+    it('should update the changed counters with partial updates', () => {
+        loadQuizExercise();
+
+        statisticUpdates.next({ version: 100, complete: false, statistics: [], counters: [{ id: 11, ratedCounter: 1, unRatedCounter: 0 }] });
+        statisticUpdates.next({ version: 101, complete: false, statistics: [{ id: 10, participantsRated: 2, participantsUnrated: 0 }], counters: [] });
+
+        expect(loadNewDataSpy).to.have.been.calledTwice;
+        expect(loadNewDataSpy.lastCall).to.have.been.calledWith(comp.quizExercise.quizPointStatistic);
+        expect(comp.participants).to.equal(2);
+        expect(comp.ratedData).to.deep.equal([1, 1]);
+    });
+
+    it('should ignore updates that are received out of order', () => {
+        loadQuizExercise();
+        statisticUpdates.next({ version: 102, complete: false, statistics: [], counters: [{ id: 12, ratedCounter: 3, unRatedCounter: 0 }] });
+
+        statisticUpdates.next({ version: 101, complete: false, statistics: [], counters: [{ id: 12, ratedCounter: 2, unRatedCounter: 0 }] });
+        replayedStatistics.next({ version: 100, complete: true, statistics: [], counters: [{ id: 12, ratedCounter: 1, unRatedCounter: 0 }] });
+
+        expect(loadNewDataSpy).to.have.been.calledOnce;
+        expect(comp.ratedData).to.deep.equal([0, 3]);
+    });
+});
@@ -0,0 +1,101 @@
+import { ComponentFixture, TestBed } from '@angular/core/testing';
+import { of, Subject, throwError } from 'rxjs';
+import { HttpResponse } from '@angular/common/http';
+import { LocalStorageService, SessionStorageService } from 'ngx-webstorage';
+import { TranslateService } from '@ngx-translate/core';
+import * as chai from 'chai';
+import * as sinonChai from 'sinon-chai';
+import { SinonStub, stub } from 'sinon';
+
+import { ArtemisTestModule } from '../../test.module';
+import { QuizReEvaluateWarningComponent } from 'app/exercises/quiz/manage/re-evaluate/quiz-re-evaluate-warning.component';
+import { QuizReEvaluateService, QuizReEvaluationProgress } from 'app/exercises/quiz/manage/re-evaluate/quiz-re-evaluate.service';
+import { QuizExercise } from 'app/entities/quiz/quiz-exercise.model';
+import { JhiWebsocketService } from 'app/core/websocket/websocket.service';
+import { MockWebsocketService } from '../../helpers/mocks/service/mock-websocket.service';
+import { MockSyncStorage } from '../../helpers/mocks/service/mock-sync-storage.service';
+import { MockTranslateService } from '../../helpers/mocks/service/mock-translate.service';
+import { Course } from 'app/entities/course.model';
+
+chai.use(sinonChai);
+const expect = chai.expect;
+
+describe('QuizReEvaluateWarningComponent', () => {
+    let comp: QuizReEvaluateWarningComponent;
+    let fixture: ComponentFixture<QuizReEvaluateWarningComponent>;
+    let websocketService: JhiWebsocketService;
+    let reEvaluateService: QuizReEvaluateService;
+    let progress: Subject<QuizReEvaluationProgress>;
+    let updateStub: SinonStub;
+    let unsubscribeStub: SinonStub;
+
+    const channel = '/topic/quizExercise/456/re-evaluation';
+
+    beforeEach(() => {
+        TestBed.configureTestingModule({
+            imports: [ArtemisTestModule],
+            declarations: [QuizReEvaluateWarningComponent],
+            providers: [
+                { provide: JhiWebsocketService, useClass: MockWebsocketService },
+                { provide: LocalStorageService, useClass: MockSyncStorage },
+                { provide: SessionStorageService, useClass: MockSyncStorage },
+                { provide: TranslateService, useClass: MockTranslateService },
+            ],
+        })
+            .overrideTemplate(QuizReEvaluateWarningComponent, '')
+            .compileComponents();
+
+        fixture = TestBed.createComponent(QuizReEvaluateWarningComponent);
+        comp = fixture.componentInstance;
+        comp.quizExercise = new QuizExercise({ id: 123 } as Course);
+        comp.quizExercise.id = 456;
+
+        websocketService = fixture.debugElement.injector.get(JhiWebsocketService);
+        reEvaluateService = fixture.debugElement.injector.get(QuizReEvaluateService);
+        progress = new Subject<QuizReEvaluationProgress>();
+        stub(websocketService, 'receive').returns(progress);
+        unsubscribeStub = stub(websocketService, 'unsubscribe');
+        updateStub = stub(reEvaluateService, 'update').returns(of(new HttpResponse({ status: 202, body: comp.quizExercise })));
+    });
+
+    it('should stay busy until the re-evaluation has finished', () => {
+        const subscribeStub = stub(websocketService, 'subscribe');
+
+        comp.confirmChange();
+
+        expect(subscribeStub).to.have.been.calledOnceWithExactly(channel);
+        expect(updateStub).to.have.been.calledOnce;
+        expect(comp.busy).to.be.true;
+        expect(comp.successful).to.be.false;
+
+        progress.next({ status: 'RUNNING', processedResults: 200, totalResults: 400 });
+        expect(comp.busy).to.be.true;
+        expect(comp.progress).to.deep.equal({ status: 'RUNNING', processedResults: 200, totalResults: 400 });
+
+        progress.next({ status: 'FINISHED', processedResults: 400, totalResults: 400 });
+        expect(comp.busy).to.be.false;
+        expect(comp.successful).to.be.true;
+        expect(comp.failed).to.be.false;
+        expect(unsubscribeStub).to.have.been.calledOnceWithExactly(channel);
+    });
+
+    it('should show a failure if the re-evaluation fails in the background', () => {
+        comp.confirmChange();
+        progress.next({ status: 'FAILED', processedResults: 200, totalResults: 400 });
+
+        expect(comp.busy).to.be.false;
+        expect(comp.successful).to.be.false;
+        expect(comp.failed).to.be.true;
+        expect(unsubscribeStub).to.have.been.calledOnceWithExactly(channel);
+    });
+
+    it('should show a failure if the re-evaluation cannot be started', () => {
+        updateStub.returns(throwError({ status: 400 }));
+
+        comp.confirmChange();
+
+        expect(comp.busy).to.be.false;
+        expect(comp.failed).to.be.true;
+        expect(unsubscribeStub).to.have.been.calledOnceWithExactly(channel);
+    });
+});
@@ -0,0 +1,179 @@
+import { ComponentFixture, TestBed } from '@angular/core/testing';
+import { of, Subject } from 'rxjs';
+import { LocalStorageService, SessionStorageService } from 'ngx-webstorage';
+import { TranslateService } from '@ngx-translate/core';
+import { DeviceDetectorService } from 'ngx-device-detector';
+import * as moment from 'moment';
+import * as chai from 'chai';
+import * as sinonChai from 'sinon-chai';
+import { SinonStub, stub } from 'sinon';
+
+import { ArtemisTestModule } from '../../test.module';
+import { QuizParticipationComponent } from 'app/exercises/quiz/participate/quiz-participation.component';
+import { QuizSubmission } from 'app/entities/quiz/quiz-submission.model';
+import { QuizSubmissionAck } from 'app/entities/quiz/quiz-submission-ack.model';
+import { SubmittedAnswer } from 'app/entities/quiz/submitted-answer.model';
+import { AlertService } from 'app/core/alert/alert.service';
+import { JhiWebsocketService } from 'app/core/websocket/websocket.service';
+import { ParticipationWebsocketService } from 'app/overview/participation-websocket.service';
+import { MockWebsocketService } from '../../helpers/mocks/service/mock-websocket.service';
+import { MockParticipationWebsocketService } from '../../helpers/mocks/service/mock-participation-websocket.service';
+import { MockAlertService } from '../../helpers/mocks/service/mock-alert.service';
+import { MockSyncStorage } from '../../helpers/mocks/service/mock-sync-storage.service';
+import { MockTranslateService } from '../../helpers/mocks/service/mock-translate.service';
+
+chai.use(sinonChai);
+const expect = chai.expect;
+
+describe('QuizParticipationComponent', () => {
+    let comp: QuizParticipationComponent;
+    let fixture: ComponentFixture<QuizParticipationComponent>;
+    let sendStub: SinonStub;
+    let acknowledgements: Subject<QuizSubmissionAck>;
+    let firstAnswer: SubmittedAnswer;
+    let secondAnswer: SubmittedAnswer;
+
+    const submissionChannel = '/topic/quizExercise/1/submission';
+    const deltaChannel = '/topic/quizExercise/1/submission/delta';
+
+    beforeEach(() => {
+        TestBed.configureTestingModule({
+            imports: [ArtemisTestModule],
+            declarations: [QuizParticipationComponent],
+            providers: [
+                DeviceDetectorService,
+                { provide: JhiWebsocketService, useClass: MockWebsocketService },
+                { provide: ParticipationWebsocketService, useClass: MockParticipationWebsocketService },
+                { provide: AlertService, useClass: MockAlertService },
+                { provide: LocalStorageService, useClass: MockSyncStorage },
+                { provide: SessionStorageService, useClass: MockSyncStorage },
+                { provide: TranslateService, useClass: MockTranslateService },
+            ],
+        })
+            .overrideTemplate(QuizParticipationComponent, '')
+            .compileComponents();
+
+        fixture = TestBed.createComponent(QuizParticipationComponent);
+        comp = fixture.componentInstance;
+
+        const websocketService = fixture.debugElement.injector.get(JhiWebsocketService);
+        acknowledgements = new Subject<QuizSubmissionAck>();
+        const receiveStub: SinonStub = stub(websocketService, 'receive').returns(of());
+        receiveStub.withArgs('/user' + deltaChannel).returns(acknowledgements);
+        sendStub = stub(websocketService, 'send');
+        // the selection of the question components is not part of these tests
+        stub(comp, 'applySelection');
+
+        firstAnswer = ({ quizQuestion: { id: 1 }, selectedOptions: [] } as any) as SubmittedAnswer;
+        secondAnswer = ({ quizQuestion: { id: 2 }, selectedOptions: [] } as any) as SubmittedAnswer;
+        comp.submission = new QuizSubmission();
+        comp.submission.submittedAnswers = [firstAnswer, secondAnswer];
+        comp.quizId = 1;
+        comp.disconnected = false;
+        comp.subscribeToWebsocketChannels();
+    });
+
+    const changeAnswer = (answer: SubmittedAnswer, optionId: number) => {
+        (answer as any).selectedOptions = [{ id: optionId }];
+        comp.onSelectionChanged();
+    };
+
+    const acknowledgeFullSubmission = () => {
+        comp.onSaveSuccess(comp.submission, null);
+        sendStub.resetHistory();
+    };
+
+    it('should send the full submission first and afterwards only the changed answers', () => {
+        comp.onSelectionChanged();
+
+        expect(sendStub).to.have.been.calledOnceWithExactly(submissionChannel, comp.submission);
+        expect(comp.syncSequenceNumber).to.equal(0);
+        expect(comp.outstandingWebsocketResponses).to.equal(1);
+        expect(comp.isSaving).to.be.true;
+
+        changeAnswer(secondAnswer, 3);
+        changeAnswer(firstAnswer, 4);
+        changeAnswer(secondAnswer, 5);
+
+        expect(sendStub).to.have.callCount(4);
+        expect(sendStub.getCall(1)).to.have.been.calledWithExactly(deltaChannel, { sequenceNumber: 1, submittedAnswers: [secondAnswer] });
+        expect(sendStub.getCall(2)).to.have.been.calledWithExactly(deltaChannel, { sequenceNumber: 2, submittedAnswers: [firstAnswer] });
+        expect(sendStub.getCall(3)).to.have.been.calledWithExactly(deltaChannel, { sequenceNumber: 3, submittedAnswers: [secondAnswer] });
+        expect(comp.syncSequenceNumber).to.equal(3);
+        expect(comp.outstandingWebsocketResponses).to.equal(4);
+    });
+
+    it('should not send anything if no answer has changed', () => {
+        comp.onSelectionChanged();
+        acknowledgeFullSubmission();
+        expect(comp.isSaving).to.be.false;
+
+        comp.onSelectionChanged();
+
+        expect(sendStub).not.to.have.been.called;
+        expect(comp.outstandingWebsocketResponses).to.equal(0);
+        expect(comp.isSaving).to.be.false;
+    });
+
+    it('should stay saving until all changes have been acknowledged', () => {
+        comp.onSelectionChanged();
+        acknowledgeFullSubmission();
+        changeAnswer(firstAnswer, 3);
+        changeAnswer(secondAnswer, 4);
+        expect(comp.outstandingWebsocketResponses).to.equal(2);
+
+        acknowledgements.next({ sequenceNumber: 1, resync: false });
+        expect(comp.outstandingWebsocketResponses).to.equal(1);
+        expect(comp.isSaving).to.be.true;
+
+        const submissionDate = moment();
+        acknowledgements.next({ sequenceNumber: 2, submissionDate, resync: false });
+        expect(comp.outstandingWebsocketResponses).to.equal(0);
+        expect(comp.isSaving).to.be.false;
+        expect(comp.unsavedChanges).to.be.false;
+        expect(comp.submission.submissionDate).to.equal(submissionDate);
+
+        // a late acknowledgement does not make the counter negative
+        acknowledgements.next({ sequenceNumber: 2, resync: false });
+        expect(comp.outstandingWebsocketResponses).to.equal(0);
+    });
+
+    it('should send the full submission again if the server requests a resync', () => {
+        comp.onSelectionChanged();
+        acknowledgeFullSubmission();
+        changeAnswer(firstAnswer, 3);
+        changeAnswer(secondAnswer, 4);
+        sendStub.resetHistory();
+
+        acknowledgements.next({ sequenceNumber: 2, resync: true });
+
+        // the unacknowledged changes are replaced by the full submission
+        expect(sendStub).to.have.been.calledOnceWithExactly(submissionChannel, comp.submission);
+        expect(comp.outstandingWebsocketResponses).to.equal(1);
+        expect(comp.syncSequenceNumber).to.equal(0);
+
+        // the following changes are based on the full submission
+        changeAnswer(firstAnswer, 5);
+        expect(sendStub.lastCall).to.have.been.calledWithExactly(deltaChannel, { sequenceNumber: 1, submittedAnswers: [firstAnswer] });
+        expect(comp.outstandingWebsocketResponses).to.equal(2);
+    });
+
+    it('should send the full submission after a resync that is requested while disconnected', () => {
+        comp.onSelectionChanged();
+        acknowledgeFullSubmission();
+        changeAnswer(firstAnswer, 3);
+        comp.disconnected = true;
+        sendStub.resetHistory();
+
+        acknowledgements.next({ sequenceNumber: 1, resync: true });
+
+        expect(sendStub).not.to.have.been.called;
+        expect(comp.outstandingWebsocketResponses).to.equal(0);
+        expect(comp.syncSequenceNumber).to.be.undefined;
+        expect(comp.unsavedChanges).to.be.true;
+
+        comp.disconnected = false;
+        comp.onSelectionChanged();
+        expect(sendStub).to.have.been.calledOnceWithExactly(submissionChannel, comp.submission);
+    });
+});
@@ -16,6 +16,8 @@ export class MockWebsocketService implements IWebsocketService {
         return of();
     }
 
+    send(path: string, data: any): void {}
+
     stompFailureCallback(): void {}
 
     subscribe(): void {}
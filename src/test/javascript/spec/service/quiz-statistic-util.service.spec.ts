@@ -0,0 +1,173 @@
+import * as chai from 'chai';
+import { Router } from '@angular/router';
+import { QuizStatisticUtil } from 'app/exercises/quiz/shared/quiz-statistic-util.service';
+import { QuizExerciseService } from 'app/exercises/quiz/manage/quiz-exercise.service';
+import { QuizExercise } from 'app/entities/quiz/quiz-exercise.model';
+import { QuizStatisticUpdate } from 'app/entities/quiz/quiz-statistic-update.model';
+
+const expect = chai.expect;
+
+describe('QuizStatisticUtil', () => {
+    let quizStatisticUtil: QuizStatisticUtil;
+    let quizExercise: QuizExercise;
+
+    const quizExerciseId = 1;
+
+    beforeEach(() => {
+        quizStatisticUtil = new QuizStatisticUtil({} as Router, {} as QuizExerciseService);
+        quizExercise = ({
+            id: quizExerciseId,
+            quizPointStatistic: {
+                id: 10,
+                participantsRated: 0,
+                participantsUnrated: 0,
+                pointCounters: [
+                    { id: 11, points: 0, ratedCounter: 0, unRatedCounter: 0 },
+                    { id: 12, points: 1, ratedCounter: 0, unRatedCounter: 0 },
+                ],
+            },
+            quizQuestions: [
+                {
+                    id: 2,
+                    quizQuestionStatistic: {
+                        id: 20,
+                        participantsRated: 0,
+                        participantsUnrated: 0,
+                        ratedCorrectCounter: 0,
+                        unRatedCorrectCounter: 0,
+                        answerCounters: [
+                            { id: 21, ratedCounter: 0, unRatedCounter: 0 },
+                            { id: 22, ratedCounter: 0, unRatedCounter: 0 },
+                        ],
+                    },
+                },
+                {
+                    id: 3,
+                    quizQuestionStatistic: {
+                        id: 30,
+                        participantsRated: 0,
+                        participantsUnrated: 0,
+                        ratedCorrectCounter: 0,
+                        unRatedCorrectCounter: 0,
+                        dropLocationCounters: [{ id: 31, ratedCounter: 0, unRatedCounter: 0 }],
+                    },
+                },
+                {
+                    id: 4,
+                    quizQuestionStatistic: {
+                        id: 40,
+                        participantsRated: 0,
+                        participantsUnrated: 0,
+                        ratedCorrectCounter: 0,
+                        unRatedCorrectCounter: 0,
+                        shortAnswerSpotCounters: [{ id: 41, ratedCounter: 0, unRatedCounter: 0 }],
+                    },
+                },
+            ],
+        } as any) as QuizExercise;
+    });
+
+    const update = (version: number, complete: boolean, statistics: any[], counters: any[]): QuizStatisticUpdate => ({ version, complete, statistics, counters });
+
+    const pointStatistic = () => quizExercise.quizPointStatistic as any;
+    const questionStatistic = (index: number) => quizExercise.quizQuestions[index].quizQuestionStatistic as any;
+
+    it('should not apply statistics before an update has been received', () => {
+        expect(quizStatisticUtil.applyLatestStatistics(quizExercise)).to.be.false;
+        expect(pointStatistic().participantsRated).to.equal(0);
+    });
+
+    it('should apply the replayed snapshot to all statistics and counters', () => {
+        const snapshot = update(
+            100,
+            true,
+            [
+                { id: 10, participantsRated: 5, participantsUnrated: 1 },
+                { id: 20, participantsRated: 4, participantsUnrated: 1, ratedCorrectCounter: 3, unRatedCorrectCounter: 1 },
+                { id: 30, participantsRated: 2, participantsUnrated: 0, ratedCorrectCounter: 1, unRatedCorrectCounter: 0 },
+                { id: 40, participantsRated: 3, participantsUnrated: 0, ratedCorrectCounter: 2, unRatedCorrectCounter: 0 },
+            ],
+            [
+                { id: 11, ratedCounter: 2, unRatedCounter: 0 },
+                { id: 12, ratedCounter: 3, unRatedCounter: 1 },
+                { id: 21, ratedCounter: 4, unRatedCounter: 1 },
+                { id: 22, ratedCounter: 1, unRatedCounter: 0 },
+                { id: 31, ratedCounter: 1, unRatedCounter: 0 },
+                { id: 41, ratedCounter: 2, unRatedCounter: 0 },
+            ],
+        );
+
+        expect(quizStatisticUtil.mergeStatisticUpdate(quizExerciseId, snapshot)).to.be.true;
+        expect(quizStatisticUtil.applyLatestStatistics(quizExercise)).to.be.true;
+
+        expect(pointStatistic().participantsRated).to.equal(5);
+        expect(pointStatistic().participantsUnrated).to.equal(1);
+        expect(pointStatistic().pointCounters.map((counter: any) => counter.ratedCounter)).to.deep.equal([2, 3]);
+        expect(questionStatistic(0).ratedCorrectCounter).to.equal(3);
+        expect(questionStatistic(0).unRatedCorrectCounter).to.equal(1);
+        expect(questionStatistic(0).answerCounters.map((counter: any) => counter.ratedCounter)).to.deep.equal([4, 1]);
+        expect(questionStatistic(1).dropLocationCounters[0].ratedCounter).to.equal(1);
+        expect(questionStatistic(2).participantsRated).to.equal(3);
+        expect(questionStatistic(2).shortAnswerSpotCounters[0].ratedCounter).to.equal(2);
+    });
+
+    it('should merge partial updates into the latest values', () => {
+        const questionValues = { id: 20, participantsRated: 1, participantsUnrated: 0, ratedCorrectCounter: 1, unRatedCorrectCounter: 0 };
+        const pointValues = { id: 10, participantsRated: 1, participantsUnrated: 0 };
+        quizStatisticUtil.mergeStatisticUpdate(quizExerciseId, update(100, true, [pointValues], [{ id: 11, ratedCounter: 1, unRatedCounter: 0 }]));
+        // only the changed values are sent, the values of the other statistics and counters are kept
+        quizStatisticUtil.mergeStatisticUpdate(quizExerciseId, update(101, false, [questionValues], [{ id: 21, ratedCounter: 1, unRatedCounter: 0 }]));
+        quizStatisticUtil.mergeStatisticUpdate(quizExerciseId, update(102, false, [], [{ id: 11, ratedCounter: 2, unRatedCounter: 0 }]));
+
+        quizStatisticUtil.applyLatestStatistics(quizExercise);
+
+        expect(pointStatistic().participantsRated).to.equal(1);
+        expect(pointStatistic().pointCounters[0].ratedCounter).to.equal(2);
+        expect(pointStatistic().pointCounters[1].ratedCounter).to.equal(0);
+        expect(questionStatistic(0).participantsRated).to.equal(1);
+        expect(questionStatistic(0).ratedCorrectCounter).to.equal(1);
+        expect(questionStatistic(0).answerCounters[0].ratedCounter).to.equal(1);
+        expect(questionStatistic(1).participantsRated).to.equal(0);
+    });
+
+    it('should ignore updates that are received out of order', () => {
+        quizStatisticUtil.mergeStatisticUpdate(quizExerciseId, update(102, false, [], [{ id: 11, ratedCounter: 5, unRatedCounter: 0 }]));
+
+        expect(quizStatisticUtil.mergeStatisticUpdate(quizExerciseId, update(101, false, [], [{ id: 11, ratedCounter: 4, unRatedCounter: 0 }]))).to.be.false;
+        expect(quizStatisticUtil.mergeStatisticUpdate(quizExerciseId, update(102, false, [], [{ id: 11, ratedCounter: 4, unRatedCounter: 0 }]))).to.be.false;
+
+        quizStatisticUtil.applyLatestStatistics(quizExercise);
+        expect(pointStatistic().pointCounters[0].ratedCounter).to.equal(5);
+    });
+
+    it('should ignore a replayed snapshot that is older than the received updates', () => {
+        quizStatisticUtil.mergeStatisticUpdate(quizExerciseId, update(105, false, [{ id: 10, participantsRated: 6, participantsUnrated: 0 }], []));
+
+        const staleSnapshot = update(104, true, [{ id: 10, participantsRated: 5, participantsUnrated: 0 }], [{ id: 11, ratedCounter: 5, unRatedCounter: 0 }]);
+        expect(quizStatisticUtil.mergeStatisticUpdate(quizExerciseId, staleSnapshot)).to.be.false;
+
+        quizStatisticUtil.applyLatestStatistics(quizExercise);
+        expect(pointStatistic().participantsRated).to.equal(6);
+        expect(pointStatistic().pointCounters[0].ratedCounter).to.equal(0);
+    });
+
+    it('should replace the latest values with a newer snapshot', () => {
+        const pointValues = { id: 10, participantsRated: 3, participantsUnrated: 0 };
+        quizStatisticUtil.mergeStatisticUpdate(quizExerciseId, update(100, false, [pointValues], [{ id: 11, ratedCounter: 3, unRatedCounter: 0 }]));
+        // e.g. after the server has lost its state and starts a new sequence of updates
+        quizStatisticUtil.mergeStatisticUpdate(quizExerciseId, update(200, true, [{ id: 10, participantsRated: 4, participantsUnrated: 0 }], []));
+
+        quizStatisticUtil.applyLatestStatistics(quizExercise);
+        expect(pointStatistic().participantsRated).to.equal(4);
+        // the counter is not part of the snapshot, so the loaded value is kept
+        expect(pointStatistic().pointCounters[0].ratedCounter).to.equal(0);
+    });
+
+    it('should keep the latest values of each quiz exercise separately', () => {
+        quizStatisticUtil.mergeStatisticUpdate(2, update(100, true, [{ id: 10, participantsRated: 7, participantsUnrated: 0 }], []));
+
+        expect(quizStatisticUtil.mergeStatisticUpdate(quizExerciseId, update(50, true, [{ id: 10, participantsRated: 1, participantsUnrated: 0 }], []))).to.be.true;
+        quizStatisticUtil.applyLatestStatistics(quizExercise);
+        expect(pointStatistic().participantsRated).to.equal(1);
+    });
+});